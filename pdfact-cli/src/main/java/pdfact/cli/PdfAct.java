@@ -5,14 +5,18 @@ import static org.apache.logging.log4j.Level.ERROR;
 import java.io.OutputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Set;
 import org.apache.logging.log4j.core.config.Configurator;
 import pdfact.cli.model.ExtractionUnit;
 import pdfact.cli.model.SerializationFormat;
 import pdfact.cli.pipes.PdfActServicePipe;
 import pdfact.cli.pipes.PlainPdfActServicePipe;
+import pdfact.core.PdfActCoreSettings;
 import pdfact.core.model.Document;
 import pdfact.core.model.SemanticRole;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.FontCache;
+import pdfact.core.util.PageRange;
 import pdfact.core.util.exception.PdfActException;
 
 /**
@@ -46,6 +50,32 @@ public class PdfAct {
    */
   protected Set<ExtractionUnit> extractionUnits;
 
+  /**
+   * The ranges of the pages to process (e.g., "1-3"), or null if all pages should be processed.
+   */
+  protected List<PageRange> pageRanges;
+
+  /**
+   * The number of threads to use on parsing the pages.
+   */
+  protected int numParsingThreads = PdfActCoreSettings.NUM_PARSING_THREADS;
+
+  /**
+   * The maximum number of operators to process per page (0 if unlimited).
+   */
+  protected int maxOperatorsPerPage = PdfActCoreSettings.MAX_OPERATORS_PER_PAGE;
+
+  /**
+   * The maximum time to spend on parsing a page, in milliseconds (0 if unlimited).
+   */
+  protected long maxPageParsingTime = PdfActCoreSettings.MAX_PAGE_PARSING_TIME;
+
+  /**
+   * The cache for the fonts shared by the documents parsed by this instance (and possibly by
+   * other instances), or null if the fonts are not shared.
+   */
+  protected FontCache fontCache;
+
   /**
    * The semantic roles of the text units to extract (e.g., "title", "author", etc.).
    */
@@ -139,6 +169,33 @@ public class PdfAct {
    * @throws PdfActException If something went wrong on parsing the PDF.
    */
   public Document parse(Path pdfPath) throws PdfActException {
+    return parse(new Document(pdfPath));
+  }
+
+  /**
+   * Parses the PDF file given by its content, for example as received over the network (without
+   * writing it to a temporary file first).
+   *
+   * @param pdfContent The content of the PDF file to parse.
+   *
+   * @return The parsed PDF document.
+   *
+   * @throws PdfActException If something went wrong on parsing the PDF.
+   */
+  public Document parse(byte[] pdfContent) throws PdfActException {
+    return parse(new Document(pdfContent));
+  }
+
+  /**
+   * Parses the given PDF document, given by a path or in memory (see {@link Document#getContent()}).
+   *
+   * @param pdf The PDF document to parse.
+   *
+   * @return The parsed PDF document.
+   *
+   * @throws PdfActException If something went wrong on parsing the PDF.
+   */
+  public Document parse(Document pdf) throws PdfActException {
     // Set the different debug levels according to the given debug flags.
     Configurator.setLevel("pdf-parsing", this.isDebugPdfParsing ? DEBUG : ERROR);
     Configurator.setLevel("char-extraction", this.isDebugCharacterExtraction ? DEBUG : ERROR);
@@ -179,6 +236,19 @@ public class PdfAct {
       service.setExtractionUnits(this.extractionUnits);
     }
 
+    // Pass the ranges of the pages to process.
+    service.setPageRanges(this.pageRanges);
+
+    // Pass the number of threads to use on parsing the pages.
+    service.setNumParsingThreads(this.numParsingThreads);
+
+    // Pass the limits per page.
+    service.setMaxOperatorsPerPage(this.maxOperatorsPerPage);
+    service.setMaxPageParsingTime(this.maxPageParsingTime);
+
+    // Pass the cache for the fonts shared with other documents.
+    service.setFontCache(this.fontCache);
+
     // Pass the semantic roles to include for serialization & visualization.
     if (this.semanticRoles != null) {
       service.setSemanticRolesToInclude(this.semanticRoles);
@@ -187,9 +257,6 @@ public class PdfAct {
     service.setInsertControlCharacters(this.insertControlCharacters);
     service.setIsPdfJsMode(this.isPdfJsMode);
 
-    // Create the PDF document from the given path.
-    Document pdf = new Document(pdfPath);
-
     // Run PdfAct.
     service.execute(pdf);
 
@@ -446,6 +513,85 @@ public class PdfAct {
 
   // ==============================================================================================
 
+  /**
+   * Returns the ranges of the pages to process, or null if all pages are processed.
+   */
+  public List<PageRange> getPageRanges() {
+    return pageRanges;
+  }
+
+  /**
+   * Sets the ranges of the pages to process, or null if all pages should be processed.
+   */
+  public void setPageRanges(List<PageRange> pageRanges) {
+    this.pageRanges = pageRanges;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the number of threads to use on parsing the pages.
+   */
+  public int getNumParsingThreads() {
+    return numParsingThreads;
+  }
+
+  /**
+   * Sets the number of threads to use on parsing the pages (1 if the pages should be parsed
+   * sequentially).
+   */
+  public void setNumParsingThreads(int numParsingThreads) {
+    this.numParsingThreads = numParsingThreads;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the maximum number of operators to process per page (0 if unlimited).
+   */
+  public int getMaxOperatorsPerPage() {
+    return maxOperatorsPerPage;
+  }
+
+  /**
+   * Sets the maximum number of operators to process per page (0 if unlimited).
+   */
+  public void setMaxOperatorsPerPage(int maxOperatorsPerPage) {
+    this.maxOperatorsPerPage = maxOperatorsPerPage;
+  }
+
+  /**
+   * Returns the maximum time to spend on parsing a page, in milliseconds (0 if unlimited).
+   */
+  public long getMaxPageParsingTime() {
+    return maxPageParsingTime;
+  }
+
+  /**
+   * Sets the maximum time to spend on parsing a page, in milliseconds (0 if unlimited).
+   */
+  public void setMaxPageParsingTime(long maxPageParsingTime) {
+    this.maxPageParsingTime = maxPageParsingTime;
+  }
+
+  /**
+   * Returns the cache for the fonts shared with other documents (null if the fonts aren't shared).
+   */
+  public FontCache getFontCache() {
+    return fontCache;
+  }
+
+  /**
+   * Sets the cache for the fonts shared with other documents, for example new FontCache() to
+   * parse the fonts embedded in multiple documents of a batch only once (null if the fonts
+   * shouldn't be shared).
+   */
+  public void setFontCache(FontCache fontCache) {
+    this.fontCache = fontCache;
+  }
+
+  // ==============================================================================================
+
   /**
    * Returns the set of semantic roles of the text units to extract.
    */
@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import net.sourceforge.argparse4j.ArgumentParsers;
 import net.sourceforge.argparse4j.annotation.Arg;
 import net.sourceforge.argparse4j.helper.HelpScreenException;
@@ -19,7 +20,10 @@ import net.sourceforge.argparse4j.inf.ArgumentParserException;
 import pdfact.cli.model.ExtractionUnit;
 import pdfact.cli.model.SerializationFormat;
 import pdfact.cli.util.exception.PdfActParseCommandLineException;
+import pdfact.core.PdfActCoreSettings;
+import pdfact.core.model.Document;
 import pdfact.core.model.SemanticRole;
+import pdfact.core.util.PageRange;
 import pdfact.core.util.exception.PdfActException;
 
 /**
@@ -28,6 +32,13 @@ import pdfact.core.util.exception.PdfActException;
  * @author Claudius Korzen
  */
 public class PdfActCli {
+  /**
+   * The logger.
+   */
+  protected static Logger log = LogManager.getFormatterLogger(PdfActCli.class);
+
+  // ==============================================================================================
+
   /**
    * Starts this command line interface.
    *
@@ -86,6 +97,24 @@ public class PdfActCli {
         pdfAct.setExtractionUnits(ExtractionUnit.fromStrings(extractionUnits));
       }
 
+      // Pass the ranges of the pages to process.
+      List<String> pageRanges = parser.pageRanges;
+      if (pageRanges != null) {
+        try {
+          pdfAct.setPageRanges(PageRange.fromStrings(pageRanges));
+        } catch (IllegalArgumentException e) {
+          String message = e.getMessage() + "\n\n" + parser.getUsage();
+          throw new PdfActParseCommandLineException(message, e);
+        }
+      }
+
+      // Pass the number of threads to use on parsing the pages.
+      pdfAct.setNumParsingThreads(parser.numParsingThreads);
+
+      // Pass the limits per page.
+      pdfAct.setMaxOperatorsPerPage(parser.maxOperatorsPerPage);
+      pdfAct.setMaxPageParsingTime(parser.maxPageParsingTime);
+
       // Compute the semantic roles to include on serialization & visualization.
       Set<String> roles = new HashSet<>();
       List<String> semanticRolesToInclude = parser.semanticRolesToInclude;
@@ -105,7 +134,15 @@ public class PdfActCli {
       pdfAct.setIsPdfJsMode(parser.isPdfJsMode);
 
       // Run PdfAct.
-      pdfAct.parse(parser.pdfPath);
+      Document pdf = pdfAct.parse(parser.pdfPath);
+
+      // Warn about the pages that exceeded a parsing limit, since their output is incomplete.
+      if (pdf.getNumDegradedPages() > 0) {
+        log.warn("%d pages exceeded a parsing limit and are incomplete (%d of them were "
+            + "truncated). Increase --%s or --%s to parse them completely.",
+            pdf.getNumDegradedPages(), pdf.getNumTruncatedPages(),
+            PdfActCommandLineParser.MAX_PAGE_OPERATORS, PdfActCommandLineParser.MAX_PAGE_TIME);
+      }
     } catch (PdfActException e) {
       statusCode = e.getExitCode();
       errorMessage = e.getMessage();
@@ -215,6 +252,58 @@ public class PdfActCli {
 
     // ============================================================================================
 
+    /**
+     * The name of the option to define the pages to process.
+     */
+    public static final String PAGE_RANGES = "pages";
+
+    /**
+     * The ranges of the pages to process (null if all pages should be processed).
+     */
+    @Arg(dest = PAGE_RANGES)
+    public List<String> pageRanges;
+
+    // ============================================================================================
+
+    /**
+     * The name of the option to define the number of threads to use on parsing the pages.
+     */
+    public static final String PARSE_THREADS = "parse-threads";
+
+    /**
+     * The number of threads to use on parsing the pages.
+     */
+    @Arg(dest = PARSE_THREADS)
+    public int numParsingThreads = PdfActCoreSettings.NUM_PARSING_THREADS;
+
+    // ============================================================================================
+
+    /**
+     * The name of the option to define the maximum number of operators to process per page.
+     */
+    public static final String MAX_PAGE_OPERATORS = "max-page-operators";
+
+    /**
+     * The maximum number of operators to process per page (0 if unlimited).
+     */
+    @Arg(dest = MAX_PAGE_OPERATORS)
+    public int maxOperatorsPerPage = PdfActCoreSettings.MAX_OPERATORS_PER_PAGE;
+
+    // ============================================================================================
+
+    /**
+     * The name of the option to define the maximum time to spend on parsing a page.
+     */
+    public static final String MAX_PAGE_TIME = "max-page-time";
+
+    /**
+     * The maximum time to spend on parsing a page, in milliseconds (0 if unlimited).
+     */
+    @Arg(dest = MAX_PAGE_TIME)
+    public long maxPageParsingTime = PdfActCoreSettings.MAX_PAGE_PARSING_TIME;
+
+    // ============================================================================================
+
     /**
      * The name of the option to define the semantic roles to include (text blocks with a semantic
      * role that is not included won't be extracted).
@@ -462,6 +551,55 @@ public class PdfActCli {
             + " words\", the output will be broken down by words, that is: the text and layout "
             + "information are provided word-wise.");
 
+      // Add an option to define the pages to process.
+      this.parser.addArgument("--" + PAGE_RANGES).dest(PAGE_RANGES)
+        .required(false)
+        .metavar("<pages>")
+        .action(new SplitAtDelimiterAction(","))
+        .help("The pages to process, given as page numbers and page ranges separated by \",\".\n"
+            + "- Available formats: \"N\" (page N), \"N-M\" (pages N to M), \"N-\" (all pages "
+            + "from page N on), \"-M\" (the first M pages).\n"
+            + "- Default: all pages.\n"
+            + "For example, when the script is called with the option \"--" + PAGE_RANGES
+            + " -3\", only the first three pages are parsed and processed. All other pages are "
+            + "skipped, so the statistics about the document (e.g., the most common font size) "
+            + "are computed from the processed pages only.");
+
+      // Add an option to define the number of threads to use on parsing the pages.
+      this.parser.addArgument("--" + PARSE_THREADS).dest(PARSE_THREADS)
+        .required(false)
+        .type(Integer.class)
+        .metavar("<num>")
+        .setDefault(this.numParsingThreads)
+        .help("The number of threads to use on parsing the pages of the PDF file.\n"
+            + "- Default: " + this.numParsingThreads + ".\n"
+            + "If greater than 1, the pages are parsed in parallel, which speeds up the "
+            + "processing of large PDF files on multi-core machines. The output is the same as "
+            + "on parsing the pages sequentially.");
+
+      // Add options to define the limits per page.
+      this.parser.addArgument("--" + MAX_PAGE_OPERATORS).dest(MAX_PAGE_OPERATORS)
+        .required(false)
+        .type(Integer.class)
+        .metavar("<num>")
+        .setDefault(this.maxOperatorsPerPage)
+        .help("The maximum number of PDF operators to process per page (0 for no limit).\n"
+            + "- Default: " + this.maxOperatorsPerPage + ".\n"
+            + "If a page exceeds this limit, the remaining non-text operators of the page (e.g., "
+            + "vector graphics and images) are skipped. If a page exceeds twice this limit, all "
+            + "remaining operators of the page are skipped. Such pages are flagged as "
+            + "\"is-degraded\" and \"is-truncated\" in the output of the unit \"pages\".");
+
+      this.parser.addArgument("--" + MAX_PAGE_TIME).dest(MAX_PAGE_TIME)
+        .required(false)
+        .type(Long.class)
+        .metavar("<ms>")
+        .setDefault(this.maxPageParsingTime)
+        .help("The maximum time in milliseconds to spend on parsing a page (0 for no limit).\n"
+            + "- Default: " + this.maxPageParsingTime + ".\n"
+            + "Pages exceeding this limit (or twice this limit) are treated like pages exceeding "
+            + "the limit given by \"--" + MAX_PAGE_OPERATORS + "\".");
+
       // Add an option to define the semantic role(s) to include.
       choicesStr = String.join(", ", SemanticRole.getNames());
       defaultStr = String.join(",", this.semanticRolesToInclude);
@@ -2,10 +2,13 @@ package pdfact.cli.pipes;
 
 import java.io.OutputStream;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Set;
 import pdfact.cli.model.ExtractionUnit;
 import pdfact.cli.model.SerializationFormat;
 import pdfact.core.model.SemanticRole;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.FontCache;
+import pdfact.core.util.PageRange;
 import pdfact.core.util.pipeline.Pipe;
 
 /**
@@ -127,6 +130,82 @@ public interface PdfActServicePipe extends Pipe {
 
   // ==============================================================================================
 
+  /**
+   * Returns the ranges of the pages to process.
+   *
+   * @return The ranges of the pages to process, or null if all pages are processed.
+   */
+  List<PageRange> getPageRanges();
+
+  /**
+   * Sets the ranges of the pages to process. All other pages are not processed at all.
+   *
+   * @param pageRanges The ranges of the pages to process, or null if all pages should be
+   *                   processed.
+   */
+  void setPageRanges(List<PageRange> pageRanges);
+
+  /**
+   * Returns the number of threads to use on parsing the pages.
+   *
+   * @return The number of threads.
+   */
+  int getNumParsingThreads();
+
+  /**
+   * Sets the number of threads to use on parsing the pages.
+   *
+   * @param numParsingThreads The number of threads. If 1, the pages are parsed sequentially.
+   */
+  void setNumParsingThreads(int numParsingThreads);
+
+  /**
+   * Returns the maximum number of operators to process per page on parsing.
+   *
+   * @return The maximum number of operators per page (0 if unlimited).
+   */
+  int getMaxOperatorsPerPage();
+
+  /**
+   * Sets the maximum number of operators to process per page on parsing. Pages exceeding the
+   * limit are degraded or truncated (see PlainPdfActCorePipe#setMaxOperatorsPerPage(int)).
+   *
+   * @param maxOperatorsPerPage The maximum number of operators per page (0 if unlimited).
+   */
+  void setMaxOperatorsPerPage(int maxOperatorsPerPage);
+
+  /**
+   * Returns the maximum time to spend on parsing a page.
+   *
+   * @return The maximum time per page in milliseconds (0 if unlimited).
+   */
+  long getMaxPageParsingTime();
+
+  /**
+   * Sets the maximum time to spend on parsing a page. Pages exceeding the limit are degraded or
+   * truncated (see PlainPdfActCorePipe#setMaxPageParsingTime(long)).
+   *
+   * @param maxPageParsingTime The maximum time per page in milliseconds (0 if unlimited).
+   */
+  void setMaxPageParsingTime(long maxPageParsingTime);
+
+  /**
+   * Returns the cache for the fonts shared with other documents.
+   *
+   * @return The font cache, or null if the fonts are not shared.
+   */
+  FontCache getFontCache();
+
+  /**
+   * Sets the cache for the fonts shared with other documents, such that the fonts embedded in
+   * multiple documents are parsed only once (see FontCache).
+   *
+   * @param fontCache The font cache, or null if the fonts should not be shared.
+   */
+  void setFontCache(FontCache fontCache);
+
+  // ==============================================================================================
+
   /**
    * Returns the boolean flag indicating whether or not this serializer should insert control
    * characters, i.e.: "^L" between two PDF elements in case a page break between the two elements
@@ -3,8 +3,12 @@ package pdfact.cli.pipes;
 import static pdfact.cli.PdfActCliSettings.DEFAULT_EXTRACTION_UNITS;
 import static pdfact.cli.PdfActCliSettings.DEFAULT_SEMANTIC_ROLES;
 import static pdfact.cli.PdfActCliSettings.DEFAULT_SERIALIZE_FORMAT;
+import static pdfact.core.PdfActCoreSettings.MAX_OPERATORS_PER_PAGE;
+import static pdfact.core.PdfActCoreSettings.MAX_PAGE_PARSING_TIME;
+import static pdfact.core.PdfActCoreSettings.NUM_PARSING_THREADS;
 import java.io.OutputStream;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -19,6 +23,8 @@ import pdfact.cli.pipes.visualize.VisualizePdfPipe;
 import pdfact.core.model.Document;
 import pdfact.core.model.SemanticRole;
 import pdfact.core.pipes.PlainPdfActCorePipe;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.FontCache;
+import pdfact.core.util.PageRange;
 import pdfact.core.util.exception.PdfActException;
 import pdfact.core.util.pipeline.Pipeline;
 import pdfact.core.util.pipeline.PlainPipeline;
@@ -70,6 +76,31 @@ public class PlainPdfActServicePipe implements PdfActServicePipe {
    */
   protected Set<ExtractionUnit> extractionUnits;
 
+  /**
+   * The ranges of the pages to process, or null if all pages should be processed.
+   */
+  protected List<PageRange> pageRanges;
+
+  /**
+   * The number of threads to use on parsing the pages.
+   */
+  protected int numParsingThreads = NUM_PARSING_THREADS;
+
+  /**
+   * The maximum number of operators to process per page on parsing (0 if unlimited).
+   */
+  protected int maxOperatorsPerPage = MAX_OPERATORS_PER_PAGE;
+
+  /**
+   * The maximum time to spend on parsing a page, in milliseconds (0 if unlimited).
+   */
+  protected long maxPageParsingTime = MAX_PAGE_PARSING_TIME;
+
+  /**
+   * The cache for the fonts shared with other documents, or null if the fonts are not shared.
+   */
+  protected FontCache fontCache;
+
   /**
    * The roles of text units to be included in serialization and visualization.
    */
@@ -118,8 +149,19 @@ public class PlainPdfActServicePipe implements PdfActServicePipe {
 
     Pipeline pipeline = new PlainPipeline();
 
-    // Parse the PDF document.
-    pipeline.addPipe(new PlainPdfActCorePipe());
+    // Parse the PDF document. Shapes and figures are only extracted if they are to be serialized,
+    // since parsing them (in particular, the vector graphics and the images) is expensive.
+    PlainPdfActCorePipe corePipe = new PlainPdfActCorePipe();
+    if (this.extractionUnits != null) {
+      corePipe.setIsExtractingShapes(this.extractionUnits.contains(ExtractionUnit.SHAPE));
+      corePipe.setIsExtractingFigures(this.extractionUnits.contains(ExtractionUnit.FIGURE));
+    }
+    corePipe.setPageRanges(this.pageRanges);
+    corePipe.setNumParsingThreads(this.numParsingThreads);
+    corePipe.setMaxOperatorsPerPage(this.maxOperatorsPerPage);
+    corePipe.setMaxPageParsingTime(this.maxPageParsingTime);
+    corePipe.setFontCache(this.fontCache);
+    pipeline.addPipe(corePipe);
 
     // Validate the target path for the serialization if there is any given.
     if (this.serializationPath != null) {
@@ -258,6 +300,58 @@ public class PlainPdfActServicePipe implements PdfActServicePipe {
 
   // ==============================================================================================
 
+  @Override
+  public List<PageRange> getPageRanges() {
+    return this.pageRanges;
+  }
+
+  @Override
+  public void setPageRanges(List<PageRange> pageRanges) {
+    this.pageRanges = pageRanges;
+  }
+
+  @Override
+  public int getNumParsingThreads() {
+    return this.numParsingThreads;
+  }
+
+  @Override
+  public void setNumParsingThreads(int numParsingThreads) {
+    this.numParsingThreads = numParsingThreads;
+  }
+
+  @Override
+  public int getMaxOperatorsPerPage() {
+    return this.maxOperatorsPerPage;
+  }
+
+  @Override
+  public void setMaxOperatorsPerPage(int maxOperatorsPerPage) {
+    this.maxOperatorsPerPage = maxOperatorsPerPage;
+  }
+
+  @Override
+  public long getMaxPageParsingTime() {
+    return this.maxPageParsingTime;
+  }
+
+  @Override
+  public void setMaxPageParsingTime(long maxPageParsingTime) {
+    this.maxPageParsingTime = maxPageParsingTime;
+  }
+
+  @Override
+  public FontCache getFontCache() {
+    return this.fontCache;
+  }
+
+  @Override
+  public void setFontCache(FontCache fontCache) {
+    this.fontCache = fontCache;
+  }
+
+  // ==============================================================================================
+
   /**
    * Returns the boolean flag indicating whether or not this serializer should insert control
    * characters, i.e.: "^L" between two PDF elements in case a page break between the two elements
@@ -14,7 +14,9 @@ import static pdfact.cli.pipes.serialize.PdfSerializerConstants.G;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.HEIGHT;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.ID;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.IS_BOLD;
+import static pdfact.cli.pipes.serialize.PdfSerializerConstants.IS_DEGRADED;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.IS_ITALIC;
+import static pdfact.cli.pipes.serialize.PdfSerializerConstants.IS_TRUNCATED;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.IS_TYPE3;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.MAX_X;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.MAX_Y;
@@ -803,6 +805,13 @@ public class PdfJsonSerializer implements PdfSerializer {
       pageJson.put(ID, page.getPageNumber());
       pageJson.put(WIDTH, page.getWidth());
       pageJson.put(HEIGHT, page.getHeight());
+      // Flag the pages whose elements are incomplete because they exceeded a parsing limit.
+      if (page.isDegraded()) {
+        pageJson.put(IS_DEGRADED, true);
+      }
+      if (page.isTruncated()) {
+        pageJson.put(IS_TRUNCATED, true);
+      }
     }
     return pageJson;
   }
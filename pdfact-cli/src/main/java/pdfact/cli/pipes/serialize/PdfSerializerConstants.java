@@ -37,8 +37,12 @@ public class PdfSerializerConstants {
   static final String ID = "id";
   /** The constant 'IS_BOLD'. */
   static final String IS_BOLD = "is-bold";
+  /** The constant 'IS_DEGRADED'. */
+  static final String IS_DEGRADED = "is-degraded";
   /** The constant 'IS_ITALIC'. */
   static final String IS_ITALIC = "is-italic";
+  /** The constant 'IS_TRUNCATED'. */
+  static final String IS_TRUNCATED = "is-truncated";
   /** The constant 'IS_TYPE3'. */
   static final String IS_TYPE3 = "is-type3";
   /** The constant 'MAX_X'. */
@@ -15,7 +15,9 @@ import static pdfact.cli.pipes.serialize.PdfSerializerConstants.G;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.HEIGHT;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.ID;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.IS_BOLD;
+import static pdfact.cli.pipes.serialize.PdfSerializerConstants.IS_DEGRADED;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.IS_ITALIC;
+import static pdfact.cli.pipes.serialize.PdfSerializerConstants.IS_TRUNCATED;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.IS_TYPE3;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.MAX_X;
 import static pdfact.cli.pipes.serialize.PdfSerializerConstants.MAX_Y;
@@ -840,6 +842,13 @@ public class PdfXmlSerializer implements PdfSerializer {
       result.add(start(ID, level) + text(page.getPageNumber()) + end(ID));
       result.add(start(WIDTH, level) + text(page.getWidth()) + end(WIDTH));
       result.add(start(HEIGHT, level) + text(page.getHeight()) + end(HEIGHT));
+      // Flag the pages whose elements are incomplete because they exceeded a parsing limit.
+      if (page.isDegraded()) {
+        result.add(start(IS_DEGRADED, level) + text(true) + end(IS_DEGRADED));
+      }
+      if (page.isTruncated()) {
+        result.add(start(IS_TRUNCATED, level) + text(true) + end(IS_TRUNCATED));
+      }
       result.add(end(PAGE, --level));
     }
     return result;
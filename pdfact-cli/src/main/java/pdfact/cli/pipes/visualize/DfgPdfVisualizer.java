@@ -67,7 +67,7 @@ public class DfgPdfVisualizer {
     parser.parseArgs(args, this);
 
     Document pdf = new Document(this.inputPath);
-    PdfDrawer drawer = new PdfBoxDrawer(pdf.getFile());
+    PdfDrawer drawer = new PdfBoxDrawer(pdf);
 
     // Create a service pipe.
     new PlainPdfActServicePipe().execute(pdf);
@@ -64,7 +64,7 @@ public class PlainPdfVisualizer implements PdfVisualizer {
   public byte[] visualize(Document pdf) throws PdfActVisualizeException {
     if (pdf != null) {
       try {
-        PdfDrawer drawer = new PdfBoxDrawer(pdf.getFile());
+        PdfDrawer drawer = new PdfBoxDrawer(pdf);
 
         for (ExtractionUnit unit : this.extractionUnits) {
           switch (unit) {
@@ -4,6 +4,7 @@ import java.awt.Color;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +20,7 @@ import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
 
 import pdfact.cli.pipes.visualize.PdfDrawer;
+import pdfact.core.model.Document;
 import pdfact.core.model.HasRectangle;
 import pdfact.core.model.Line;
 import pdfact.core.model.Page;
@@ -93,7 +95,32 @@ public class PdfBoxDrawer implements PdfDrawer {
    *         If reading the PDF file failed.
    */
   public PdfBoxDrawer(File pdfFile) throws IOException {
-    this.pdDocument = PDDocument.load(pdfFile);
+    this(PDDocument.load(pdfFile));
+  }
+
+  /**
+   * Creates a new visualizer from the given document, which is given either by a file or in
+   * memory.
+   * 
+   * @param pdf
+   *        The PDF document to process.
+   * @throws IOException
+   *         If reading the PDF document failed.
+   */
+  public PdfBoxDrawer(Document pdf) throws IOException {
+    this(loadDocument(pdf));
+  }
+
+  /**
+   * Creates a new visualizer from the given PDDocument.
+   * 
+   * @param pdDocument
+   *        The PDDocument.
+   * @throws IOException
+   *         If parsing the PDDocument failed.
+   */
+  public PdfBoxDrawer(PDDocument pdDocument) throws IOException {
+    this.pdDocument = pdDocument;
 
     if (this.pdDocument == null) {
       throw new IllegalArgumentException("No PD document given");
@@ -136,15 +163,23 @@ public class PdfBoxDrawer implements PdfDrawer {
   }
 
   /**
-   * Creates a new visualizer from the given PDDocument.
+   * Loads the given document. A document given in memory is loaded from a copy of its content,
+   * since the visualizations are drawn into the loaded document.
    * 
-   * @param pdDocument
-   *        The PDDocument.
+   * @param pdf
+   *        The PDF document to load.
+   * @return The loaded document.
    * @throws IOException
-   *         If parsing the PDDocument failed.
+   *         If reading the PDF document failed.
    */
-  public PdfBoxDrawer(PDDocument pdDocument) throws IOException {
-    
+  protected static PDDocument loadDocument(Document pdf) throws IOException {
+    ByteBuffer content = pdf.getContent();
+    if (content == null) {
+      return PDDocument.load(pdf.getFile());
+    }
+    byte[] bytes = new byte[content.remaining()];
+    content.duplicate().get(bytes);
+    return PDDocument.load(bytes);
   }
 
   // ==============================================================================================
@@ -35,4 +35,79 @@ public class PdfActCoreSettings {
    * The field delimiter in the AFM file.
    */
   public static final String AFM_FILE_FIELD_DELIMITER = "\t";
+
+  // ==============================================================================================
+
+  /**
+   * The number of threads to use on parsing the pages of a PDF document. If 1, the pages are
+   * parsed sequentially.
+   */
+  public static final int NUM_PARSING_THREADS = 1;
+
+  /**
+   * The maximum number of operators to process per page on parsing. If a page exceeds this
+   * limit, its remaining non-text operators are skipped; if it exceeds twice this limit, all its
+   * remaining operators are skipped. If 0, the number of operators is unlimited.
+   */
+  public static final int MAX_OPERATORS_PER_PAGE = 0;
+
+  /**
+   * The maximum time to spend on parsing a page, in milliseconds. If a page exceeds this limit,
+   * its remaining non-text operators are skipped; if it exceeds twice this limit, all its
+   * remaining operators are skipped. If 0, the time is unlimited.
+   */
+  public static final long MAX_PAGE_PARSING_TIME = 0;
+
+  /**
+   * The maximum nesting depth of form XObjects on parsing a page. Form XObjects that are nested
+   * deeper are skipped (this also stops form XObjects that draw themselves). If 0, the nesting
+   * depth is unlimited.
+   */
+  public static final int MAX_FORM_XOBJECT_NESTING = 32;
+
+  /**
+   * The default maximum number of fonts in a font cache shared by multiple documents (see
+   * FontCache).
+   */
+  public static final int MAX_NUM_CACHED_FONTS = 256;
+
+  /**
+   * The maximum number of fonts and of XObjects (forms and images) to reuse across the pages of a
+   * document on parsing (see BoundedResourceCache). If 0, the number is unlimited.
+   */
+  public static final int MAX_NUM_CACHED_RESOURCES = 512;
+
+  /**
+   * The boolean flag indicating whether the elements of a form XObject that is drawn repeatedly
+   * in the same state (for example, the master form of a slide deck) should be extracted only once
+   * per document and re-emitted on subsequent draws (see FormXObjectCache).
+   */
+  public static final boolean IS_MEMOIZING_FORM_XOBJECTS = true;
+
+  /**
+   * The number of threads to use on executing the page-local pipes of the core pipeline. If 1,
+   * the pages are processed sequentially.
+   */
+  public static final int NUM_PIPELINE_THREADS = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The boolean flag indicating whether the pages should be streamed from the parser to the
+   * subsequent page-local pipes of the core pipeline, such that a page is processed while the
+   * next pages are still parsed.
+   */
+  public static final boolean IS_STREAMING_PIPELINE = false;
+
+  /**
+   * The maximum number of parsed pages waiting to be processed in a streaming pipeline. This
+   * doesn't bound the memory usage, since all pages stay referenced by the document.
+   */
+  public static final int STREAMING_QUEUE_CAPACITY = 8;
+
+  // ==============================================================================================
+
+  /**
+   * The minimum number of characters a block must have so that XYCut cuts the resulting
+   * sub-blocks in parallel. Smaller blocks are cut sequentially.
+   */
+  public static final int XYCUT_PARALLELISM_THRESHOLD = 2048;
 }
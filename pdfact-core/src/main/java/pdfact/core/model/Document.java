@@ -1,6 +1,7 @@
 package pdfact.core.model;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -20,6 +21,11 @@ public class Document implements HasParagraphs {
    */
   protected Path path;
 
+  /**
+   * The content of the underlying file, if the document is given in memory instead of by a path.
+   */
+  protected ByteBuffer content;
+
   /**
    * The pages of this document.
    */
@@ -40,6 +46,18 @@ public class Document implements HasParagraphs {
    */
   protected TextLineStatistic textLineStatistic;
 
+  /**
+   * The number of pages of this document that exceeded a parsing limit (including the truncated
+   * pages).
+   */
+  protected int numDegradedPages;
+
+  /**
+   * The number of pages of this document whose operators were skipped from a certain point on,
+   * because they exceeded a parsing limit.
+   */
+  protected int numTruncatedPages;
+
   // ==============================================================================================
 
   /**
@@ -71,6 +89,26 @@ public class Document implements HasParagraphs {
     this.path = path;
   }
 
+  /**
+   * Creates a new document that is given in memory.
+   * 
+   * @param content The content of the underlying file.
+   */
+  public Document(byte[] content) {
+    this(ByteBuffer.wrap(content));
+  }
+
+  /**
+   * Creates a new document that is given in memory, for example by a memory-mapped file (see
+   * {@link pdfact.core.util.PdfActUtils#mapFile(Path)}).
+   * 
+   * @param content The content of the underlying file, from its position to its limit.
+   */
+  public Document(ByteBuffer content) {
+    this((Path) null);
+    this.content = content;
+  }
+
   // ==============================================================================================
 
   /**
@@ -113,6 +151,26 @@ public class Document implements HasParagraphs {
 
   // ==============================================================================================
 
+  /**
+   * Returns the content of the underlying file, if the document is given in memory.
+   * 
+   * @return The content of the underlying file, or null if the document is given by a path.
+   */
+  public ByteBuffer getContent() {
+    return this.content;
+  }
+
+  /**
+   * Sets the content of the underlying file, if the document is given in memory.
+   * 
+   * @param content The content of the underlying file, from its position to its limit.
+   */
+  public void setContent(ByteBuffer content) {
+    this.content = content;
+  }
+
+  // ==============================================================================================
+
   /**
    * Returns the pages of this document.
    * 
@@ -228,6 +286,46 @@ public class Document implements HasParagraphs {
 
   // ==============================================================================================
 
+  /**
+   * Returns the number of pages of this document that were degraded, that is: some of whose
+   * operators were skipped because they exceeded a parsing limit (including the truncated pages).
+   * 
+   * @return The number of degraded pages.
+   */
+  public int getNumDegradedPages() {
+    return this.numDegradedPages;
+  }
+
+  /**
+   * Sets the number of pages of this document that were degraded.
+   * 
+   * @param numDegradedPages The number of degraded pages.
+   */
+  public void setNumDegradedPages(int numDegradedPages) {
+    this.numDegradedPages = numDegradedPages;
+  }
+
+  /**
+   * Returns the number of pages of this document that were truncated, that is: whose operators
+   * were skipped from a certain point on because they exceeded a parsing limit.
+   * 
+   * @return The number of truncated pages.
+   */
+  public int getNumTruncatedPages() {
+    return this.numTruncatedPages;
+  }
+
+  /**
+   * Sets the number of pages of this document that were truncated.
+   * 
+   * @param numTruncatedPages The number of truncated pages.
+   */
+  public void setNumTruncatedPages(int numTruncatedPages) {
+    this.numTruncatedPages = numTruncatedPages;
+  }
+
+  // ==============================================================================================
+
   @Override
   public String toString() {
     return "PdfDocument(" + this.path + ")";
@@ -58,6 +58,19 @@ public class Page implements HasCharacters, HasFigures, HasShapes, HasTextAreas,
    */
   protected float height;
 
+  /**
+   * The boolean flag indicating whether this page was degraded on parsing, that is: whether some
+   * of its elements (usually, its non-text elements) were skipped because the page exceeded a
+   * parsing limit.
+   */
+  protected boolean isDegraded;
+
+  /**
+   * The boolean flag indicating whether this page was truncated on parsing, that is: whether all
+   * of its elements after a certain point were skipped because the page exceeded a parsing limit.
+   */
+  protected boolean isTruncated;
+
   /**
    * The statistic about the characters of this page.
    */
@@ -346,6 +359,45 @@ public class Page implements HasCharacters, HasFigures, HasShapes, HasTextAreas,
 
   // ==============================================================================================
 
+  /**
+   * Returns true if this page was degraded on parsing (some of its elements are missing).
+   *
+   * @return True if this page was degraded; false otherwise.
+   */
+  public boolean isDegraded() {
+    return this.isDegraded;
+  }
+
+  /**
+   * Sets the boolean flag indicating whether this page was degraded on parsing.
+   *
+   * @param isDegraded True if this page was degraded; false otherwise.
+   */
+  public void setIsDegraded(boolean isDegraded) {
+    this.isDegraded = isDegraded;
+  }
+
+  /**
+   * Returns true if this page was truncated on parsing (its elements after a certain point are
+   * missing).
+   *
+   * @return True if this page was truncated; false otherwise.
+   */
+  public boolean isTruncated() {
+    return this.isTruncated;
+  }
+
+  /**
+   * Sets the boolean flag indicating whether this page was truncated on parsing.
+   *
+   * @param isTruncated True if this page was truncated; false otherwise.
+   */
+  public void setIsTruncated(boolean isTruncated) {
+    this.isTruncated = isTruncated;
+  }
+
+  // ==============================================================================================
+
   @Override
   public CharacterStatistic getCharacterStatistic() {
     return this.characterStatistic;
@@ -1,13 +1,17 @@
 package pdfact.core.pipes;
 
+import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import pdfact.core.PdfActCoreSettings;
 import pdfact.core.model.Document;
 import pdfact.core.pipes.dehyphenate.PlainDehyphenateWordsPipe;
 import pdfact.core.pipes.filter.characters.PlainFilterCharactersPipe;
 import pdfact.core.pipes.filter.figures.PlainFilterFiguresPipe;
 import pdfact.core.pipes.filter.shapes.PlainFilterShapesPipe;
 import pdfact.core.pipes.parse.PlainParseDocumentPipe;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.FontCache;
 import pdfact.core.pipes.semanticize.PlainDetectSemanticsPipe;
 import pdfact.core.pipes.tokenize.areas.XYCutTokenizeToTextAreasPipe;
 import pdfact.core.pipes.tokenize.blocks.PlainTokenizeToTextBlocksPipe;
@@ -18,9 +22,10 @@ import pdfact.core.pipes.translate.characters.PlainStandardizeCharactersPipe;
 import pdfact.core.pipes.translate.diacritics.PlainMergeDiacriticsPipe;
 import pdfact.core.pipes.translate.ligatures.PlainSplitLigaturesPipe;
 import pdfact.core.pipes.validate.PlainValidatePdfPathPipe;
+import pdfact.core.util.PageRange;
 import pdfact.core.util.exception.PdfActException;
+import pdfact.core.util.pipeline.PageParallelPipeline;
 import pdfact.core.util.pipeline.Pipeline;
-import pdfact.core.util.pipeline.PlainPipeline;
 
 /**
  * A plain implementation of {@link PdfActCorePipe}.
@@ -33,6 +38,89 @@ public class PlainPdfActCorePipe implements PdfActCorePipe {
    */
   protected static Logger log = LogManager.getLogger(PlainPdfActCorePipe.class);
 
+  /**
+   * The number of threads to use on executing the page-local pipes.
+   */
+  protected int numThreads;
+
+  /**
+   * The number of threads to use on parsing the pages.
+   */
+  protected int numParsingThreads = PdfActCoreSettings.NUM_PARSING_THREADS;
+
+  /**
+   * The boolean flag indicating whether the pages should be streamed from the parser to the
+   * subsequent page-local pipes.
+   */
+  protected boolean isStreaming;
+
+  /**
+   * The boolean flag indicating whether shapes should be extracted.
+   */
+  protected boolean isExtractingShapes = true;
+
+  /**
+   * The boolean flag indicating whether figures should be extracted.
+   */
+  protected boolean isExtractingFigures = true;
+
+  /**
+   * The memory usage setting of PdfBox on loading a document.
+   */
+  protected MemoryUsageSetting memoryUsageSetting = MemoryUsageSetting.setupMainMemoryOnly();
+
+  /**
+   * The cache for the fonts shared with other documents, or null if the fonts should not be
+   * shared.
+   */
+  protected FontCache fontCache;
+
+  /**
+   * The ranges of the pages to parse, or null if all pages should be parsed.
+   */
+  protected List<PageRange> pageRanges;
+
+  /**
+   * The maximum number of operators to process per page on parsing (0 if unlimited).
+   */
+  protected int maxOperatorsPerPage = PdfActCoreSettings.MAX_OPERATORS_PER_PAGE;
+
+  /**
+   * The maximum time to spend on parsing a page, in milliseconds (0 if unlimited).
+   */
+  protected long maxPageParsingTime = PdfActCoreSettings.MAX_PAGE_PARSING_TIME;
+
+  /**
+   * The maximum nesting depth of form XObjects on parsing (0 if unlimited).
+   */
+  protected int maxFormXObjectNesting = PdfActCoreSettings.MAX_FORM_XOBJECT_NESTING;
+
+  /**
+   * The maximum number of fonts and of XObjects in the resource cache of a document (0 if
+   * unlimited).
+   */
+  protected int maxNumCachedResources = PdfActCoreSettings.MAX_NUM_CACHED_RESOURCES;
+
+  /**
+   * Creates a new core pipe that executes the page-local pipes with the default number of
+   * threads.
+   */
+  public PlainPdfActCorePipe() {
+    this(PdfActCoreSettings.NUM_PIPELINE_THREADS);
+  }
+
+  /**
+   * Creates a new core pipe that executes the page-local pipes with the given number of threads.
+   * 
+   * @param numThreads
+   *        The number of threads to use on executing the page-local pipes. If 1, the pages are
+   *        processed sequentially.
+   */
+  public PlainPdfActCorePipe(int numThreads) {
+    this.numThreads = numThreads;
+    this.isStreaming = PdfActCoreSettings.IS_STREAMING_PIPELINE;
+  }
+
   // ==============================================================================================
 
   /**
@@ -51,13 +139,24 @@ public class PlainPdfActCorePipe implements PdfActCorePipe {
 
     log.debug("Process: Processing the core pipeline.");
 
-    // Fill the pipeline with the pipes to execute
-    Pipeline pipeline = new PlainPipeline();
+    // Fill the pipeline with the pipes to execute. The page-local pipes are executed on the
+    // individual pages concurrently.
+    Pipeline pipeline = new PageParallelPipeline(this.numThreads, this.isStreaming);
 
     // Validate the path to the PDF file.
     pipeline.addPipe(new PlainValidatePdfPathPipe());
     // Extract the characters, shapes and figures.
-    pipeline.addPipe(new PlainParseDocumentPipe());
+    PlainParseDocumentPipe parsePipe = new PlainParseDocumentPipe(this.numParsingThreads);
+    parsePipe.setIsExtractingShapes(this.isExtractingShapes);
+    parsePipe.setIsExtractingFigures(this.isExtractingFigures);
+    parsePipe.setMemoryUsageSetting(this.memoryUsageSetting);
+    parsePipe.setFontCache(this.fontCache);
+    parsePipe.setPageRanges(this.pageRanges);
+    parsePipe.setMaxOperatorsPerPage(this.maxOperatorsPerPage);
+    parsePipe.setMaxPageParsingTime(this.maxPageParsingTime);
+    parsePipe.setMaxFormXObjectNesting(this.maxFormXObjectNesting);
+    parsePipe.setMaxNumCachedResources(this.maxNumCachedResources);
+    pipeline.addPipe(parsePipe);
     // Merge the diacritics.
     pipeline.addPipe(new PlainMergeDiacriticsPipe());
     // Split the ligatures.
@@ -97,4 +196,248 @@ public class PlainPdfActCorePipe implements PdfActCorePipe {
     log.debug("End of pipe: " + getClass().getSimpleName() + ".");
     return pdf;
   }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the number of threads to use on executing the page-local pipes.
+   * 
+   * @return The number of threads.
+   */
+  public int getNumThreads() {
+    return this.numThreads;
+  }
+
+  /**
+   * Sets the number of threads to use on executing the page-local pipes.
+   * 
+   * @param numThreads
+   *        The number of threads. If 1, the pages are processed sequentially.
+   */
+  public void setNumThreads(int numThreads) {
+    this.numThreads = numThreads;
+  }
+
+  /**
+   * Returns the number of threads to use on parsing the pages.
+   * 
+   * @return The number of threads.
+   */
+  public int getNumParsingThreads() {
+    return this.numParsingThreads;
+  }
+
+  /**
+   * Sets the number of threads to use on parsing the pages.
+   * 
+   * @param numParsingThreads
+   *        The number of threads. If 1, the pages are parsed sequentially.
+   */
+  public void setNumParsingThreads(int numParsingThreads) {
+    this.numParsingThreads = numParsingThreads;
+  }
+
+  /**
+   * Returns true if the pages are streamed from the parser to the subsequent page-local pipes.
+   * 
+   * @return True if the pages are streamed; false otherwise.
+   */
+  public boolean isStreaming() {
+    return this.isStreaming;
+  }
+
+  /**
+   * Sets the boolean flag indicating whether the pages should be streamed from the parser to the
+   * subsequent page-local pipes.
+   * 
+   * @param isStreaming
+   *        True, if the pages should be streamed; false otherwise.
+   */
+  public void setIsStreaming(boolean isStreaming) {
+    this.isStreaming = isStreaming;
+  }
+
+  /**
+   * Returns true if shapes are extracted.
+   * 
+   * @return True if shapes are extracted; false otherwise.
+   */
+  public boolean isExtractingShapes() {
+    return this.isExtractingShapes;
+  }
+
+  /**
+   * Sets the boolean flag indicating whether shapes should be extracted. If not, the operators to
+   * construct, paint and clip paths are skipped on parsing, which is considerably faster for PDFs
+   * with lots of vector graphics.
+   * 
+   * @param isExtractingShapes
+   *        True, if shapes should be extracted; false otherwise.
+   */
+  public void setIsExtractingShapes(boolean isExtractingShapes) {
+    this.isExtractingShapes = isExtractingShapes;
+  }
+
+  /**
+   * Returns true if figures are extracted.
+   * 
+   * @return True if figures are extracted; false otherwise.
+   */
+  public boolean isExtractingFigures() {
+    return this.isExtractingFigures;
+  }
+
+  /**
+   * Sets the boolean flag indicating whether figures should be extracted. If neither figures nor
+   * shapes should be extracted, images are skipped on parsing (and are never decoded).
+   * 
+   * @param isExtractingFigures
+   *        True, if figures should be extracted; false otherwise.
+   */
+  public void setIsExtractingFigures(boolean isExtractingFigures) {
+    this.isExtractingFigures = isExtractingFigures;
+  }
+
+  /**
+   * Returns the memory usage setting of PdfBox on loading a document.
+   * 
+   * @return The memory usage setting.
+   */
+  public MemoryUsageSetting getMemoryUsageSetting() {
+    return this.memoryUsageSetting;
+  }
+
+  /**
+   * Sets the memory usage setting of PdfBox on loading a document, that is: whether the streams of
+   * the document are buffered in main memory and/or in a scratch file, and the limits of both.
+   * 
+   * @param memoryUsageSetting
+   *        The memory usage setting.
+   */
+  public void setMemoryUsageSetting(MemoryUsageSetting memoryUsageSetting) {
+    this.memoryUsageSetting = memoryUsageSetting;
+  }
+
+  /**
+   * Returns the cache for the fonts shared with other documents.
+   * 
+   * @return The font cache, or null if the fonts are not shared.
+   */
+  public FontCache getFontCache() {
+    return this.fontCache;
+  }
+
+  /**
+   * Sets the cache for the fonts shared with other documents, such that the fonts embedded in
+   * multiple documents (for example, in the documents of a batch) are parsed only once.
+   * 
+   * @param fontCache
+   *        The font cache, or null if the fonts should not be shared.
+   */
+  public void setFontCache(FontCache fontCache) {
+    this.fontCache = fontCache;
+  }
+
+  /**
+   * Returns the ranges of the pages to parse.
+   * 
+   * @return The ranges of the pages to parse, or null if all pages are parsed.
+   */
+  public List<PageRange> getPageRanges() {
+    return this.pageRanges;
+  }
+
+  /**
+   * Sets the ranges of the pages to parse. Pages that are not contained in any of the ranges are
+   * neither parsed nor processed by any of the subsequent pipes.
+   * 
+   * @param pageRanges
+   *        The ranges of the pages to parse, or null if all pages should be parsed.
+   */
+  public void setPageRanges(List<PageRange> pageRanges) {
+    this.pageRanges = pageRanges;
+  }
+
+  /**
+   * Returns the maximum number of operators to process per page on parsing.
+   * 
+   * @return The maximum number of operators per page (0 if unlimited).
+   */
+  public int getMaxOperatorsPerPage() {
+    return this.maxOperatorsPerPage;
+  }
+
+  /**
+   * Sets the maximum number of operators to process per page on parsing. If a page exceeds this
+   * limit, its remaining non-text operators are skipped; if it exceeds twice this limit, all its
+   * remaining operators are skipped. Such pages are flagged as degraded or truncated.
+   * 
+   * @param maxOperatorsPerPage
+   *        The maximum number of operators per page (0 if unlimited).
+   */
+  public void setMaxOperatorsPerPage(int maxOperatorsPerPage) {
+    this.maxOperatorsPerPage = maxOperatorsPerPage;
+  }
+
+  /**
+   * Returns the maximum time to spend on parsing a page.
+   * 
+   * @return The maximum time per page in milliseconds (0 if unlimited).
+   */
+  public long getMaxPageParsingTime() {
+    return this.maxPageParsingTime;
+  }
+
+  /**
+   * Sets the maximum time to spend on parsing a page. If a page exceeds this limit, its remaining
+   * non-text operators are skipped; if it exceeds twice this limit, all its remaining operators
+   * are skipped. Such pages are flagged as degraded or truncated.
+   * 
+   * @param maxPageParsingTime
+   *        The maximum time per page in milliseconds (0 if unlimited).
+   */
+  public void setMaxPageParsingTime(long maxPageParsingTime) {
+    this.maxPageParsingTime = maxPageParsingTime;
+  }
+
+  /**
+   * Returns the maximum nesting depth of form XObjects on parsing.
+   * 
+   * @return The maximum nesting depth (0 if unlimited).
+   */
+  public int getMaxFormXObjectNesting() {
+    return this.maxFormXObjectNesting;
+  }
+
+  /**
+   * Sets the maximum nesting depth of form XObjects on parsing. Form XObjects that are nested
+   * deeper are skipped, and the page is flagged as degraded.
+   * 
+   * @param maxFormXObjectNesting
+   *        The maximum nesting depth (0 if unlimited).
+   */
+  public void setMaxFormXObjectNesting(int maxFormXObjectNesting) {
+    this.maxFormXObjectNesting = maxFormXObjectNesting;
+  }
+
+  /**
+   * Returns the maximum number of fonts and of XObjects in the resource cache of a document.
+   * 
+   * @return The maximum number of cached fonts and of cached XObjects (0 if unlimited).
+   */
+  public int getMaxNumCachedResources() {
+    return this.maxNumCachedResources;
+  }
+
+  /**
+   * Sets the maximum number of fonts and of XObjects (forms and images) to reuse across the pages
+   * of a document on parsing. If there are more, the least recently used ones are resolved again
+   * on their next use.
+   * 
+   * @param maxNumCachedResources
+   *        The maximum number of cached fonts and of cached XObjects (0 if unlimited).
+   */
+  public void setMaxNumCachedResources(int maxNumCachedResources) {
+    this.maxNumCachedResources = maxNumCachedResources;
+  }
 }
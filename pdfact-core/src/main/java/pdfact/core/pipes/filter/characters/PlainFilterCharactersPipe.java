@@ -1,6 +1,7 @@
 package pdfact.core.pipes.filter.characters;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pdfact.core.model.Character;
@@ -8,13 +9,14 @@ import pdfact.core.model.Document;
 import pdfact.core.model.Page;
 import pdfact.core.util.exception.PdfActException;
 import pdfact.core.util.list.ElementList;
+import pdfact.core.util.pipeline.PagePipe;
 
 /**
  * A plain implementation of {@link FilterCharactersPipe}.
  * 
  * @author Claudius Korzen
  */
-public class PlainFilterCharactersPipe implements FilterCharactersPipe {
+public class PlainFilterCharactersPipe implements FilterCharactersPipe, PagePipe {
   /**
    * The logger.
    */
@@ -23,12 +25,12 @@ public class PlainFilterCharactersPipe implements FilterCharactersPipe {
   /**
    * The number of processed characters.
    */
-  protected int numProcessedCharacters;
+  protected final AtomicInteger numProcessedCharacters = new AtomicInteger();
 
   /**
    * The number of filtered characters.
    */
-  protected int numFilteredCharacters;
+  protected final AtomicInteger numFilteredCharacters = new AtomicInteger();
 
   // ==============================================================================================
 
@@ -38,6 +40,26 @@ public class PlainFilterCharactersPipe implements FilterCharactersPipe {
     return pdf;
   }
 
+  @Override
+  public void executeOnPage(Document pdf, Page page) throws PdfActException {
+    filterCharacters(page);
+  }
+
+  @Override
+  public void executeOnDocument(Document pdf) throws PdfActException {
+    // Nothing to do.
+  }
+
+  @Override
+  public boolean isBarrier() {
+    return false;
+  }
+
+  @Override
+  public boolean isDocumentDependent() {
+    return false;
+  }
+
   // ==============================================================================================
 
   /**
@@ -49,22 +71,36 @@ public class PlainFilterCharactersPipe implements FilterCharactersPipe {
     if (pdf != null) {
       List<Page> pages = pdf.getPages();
       for (Page page : pages) {
-        ElementList<Character> before = page.getCharacters();
-        // Create a new list of characters which should not be filtered.
-        ElementList<Character> after = new ElementList<>(before.size());
-        for (Character character : before) {
-          this.numProcessedCharacters++;
-
-          if (isFilterCharacter(character)) {
-            this.numFilteredCharacters++;
-            continue;
-          }
-
-          after.add(character);
-        }
-        page.setCharacters(after);
+        filterCharacters(page);
+      }
+    }
+  }
+
+  /**
+   * Filters those characters of the given page that should not be considered.
+   * 
+   * @param page
+   *        The page to process.
+   */
+  protected void filterCharacters(Page page) {
+    if (page == null) {
+      return;
+    }
+
+    ElementList<Character> before = page.getCharacters();
+    // Create a new list of characters which should not be filtered.
+    ElementList<Character> after = new ElementList<>(before.size());
+    for (Character character : before) {
+      if (isFilterCharacter(character)) {
+        continue;
       }
+
+      after.add(character);
     }
+    page.setCharacters(after);
+
+    this.numProcessedCharacters.addAndGet(before.size());
+    this.numFilteredCharacters.addAndGet(before.size() - after.size());
   }
 
   /**
@@ -1,6 +1,7 @@
 package pdfact.core.pipes.filter.figures;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pdfact.core.model.Document;
@@ -8,13 +9,14 @@ import pdfact.core.model.Figure;
 import pdfact.core.model.Page;
 import pdfact.core.util.exception.PdfActException;
 import pdfact.core.util.list.ElementList;
+import pdfact.core.util.pipeline.PagePipe;
 
 /**
  * A plain implementation of {@link FilterFiguresPipe}.
  * 
  * @author Claudius Korzen
  */
-public class PlainFilterFiguresPipe implements FilterFiguresPipe {
+public class PlainFilterFiguresPipe implements FilterFiguresPipe, PagePipe {
   /**
    * The logger.
    */
@@ -23,12 +25,12 @@ public class PlainFilterFiguresPipe implements FilterFiguresPipe {
   /**
    * The number of processed figures.
    */
-  protected int numProcessedFigures;
+  protected final AtomicInteger numProcessedFigures = new AtomicInteger();
 
   /**
    * The number of filtered figures.
    */
-  protected int numFilteredFigures;
+  protected final AtomicInteger numFilteredFigures = new AtomicInteger();
 
   // ==============================================================================================
 
@@ -47,6 +49,26 @@ public class PlainFilterFiguresPipe implements FilterFiguresPipe {
     return pdf;
   }
 
+  @Override
+  public void executeOnPage(Document pdf, Page page) throws PdfActException {
+    filterFigures(page);
+  }
+
+  @Override
+  public void executeOnDocument(Document pdf) throws PdfActException {
+    // Nothing to do.
+  }
+
+  @Override
+  public boolean isBarrier() {
+    return false;
+  }
+
+  @Override
+  public boolean isDocumentDependent() {
+    return false;
+  }
+
   // ==============================================================================================
 
   /**
@@ -59,22 +81,36 @@ public class PlainFilterFiguresPipe implements FilterFiguresPipe {
     if (pdf != null) {
       List<Page> pages = pdf.getPages();
       for (Page page : pages) {
-        ElementList<Figure> before = page.getFigures();
-        // Create a new list of figures which should not be filtered.
-        ElementList<Figure> after = new ElementList<>(before.size());
-        for (Figure figure : before) {
-          this.numProcessedFigures++;
-
-          if (isFilterFigure(figure)) {
-            this.numFilteredFigures++;
-            continue;
-          }
-
-          after.add(figure);
-        }
-        page.setFigures(after);
+        filterFigures(page);
+      }
+    }
+  }
+
+  /**
+   * Filters those figures of the given page that should not be considered.
+   * 
+   * @param page
+   *        The page to process.
+   */
+  protected void filterFigures(Page page) {
+    if (page == null) {
+      return;
+    }
+
+    ElementList<Figure> before = page.getFigures();
+    // Create a new list of figures which should not be filtered.
+    ElementList<Figure> after = new ElementList<>(before.size());
+    for (Figure figure : before) {
+      if (isFilterFigure(figure)) {
+        continue;
       }
+
+      after.add(figure);
     }
+    page.setFigures(after);
+
+    this.numProcessedFigures.addAndGet(before.size());
+    this.numFilteredFigures.addAndGet(before.size() - after.size());
   }
 
   /**
@@ -1,6 +1,7 @@
 package pdfact.core.pipes.filter.shapes;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pdfact.core.model.Document;
@@ -8,13 +9,14 @@ import pdfact.core.model.Page;
 import pdfact.core.model.Shape;
 import pdfact.core.util.exception.PdfActException;
 import pdfact.core.util.list.ElementList;
+import pdfact.core.util.pipeline.PagePipe;
 
 /**
  * A plain implementation of {@link FilterShapesPipe}.
  * 
  * @author Claudius Korzen
  */
-public class PlainFilterShapesPipe implements FilterShapesPipe {
+public class PlainFilterShapesPipe implements FilterShapesPipe, PagePipe {
   /**
    * The logger.
    */
@@ -23,12 +25,12 @@ public class PlainFilterShapesPipe implements FilterShapesPipe {
   /**
    * The number of processed shapes.
    */
-  protected int numProcessedShapes;
+  protected final AtomicInteger numProcessedShapes = new AtomicInteger();
 
   /**
    * The number of filtered shapes.
    */
-  protected int numFilteredShapes;
+  protected final AtomicInteger numFilteredShapes = new AtomicInteger();
 
   // ==============================================================================================
 
@@ -48,6 +50,26 @@ public class PlainFilterShapesPipe implements FilterShapesPipe {
     return pdf;
   }
 
+  @Override
+  public void executeOnPage(Document pdf, Page page) throws PdfActException {
+    filterShapes(page);
+  }
+
+  @Override
+  public void executeOnDocument(Document pdf) throws PdfActException {
+    // Nothing to do.
+  }
+
+  @Override
+  public boolean isBarrier() {
+    return false;
+  }
+
+  @Override
+  public boolean isDocumentDependent() {
+    return false;
+  }
+
   // ==============================================================================================
 
   /**
@@ -60,22 +82,36 @@ public class PlainFilterShapesPipe implements FilterShapesPipe {
     if (pdf != null) {
       List<Page> pages = pdf.getPages();
       for (Page page : pages) {
-        ElementList<Shape> before = page.getShapes();
-        // Create a new list of shapes which should not be filtered.
-        ElementList<Shape> after = new ElementList<>(before.size());
-        for (Shape shape : before) {
-          this.numProcessedShapes++;
-
-          if (isFilterShape(shape)) {
-            this.numFilteredShapes++;
-            continue;
-          }
-
-          after.add(shape);
-        }
-        page.setShapes(after);
+        filterShapes(page);
+      }
+    }
+  }
+
+  /**
+   * Filters those shapes of the given page that should not be considered.
+   * 
+   * @param page
+   *        The page to process.
+   */
+  protected void filterShapes(Page page) {
+    if (page == null) {
+      return;
+    }
+
+    ElementList<Shape> before = page.getShapes();
+    // Create a new list of shapes which should not be filtered.
+    ElementList<Shape> after = new ElementList<>(before.size());
+    for (Shape shape : before) {
+      if (isFilterShape(shape)) {
+        continue;
       }
+
+      after.add(shape);
     }
+    page.setShapes(after);
+
+    this.numProcessedShapes.addAndGet(before.size());
+    this.numFilteredShapes.addAndGet(before.size() - after.size());
   }
 
   /**
@@ -1,18 +1,114 @@
 package pdfact.core.pipes.parse;
 
+import java.util.List;
+import java.util.function.Consumer;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import pdfact.core.PdfActCoreSettings;
 import pdfact.core.model.Document;
+import pdfact.core.model.Page;
 import pdfact.core.pipes.parse.stream.pdfbox.PdfBoxPdfStreamsParser;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.FontCache;
+import pdfact.core.util.PageRange;
 import pdfact.core.util.exception.PdfActException;
+import pdfact.core.util.pipeline.PageStreamPipe;
 
 /**
  * A plain implementation of {@link ParseDocumentPipe}.
  * 
  * @author Claudius Korzen
  */
-public class PlainParseDocumentPipe implements ParseDocumentPipe {
+public class PlainParseDocumentPipe implements ParseDocumentPipe, PageStreamPipe {
+  /**
+   * The number of threads to use on parsing the pages of a document.
+   */
+  protected int numThreads;
+
+  /**
+   * The boolean flag indicating whether shapes should be extracted.
+   */
+  protected boolean isExtractingShapes = true;
+
+  /**
+   * The boolean flag indicating whether figures should be extracted.
+   */
+  protected boolean isExtractingFigures = true;
+
+  /**
+   * The memory usage setting of PdfBox on loading a document.
+   */
+  protected MemoryUsageSetting memoryUsageSetting = MemoryUsageSetting.setupMainMemoryOnly();
+
+  /**
+   * The cache for the fonts shared with other documents, or null if the fonts should not be
+   * shared.
+   */
+  protected FontCache fontCache;
+
+  /**
+   * The ranges of the pages to parse, or null if all pages should be parsed.
+   */
+  protected List<PageRange> pageRanges;
+
+  /**
+   * The maximum number of operators to process per page on parsing (0 if unlimited).
+   */
+  protected int maxOperatorsPerPage = PdfActCoreSettings.MAX_OPERATORS_PER_PAGE;
+
+  /**
+   * The maximum time to spend on parsing a page, in milliseconds (0 if unlimited).
+   */
+  protected long maxPageParsingTime = PdfActCoreSettings.MAX_PAGE_PARSING_TIME;
+
+  /**
+   * The maximum nesting depth of form XObjects on parsing (0 if unlimited).
+   */
+  protected int maxFormXObjectNesting = PdfActCoreSettings.MAX_FORM_XOBJECT_NESTING;
+
+  /**
+   * The maximum number of fonts and of XObjects in the resource cache of a document (0 if
+   * unlimited).
+   */
+  protected int maxNumCachedResources = PdfActCoreSettings.MAX_NUM_CACHED_RESOURCES;
+
+  /**
+   * The number of fonts and XObjects found in the resource cache of the last parsed document.
+   */
+  protected int numResourceCacheHits;
+
+  /**
+   * The number of fonts and XObjects not found in the resource cache of the last parsed document.
+   */
+  protected int numResourceCacheMisses;
+
+  /**
+   * Creates a new pipe that parses the pages of a document with the default number of threads.
+   */
+  public PlainParseDocumentPipe() {
+    this(PdfActCoreSettings.NUM_PARSING_THREADS);
+  }
+
+  /**
+   * Creates a new pipe that parses the pages of a document with the given number of threads.
+   * 
+   * @param numThreads
+   *        The number of threads to use on parsing the pages. If 1, the pages are parsed
+   *        sequentially.
+   */
+  public PlainParseDocumentPipe(int numThreads) {
+    this.numThreads = numThreads;
+  }
+
+  // ==============================================================================================
+
   @Override
   public Document execute(Document doc) throws PdfActException {
-    parseDocument(doc);
+    parseDocument(doc, null);
+    return doc;
+  }
+
+  @Override
+  public Document execute(Document doc, Consumer<Page> pageConsumer) throws PdfActException {
+    parseDocument(doc, pageConsumer);
     return doc;
   }
 
@@ -21,11 +117,257 @@ public class PlainParseDocumentPipe implements ParseDocumentPipe {
    * 
    * @param doc
    *        The document to parse.
+   * @param pageConsumer
+   *        The consumer to pass each page to, as soon as the page is parsed (may be null).
    * 
    * @throws PdfActException
    *         If something went wrong while parsing the document.
    */
-  protected void parseDocument(Document doc) throws PdfActException {
-    new PdfBoxPdfStreamsParser().parse(doc);
+  protected void parseDocument(Document doc, Consumer<Page> pageConsumer)
+      throws PdfActException {
+    PdfBoxPdfStreamsParser parser = new PdfBoxPdfStreamsParser(this.numThreads);
+    parser.setPageConsumer(pageConsumer);
+    parser.setIsExtractingShapes(this.isExtractingShapes);
+    parser.setIsExtractingFigures(this.isExtractingFigures);
+    parser.setMemoryUsageSetting(this.memoryUsageSetting);
+    parser.setFontCache(this.fontCache);
+    parser.setPageRanges(this.pageRanges);
+    parser.setMaxOperatorsPerPage(this.maxOperatorsPerPage);
+    parser.setMaxPageParsingTime(this.maxPageParsingTime);
+    parser.setMaxFormXObjectNesting(this.maxFormXObjectNesting);
+    parser.setMaxNumCachedResources(this.maxNumCachedResources);
+    try {
+      parser.parse(doc);
+    } finally {
+      doc.setNumDegradedPages(parser.getNumDegradedPages());
+      doc.setNumTruncatedPages(parser.getNumTruncatedPages());
+      this.numResourceCacheHits = parser.getNumResourceCacheHits();
+      this.numResourceCacheMisses = parser.getNumResourceCacheMisses();
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the number of threads to use on parsing the pages of a document.
+   * 
+   * @return The number of threads.
+   */
+  public int getNumThreads() {
+    return this.numThreads;
+  }
+
+  /**
+   * Sets the number of threads to use on parsing the pages of a document.
+   * 
+   * @param numThreads
+   *        The number of threads. If 1, the pages are parsed sequentially.
+   */
+  public void setNumThreads(int numThreads) {
+    this.numThreads = numThreads;
+  }
+
+  /**
+   * Returns true if shapes are extracted.
+   * 
+   * @return True if shapes are extracted; false otherwise.
+   */
+  public boolean isExtractingShapes() {
+    return this.isExtractingShapes;
+  }
+
+  /**
+   * Sets the boolean flag indicating whether shapes should be extracted. If not, the operators to
+   * construct, paint and clip paths are skipped on parsing.
+   * 
+   * @param isExtractingShapes
+   *        True, if shapes should be extracted; false otherwise.
+   */
+  public void setIsExtractingShapes(boolean isExtractingShapes) {
+    this.isExtractingShapes = isExtractingShapes;
+  }
+
+  /**
+   * Returns true if figures are extracted.
+   * 
+   * @return True if figures are extracted; false otherwise.
+   */
+  public boolean isExtractingFigures() {
+    return this.isExtractingFigures;
+  }
+
+  /**
+   * Sets the boolean flag indicating whether figures should be extracted. If neither figures nor
+   * shapes should be extracted, images are skipped on parsing.
+   * 
+   * @param isExtractingFigures
+   *        True, if figures should be extracted; false otherwise.
+   */
+  public void setIsExtractingFigures(boolean isExtractingFigures) {
+    this.isExtractingFigures = isExtractingFigures;
+  }
+
+  /**
+   * Returns the memory usage setting of PdfBox on loading a document.
+   * 
+   * @return The memory usage setting.
+   */
+  public MemoryUsageSetting getMemoryUsageSetting() {
+    return this.memoryUsageSetting;
+  }
+
+  /**
+   * Sets the memory usage setting of PdfBox on loading a document, that is: whether the streams of
+   * the document are buffered in main memory and/or in a scratch file, and the limits of both.
+   * 
+   * @param memoryUsageSetting
+   *        The memory usage setting.
+   */
+  public void setMemoryUsageSetting(MemoryUsageSetting memoryUsageSetting) {
+    this.memoryUsageSetting = memoryUsageSetting;
+  }
+
+  /**
+   * Returns the cache for the fonts shared with other documents.
+   * 
+   * @return The font cache, or null if the fonts are not shared.
+   */
+  public FontCache getFontCache() {
+    return this.fontCache;
+  }
+
+  /**
+   * Sets the cache for the fonts shared with other documents, such that the fonts embedded in
+   * multiple documents (for example, in the documents of a batch) are parsed only once.
+   * 
+   * @param fontCache
+   *        The font cache, or null if the fonts should not be shared.
+   */
+  public void setFontCache(FontCache fontCache) {
+    this.fontCache = fontCache;
+  }
+
+  /**
+   * Returns the ranges of the pages to parse.
+   * 
+   * @return The ranges of the pages to parse, or null if all pages are parsed.
+   */
+  public List<PageRange> getPageRanges() {
+    return this.pageRanges;
+  }
+
+  /**
+   * Sets the ranges of the pages to parse. Pages that are not contained in any of the ranges are
+   * neither parsed nor processed by any of the subsequent pipes.
+   * 
+   * @param pageRanges
+   *        The ranges of the pages to parse, or null if all pages should be parsed.
+   */
+  public void setPageRanges(List<PageRange> pageRanges) {
+    this.pageRanges = pageRanges;
+  }
+
+  /**
+   * Returns the maximum number of operators to process per page on parsing.
+   * 
+   * @return The maximum number of operators per page (0 if unlimited).
+   */
+  public int getMaxOperatorsPerPage() {
+    return this.maxOperatorsPerPage;
+  }
+
+  /**
+   * Sets the maximum number of operators to process per page on parsing. If a page exceeds this
+   * limit, its remaining non-text operators are skipped; if it exceeds twice this limit, all its
+   * remaining operators are skipped. Such pages are flagged as degraded or truncated.
+   * 
+   * @param maxOperatorsPerPage
+   *        The maximum number of operators per page (0 if unlimited).
+   */
+  public void setMaxOperatorsPerPage(int maxOperatorsPerPage) {
+    this.maxOperatorsPerPage = maxOperatorsPerPage;
+  }
+
+  /**
+   * Returns the maximum time to spend on parsing a page.
+   * 
+   * @return The maximum time per page in milliseconds (0 if unlimited).
+   */
+  public long getMaxPageParsingTime() {
+    return this.maxPageParsingTime;
+  }
+
+  /**
+   * Sets the maximum time to spend on parsing a page. If a page exceeds this limit, its remaining
+   * non-text operators are skipped; if it exceeds twice this limit, all its remaining operators
+   * are skipped. Such pages are flagged as degraded or truncated.
+   * 
+   * @param maxPageParsingTime
+   *        The maximum time per page in milliseconds (0 if unlimited).
+   */
+  public void setMaxPageParsingTime(long maxPageParsingTime) {
+    this.maxPageParsingTime = maxPageParsingTime;
+  }
+
+  /**
+   * Returns the maximum nesting depth of form XObjects on parsing.
+   * 
+   * @return The maximum nesting depth (0 if unlimited).
+   */
+  public int getMaxFormXObjectNesting() {
+    return this.maxFormXObjectNesting;
+  }
+
+  /**
+   * Sets the maximum nesting depth of form XObjects on parsing. Form XObjects that are nested
+   * deeper are skipped, and the page is flagged as degraded.
+   * 
+   * @param maxFormXObjectNesting
+   *        The maximum nesting depth (0 if unlimited).
+   */
+  public void setMaxFormXObjectNesting(int maxFormXObjectNesting) {
+    this.maxFormXObjectNesting = maxFormXObjectNesting;
+  }
+
+  /**
+   * Returns the maximum number of fonts and of XObjects in the resource cache of a document.
+   * 
+   * @return The maximum number of cached fonts and of cached XObjects (0 if unlimited).
+   */
+  public int getMaxNumCachedResources() {
+    return this.maxNumCachedResources;
+  }
+
+  /**
+   * Sets the maximum number of fonts and of XObjects (forms and images) to reuse across the pages
+   * of a document on parsing. If there are more, the least recently used ones are resolved again
+   * on their next use.
+   * 
+   * @param maxNumCachedResources
+   *        The maximum number of cached fonts and of cached XObjects (0 if unlimited).
+   */
+  public void setMaxNumCachedResources(int maxNumCachedResources) {
+    this.maxNumCachedResources = maxNumCachedResources;
+  }
+
+  /**
+   * Returns the number of fonts and XObjects that were found in the resource cache of the last
+   * parsed document, that is: that were reused from another page (or from another use on the same
+   * page).
+   * 
+   * @return The number of resource cache hits.
+   */
+  public int getNumResourceCacheHits() {
+    return this.numResourceCacheHits;
+  }
+
+  /**
+   * Returns the number of fonts and XObjects that were not found in the resource cache of the last
+   * parsed document, that is: that needed to be resolved.
+   * 
+   * @return The number of resource cache misses.
+   */
+  public int getNumResourceCacheMisses() {
+    return this.numResourceCacheMisses;
   }
 }
@@ -1,36 +1,61 @@
 package pdfact.core.pipes.parse.stream.pdfbox;
 
 import static pdfact.core.PdfActCoreSettings.FLOATING_NUMBER_PRECISION;
+import gnu.trove.list.array.TIntArrayList;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Point2D;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.pdfbox.contentstream.PDContentStream;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.ScratchFile;
+import org.apache.pdfbox.pdfparser.PDFParser;
 import org.apache.pdfbox.pdfparser.PDFStreamParser;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDType3CharProc;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.pdmodel.graphics.state.PDGraphicsState;
 import org.apache.pdfbox.util.Matrix;
+import pdfact.core.PdfActCoreSettings;
 import pdfact.core.model.Character;
+import pdfact.core.model.CharacterStatistic;
+import pdfact.core.model.Color;
 import pdfact.core.model.Document;
 import pdfact.core.model.Figure;
+import pdfact.core.model.Font;
+import pdfact.core.model.FontFace;
 import pdfact.core.model.Page;
 import pdfact.core.model.Point;
 import pdfact.core.model.Rectangle;
 import pdfact.core.model.Shape;
 import pdfact.core.pipes.parse.stream.PdfStreamsParser;
+import pdfact.core.pipes.parse.stream.pdfbox.convert.PDFontConverter;
+import pdfact.core.pipes.parse.stream.pdfbox.convert.PDFontFaceConverter;
 import pdfact.core.pipes.parse.stream.pdfbox.operators.OperatorProcessor;
 import pdfact.core.pipes.parse.stream.pdfbox.operators.color.SetNonStrokingColor;
 import pdfact.core.pipes.parse.stream.pdfbox.operators.color.SetNonStrokingColorN;
@@ -83,7 +108,22 @@ import pdfact.core.pipes.parse.stream.pdfbox.operators.text.SetType3GlyphWidthAn
 import pdfact.core.pipes.parse.stream.pdfbox.operators.text.SetWordSpacing;
 import pdfact.core.pipes.parse.stream.pdfbox.operators.text.ShowText;
 import pdfact.core.pipes.parse.stream.pdfbox.operators.text.ShowTextWithIndividualGlyphPositioning;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.BoundedResourceCache;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.ByteBufferRandomAccessRead;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.ColorStateCache;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.FontCache;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.FontCache.DocumentFontCache;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.FormXObjectCache;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.FormXObjectCache.FormState;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.FormXObjectCache.RecordedForm;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.GlyphMetricsCache;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.ImageColorCache;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.RectangleClippingGraphicsState;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.RectangleClippingGraphicsState.ClippingCounter;
+import pdfact.core.util.PageRange;
 import pdfact.core.util.PdfActUtils;
+import pdfact.core.util.color.ColorManager;
+import pdfact.core.util.counter.ObjectCounter;
 import pdfact.core.util.exception.PdfActException;
 import pdfact.core.util.exception.PdfActParseException;
 import pdfact.core.util.statistician.CharacterStatistician;
@@ -103,15 +143,114 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
   protected static Logger log = LogManager.getFormatterLogger("pdf-parsing");
 
   /**
-   * The map of operator processors.
+   * The flag of the operators whose effects on processing a Type3 glyph description are limited
+   * to the graphics state and the text matrices (which are restored after processing the glyph
+   * description) and the bounding box of the glyph. The bounding box of a Type3 glyph whose
+   * description consists only of such operators (and operators without a processor) does not
+   * depend on anything but the text rendering matrix, so it can be cached.
    */
-  protected Map<String, OperatorProcessor> operatorProcessors;
+  protected static final int TYPE3_CACHEABLE = 1;
+
+  /**
+   * The flag of the operators that are only needed to extract shapes: the operators to construct,
+   * paint and clip paths. They are not processed if shapes are not to be extracted.
+   */
+  protected static final int SHAPE = 2;
+
+  /**
+   * The flag of the operators that are only needed to extract shapes or figures from images: the
+   * operators of inline images. They are not processed if neither shapes nor figures are to be
+   * extracted.
+   */
+  protected static final int IMAGE = 4;
+
+  /**
+   * The number of operators between two checks of the parsing time of a page (a power of 2).
+   */
+  protected static final int PAGE_TIME_CHECK_INTERVAL = 256;
+
+  /**
+   * The page that marks the end of the pages assembled by a worker on parsing the pages in
+   * parallel.
+   */
+  protected static final Page END_OF_PAGES = new Page();
+
+  /**
+   * The registered operator processors, together with the flags of their operators, per name of
+   * the operator.
+   */
+  protected Map<String, OperatorDispatch> operatorProcessors;
+
+  /**
+   * The operator processors and flags per operator, resolved on the first occurrence of an
+   * operator. PdfBox shares the operator instances per name (except for the operators of inline
+   * images), so this table is keyed by identity and the name of an operator is looked up only
+   * once.
+   */
+  protected Map<Operator, OperatorDispatch> operatorDispatchTable;
+
+  /**
+   * Whether the processing of operators should be traced, that is: whether the debug level of the
+   * logger is enabled. The flag is determined on creating this engine and on starting a document,
+   * so that the processing of an operator needs to check a single boolean only.
+   */
+  protected boolean isTracing;
 
   /**
    * The statistician to compute statistics about characters.
    */
   protected CharacterStatistician statistician;
 
+  /**
+   * The converter to translate PDFont objects to Font objects.
+   */
+  protected PDFontConverter fontConverter;
+
+  /**
+   * The converter to create instances of {@link FontFace}.
+   */
+  protected PDFontFaceConverter fontFaceConverter;
+
+  /**
+   * The manager to translate PDColor objects to Color objects, local to the current document.
+   */
+  protected ColorManager colorManager;
+
+  /**
+   * The cache for the metrics of the glyphs in the fonts of the current document.
+   */
+  protected GlyphMetricsCache glyphMetricsCache;
+
+  /**
+   * The cache for the exclusive colors of the images of the current document.
+   */
+  protected ImageColorCache imageColorCache;
+
+  /**
+   * The cache for the elements extracted from the form XObjects of the current document.
+   */
+  protected FormXObjectCache formXObjectCache;
+
+  /**
+   * The form XObject whose elements are currently recorded, or null if no form is recorded.
+   */
+  protected RecordedForm formRecording;
+
+  /**
+   * The cache for the converted non-stroking color of the graphics state.
+   */
+  protected ColorStateCache nonStrokingColorCache;
+
+  /**
+   * The cache for the converted stroking color of the graphics state.
+   */
+  protected ColorStateCache strokingColorCache;
+
+  /**
+   * The number of threads to use on parsing the pages.
+   */
+  protected int numThreads;
+
   /**
    * The current page in the PDF file.
    */
@@ -168,11 +307,49 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
    */
   protected Rectangle currentType3GlyphBoundingBox;
 
+  /**
+   * The current type3 glyph bounding box in glyph space (llx, lly, urx, ury), as given by the
+   * d1 operator of the current type3 stream; null if the stream doesn't contain a d1 operator.
+   */
+  protected float[] currentType3GlyphSpaceBoundingBox;
+
   /**
    * Flag to indicate, whether the current stream is a type3 stream.
    */
   protected boolean isType3Stream;
 
+  /**
+   * Flag to indicate, whether the bounding box of the glyph described by the current type3 stream
+   * can be cached (see {@link #TYPE3_CACHEABLE}).
+   */
+  protected boolean isType3GlyphCacheable;
+
+  /**
+   * The number of operators processed so far in the current type3 stream.
+   */
+  protected int numType3StreamOperators;
+
+  /**
+   * The extraction rank to assign to the next extracted character.
+   */
+  protected int extractionRank;
+
+  /**
+   * The number of pages assembled so far on parsing the pages in parallel.
+   */
+  protected int numAssembledPages;
+
+  /**
+   * The pages assembled so far on parsing the pages in parallel, in page order, whose end is yet
+   * to be handled by the thread that parses the document.
+   */
+  protected BlockingQueue<Page> assembledPages;
+
+  /**
+   * The consumer to pass each page to, as soon as the page is parsed (may be null).
+   */
+  protected Consumer<Page> pageConsumer;
+
   /**
    * The number of extracted pages.
    */
@@ -194,75 +371,231 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
   protected int numShapes;
 
   /**
-   * Creates a new stream engine.
+   * The boolean flag indicating whether shapes should be extracted.
+   */
+  protected boolean isExtractingShapes = true;
+
+  /**
+   * The boolean flag indicating whether figures should be extracted.
+   */
+  protected boolean isExtractingFigures = true;
+
+  /**
+   * The memory usage setting of PdfBox on loading a document, that is: whether the streams of the
+   * document are buffered in main memory and/or in a scratch file, and the limits of both.
+   */
+  protected MemoryUsageSetting memoryUsageSetting = MemoryUsageSetting.setupMainMemoryOnly();
+
+  /**
+   * The cache for the fonts shared with other documents, or null if the fonts should not be
+   * shared.
+   */
+  protected FontCache fontCache;
+
+  /**
+   * The maximum number of fonts and of XObjects in the resource cache of a document (0 if
+   * unlimited).
+   */
+  protected int maxNumCachedResources = PdfActCoreSettings.MAX_NUM_CACHED_RESOURCES;
+
+  /**
+   * The boolean flag indicating whether the elements of a form XObject drawn repeatedly in the
+   * same state should be extracted only once (see {@link FormXObjectCache}).
+   */
+  protected boolean isMemoizingFormXObjects = PdfActCoreSettings.IS_MEMOIZING_FORM_XOBJECTS;
+
+  /**
+   * The ranges of the pages to parse, or null if all pages should be parsed.
+   */
+  protected List<PageRange> pageRanges;
+
+  /**
+   * The maximum number of operators to process per page (0 if unlimited).
+   */
+  protected int maxOperatorsPerPage = PdfActCoreSettings.MAX_OPERATORS_PER_PAGE;
+
+  /**
+   * The maximum time to spend on parsing a page, in milliseconds (0 if unlimited).
+   */
+  protected long maxPageParsingTime = PdfActCoreSettings.MAX_PAGE_PARSING_TIME;
+
+  /**
+   * The maximum nesting depth of form XObjects (0 if unlimited).
+   */
+  protected int maxFormXObjectNesting = PdfActCoreSettings.MAX_FORM_XOBJECT_NESTING;
+
+  /**
+   * The number of operators processed so far on the current page.
+   */
+  protected int numPageOperators;
+
+  /**
+   * The time at which the parsing of the current page started, in nanoseconds.
+   */
+  protected long pageStartTime;
+
+  /**
+   * The current nesting depth of content streams (0 for the content stream of a page).
+   */
+  protected int streamNestingDepth;
+
+  /**
+   * The boolean flag indicating whether the non-text operators of the current page are skipped,
+   * because the page exceeded the operator limit or the time limit.
+   */
+  protected boolean isPageDegraded;
+
+  /**
+   * The boolean flag indicating whether all remaining operators of the current page are skipped,
+   * because the page exceeded twice the operator limit or twice the time limit.
+   */
+  protected boolean isPageTruncated;
+
+  /**
+   * The number of pages that were degraded (including the truncated pages).
+   */
+  protected int numDegradedPages;
+
+  /**
+   * The number of pages that were truncated.
+   */
+  protected int numTruncatedPages;
+
+  /**
+   * The number of fonts and XObjects found in the resource caches of the documents so far.
+   */
+  protected int numResourceCacheHits;
+
+  /**
+   * The number of fonts and XObjects not found in the resource caches of the documents so far.
+   */
+  protected int numResourceCacheMisses;
+
+  /**
+   * The number of form XObjects whose elements were re-emitted from the form cache so far.
+   */
+  protected int numFormXObjectCacheHits;
+
+  /**
+   * The number of form XObjects that were recorded for the form cache so far.
+   */
+  protected int numFormXObjectCacheMisses;
+
+  /**
+   * The counter of the intersections with the clipping paths of the graphics states (see
+   * {@link RectangleClippingGraphicsState}).
+   */
+  protected ClippingCounter clippingCounter;
+
+  /**
+   * Creates a new stream engine that parses the pages with the default number of threads.
    */
   public PdfBoxPdfStreamsParser() {
+    this(PdfActCoreSettings.NUM_PARSING_THREADS);
+  }
+
+  /**
+   * Creates a new stream engine.
+   * 
+   * @param numThreads The number of threads to use on parsing the pages. If greater than 1, the
+   *                   pages are parsed in parallel, each thread with its own engine state and its
+   *                   own operator processors.
+   */
+  public PdfBoxPdfStreamsParser(int numThreads) {
+    this.numThreads = numThreads;
     this.operatorProcessors = new HashMap<>();
+    this.operatorDispatchTable = new IdentityHashMap<>();
+    this.isTracing = log.isDebugEnabled();
 
     // Install the text operator modules.
-    registerOperatorProcessor(new BeginText()); // BT
-    registerOperatorProcessor(new EndText()); // ET
-    registerOperatorProcessor(new MoveText()); // Td
-    registerOperatorProcessor(new MoveTextSetLeading()); // TD
+    registerOperatorProcessor(new BeginText(), TYPE3_CACHEABLE); // BT
+    registerOperatorProcessor(new EndText(), TYPE3_CACHEABLE); // ET
+    registerOperatorProcessor(new MoveText(), TYPE3_CACHEABLE); // Td
+    registerOperatorProcessor(new MoveTextSetLeading(), TYPE3_CACHEABLE); // TD
     registerOperatorProcessor(new MoveToNextLineAndShowText()); // '
     registerOperatorProcessor(new MoveToNextLineAndShowTextWithSpacing()); // "
-    registerOperatorProcessor(new SetCharacterSpacing()); // Tc
-    registerOperatorProcessor(new SetFontAndSize()); // Tf
-    registerOperatorProcessor(new MoveToNextLine()); // T*
-    registerOperatorProcessor(new SetTextHorizontalScaling()); // Tz
-    registerOperatorProcessor(new SetTextLeading()); // TL
-    registerOperatorProcessor(new SetTextMatrix()); // Tm
-    registerOperatorProcessor(new SetTextRenderingMode()); // Tr
-    registerOperatorProcessor(new SetTextRise()); // Ts
-    registerOperatorProcessor(new SetType3GlyphWidthAndBoundingBox()); // d1
-    registerOperatorProcessor(new SetWordSpacing()); // Tw
+    registerOperatorProcessor(new SetCharacterSpacing(), TYPE3_CACHEABLE); // Tc
+    registerOperatorProcessor(new SetFontAndSize(), TYPE3_CACHEABLE); // Tf
+    registerOperatorProcessor(new MoveToNextLine(), TYPE3_CACHEABLE); // T*
+    registerOperatorProcessor(new SetTextHorizontalScaling(), TYPE3_CACHEABLE); // Tz
+    registerOperatorProcessor(new SetTextLeading(), TYPE3_CACHEABLE); // TL
+    registerOperatorProcessor(new SetTextMatrix(), TYPE3_CACHEABLE); // Tm
+    registerOperatorProcessor(new SetTextRenderingMode(), TYPE3_CACHEABLE); // Tr
+    registerOperatorProcessor(new SetTextRise(), TYPE3_CACHEABLE); // Ts
+    registerOperatorProcessor(new SetType3GlyphWidthAndBoundingBox(), TYPE3_CACHEABLE); // d1
+    registerOperatorProcessor(new SetWordSpacing(), TYPE3_CACHEABLE); // Tw
     registerOperatorProcessor(new ShowText()); // Tj
     registerOperatorProcessor(new ShowTextWithIndividualGlyphPositioning()); // TJ
 
     // Install the graphics operator modules.
-    registerOperatorProcessor(new AppendRectangleToPath()); // re
-    registerOperatorProcessor(new BeginInlineImage()); // BI
-    registerOperatorProcessor(new ClipEvenOddRule()); // W*
-    registerOperatorProcessor(new ClipNonZeroRule()); // W
-    registerOperatorProcessor(new ClosePath()); // h
-    registerOperatorProcessor(new CurveTo()); // c
-    registerOperatorProcessor(new CurveToReplicateFinalPoint()); // y
-    registerOperatorProcessor(new CurveToReplicateInitialPoint()); // v
-    registerOperatorProcessor(new EndPath()); // n
-    registerOperatorProcessor(new FillEvenOddAndStrokePath()); // B*
-    registerOperatorProcessor(new FillEvenOddRule()); // f*
-    registerOperatorProcessor(new FillNonZeroAndStrokePath()); // B
-    registerOperatorProcessor(new FillNonZeroRule()); // f
+    registerOperatorProcessor(new AppendRectangleToPath(), SHAPE); // re
+    registerOperatorProcessor(new BeginInlineImage(), TYPE3_CACHEABLE | IMAGE); // BI
+    registerOperatorProcessor(new ClipEvenOddRule(), SHAPE); // W*
+    registerOperatorProcessor(new ClipNonZeroRule(), SHAPE); // W
+    registerOperatorProcessor(new ClosePath(), SHAPE); // h
+    registerOperatorProcessor(new CurveTo(), SHAPE); // c
+    registerOperatorProcessor(new CurveToReplicateFinalPoint(), SHAPE); // y
+    registerOperatorProcessor(new CurveToReplicateInitialPoint(), SHAPE); // v
+    registerOperatorProcessor(new EndPath(), SHAPE); // n
+    registerOperatorProcessor(new FillEvenOddAndStrokePath(), SHAPE); // B*
+    registerOperatorProcessor(new FillEvenOddRule(), SHAPE); // f*
+    registerOperatorProcessor(new FillNonZeroAndStrokePath(), SHAPE); // B
+    registerOperatorProcessor(new FillNonZeroRule(), SHAPE); // f
     registerOperatorProcessor(new DrawObject()); // Do
-    registerOperatorProcessor(new LineTo()); // l
-    registerOperatorProcessor(new ModifyCurrentTransformationMatrix()); // cm
-    registerOperatorProcessor(new MoveTo()); // m
-    registerOperatorProcessor(new RestoreGraphicsState()); // Q
-    registerOperatorProcessor(new SaveGraphicsState()); // q
-    registerOperatorProcessor(new SetGraphicsStateParameters()); // gs
-    registerOperatorProcessor(new StrokePath()); // S
+    registerOperatorProcessor(new LineTo(), SHAPE); // l
+    registerOperatorProcessor(new ModifyCurrentTransformationMatrix(), TYPE3_CACHEABLE); // cm
+    registerOperatorProcessor(new MoveTo(), SHAPE); // m
+    registerOperatorProcessor(new RestoreGraphicsState(), TYPE3_CACHEABLE); // Q
+    registerOperatorProcessor(new SaveGraphicsState(), TYPE3_CACHEABLE); // q
+    registerOperatorProcessor(new SetGraphicsStateParameters(), TYPE3_CACHEABLE); // gs
+    registerOperatorProcessor(new StrokePath(), SHAPE); // S
 
     // Install the color operator modules.
-    registerOperatorProcessor(new SetNonStrokingColor()); // sc
-    registerOperatorProcessor(new SetNonStrokingColorN()); // scn
-    registerOperatorProcessor(new SetNonStrokingColorSpace()); // cs
-    registerOperatorProcessor(new SetNonStrokingDeviceCMYKColor()); // k
-    registerOperatorProcessor(new SetNonStrokingDeviceGrayColor()); // g
-    registerOperatorProcessor(new SetNonStrokingDeviceRGBColor()); // rg
-    registerOperatorProcessor(new SetStrokingColor()); // SC
-    registerOperatorProcessor(new SetStrokingColorN()); // SCN
-    registerOperatorProcessor(new SetStrokingColorSpace()); // CS
-    registerOperatorProcessor(new SetStrokingDeviceCMYKColor()); // K
-    registerOperatorProcessor(new SetStrokingDeviceGrayColor()); // G
-    registerOperatorProcessor(new SetStrokingDeviceRGBColor()); // RG
+    registerOperatorProcessor(new SetNonStrokingColor(), TYPE3_CACHEABLE); // sc
+    registerOperatorProcessor(new SetNonStrokingColorN(), TYPE3_CACHEABLE); // scn
+    registerOperatorProcessor(new SetNonStrokingColorSpace(), TYPE3_CACHEABLE); // cs
+    registerOperatorProcessor(new SetNonStrokingDeviceCMYKColor(), TYPE3_CACHEABLE); // k
+    registerOperatorProcessor(new SetNonStrokingDeviceGrayColor(), TYPE3_CACHEABLE); // g
+    registerOperatorProcessor(new SetNonStrokingDeviceRGBColor(), TYPE3_CACHEABLE); // rg
+    registerOperatorProcessor(new SetStrokingColor(), TYPE3_CACHEABLE); // SC
+    registerOperatorProcessor(new SetStrokingColorN(), TYPE3_CACHEABLE); // SCN
+    registerOperatorProcessor(new SetStrokingColorSpace(), TYPE3_CACHEABLE); // CS
+    registerOperatorProcessor(new SetStrokingDeviceCMYKColor(), TYPE3_CACHEABLE); // K
+    registerOperatorProcessor(new SetStrokingDeviceGrayColor(), TYPE3_CACHEABLE); // G
+    registerOperatorProcessor(new SetStrokingDeviceRGBColor(), TYPE3_CACHEABLE); // RG
 
     this.statistician = new CharacterStatistician();
+    this.fontConverter = new PDFontConverter();
+    this.fontFaceConverter = new PDFontFaceConverter();
+    this.colorManager = new ColorManager();
+    this.glyphMetricsCache = new GlyphMetricsCache();
+    this.imageColorCache = new ImageColorCache();
+    this.formXObjectCache = new FormXObjectCache(this.maxNumCachedResources);
+    this.nonStrokingColorCache = new ColorStateCache();
+    this.strokingColorCache = new ColorStateCache();
     this.graphicsStack = new Stack<PDGraphicsState>();
     this.linePath = new GeneralPath();
+    this.clippingCounter = new ClippingCounter();
   }
 
+  /**
+   * Registers the given operator processor and binds it to this engine.
+   * 
+   * @param processor The operator processor to register.
+   */
   protected void registerOperatorProcessor(OperatorProcessor processor) {
-    this.operatorProcessors.put(processor.getName(), processor);
+    registerOperatorProcessor(processor, 0);
+  }
+
+  /**
+   * Registers the given operator processor and binds it to this engine.
+   * 
+   * @param processor The operator processor to register.
+   * @param flags     The flags of the operator, e.g. {@link #TYPE3_CACHEABLE}.
+   */
+  protected void registerOperatorProcessor(OperatorProcessor processor, int flags) {
+    processor.setStreamEngine(this);
+    this.operatorProcessors.put(processor.getName(), new OperatorDispatch(processor, flags));
   }
 
   // ==============================================================================================
@@ -270,11 +603,34 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
 
   @Override
   public void parse(Document pdf) throws PdfActException {
-    try (PDDocument doc = PDDocument.load(pdf.getFile())) {
+    try (PDDocument doc = loadDocument(pdf, this.memoryUsageSetting)) {
+      // The cached glyph metrics, converted font dictionaries, image colors and form elements are
+      // only valid for the fonts, images and forms of a single document.
+      this.glyphMetricsCache.clear();
+      this.imageColorCache.clear();
+      this.formXObjectCache.clear();
+      this.fontConverter.clearConvertedFonts();
+      this.isTracing = log.isDebugEnabled();
+      this.nonStrokingColorCache.clear();
+      this.strokingColorCache.clear();
+      // The colors and their ids are local to the document.
+      this.colorManager = new ColorManager();
       handlePdfFileStart(pdf);
-      for (int i = 0; i < doc.getPages().getCount(); i++) {
-        log.debug("==================== Page %d ====================", i + 1);
-        processPage(pdf, doc.getPages().get(i), i + 1);
+      int[] pageIndexes = getPageIndexesToParse(doc.getNumberOfPages());
+      if (this.numThreads > 1 && pageIndexes.length > 1) {
+        parseInParallel(pdf, doc, pageIndexes);
+      } else {
+        BoundedResourceCache resourceCache = attachResourceCache(doc);
+        try {
+          for (int i : pageIndexes) {
+            if (this.isTracing) {
+              log.debug("==================== Page %d ====================", i + 1);
+            }
+            processPage(pdf, doc.getPages().get(i), i + 1);
+          }
+        } finally {
+          releaseResourceCache(resourceCache);
+        }
       }
       handlePdfFileEnd(pdf);
     } catch (IOException e) {
@@ -282,6 +638,86 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
     }
   }
 
+  /**
+   * Returns the indexes of the pages to parse, that is: the indexes of the pages contained in the
+   * page ranges, in ascending order.
+   * 
+   * @param numPages The number of pages in the document.
+   * @return The indexes of the pages to parse.
+   */
+  protected int[] getPageIndexesToParse(int numPages) {
+    TIntArrayList pageIndexes = new TIntArrayList(numPages);
+    for (int i = 0; i < numPages; i++) {
+      if (PageRange.contains(this.pageRanges, i + 1)) {
+        pageIndexes.add(i);
+      }
+    }
+    return pageIndexes.toArray();
+  }
+
+  /**
+   * Loads the given document, from its content if the document is given in memory, or from its
+   * file otherwise.
+   * 
+   * @param pdf                The PDF document to load.
+   * @param memoryUsageSetting The memory usage setting to use.
+   * @return The loaded document.
+   * @throws IOException If the document couldn't be loaded.
+   */
+  protected static PDDocument loadDocument(Document pdf, MemoryUsageSetting memoryUsageSetting)
+          throws IOException {
+    ByteBuffer content = pdf.getContent();
+    if (content == null) {
+      return PDDocument.load(pdf.getFile(), memoryUsageSetting);
+    }
+
+    // Parse the content in place (PDDocument.load(byte[]) would copy it to a buffer of PdfBox).
+    ByteBufferRandomAccessRead source = new ByteBufferRandomAccessRead(content);
+    ScratchFile scratchFile = new ScratchFile(memoryUsageSetting);
+    try {
+      PDFParser parser = new PDFParser(source, "", null, null, scratchFile);
+      parser.parse();
+      return parser.getPDDocument();
+    } catch (IOException e) {
+      scratchFile.close();
+      source.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Attaches a resource cache to the given document, which reuses the fonts and XObjects across
+   * the pages of the document (see {@link BoundedResourceCache}). If there is a shared font cache,
+   * the resource cache takes the fonts from the shared cache (see {@link FontCache}). The metrics
+   * of the glyphs of the shared fonts are passed to the glyph metrics cache of this engine, so the
+   * document must be parsed by this engine.
+   * 
+   * @param doc The loaded PDF document.
+   * @return The attached resource cache.
+   */
+  protected BoundedResourceCache attachResourceCache(PDDocument doc) {
+    BoundedResourceCache resourceCache = this.fontCache != null
+        ? new DocumentFontCache(this.fontCache, this.glyphMetricsCache, this.maxNumCachedResources)
+        : new BoundedResourceCache(this.maxNumCachedResources);
+    doc.setResourceCache(resourceCache);
+    return resourceCache;
+  }
+
+  /**
+   * Counts the hits and misses of the given resource cache and returns the fonts used by the
+   * document to the shared font cache, if there is any (see
+   * {@link #attachResourceCache(PDDocument)}).
+   * 
+   * @param resourceCache The resource cache of the document.
+   */
+  protected void releaseResourceCache(BoundedResourceCache resourceCache) {
+    this.numResourceCacheHits += resourceCache.getNumHits();
+    this.numResourceCacheMisses += resourceCache.getNumMisses();
+    if (resourceCache instanceof DocumentFontCache) {
+      ((DocumentFontCache) resourceCache).release();
+    }
+  }
+
   /**
    * Processes the given page.
    * 
@@ -291,9 +727,25 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
    * @throws IOException If something went wrong while parsing the page.
    */
   protected void processPage(Document pdf, PDPage page, int pageNum) throws IOException {
+    Page pdfPage = beginPage(page, pageNum);
+    handlePdfPageStart(pdf, pdfPage);
+    processStream(pdf, pdfPage, page);
+    pdfPage.setCharacterStatistic(this.statistician.compute(pdfPage));
+    handlePdfPageEnd(pdf, pdfPage);
+  }
+
+  /**
+   * Resets the engine state for the given page and creates the related {@link Page}.
+   * 
+   * @param page    The page to process
+   * @param pageNum The number of the page in the PDF document.
+   * @return The created page.
+   */
+  protected Page beginPage(PDPage page, int pageNum) {
     this.page = page;
     this.graphicsStack.clear();
-    this.graphicsStack.push(new PDGraphicsState(page.getCropBox()));
+    this.graphicsStack.push(
+        new RectangleClippingGraphicsState(page.getCropBox(), this.clippingCounter));
     this.resources = null;
     this.textMatrix = null;
     this.textLineMatrix = null;
@@ -304,6 +756,12 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
     this.clippingWindingRule = -1;
     this.currentType3GlyphBoundingBox = null;
     this.isType3Stream = false;
+    this.numPageOperators = 0;
+    this.pageStartTime = System.nanoTime();
+    this.streamNestingDepth = 0;
+    this.isPageDegraded = false;
+    this.isPageTruncated = false;
+    this.formRecording = null;
 
     Page pdfPage = new Page(pageNum);
     PDRectangle rect = page.getMediaBox();
@@ -317,12 +775,304 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
       pdfPage.setHeight(PdfActUtils.round(rect.getHeight(), FLOATING_NUMBER_PRECISION));
       pdfPage.setWidth(PdfActUtils.round(rect.getWidth(), FLOATING_NUMBER_PRECISION));
     }
+    return pdfPage;
+  }
 
-    handlePdfPageStart(pdf, pdfPage);
-    processStream(pdf, pdfPage, page);
-    handlePdfPageEnd(pdf, pdfPage);
+  // ==============================================================================================
+  // Methods to process the pages in parallel.
+
+  /**
+   * Parses the pages of the given document in parallel. Each thread loads its own copy of the
+   * document and parses the pages with its own engine (see {@link #createWorker()}). The parsed
+   * pages are assembled in page order: the fonts and colors of each page are translated to the
+   * fonts and colors of this engine, and the extraction ranks are shifted, such that the result
+   * is identical to the result of parsing the pages sequentially. The end of each assembled page
+   * is handled by the calling thread (see {@link #handlePdfPageEnd(Document, Page)}), so the
+   * page consumer is called by the calling thread only, and not while holding the lock of this
+   * engine.
+   * 
+   * @param pdf         The PDF document to parse.
+   * @param doc         The loaded PDF document.
+   * @param pageIndexes The indexes of the pages to parse, in ascending order.
+   * @throws IOException If something went wrong while parsing the pages.
+   */
+  protected void parseInParallel(Document pdf, PDDocument doc, int[] pageIndexes)
+          throws IOException {
+    int numPages = pageIndexes.length;
+    int numWorkers = Math.min(this.numThreads, numPages);
+    AtomicInteger nextPageIndex = new AtomicInteger();
+    ParsedPage[] parsedPages = new ParsedPage[numPages];
+    this.numAssembledPages = 0;
+    this.assembledPages = new LinkedBlockingQueue<>();
+
+    ExecutorService executor = Executors.newFixedThreadPool(numWorkers);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < numWorkers; i++) {
+        // The first worker reuses the already loaded document.
+        PDDocument workerDoc = i == 0 ? doc : null;
+        futures.add(executor.submit(() -> {
+          try {
+            parsePages(pdf, workerDoc, pageIndexes, nextPageIndex, parsedPages);
+          } finally {
+            this.assembledPages.add(END_OF_PAGES);
+          }
+          return null;
+        }));
+      }
+
+      // Handle the end of the assembled pages in page order, until all workers are done.
+      int numFinishedWorkers = 0;
+      while (numFinishedWorkers < numWorkers) {
+        Page page = this.assembledPages.take();
+        if (page == END_OF_PAGES) {
+          numFinishedWorkers++;
+        } else {
+          handlePdfPageEnd(pdf, page);
+        }
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("The parsing of the pages was interrupted.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Couldn't parse the pages.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+      this.assembledPages = null;
+    }
+  }
+
+  /**
+   * Parses pages of the given document with a new worker engine, until there are no pages left.
+   * 
+   * @param pdf           The PDF document to parse.
+   * @param doc           The loaded PDF document to use, or null if the worker should load its
+   *                      own copy of the document.
+   * @param pageIndexes   The indexes of the pages to parse, in ascending order.
+   * @param nextPageIndex The position of the next page to parse in pageIndexes.
+   * @param parsedPages   The parsed pages, per position in pageIndexes.
+   * @throws IOException If something went wrong while parsing the pages.
+   */
+  protected void parsePages(Document pdf, PDDocument doc, int[] pageIndexes,
+          AtomicInteger nextPageIndex, ParsedPage[] parsedPages) throws IOException {
+    PdfBoxPdfStreamsParser worker = createWorker();
+    // Each copy of the document gets an equal share of the limits of the memory usage setting.
+    PDDocument workerDoc = doc != null ? doc
+        : loadDocument(pdf, this.memoryUsageSetting.getPartitionedCopy(this.numThreads));
+    BoundedResourceCache resourceCache = worker.attachResourceCache(workerDoc);
+    try {
+      int i;
+      while (!Thread.currentThread().isInterrupted()
+              && (i = nextPageIndex.getAndIncrement()) < parsedPages.length) {
+        int pageIndex = pageIndexes[i];
+        if (this.isTracing) {
+          log.debug("==================== Page %d ====================", pageIndex + 1);
+        }
+        int numFonts = worker.fontConverter.getNumCreatedFonts();
+        int numColors = worker.colorManager.getNumRegisteredColors();
+
+        PDPage page = workerDoc.getPages().get(pageIndex);
+        ParsedPage parsedPage = new ParsedPage();
+        parsedPage.firstExtractionRank = worker.extractionRank;
+        parsedPage.page = worker.beginPage(page, pageIndex + 1);
+        worker.processStream(pdf, parsedPage.page, page);
+        // Compute the character statistic here, so that only its font faces and colors need to
+        // be translated on assembling the page.
+        parsedPage.page.setCharacterStatistic(worker.statistician.compute(parsedPage.page));
+        parsedPage.numExtractionRanks = worker.extractionRank - parsedPage.firstExtractionRank;
+        parsedPage.fonts = worker.fontConverter.getCreatedFonts(numFonts,
+                worker.fontConverter.getNumCreatedFonts());
+        parsedPage.colors = worker.colorManager.getRegisteredColors(numColors,
+                worker.colorManager.getNumRegisteredColors());
+
+        assemblePages(pdf, parsedPages, i, parsedPage);
+      }
+      synchronized (this) {
+        this.numCharacters += worker.numCharacters;
+        this.numFigures += worker.numFigures;
+        this.numShapes += worker.numShapes;
+      }
+    } finally {
+      worker.releaseResourceCache(resourceCache);
+      synchronized (this) {
+        this.numResourceCacheHits += worker.numResourceCacheHits;
+        this.numResourceCacheMisses += worker.numResourceCacheMisses;
+        this.numFormXObjectCacheHits += worker.numFormXObjectCacheHits;
+        this.numFormXObjectCacheMisses += worker.numFormXObjectCacheMisses;
+        this.clippingCounter.add(worker.clippingCounter);
+      }
+      if (workerDoc != doc) {
+        workerDoc.close();
+      }
+    }
+  }
+
+  /**
+   * Creates a new engine to parse pages in parallel to other engines. The engine must have its own
+   * state, operator processors, font converters and color manager, and must extract the same
+   * elements as this engine.
+   * 
+   * @return The created engine.
+   */
+  protected PdfBoxPdfStreamsParser createWorker() {
+    PdfBoxPdfStreamsParser worker = new PdfBoxPdfStreamsParser(1);
+    worker.setIsExtractingShapes(this.isExtractingShapes);
+    worker.setIsExtractingFigures(this.isExtractingFigures);
+    worker.setMaxOperatorsPerPage(this.maxOperatorsPerPage);
+    worker.setMaxPageParsingTime(this.maxPageParsingTime);
+    worker.setMaxFormXObjectNesting(this.maxFormXObjectNesting);
+    worker.setFontCache(this.fontCache);
+    worker.setMaxNumCachedResources(this.maxNumCachedResources);
+    worker.setIsMemoizingFormXObjects(this.isMemoizingFormXObjects);
+    return worker;
+  }
+
+  /**
+   * Stores the given parsed page and assembles all parsed pages that are ready to be assembled,
+   * that is: all pages whose preceding pages are assembled already. The assembled pages are
+   * added to the queue of assembled pages.
+   * 
+   * @param pdf         The PDF document to which the pages belong to.
+   * @param parsedPages The parsed pages, per page index.
+   * @param index       The index of the given parsed page.
+   * @param parsedPage  The parsed page.
+   */
+  protected synchronized void assemblePages(Document pdf, ParsedPage[] parsedPages, int index,
+          ParsedPage parsedPage) {
+    parsedPages[index] = parsedPage;
+    while (this.numAssembledPages < parsedPages.length
+            && parsedPages[this.numAssembledPages] != null) {
+      assemblePage(pdf, parsedPages[this.numAssembledPages]);
+      // Release the page, it is referenced by the document now.
+      parsedPages[this.numAssembledPages] = null;
+      this.numAssembledPages++;
+    }
+  }
+
+  /**
+   * Assembles the given parsed page: registers the fonts and colors created on parsing the page,
+   * translates the fonts, font faces and colors of the elements and of the character statistic to
+   * the fonts, font faces and colors of this engine, shifts the extraction ranks and adds the page
+   * to the PDF document and to the queue of assembled pages.
+   * 
+   * @param pdf        The PDF document to which the page belongs to.
+   * @param parsedPage The parsed page.
+   */
+  protected void assemblePage(Document pdf, ParsedPage parsedPage) {
+    Page page = parsedPage.page;
+    handlePdfPageStart(pdf, page);
+
+    // Register the new fonts and colors in the order in which they were created by the worker.
+    for (Font font : parsedPage.fonts) {
+      this.fontConverter.convert(font);
+    }
+    for (Color color : parsedPage.colors) {
+      this.colorManager.getColor(color);
+    }
+
+    // Translate each font face and color of the worker only once. Keep the worker font faces
+    // and colors in the order of their first occurrence, which is the order in which they were
+    // added to the counters of the character statistic.
+    Map<FontFace, FontFace> fontFaces = new IdentityHashMap<>();
+    Map<Color, Color> colors = new IdentityHashMap<>();
+    List<FontFace> workerFontFaces = new ArrayList<>();
+    List<Color> workerColors = new ArrayList<>();
+    int rankOffset = this.extractionRank - parsedPage.firstExtractionRank;
+    for (Character character : page.getCharacters()) {
+      FontFace fontFace = character.getFontFace();
+      if (!fontFaces.containsKey(fontFace)) {
+        FontFace translated = null;
+        if (fontFace != null) {
+          Font font = this.fontConverter.convert(fontFace.getFont());
+          translated = this.fontFaceConverter.convert(font, fontFace.getFontSize());
+        }
+        fontFaces.put(fontFace, translated);
+        workerFontFaces.add(fontFace);
+      }
+      character.setFontFace(fontFaces.get(fontFace));
+
+      Color color = character.getColor();
+      if (!colors.containsKey(color)) {
+        colors.put(color, this.colorManager.getColor(color));
+        workerColors.add(color);
+      }
+      character.setColor(colors.get(color));
+      character.setExtractionRank(character.getExtractionRank() + rankOffset);
+    }
+    for (Shape shape : page.getShapes()) {
+      shape.setColor(this.colorManager.getColor(shape.getColor()));
+    }
+    this.extractionRank += parsedPage.numExtractionRanks;
+
+    CharacterStatistic statistic = page.getCharacterStatistic();
+    statistic.setFontFaceFrequencies(
+        translateCounter(statistic.getFontFaceFrequencies(), workerFontFaces, fontFaces));
+    statistic.setColorFrequencies(
+        translateCounter(statistic.getColorFrequencies(), workerColors, colors));
+
+    this.assembledPages.add(page);
   }
 
+  /**
+   * Translates the objects counted by the given counter.
+   * 
+   * @param counter     The counter to translate.
+   * @param objects     The counted objects, in the order in which they were added to the counter
+   *                    first. Adding the translated objects in the same order results in the
+   *                    same most common object on ties as counting the translated objects.
+   * @param translation The translated object per counted object.
+   * @return The counter of the translated objects.
+   */
+  protected static <T> ObjectCounter<T> translateCounter(ObjectCounter<T> counter, List<T> objects,
+          Map<T, T> translation) {
+    ObjectCounter<T> translated = new ObjectCounter<>();
+    for (T object : objects) {
+      int frequency = counter.getFrequency(object);
+      translated.adjustOrPutValue(translation.get(object), frequency, frequency);
+    }
+    return translated;
+  }
+
+  /**
+   * A page parsed by a worker engine, together with the worker state needed to assemble it.
+   * 
+   * @author Claudius Korzen
+   */
+  protected static class ParsedPage {
+    /**
+     * The parsed page.
+     */
+    protected Page page;
+
+    /**
+     * The fonts created by the worker while parsing the page.
+     */
+    protected List<Font> fonts;
+
+    /**
+     * The colors created by the worker while parsing the page.
+     */
+    protected List<Color> colors;
+
+    /**
+     * The extraction rank of the worker at the start of the page.
+     */
+    protected int firstExtractionRank;
+
+    /**
+     * The number of extraction ranks assigned by the worker while parsing the page.
+     */
+    protected int numExtractionRanks;
+  }
+
+  // ==============================================================================================
+
   /**
    * Processes the page content stream.
    * 
@@ -332,7 +1082,14 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
    * @throws IOException if there is an exception while processing the stream
    */
   public void processStream(Document pdf, Page page, PDContentStream stream) throws IOException {
-    if (stream != null) {
+    if (stream != null && !this.isPageTruncated) {
+      if (this.maxFormXObjectNesting > 0 && this.streamNestingDepth >= this.maxFormXObjectNesting) {
+        log.warn("Page %d: skipped a form XObject nested deeper than %d levels.",
+            page.getPageNumber(), this.maxFormXObjectNesting);
+        degradePage(page);
+        return;
+      }
+      this.streamNestingDepth++;
       PDResources parent = pushResources(stream);
       Stack<PDGraphicsState> savedStack = saveGraphicsStack();
       Matrix parentMatrix = this.initialMatrix;
@@ -350,7 +1107,142 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
       this.initialMatrix = parentMatrix;
       restoreGraphicsStack(savedStack);
       popResources(parent);
+      this.streamNestingDepth--;
+    }
+  }
+
+  /**
+   * Processes the given form XObject. If the form was drawn before in the same state, the elements
+   * extracted on the previous draw are re-emitted instead of processing the stream of the form
+   * again (see {@link FormXObjectCache}). Otherwise, the form is drawn and the extracted elements
+   * are recorded for subsequent draws.
+   * 
+   * @param pdf  The PDF document to which the form belongs to.
+   * @param page The PDF page on which the form is drawn.
+   * @param form The form XObject.
+   * @throws IOException if processing the form fails.
+   */
+  public void processFormXObject(Document pdf, Page page, PDFormXObject form) throws IOException {
+    if (!isMemoizable(form)) {
+      drawFormXObject(pdf, page, form);
+      return;
+    }
+
+    COSStream stream = form.getCOSObject();
+    FormState state = new FormState(getGraphicsState(), this.clippingWindingRule, this.textMatrix,
+        this.textLineMatrix);
+    RecordedForm recordedForm = this.formXObjectCache.get(stream);
+    if (recordedForm != null && recordedForm.isReplayableIn(state) && (this.maxOperatorsPerPage <= 0
+        || this.numPageOperators + recordedForm.getNumOperators() <= this.maxOperatorsPerPage)) {
+      replayFormXObject(pdf, page, recordedForm);
+      this.numFormXObjectCacheHits++;
+      return;
+    }
+
+    RecordedForm recording = new RecordedForm(state, this.extractionRank, this.textMatrix,
+        this.textLineMatrix);
+    int numPageOperators = this.numPageOperators;
+    this.formRecording = recording;
+    try {
+      drawFormXObject(pdf, page, form);
+    } finally {
+      this.formRecording = null;
+    }
+    // The elements of a form are incomplete if the page exceeded a limit while drawing the form.
+    if (!this.isPageDegraded) {
+      recording.finish(this.extractionRank, this.numPageOperators - numPageOperators,
+          this.linePath, this.linePathPosition, this.linePathLastMoveToPosition,
+          this.clippingWindingRule, this.textMatrix, this.textLineMatrix);
+      this.formXObjectCache.put(stream, recording);
+      this.numFormXObjectCacheMisses++;
+    }
+  }
+
+  /**
+   * Checks if the elements of the given form XObject can be recorded and re-emitted. This is the
+   * case for forms drawn by the content stream of a page (not by another form or by a type3
+   * glyph) on a page that didn't exceed a limit so far, and with their own resources (otherwise,
+   * the form would use the resources of the page, which may differ from page to page).
+   * 
+   * @param form The form XObject.
+   * @return True if the elements of the form can be recorded and re-emitted; false otherwise.
+   */
+  protected boolean isMemoizable(PDFormXObject form) {
+    if (!this.isMemoizingFormXObjects || this.formRecording != null) {
+      return false;
+    }
+    if (this.streamNestingDepth != 1 || this.isType3Stream || this.isPageDegraded) {
+      return false;
+    }
+    COSBase resources = form.getCOSObject().getDictionaryObject(COSName.RESOURCES);
+    return resources instanceof COSDictionary;
+  }
+
+  /**
+   * Draws the given form XObject, that is: maps the form space to the user space, clips to the
+   * bounding box of the form and processes the stream of the form.
+   * 
+   * @param pdf  The PDF document to which the form belongs to.
+   * @param page The PDF page on which the form is drawn.
+   * @param form The form XObject.
+   * @throws IOException if processing the form fails.
+   */
+  protected void drawFormXObject(Document pdf, Page page, PDFormXObject form) throws IOException {
+    saveGraphicsState();
+
+    // If there is an optional form matrix, we have to map the form space to the user space.
+    Matrix matrix = form.getMatrix();
+    if (matrix != null) {
+      Matrix ctm = getGraphicsState().getCurrentTransformationMatrix();
+      Matrix xctm = matrix.multiply(ctm);
+      getGraphicsState().setCurrentTransformationMatrix(xctm);
+    }
+
+    // Clip to the form's BBox.
+    if (form.getBBox() != null) {
+      PDGraphicsState graphicsState = getGraphicsState();
+      PDRectangle bbox = form.getBBox();
+      GeneralPath bboxPath = transformedPDRectanglePath(bbox);
+      graphicsState.intersectClippingPath(bboxPath);
     }
+
+    // Parse the stream of the form.
+    if (form.getCOSObject().getLength() > 0) {
+      processStream(pdf, page, form);
+    }
+
+    // Restore the graphics state.
+    restoreGraphicsState();
+  }
+
+  /**
+   * Re-emits the elements of the given recorded form XObject on the given page, with the
+   * extraction ranks following the current extraction rank, and restores the state of the engine
+   * after the form was drawn.
+   * 
+   * @param pdf  The PDF document to which the form belongs to.
+   * @param page The PDF page on which the form is drawn.
+   * @param form The recorded form XObject.
+   */
+  protected void replayFormXObject(Document pdf, Page page, RecordedForm form) {
+    for (Character c : form.getCharacters(page, this.extractionRank)) {
+      handlePdfCharacter(pdf, page, c);
+    }
+    for (Shape shape : form.getShapes(page)) {
+      handlePdfShape(pdf, page, shape);
+    }
+    for (Figure figure : form.getFigures(page)) {
+      handlePdfFigure(pdf, page, figure);
+    }
+    this.extractionRank += form.getNumExtractionRanks();
+    this.numPageOperators += form.getNumOperators();
+
+    this.linePath = form.getLinePath();
+    this.linePathPosition = form.getLinePathPosition();
+    this.linePathLastMoveToPosition = form.getLinePathLastMoveToPosition();
+    this.clippingWindingRule = form.getClippingWindingRule();
+    this.textMatrix = form.getTextMatrix();
+    this.textLineMatrix = form.getTextLineMatrix();
   }
 
   /**
@@ -364,6 +1256,22 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
    */
   public void processType3Stream(Document pdf, Page page, PDType3CharProc proc, Matrix trm)
           throws IOException {
+    processType3Stream(pdf, page, proc, trm, parseStreamTokens(proc));
+  }
+
+  /**
+   * Processes a type 3 character stream, given by the tokens of the stream that were already
+   * parsed (for example, on a previous occurrence of the same glyph).
+   * 
+   * @param pdf    The PDF document to which the stream belongs to.
+   * @param page   The PDF page to which the stream belongs to.
+   * @param proc   Type 3 character procedure
+   * @param trm    The text Rendering Matrix
+   * @param tokens The tokens of the type 3 character procedure.
+   * @throws IOException if processing the type stream fails.
+   */
+  public void processType3Stream(Document pdf, Page page, PDType3CharProc proc, Matrix trm,
+          List<Object> tokens) throws IOException {
     PDResources parent = pushResources(proc);
     Stack<PDGraphicsState> savedStack = saveGraphicsStack();
 
@@ -379,8 +1287,12 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
     Matrix oldTextLineMatrix = getTextLineMatrix();
     setTextLineMatrix(new Matrix());
 
+    this.currentType3GlyphSpaceBoundingBox = null;
+    this.isType3GlyphCacheable = true;
+    this.numType3StreamOperators = 0;
+
     setIsType3Stream(true);
-    processStreamOperators(pdf, page, proc);
+    processStreamTokens(pdf, page, tokens);
     setIsType3Stream(false);
 
     // Restore text matrices
@@ -392,7 +1304,8 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
   }
 
   /**
-   * Processes the operators of the given content stream.
+   * Processes the operators of the given content stream. The tokens are parsed and processed one
+   * by one, so that the tokens of the whole stream are never held in memory at the same time.
    * 
    * @param pdf    The PDF document to which the stream belongs to.
    * @param page   The PDF page to which the stream belongs to.
@@ -401,20 +1314,66 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
    */
   protected void processStreamOperators(Document pdf, Page page, PDContentStream stream)
           throws IOException {
+    PDFStreamParser parser = new PDFStreamParser(stream);
     List<COSBase> arguments = new ArrayList<COSBase>();
 
+    Object token;
+    while (!this.isPageTruncated && (token = parser.parseNextToken()) != null) {
+      processStreamToken(pdf, page, token, arguments);
+    }
+  }
+
+  /**
+   * Parses the given content stream into its tokens (operators and operands).
+   * 
+   * @param stream The stream.
+   * @return The tokens of the stream.
+   * @throws IOException if parsing the stream fails.
+   */
+  public List<Object> parseStreamTokens(PDContentStream stream) throws IOException {
     PDFStreamParser parser = new PDFStreamParser(stream);
     parser.parse();
+    return parser.getTokens();
+  }
 
-    for (Object token : parser.getTokens()) {
-      if (token instanceof COSObject) {
-        arguments.add(((COSObject) token).getObject());
-      } else if (token instanceof Operator) {
-        processOperator(pdf, page, (Operator) token, arguments);
-        arguments = new ArrayList<COSBase>();
-      } else {
-        arguments.add((COSBase) token);
-      }
+  /**
+   * Processes the given tokens (operators and operands) of a content stream.
+   * 
+   * @param pdf    The PDF document to which the stream belongs to.
+   * @param page   The PDF page to which the stream belongs to.
+   * @param tokens The tokens of the stream.
+   * @throws IOException if processing the tokens fails.
+   */
+  protected void processStreamTokens(Document pdf, Page page, List<Object> tokens)
+          throws IOException {
+    List<COSBase> arguments = new ArrayList<COSBase>();
+
+    for (Object token : tokens) {
+      processStreamToken(pdf, page, token, arguments);
+    }
+  }
+
+  /**
+   * Processes the given token (an operator or an operand) of a content stream. An operand is
+   * added to the given arguments, an operator is processed with the given arguments. The arguments
+   * are cleared afterwards, so the same list can be reused for all operators of a stream. The
+   * operator processors must therefore not keep a reference to the arguments.
+   * 
+   * @param pdf       The PDF document to which the stream belongs to.
+   * @param page      The PDF page to which the stream belongs to.
+   * @param token     The token to process.
+   * @param arguments The arguments collected since the last operator.
+   * @throws IOException if processing the token fails.
+   */
+  protected void processStreamToken(Document pdf, Page page, Object token,
+          List<COSBase> arguments) throws IOException {
+    if (token instanceof COSObject) {
+      arguments.add(((COSObject) token).getObject());
+    } else if (token instanceof Operator) {
+      processOperator(pdf, page, (Operator) token, arguments);
+      arguments.clear();
+    } else {
+      arguments.add((COSBase) token);
     }
   }
 
@@ -434,32 +1393,200 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
   }
 
   /**
-   * This is used to handle an operator.
+   * This is used to handle an operator.
+   * 
+   * @param pdf  The PDF document to which the operator belongs to.
+   * @param page The PDF page to which the operator belongs to.
+   * @param op   The operation to perform.
+   * @param args The list of arguments.
+   * @throws IOException If there is an error processing the operation.
+   */
+  protected void processOperator(Document pdf, Page page, Operator op, List<COSBase> args)
+          throws IOException {
+    OperatorDispatch dispatch = getOperatorDispatch(op);
+    if (!isWithinPageLimits(page, dispatch)) {
+      if (this.isType3Stream) {
+        // The bounding box of the glyph may be incomplete.
+        this.isType3GlyphCacheable = false;
+      }
+      return;
+    }
+    OperatorProcessor processor = dispatch.processor;
+
+    if (this.isTracing) {
+      log.debug("-----------------------------------------------------");
+      log.debug("Operator: %s; Args: %s", op.getName(), args);
+      log.debug("... page: %d", page.getPageNumber());
+    }
+
+    if (processor != null) {
+      if (this.isTracing) {
+        log.debug("... handled by %s.class.", processor.getClass().getSimpleName());
+      }
+      boolean isType3Stream = this.isType3Stream;
+      if (isType3Stream) {
+        // The bounding box given by d1 refers to the initial CTM of the type3 stream, so it can
+        // only be cached if d1 is the first operator.
+        if (dispatch.isType3GlyphBoundingBox && this.numType3StreamOperators > 0) {
+          this.isType3GlyphCacheable = false;
+        }
+        this.numType3StreamOperators++;
+      }
+      try {
+        processor.process(pdf, page, op, args);
+      } catch (IOException e) {
+        log.warn("... error on handling the operator.", e);
+      }
+      // Check the operator *after* processing it, since it could process a nested type3 stream.
+      if (isType3Stream && !dispatch.isType3Cacheable) {
+        this.isType3GlyphCacheable = false;
+      }
+    } else if (this.isTracing) {
+      log.debug("... not handled.");
+    }
+  }
+
+  /**
+   * Counts the given operator for the current page and checks the limits of the page. If the page
+   * exceeds the operator limit or the time limit, the page is degraded: the non-text operators
+   * (the operators to construct, paint and clip paths, and images) are skipped from then on. If
+   * the page exceeds twice the limit, the page is truncated: all remaining operators are skipped.
+   * 
+   * @param page     The page to which the operator belongs to.
+   * @param dispatch The processor and the flags of the operator to process.
+   * @return True if the operator is to be processed; false if it is to be skipped.
+   */
+  protected boolean isWithinPageLimits(Page page, OperatorDispatch dispatch) {
+    if (this.isPageTruncated) {
+      return false;
+    }
+    int numOperators = ++this.numPageOperators;
+    if (this.maxOperatorsPerPage > 0 && numOperators > this.maxOperatorsPerPage) {
+      if (numOperators > 2L * this.maxOperatorsPerPage) {
+        log.warn("Page %d: truncated after %d operators.", page.getPageNumber(), numOperators - 1);
+        truncatePage(page);
+        return false;
+      }
+      if (!this.isPageDegraded) {
+        log.warn("Page %d: skipping the non-text operators after %d operators.",
+            page.getPageNumber(), numOperators - 1);
+        degradePage(page);
+      }
+    }
+    if (this.maxPageParsingTime > 0 && (numOperators & (PAGE_TIME_CHECK_INTERVAL - 1)) == 0) {
+      long time = (System.nanoTime() - this.pageStartTime) / 1000000;
+      if (time > 2 * this.maxPageParsingTime) {
+        log.warn("Page %d: truncated after %d ms.", page.getPageNumber(), time);
+        truncatePage(page);
+        return false;
+      }
+      if (time > this.maxPageParsingTime && !this.isPageDegraded) {
+        log.warn("Page %d: skipping the non-text operators after %d ms.", page.getPageNumber(),
+            time);
+        degradePage(page);
+      }
+    }
+    return !this.isPageDegraded || !dispatch.isNonText;
+  }
+
+  /**
+   * Degrades the current page, that is: skips the non-text operators of the page from now on.
+   * 
+   * @param page The current page.
+   */
+  protected void degradePage(Page page) {
+    this.isPageDegraded = true;
+    page.setIsDegraded(true);
+  }
+
+  /**
+   * Truncates the current page, that is: skips all operators of the page from now on.
    * 
-   * @param pdf  The PDF document to which the operator belongs to.
-   * @param page The PDF page to which the operator belongs to.
-   * @param op   The operation to perform.
-   * @param args The list of arguments.
-   * @throws IOException If there is an error processing the operation.
+   * @param page The current page.
    */
-  protected void processOperator(Document pdf, Page page, Operator op, List<COSBase> args)
-          throws IOException {
-    OperatorProcessor processor = this.operatorProcessors.get(op.getName());
-
-    log.debug("-----------------------------------------------------");
-    log.debug("Operator: %s; Args: %s", op.getName(), args);
-    log.debug("... page: %d", page.getPageNumber());
+  protected void truncatePage(Page page) {
+    degradePage(page);
+    this.isPageTruncated = true;
+    page.setIsTruncated(true);
+  }
 
-    if (processor != null) {
-      log.debug("... handled by %s.class.", processor.getClass().getSimpleName());
-      try {
-        processor.setStreamEngine(this);
-        processor.process(pdf, page, op, args);
-      } catch (IOException e) {
-        log.warn("... error on handling the operator.", e);
+  /**
+   * Returns the processor and the flags of the given operator.
+   * 
+   * @param op The operator.
+   * @return The processor and the flags of the given operator. The processor is null if the
+   *         operator is not handled.
+   */
+  protected OperatorDispatch getOperatorDispatch(Operator op) {
+    OperatorDispatch dispatch = this.operatorDispatchTable.get(op);
+    if (dispatch == null) {
+      String name = op.getName();
+      dispatch = this.operatorProcessors.get(name);
+      if (dispatch == null) {
+        dispatch = OperatorDispatch.NOT_HANDLED;
+      } else if (isPrunedOperator(dispatch.flags)) {
+        // Keep the flags of the operator, so that it is still skipped on degraded pages.
+        dispatch = new OperatorDispatch(null, dispatch.flags);
       }
-    } else {
-      log.debug("... not handled.");
+      // Don't keep the operators of inline images, they are created per image.
+      if (Operator.getOperator(name) == op) {
+        this.operatorDispatchTable.put(op, dispatch);
+      }
+    }
+    return dispatch;
+  }
+
+  /**
+   * The processor of an operator, together with the flags of the operator.
+   * 
+   * @author Claudius Korzen
+   */
+  protected static class OperatorDispatch {
+    /**
+     * The dispatch of the operators that are not handled.
+     */
+    protected static final OperatorDispatch NOT_HANDLED = new OperatorDispatch(null, 0);
+
+    /**
+     * The processor of the operator, or null if the operator is not handled.
+     */
+    protected final OperatorProcessor processor;
+
+    /**
+     * The flags of the operator.
+     */
+    protected final int flags;
+
+    /**
+     * Whether the bounding box of a Type3 glyph can still be cached after processing the operator
+     * (see {@link PdfBoxPdfStreamsParser#TYPE3_CACHEABLE}).
+     */
+    protected final boolean isType3Cacheable;
+
+    /**
+     * Whether the operator sets the bounding box of a Type3 glyph (d1).
+     */
+    protected final boolean isType3GlyphBoundingBox;
+
+    /**
+     * Whether the operator is a non-text operator, that is: an operator to construct, paint or
+     * clip paths, or an operator of inline images. Non-text operators are skipped on degraded
+     * pages.
+     */
+    protected final boolean isNonText;
+
+    /**
+     * Creates a new dispatch.
+     * 
+     * @param processor The processor of the operator, or null if the operator is not handled.
+     * @param flags     The flags of the operator.
+     */
+    protected OperatorDispatch(OperatorProcessor processor, int flags) {
+      this.processor = processor;
+      this.flags = flags;
+      this.isType3Cacheable = (flags & TYPE3_CACHEABLE) != 0;
+      this.isType3GlyphBoundingBox = processor instanceof SetType3GlyphWidthAndBoundingBox;
+      this.isNonText = (flags & (SHAPE | IMAGE)) != 0;
     }
   }
 
@@ -660,6 +1787,9 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
    * @return The text line matrix.
    */
   public Matrix getTextLineMatrix() {
+    if (this.formRecording != null) {
+      this.formRecording.recordTextMatrixAccess(this.textLineMatrix);
+    }
     return this.textLineMatrix;
   }
 
@@ -678,6 +1808,9 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
    * @return The text matrix.
    */
   public Matrix getTextMatrix() {
+    if (this.formRecording != null) {
+      this.formRecording.recordTextMatrixAccess(this.textMatrix);
+    }
     return this.textMatrix;
   }
 
@@ -690,6 +1823,408 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
     this.textMatrix = value;
   }
 
+  // ==============================================================================================
+  // Methods related to fonts, colors and extraction ranks.
+
+  /**
+   * Returns the converter to translate PDFont objects to Font objects.
+   * 
+   * @return The font converter.
+   */
+  public PDFontConverter getFontConverter() {
+    return this.fontConverter;
+  }
+
+  /**
+   * Returns the converter to create instances of {@link FontFace}.
+   * 
+   * @return The font face converter.
+   */
+  public PDFontFaceConverter getFontFaceConverter() {
+    return this.fontFaceConverter;
+  }
+
+  /**
+   * Returns the manager to translate PDColor objects to Color objects.
+   * 
+   * @return The color manager.
+   */
+  public ColorManager getColorManager() {
+    return this.colorManager;
+  }
+
+  /**
+   * Returns the current non-stroking color of the graphics state, converted to a {@link Color}.
+   * The color is converted only if it was changed since the last call.
+   * 
+   * @return The current non-stroking color.
+   */
+  public Color getNonStrokingColor() {
+    PDGraphicsState state = getGraphicsState();
+    return this.nonStrokingColorCache.getColor(state.getNonStrokingColor(),
+            state.getNonStrokingColorSpace(), this.colorManager);
+  }
+
+  /**
+   * Returns the current stroking color of the graphics state, converted to a {@link Color}. The
+   * color is converted only if it was changed since the last call.
+   * 
+   * @return The current stroking color.
+   */
+  public Color getStrokingColor() {
+    PDGraphicsState state = getGraphicsState();
+    return this.strokingColorCache.getColor(state.getStrokingColor(),
+            state.getStrokingColorSpace(), this.colorManager);
+  }
+
+  /**
+   * Returns the cache for the metrics of the glyphs in the fonts of the current document.
+   * 
+   * @return The glyph metrics cache.
+   */
+  public GlyphMetricsCache getGlyphMetricsCache() {
+    return this.glyphMetricsCache;
+  }
+
+  /**
+   * Returns the cache for the exclusive colors of the images of the current document.
+   * 
+   * @return The image color cache.
+   */
+  public ImageColorCache getImageColorCache() {
+    return this.imageColorCache;
+  }
+
+  /**
+   * Returns the extraction rank for the next extracted character and increments it.
+   * 
+   * @return The extraction rank.
+   */
+  public int nextExtractionRank() {
+    return this.extractionRank++;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the consumer to pass each page to, as soon as the page is parsed.
+   * 
+   * @return The page consumer, or null if there is no such consumer.
+   */
+  public Consumer<Page> getPageConsumer() {
+    return this.pageConsumer;
+  }
+
+  /**
+   * Sets the consumer to pass each page to, as soon as the page is parsed. The pages are passed in
+   * page order by the thread that parses the document, also on parsing the pages in parallel.
+   * 
+   * @param pageConsumer The page consumer, or null if there is no such consumer.
+   */
+  public void setPageConsumer(Consumer<Page> pageConsumer) {
+    this.pageConsumer = pageConsumer;
+  }
+
+  /**
+   * Returns true if shapes are extracted.
+   * 
+   * @return True if shapes are extracted; false otherwise.
+   */
+  public boolean isExtractingShapes() {
+    return this.isExtractingShapes;
+  }
+
+  /**
+   * Sets the boolean flag indicating whether shapes should be extracted. If not, the operators to
+   * construct, paint and clip paths are not processed at all.
+   * 
+   * @param isExtractingShapes True, if shapes should be extracted; false otherwise.
+   */
+  public void setIsExtractingShapes(boolean isExtractingShapes) {
+    this.isExtractingShapes = isExtractingShapes;
+    this.operatorDispatchTable.clear();
+  }
+
+  /**
+   * Returns true if figures are extracted.
+   * 
+   * @return True if figures are extracted; false otherwise.
+   */
+  public boolean isExtractingFigures() {
+    return this.isExtractingFigures;
+  }
+
+  /**
+   * Sets the boolean flag indicating whether figures should be extracted. If neither figures nor
+   * shapes should be extracted, images are not processed at all (images are extracted as shapes if
+   * they consist of a single color, and as figures otherwise).
+   * 
+   * @param isExtractingFigures True, if figures should be extracted; false otherwise.
+   */
+  public void setIsExtractingFigures(boolean isExtractingFigures) {
+    this.isExtractingFigures = isExtractingFigures;
+    this.operatorDispatchTable.clear();
+  }
+
+  /**
+   * Returns the ranges of the pages to parse.
+   * 
+   * @return The ranges of the pages to parse, or null if all pages are parsed.
+   */
+  public List<PageRange> getPageRanges() {
+    return this.pageRanges;
+  }
+
+  /**
+   * Sets the ranges of the pages to parse. Pages that are not contained in any of the ranges are
+   * not processed at all.
+   * 
+   * @param pageRanges The ranges of the pages to parse, or null if all pages should be parsed.
+   */
+  public void setPageRanges(List<PageRange> pageRanges) {
+    this.pageRanges = pageRanges;
+  }
+
+  /**
+   * Returns the maximum number of operators to process per page.
+   * 
+   * @return The maximum number of operators per page (0 if unlimited).
+   */
+  public int getMaxOperatorsPerPage() {
+    return this.maxOperatorsPerPage;
+  }
+
+  /**
+   * Sets the maximum number of operators to process per page. If a page exceeds this limit, its
+   * remaining non-text operators are skipped; if it exceeds twice this limit, all its remaining
+   * operators are skipped.
+   * 
+   * @param maxOperatorsPerPage The maximum number of operators per page (0 if unlimited).
+   */
+  public void setMaxOperatorsPerPage(int maxOperatorsPerPage) {
+    this.maxOperatorsPerPage = maxOperatorsPerPage;
+  }
+
+  /**
+   * Returns the maximum time to spend on parsing a page.
+   * 
+   * @return The maximum time per page in milliseconds (0 if unlimited).
+   */
+  public long getMaxPageParsingTime() {
+    return this.maxPageParsingTime;
+  }
+
+  /**
+   * Sets the maximum time to spend on parsing a page. If a page exceeds this limit, its remaining
+   * non-text operators are skipped; if it exceeds twice this limit, all its remaining operators
+   * are skipped. The time is checked every {@value #PAGE_TIME_CHECK_INTERVAL} operators.
+   * 
+   * @param maxPageParsingTime The maximum time per page in milliseconds (0 if unlimited).
+   */
+  public void setMaxPageParsingTime(long maxPageParsingTime) {
+    this.maxPageParsingTime = maxPageParsingTime;
+  }
+
+  /**
+   * Returns the maximum nesting depth of form XObjects.
+   * 
+   * @return The maximum nesting depth (0 if unlimited).
+   */
+  public int getMaxFormXObjectNesting() {
+    return this.maxFormXObjectNesting;
+  }
+
+  /**
+   * Sets the maximum nesting depth of form XObjects. Form XObjects that are nested deeper are
+   * skipped, and the page is flagged as degraded.
+   * 
+   * @param maxFormXObjectNesting The maximum nesting depth (0 if unlimited).
+   */
+  public void setMaxFormXObjectNesting(int maxFormXObjectNesting) {
+    this.maxFormXObjectNesting = maxFormXObjectNesting;
+  }
+
+  /**
+   * Returns the number of pages parsed so far that were degraded (including the truncated pages).
+   * 
+   * @return The number of degraded pages.
+   */
+  public int getNumDegradedPages() {
+    return this.numDegradedPages;
+  }
+
+  /**
+   * Returns the number of pages parsed so far that were truncated.
+   * 
+   * @return The number of truncated pages.
+   */
+  public int getNumTruncatedPages() {
+    return this.numTruncatedPages;
+  }
+
+  /**
+   * Returns the number of fonts and XObjects found in the resource caches of the documents parsed
+   * so far.
+   * 
+   * @return The number of resource cache hits.
+   */
+  public int getNumResourceCacheHits() {
+    return this.numResourceCacheHits;
+  }
+
+  /**
+   * Returns the number of fonts and XObjects not found in the resource caches of the documents
+   * parsed so far.
+   * 
+   * @return The number of resource cache misses.
+   */
+  public int getNumResourceCacheMisses() {
+    return this.numResourceCacheMisses;
+  }
+
+  /**
+   * Returns the number of intersections with clipping paths that were computed as intersections
+   * of axis-aligned rectangles in the documents parsed so far.
+   * 
+   * @return The number of rectangle intersections.
+   */
+  public int getNumRectangleClippings() {
+    return this.clippingCounter.getNumRectangleIntersections();
+  }
+
+  /**
+   * Returns the number of intersections with clipping paths that were computed with the (slow)
+   * constructive area geometry in the documents parsed so far, because a path was not an
+   * axis-aligned rectangle.
+   * 
+   * @return The number of area intersections.
+   */
+  public int getNumAreaClippings() {
+    return this.clippingCounter.getNumAreaIntersections();
+  }
+
+  /**
+   * Returns the number of form XObjects whose elements were re-emitted from the form cache in the
+   * documents parsed so far.
+   *
+   * @return The number of form cache hits.
+   */
+  public int getNumFormXObjectCacheHits() {
+    return this.numFormXObjectCacheHits;
+  }
+
+  /**
+   * Returns the number of form XObjects that were recorded for the form cache in the documents
+   * parsed so far.
+   *
+   * @return The number of form cache misses.
+   */
+  public int getNumFormXObjectCacheMisses() {
+    return this.numFormXObjectCacheMisses;
+  }
+
+  /**
+   * Returns the memory usage setting of PdfBox on loading a document.
+   * 
+   * @return The memory usage setting.
+   */
+  public MemoryUsageSetting getMemoryUsageSetting() {
+    return this.memoryUsageSetting;
+  }
+
+  /**
+   * Sets the memory usage setting of PdfBox on loading a document. If the pages are parsed in
+   * parallel, each further copy of the document gets an equal share of the limits of the setting.
+   * 
+   * @param memoryUsageSetting The memory usage setting.
+   */
+  public void setMemoryUsageSetting(MemoryUsageSetting memoryUsageSetting) {
+    this.memoryUsageSetting = memoryUsageSetting;
+  }
+
+  /**
+   * Returns the cache for the fonts shared with other documents.
+   * 
+   * @return The font cache, or null if the fonts are not shared.
+   */
+  public FontCache getFontCache() {
+    return this.fontCache;
+  }
+
+  /**
+   * Sets the cache for the fonts shared with other documents, for example with the other
+   * documents of a batch (see {@link FontCache}).
+   * 
+   * @param fontCache The font cache, or null if the fonts should not be shared.
+   */
+  public void setFontCache(FontCache fontCache) {
+    this.fontCache = fontCache;
+  }
+
+  /**
+   * Returns the maximum number of fonts and of XObjects in the resource cache of a document.
+   * 
+   * @return The maximum number of cached fonts and of cached XObjects (0 if unlimited).
+   */
+  public int getMaxNumCachedResources() {
+    return this.maxNumCachedResources;
+  }
+
+  /**
+   * Sets the maximum number of fonts and of XObjects in the resource cache of a document (see
+   * {@link BoundedResourceCache}).
+   * 
+   * @param maxNumCachedResources The maximum number of cached fonts and of cached XObjects (0 if
+   *                              unlimited).
+   */
+  public void setMaxNumCachedResources(int maxNumCachedResources) {
+    this.maxNumCachedResources = maxNumCachedResources;
+    this.formXObjectCache = new FormXObjectCache(maxNumCachedResources);
+  }
+
+  /**
+   * Returns true if the elements of a form XObject drawn repeatedly in the same state are
+   * extracted only once.
+   * 
+   * @return True if the form XObjects are memoized; false otherwise.
+   */
+  public boolean isMemoizingFormXObjects() {
+    return this.isMemoizingFormXObjects;
+  }
+
+  /**
+   * Sets the boolean flag indicating whether the elements of a form XObject drawn repeatedly in
+   * the same state should be extracted only once (see {@link FormXObjectCache}).
+   * 
+   * @param isMemoizingFormXObjects True if the form XObjects should be memoized; false otherwise.
+   */
+  public void setIsMemoizingFormXObjects(boolean isMemoizingFormXObjects) {
+    this.isMemoizingFormXObjects = isMemoizingFormXObjects;
+  }
+
+  /**
+   * Returns true if images are processed, that is: if shapes or figures are extracted.
+   * 
+   * @return True if images are processed; false otherwise.
+   */
+  public boolean isProcessingImages() {
+    return (this.isExtractingShapes || this.isExtractingFigures) && !this.isPageDegraded;
+  }
+
+  /**
+   * Checks if the operator with the given flags is not to be processed, because it would only
+   * contribute to elements that are not to be extracted.
+   * 
+   * @param flags The flags of the operator, see {@link #SHAPE} and {@link #IMAGE}.
+   * @return True if the operator is not to be processed; false otherwise.
+   */
+  protected boolean isPrunedOperator(int flags) {
+    if (!this.isExtractingShapes && (flags & SHAPE) != 0) {
+      return true;
+    }
+    return !isProcessingImages() && (flags & IMAGE) != 0;
+  }
+
   // ==============================================================================================
   // Methods related to Type 3 fonts.
 
@@ -729,6 +2264,40 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
     return this.currentType3GlyphBoundingBox;
   }
 
+  /**
+   * Sets the current type3 glyph bounding box in glyph space, as given by the d1 operator.
+   * 
+   * @param llx The x-coordinate of the lower-left corner of the bounding box.
+   * @param lly The y-coordinate of the lower-left corner of the bounding box.
+   * @param urx The x-coordinate of the upper-right corner of the bounding box.
+   * @param ury The y-coordinate of the upper-right corner of the bounding box.
+   */
+  public void setCurrentType3GlyphSpaceBoundingBox(float llx, float lly, float urx, float ury) {
+    this.currentType3GlyphSpaceBoundingBox = new float[] { llx, lly, urx, ury };
+  }
+
+  /**
+   * Returns the type3 glyph bounding box in glyph space, as given by the d1 operator of the last
+   * processed type3 stream.
+   * 
+   * @return The bounding box (llx, lly, urx, ury) or null if the last processed type3 stream
+   *         doesn't contain a d1 operator.
+   */
+  public float[] getCurrentType3GlyphSpaceBoundingBox() {
+    return this.currentType3GlyphSpaceBoundingBox;
+  }
+
+  /**
+   * Returns true, if the bounding box of the glyph described by the last processed type3 stream
+   * can be cached, that is: if the glyph description has no effects beyond the graphics state and
+   * the bounding box of the glyph.
+   * 
+   * @return True, if the bounding box of the glyph can be cached; false otherwise.
+   */
+  public boolean isType3GlyphCacheable() {
+    return this.isType3GlyphCacheable;
+  }
+
   // ==============================================================================================
   // Methods related to the line path.
 
@@ -829,6 +2398,18 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
   public void handlePdfFileEnd(Document pdf) {
     // Compute the character statistics for the whole PDF document.
     pdf.setCharacterStatistic(this.statistician.aggregate(pdf.getPages()));
+
+    if (this.numDegradedPages > 0) {
+      log.warn("%d of %d pages exceeded a parsing limit (%d of them were truncated).",
+          this.numDegradedPages, this.numPages, this.numTruncatedPages);
+    }
+    log.debug("Resource cache: %d hits, %d misses.", this.numResourceCacheHits,
+        this.numResourceCacheMisses);
+    log.debug("Form XObject cache: %d hits, %d misses.", this.numFormXObjectCacheHits,
+        this.numFormXObjectCacheMisses);
+    log.debug("Clipping: %d rectangle intersections, %d area intersections.",
+        this.clippingCounter.getNumRectangleIntersections(),
+        this.clippingCounter.getNumAreaIntersections());
   }
 
   /**
@@ -849,8 +2430,16 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
    * @param page The page to process.
    */
   public void handlePdfPageEnd(Document pdf, Page page) {
-    // Compute the character statistics for the page.
-    page.setCharacterStatistic(this.statistician.compute(page));
+    if (page.isDegraded()) {
+      this.numDegradedPages++;
+    }
+    if (page.isTruncated()) {
+      this.numTruncatedPages++;
+    }
+
+    if (this.pageConsumer != null) {
+      this.pageConsumer.accept(page);
+    }
   }
 
   /**
@@ -863,6 +2452,9 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
   public void handlePdfCharacter(Document pdf, Page page, Character c) {
     page.addCharacter(c);
     this.numCharacters++;
+    if (this.formRecording != null) {
+      this.formRecording.recordCharacter(c);
+    }
   }
 
   /**
@@ -875,6 +2467,9 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
   public void handlePdfFigure(Document pdf, Page page, Figure figure) {
     page.addFigure(figure);
     this.numFigures++;
+    if (this.formRecording != null) {
+      this.formRecording.recordFigure(figure);
+    }
   }
 
   /**
@@ -887,5 +2482,8 @@ public class PdfBoxPdfStreamsParser implements PdfStreamsParser {
   public void handlePdfShape(Document pdf, Page page, Shape shape) {
     page.addShape(shape);
     this.numShapes++;
+    if (this.formRecording != null) {
+      this.formRecording.recordShape(shape);
+    }
   }
 }
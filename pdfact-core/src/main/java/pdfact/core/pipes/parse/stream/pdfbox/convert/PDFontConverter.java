@@ -7,10 +7,15 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType3Font;
 import pdfact.core.model.Font;
@@ -27,15 +32,37 @@ public class PDFontConverter {
   protected static Logger log = LogManager.getLogger(PDFontConverter.class);
 
   /**
-   * A map of the already known fonts per name.
+   * The well-known fonts per name, read from the AFM file. They are read only once per process and
+   * shared by all converters, so the map is unmodifiable (and the fonts are never modified).
+   */
+  protected static final Map<String, Font> WELL_KNOWN_FONTS =
+      Collections.unmodifiableMap(readWellKnownFontsFromFile());
+
+  /**
+   * A map of the fonts created by this converter per name. Together with the well-known fonts,
+   * these are the already known fonts.
    */
   protected Map<String, Font> knownFonts;
 
+  /**
+   * A map of the already converted fonts per font dictionary. The font dictionary is compared by
+   * identity, so the normalized name of a font is computed only once per font dictionary.
+   */
+  protected Map<COSDictionary, Font> convertedFonts;
+
+  /**
+   * The fonts created by this converter (that is: the known fonts without the well-known fonts),
+   * in the order of their creation.
+   */
+  protected List<Font> createdFonts;
+
   /**
    * Creates a new font converter.
    */
   public PDFontConverter() {
-    this.knownFonts = readWellKnownFontsFromFile();
+    this.knownFonts = new HashMap<>();
+    this.convertedFonts = new IdentityHashMap<>();
+    this.createdFonts = new ArrayList<>();
   }
 
   // ==============================================================================================
@@ -54,15 +81,22 @@ public class PDFontConverter {
       return null;
     }
 
+    // Check if the font dictionary was already converted.
+    Font convertedFont = this.convertedFonts.get(font.getCOSObject());
+    if (convertedFont != null) {
+      return convertedFont;
+    }
+
     // Check if the font is already known.
     Font knownFont = getKnownFont(font);
     if (knownFont != null) {
+      this.convertedFonts.put(font.getCOSObject(), knownFont);
       return knownFont;
     }
 
     // The font is not known. Create a new font.
     Font newFont = new Font();
-    newFont.setId("font-" + this.knownFonts.size());
+    newFont.setId("font-" + getNumKnownFonts());
     newFont.setNormalizedName(computeNormalizedName(font));
     newFont.setBasename(computeBasename(newFont));
     newFont.setIsBold(computeIsBold(newFont));
@@ -71,11 +105,84 @@ public class PDFontConverter {
 
     // Add the new font to the map of known fonts.
     this.knownFonts.put(newFont.getNormalizedName(), newFont);
+    this.convertedFonts.put(font.getCOSObject(), newFont);
+    this.createdFonts.add(newFont);
+    log.debug("A new font was registered: " + newFont);
+
+    return newFont;
+  }
+
+  /**
+   * Converts the given {@link Font} object, which may stem from another converter, to the related
+   * {@link Font} object of this converter. If there is no such font yet, a new font with the same
+   * properties is created.
+   * 
+   * @param font
+   *        The font to convert.
+   * 
+   * @return The converted font.
+   */
+  public Font convert(Font font) {
+    if (font == null) {
+      return null;
+    }
+
+    // Check if the font is already known.
+    Font knownFont = getKnownFont(font.getNormalizedName());
+    if (knownFont != null) {
+      return knownFont;
+    }
+
+    // The font is not known. Create a new font.
+    Font newFont = new Font();
+    newFont.setId("font-" + getNumKnownFonts());
+    newFont.setNormalizedName(font.getNormalizedName());
+    newFont.setBasename(font.getBaseName());
+    newFont.setFontFamilyName(font.getFontFamilyName());
+    newFont.setIsBold(font.isBold());
+    newFont.setIsItalic(font.isItalic());
+    newFont.setIsType3Font(font.isType3Font());
+
+    // Add the new font to the map of known fonts.
+    this.knownFonts.put(newFont.getNormalizedName(), newFont);
+    this.createdFonts.add(newFont);
     log.debug("A new font was registered: " + newFont);
 
     return newFont;
   }
 
+  /**
+   * Forgets the font dictionaries converted so far, but keeps the known fonts. Must be called
+   * before the fonts of another PDF document are converted, since font dictionaries are only
+   * valid within a single document.
+   */
+  public void clearConvertedFonts() {
+    this.convertedFonts.clear();
+  }
+
+  /**
+   * Returns the number of fonts created by this converter so far.
+   * 
+   * @return The number of created fonts.
+   */
+  public int getNumCreatedFonts() {
+    return this.createdFonts.size();
+  }
+
+  /**
+   * Returns the fonts created in the given range, in the order of their creation.
+   * 
+   * @param from
+   *        The index of the first font, inclusive.
+   * @param to
+   *        The index of the last font, exclusive.
+   * 
+   * @return The list of created fonts in the given range.
+   */
+  public List<Font> getCreatedFonts(int from, int to) {
+    return new ArrayList<>(this.createdFonts.subList(from, to));
+  }
+
   // ==============================================================================================
 
   /**
@@ -85,12 +192,16 @@ public class PDFontConverter {
    * 
    * @return The well-known fonts per name.
    */
-  protected Map<String, Font> readWellKnownFontsFromFile() {
+  protected static Map<String, Font> readWellKnownFontsFromFile() {
     Map<String, Font> knownFonts = new HashMap<>();
 
     // Read the AFM file that contains some metadata about common fonts.
-    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    ClassLoader classLoader = PDFontConverter.class.getClassLoader();
     InputStream afm = classLoader.getResourceAsStream(AFM_FILE_PATH);
+    if (afm == null) {
+      log.warn("The AFM file '" + AFM_FILE_PATH + "' doesn't exist.");
+      return knownFonts;
+    }
 
     log.debug("Reading the AFM file '" + AFM_FILE_PATH + "'.");
 
@@ -111,7 +222,7 @@ public class PDFontConverter {
         Font font = new Font();
         font.setId("font-" + knownFonts.size());
         font.setNormalizedName(fields[0]);
-        font.setBasename(computeBasename(font));
+        font.setBasename(computeBasename(font.getNormalizedName()));
         font.setFontFamilyName(fields[2].trim());
         font.setIsBold(fields[3].trim().equals("1"));
         font.setIsItalic(fields[4].trim().equals("1"));
@@ -152,7 +263,31 @@ public class PDFontConverter {
    *         already known; null otherwise.
    */
   protected Font getKnownFont(PDFont font) {
-    return this.knownFonts.get(computeNormalizedName(font));
+    return getKnownFont(computeNormalizedName(font));
+  }
+
+  /**
+   * Returns the well-known font or the font created by this converter with the given normalized
+   * name, if there is such a font; null otherwise.
+   * 
+   * @param normalizedName
+   *        The normalized name of the font.
+   * 
+   * @return The known font with the given name if there is such a font; null otherwise.
+   */
+  protected Font getKnownFont(String normalizedName) {
+    Font knownFont = WELL_KNOWN_FONTS.get(normalizedName);
+    return knownFont != null ? knownFont : this.knownFonts.get(normalizedName);
+  }
+
+  /**
+   * Returns the number of known fonts, that is: the number of the well-known fonts plus the number
+   * of the fonts created by this converter.
+   * 
+   * @return The number of known fonts.
+   */
+  protected int getNumKnownFonts() {
+    return WELL_KNOWN_FONTS.size() + this.knownFonts.size();
   }
 
   // ==============================================================================================
@@ -197,8 +332,21 @@ public class PDFontConverter {
    * @return The basename of the given font.
    */
   public String computeBasename(Font font) {
+    return computeBasename(font.getNormalizedName());
+  }
+
+  /**
+   * Computes the basename of the font with the given normalized name (see
+   * {@link #computeBasename(Font)}).
+   * 
+   * @param normalizedName
+   *        The normalized name of the font.
+   *
+   * @return The basename of the font.
+   */
+  protected static String computeBasename(String normalizedName) {
     // Compute the basename from the name: "LTSLOS+NimbusSanL-Bold"
-    String basename = font.getNormalizedName();
+    String basename = normalizedName;
 
     // Eliminate trailing characters starting at the "-": nimbussanl
     int indexMinus = basename.indexOf("-");
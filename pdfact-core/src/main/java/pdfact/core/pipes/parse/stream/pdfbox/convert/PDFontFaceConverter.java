@@ -1,6 +1,7 @@
 package pdfact.core.pipes.parse.stream.pdfbox.convert;
 
-import java.util.HashMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -20,15 +21,16 @@ public class PDFontFaceConverter {
   protected static Logger log = LogManager.getLogger(PDFontFaceConverter.class);
 
   /**
-   * The already known {@link FontFace} objects per name.
+   * The already known {@link FontFace} objects per font and font size. The fonts are compared by
+   * identity, the font sizes by their bit patterns (see {@link Float#floatToIntBits(float)}).
    */
-  protected Map<String, FontFace> knownFontFaces;
+  protected Map<Font, TIntObjectHashMap<FontFace>> knownFontFaces;
 
   /**
    * Creates a new font face converter.
    */
   public PDFontFaceConverter() {
-    this.knownFontFaces = new HashMap<>();
+    this.knownFontFaces = new IdentityHashMap<>();
   }
 
   // ==============================================================================================
@@ -49,8 +51,15 @@ public class PDFontFaceConverter {
       return null;
     }
 
+    TIntObjectHashMap<FontFace> fontFaces = this.knownFontFaces.get(font);
+    if (fontFaces == null) {
+      fontFaces = new TIntObjectHashMap<>();
+      this.knownFontFaces.put(font, fontFaces);
+    }
+
     // Check if the font face is already known.
-    FontFace knownFontFace = getKnownFontFace(font, fontSize);
+    int fontSizeKey = Float.floatToIntBits(fontSize);
+    FontFace knownFontFace = fontFaces.get(fontSizeKey);
     if (knownFontFace != null) {
       return knownFontFace;
     }
@@ -59,7 +68,7 @@ public class PDFontFaceConverter {
     FontFace newFontFace = new FontFace(font, fontSize);
 
     // Add the new font face to the map of known font faces.
-    this.knownFontFaces.put(font.getId() + ":" + fontSize, newFontFace);
+    fontFaces.put(fontSizeKey, newFontFace);
     log.debug("A new font face was registered: " + newFontFace);
 
     return newFontFace;
@@ -78,6 +87,7 @@ public class PDFontFaceConverter {
    *         if the font is already known; null otherwise.
    */
   protected FontFace getKnownFontFace(Font font, float fontSize) {
-    return this.knownFontFaces.get(font.getId() + ":" + fontSize);
+    TIntObjectHashMap<FontFace> fontFaces = this.knownFontFaces.get(font);
+    return fontFaces != null ? fontFaces.get(Float.floatToIntBits(fontSize)) : null;
   }
 }
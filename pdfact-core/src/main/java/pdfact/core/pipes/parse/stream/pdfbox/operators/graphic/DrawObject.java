@@ -3,7 +3,6 @@ package pdfact.core.pipes.parse.stream.pdfbox.operators.graphic;
 import static pdfact.core.PdfActCoreSettings.FLOATING_NUMBER_PRECISION;
 import static pdfact.core.util.PdfActUtils.round;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.GeneralPath;
 import java.io.IOException;
 import java.util.List;
 import org.apache.logging.log4j.LogManager;
@@ -11,11 +10,9 @@ import org.apache.logging.log4j.Logger;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSName;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.graphics.PDXObject;
 import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
-import org.apache.pdfbox.pdmodel.graphics.state.PDGraphicsState;
 import org.apache.pdfbox.util.Matrix;
 import pdfact.core.model.Color;
 import pdfact.core.model.Figure;
@@ -25,8 +22,6 @@ import pdfact.core.model.Point;
 import pdfact.core.model.Position;
 import pdfact.core.model.Shape;
 import pdfact.core.pipes.parse.stream.pdfbox.operators.OperatorProcessor;
-import pdfact.core.pipes.parse.stream.pdfbox.utils.ColorUtils;
-import pdfact.core.util.color.ColorManager;
 
 /**
  * Do: Invoke a named xobject.
@@ -52,39 +47,13 @@ public class DrawObject extends OperatorProcessor {
 
     // Consider the object as a form object.
     if (xobject instanceof PDFormXObject) {
-      PDFormXObject form = (PDFormXObject) xobject;
-
-      this.engine.saveGraphicsState();
-
-      // If there is an optional form matrix, we have to map the form space to the user space.
-      Matrix matrix = form.getMatrix();
-      if (matrix != null) {
-        Matrix ctm = this.engine.getGraphicsState().getCurrentTransformationMatrix();
-        Matrix xctm = matrix.multiply(ctm);
-        this.engine.getGraphicsState().setCurrentTransformationMatrix(xctm);
-      }
-
-      // Clip to the form's BBox.
-      if (form.getBBox() != null) {
-        PDGraphicsState graphicsState = this.engine.getGraphicsState();
-        PDRectangle bbox = form.getBBox();
-        GeneralPath bboxPath = this.engine.transformedPDRectanglePath(bbox);
-        graphicsState.intersectClippingPath(bboxPath);
-      }
-
-      // Parse the stream of the form.
-      if (form.getCOSObject().getLength() > 0) {
-        this.engine.processStream(pdf, page, form);
-      }
-
-      // Restore the graphics state.
-      this.engine.restoreGraphicsState();
-
+      this.engine.processFormXObject(pdf, page, (PDFormXObject) xobject);
       return;
     }
 
-    // Consider the object as an image.
-    if (xobject instanceof PDImageXObject) {
+    // Consider the object as an image (unless neither shapes nor figures are to be extracted, in
+    // which case the image doesn't need to be decoded).
+    if (xobject instanceof PDImageXObject && this.engine.isProcessingImages()) {
       PDImageXObject image = (PDImageXObject) xobject;
 
       int width = image.getWidth();
@@ -105,12 +74,13 @@ public class DrawObject extends OperatorProcessor {
       Point ur = new Point(maxX, maxY);
       Position position = new Position(page, ll, ur);
 
-      // If the image consists of only one color, consider it as a shape.
+      // If the image consists of only one color, consider it as a shape. The color is computed
+      // only once per image stream.
       // TODO: Manage the colors.
-      int[] exclusiveColor = ColorUtils.getExclusiveColor(image.getImage());
+      int[] exclusiveColor = this.engine.getImageColorCache().getExclusiveColor(image);
 
       if (exclusiveColor != null) {
-        Color color = ColorManager.getColor(exclusiveColor);
+        Color color = this.engine.getColorManager().getColor(exclusiveColor);
         Shape shape = new Shape();
         shape.setPosition(position);
         shape.setColor(color);
@@ -9,8 +9,6 @@ import java.util.List;
 import org.apache.pdfbox.contentstream.operator.Operator;
 import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSNumber;
-import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
-import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
 import pdfact.core.model.Color;
 import pdfact.core.model.Document;
 import pdfact.core.model.Page;
@@ -19,7 +17,6 @@ import pdfact.core.model.Position;
 import pdfact.core.model.Shape;
 import pdfact.core.pipes.parse.stream.pdfbox.operators.OperatorProcessor;
 import pdfact.core.util.PdfActUtils;
-import pdfact.core.util.color.ColorManager;
 
 /**
  * S: Stroke the path.
@@ -41,18 +38,13 @@ public class StrokePath extends OperatorProcessor {
     float maxX = -Float.MAX_VALUE;
     float maxY = -Float.MAX_VALUE;
 
-    PDColor c;
-    PDColorSpace cs;
+    // Convert the color (only if it was changed since the last path).
+    Color color;
     if (windingRule < 0) {
-      c = this.engine.getGraphicsState().getStrokingColor();
-      cs = this.engine.getGraphicsState().getStrokingColorSpace();
+      color = this.engine.getStrokingColor();
     } else {
-      c = this.engine.getGraphicsState().getNonStrokingColor();
-      cs = this.engine.getGraphicsState().getNonStrokingColorSpace();
+      color = this.engine.getNonStrokingColor();
     }
-
-    // Convert the color.
-    Color color = ColorManager.getColor(c, cs);
     GeneralPath linePath = this.engine.getLinePath();
 
     PathIterator itr;
@@ -40,6 +40,9 @@ public class SetType3GlyphWidthAndBoundingBox extends OperatorProcessor {
     COSNumber urx = (COSNumber) args.get(4);
     COSNumber ury = (COSNumber) args.get(5);
 
+    this.engine.setCurrentType3GlyphSpaceBoundingBox(llx.floatValue(), lly.floatValue(),
+        urx.floatValue(), ury.floatValue());
+
     Point ll = new Point(llx.floatValue(), lly.floatValue());
     Point ur = new Point(urx.floatValue(), ury.floatValue());
 
@@ -1,7 +1,6 @@
 package pdfact.core.pipes.parse.stream.pdfbox.operators.text;
 
 import static pdfact.core.PdfActCoreSettings.FLOATING_NUMBER_PRECISION;
-import java.awt.geom.Rectangle2D;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -9,11 +8,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import org.apache.fontbox.afm.CharMetric;
-import org.apache.fontbox.cff.CFFType1Font;
-import org.apache.fontbox.cff.Type1CharString;
-import org.apache.fontbox.type1.Type1Font;
-import org.apache.fontbox.util.BoundingBox;
+import java.util.regex.Pattern;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.pdfbox.contentstream.operator.Operator;
@@ -22,13 +17,9 @@ import org.apache.pdfbox.cos.COSString;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDFontFactory;
 import org.apache.pdfbox.pdmodel.font.PDSimpleFont;
-import org.apache.pdfbox.pdmodel.font.PDType1CFont;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.PDType3CharProc;
 import org.apache.pdfbox.pdmodel.font.PDType3Font;
-import org.apache.pdfbox.pdmodel.font.encoding.Encoding;
 import org.apache.pdfbox.pdmodel.font.encoding.GlyphList;
-import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
-import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
 import org.apache.pdfbox.pdmodel.graphics.state.PDGraphicsState;
 import org.apache.pdfbox.pdmodel.graphics.state.PDTextState;
 import org.apache.pdfbox.util.Matrix;
@@ -42,13 +33,11 @@ import pdfact.core.model.Page;
 import pdfact.core.model.Point;
 import pdfact.core.model.Position;
 import pdfact.core.model.Rectangle;
-import pdfact.core.pipes.parse.stream.pdfbox.convert.PDFontConverter;
-import pdfact.core.pipes.parse.stream.pdfbox.convert.PDFontFaceConverter;
 import pdfact.core.pipes.parse.stream.pdfbox.operators.OperatorProcessor;
-import pdfact.core.pipes.parse.stream.pdfbox.utils.PdfBoxAFMUtils;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.GlyphMetricsCache.FontMetrics;
 import pdfact.core.pipes.parse.stream.pdfbox.utils.PdfBoxGlyphUtils;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.PdfBoxMatrixUtils;
 import pdfact.core.util.PdfActUtils;
-import pdfact.core.util.color.ColorManager;
 
 /**
  * Tj: Show a text string.
@@ -62,32 +51,81 @@ public class ShowText extends OperatorProcessor {
   protected final Logger log = LogManager.getFormatterLogger("char-extraction");
 
   /**
-   * The translator to translate PDFont objects to PdfFont objects.
+   * The util to read the specifications of special glyphs.
    */
-  protected PDFontConverter fontTranslator;
+  protected PdfBoxGlyphUtils glyphUtils;
 
   /**
-   * The converter to create instances of {@link FontFace}.
+   * The font to use if there is no current font, created on first use. It is created only once,
+   * so that its glyph metrics and its converted font are cached like those of any other font.
    */
-  protected PDFontFaceConverter fontFaceConverter;
+  protected PDFont defaultFont;
 
   /**
-   * The util to read the specifications of special glyphs.
+   * The font of the last converted glyph.
    */
-  protected PdfBoxGlyphUtils glyphUtils;
+  protected PDFont lastPdFont;
+
+  /**
+   * The font of the last converted glyph, converted to a {@link Font}.
+   */
+  protected Font lastFont;
+
+  /**
+   * Whether the extracted characters should be traced, that is: whether the debug level of the
+   * logger is enabled. The flag is determined once per text to show, so that the processing of a
+   * glyph needs to check a single boolean only.
+   */
+  protected boolean isTracing;
+
+  // The buffers for the affine math on the per-glyph path, in the layout of PdfBoxMatrixUtils.
+  // There is one instance of this processor per stream engine, so the buffers are never shared
+  // between threads.
+
+  /**
+   * The text rendering matrix of the current glyph.
+   */
+  protected final float[] trm = PdfBoxMatrixUtils.newMatrix();
+
+  /**
+   * The text rendering matrix of the position after the current glyph.
+   */
+  protected final float[] nextTrm = PdfBoxMatrixUtils.newMatrix();
 
   /**
-   * The number of already processed characters (needed to define the sequence number of a
-   * character).
+   * The current transformation matrix.
    */
-  protected int sequenceNumber;
+  protected final float[] ctm = PdfBoxMatrixUtils.newMatrix();
+
+  /**
+   * The text matrix.
+   */
+  protected final float[] textMatrix = PdfBoxMatrixUtils.newMatrix();
+
+  /**
+   * A translation matrix.
+   */
+  protected final float[] translation = PdfBoxMatrixUtils.newMatrix();
+
+  /**
+   * An intermediate product of matrices.
+   */
+  protected final float[] product = PdfBoxMatrixUtils.newMatrix();
+
+  /**
+   * The bounding box of the current glyph (minX, minY, maxX, maxY).
+   */
+  protected final float[] glyphBounds = new float[4];
+
+  /**
+   * The bounding box of the current glyph by the method of PdfBox (minX, minY, maxX, maxY).
+   */
+  protected final float[] pdfBoxGlyphBounds = new float[4];
 
   /**
    * Creates a new OperatorProcessor to process the operation "ShowText".
    */
   public ShowText() {
-    this.fontTranslator = new PDFontConverter();
-    this.fontFaceConverter = new PDFontFaceConverter();
     this.glyphUtils = new PdfBoxGlyphUtils();
   }
 
@@ -99,6 +137,8 @@ public class ShowText extends OperatorProcessor {
       // ignore ( )Tj
       return;
     }
+    this.isTracing = log.isDebugEnabled();
+
     // Get the graphics state from the engine.
     PDGraphicsState state = this.engine.getGraphicsState();
 
@@ -110,8 +150,10 @@ public class ShowText extends OperatorProcessor {
     float horizScaling = textState.getHorizontalScaling() / 100f;
     float charSpacing = textState.getCharacterSpacing();
 
-    // Put the text state parameters into matrix form.
-    Matrix params = new Matrix(fontSize * horizScaling, 0, // 0
+    // Put the text state parameters into matrix form. This is a local matrix, since the text of a
+    // Type3 glyph description could be processed by this processor while processing the text.
+    float[] params = PdfBoxMatrixUtils.newMatrix();
+    PdfBoxMatrixUtils.setValues(params, fontSize * horizScaling, 0, // 0
             0, fontSize, // 0
             0, textState.getRise()); // 1
 
@@ -119,8 +161,9 @@ public class ShowText extends OperatorProcessor {
     PDFont font = textState.getFont();
     if (font == null) {
       // No current font available, use a default one.
-      font = PDFontFactory.createDefaultFont();
+      font = getDefaultFont();
     }
+    FontMetrics fontMetrics = this.engine.getGlyphMetricsCache().getFontMetrics(font);
 
     // Get the text to show.
     COSString text = (COSString) args.get(0);
@@ -133,7 +176,6 @@ public class ShowText extends OperatorProcessor {
         int before = in.available();
         int code = font.readCode(in);
         int codeLength = before - in.available();
-        String unicode = font.toUnicode(code);
 
         // Word spacing shall be applied to every occurrence of the single-byte
         // character code 32 in a string when using a simple font or a
@@ -144,48 +186,99 @@ public class ShowText extends OperatorProcessor {
         }
 
         // Define the text rendering matrix (text space -> device space)
-        Matrix ctm = state.getCurrentTransformationMatrix();
-        Matrix trm = params.multiply(this.engine.getTextMatrix()).multiply(ctm);
-
-        // get glyph's position vector if this is vertical text
-        // changes to vertical text should be tested with PDFBOX-2294 and
-        // PDFBOX-1422
-        if (font.isVertical()) {
-          // position vector, in text space
-          Vector v = font.getPositionVector(code);
-
-          // apply the position vector to the horizontal origin to get the
-          // vertical origin
-          trm.translate(v);
+        computeTextRenderingMatrix(params, code, font, this.trm);
+
+        // Process the glyph. The graphics state needs to be saved only if a Type3 glyph
+        // description is processed.
+        if (font instanceof PDType3Font) {
+          this.engine.saveGraphicsState();
+          showGlyph(pdf, page, code, font, this.trm);
+          this.engine.restoreGraphicsState();
+        } else {
+          showGlyph(pdf, page, code, font, this.trm);
         }
 
-        // Process the glyph.
-        this.engine.saveGraphicsState();
-        showGlyph(pdf, page, unicode, code, font, trm);
-        this.engine.restoreGraphicsState();
-
         // Get glyph's horizontal and vertical displacements, in text space
-        Vector w = font.getDisplacement(code);
+        int slot = fontMetrics.getSlot(code);
 
         // Calculate the displacements.
         float tx, ty;
         if (font.isVertical()) {
           tx = 0;
-          ty = w.getY() * fontSize + charSpacing + wordSpacing;
+          ty = fontMetrics.getDisplacementY(slot) * fontSize + charSpacing + wordSpacing;
         } else {
-          tx = (w.getX() * fontSize + charSpacing + wordSpacing) * horizScaling;
+          tx = (fontMetrics.getDisplacementX(slot) * fontSize + charSpacing + wordSpacing)
+                  * horizScaling;
           ty = 0;
         }
 
         // Update the text matrix.
-        Matrix translate = Matrix.getTranslateInstance(tx, ty);
-        this.engine.getTextMatrix().concatenate(translate);
+        translateTextMatrix(tx, ty);
       }
     } catch (Exception e) {
       log.warn("An error occurred on processing the character " + text, e);
     }
   }
 
+  /**
+   * Returns the font to use if there is no current font.
+   * 
+   * @return The default font.
+   * @throws IOException If the default font could not be created.
+   */
+  protected PDFont getDefaultFont() throws IOException {
+    if (this.defaultFont == null) {
+      this.defaultFont = PDFontFactory.createDefaultFont();
+    }
+    return this.defaultFont;
+  }
+
+  // ==============================================================================================
+  // Methods to compute the text rendering matrix.
+
+  /**
+   * Computes the text rendering matrix (text space -> device space) of the given glyph.
+   * 
+   * @param params The text state parameters in matrix form.
+   * @param code   The internal PDF character code for the glyph.
+   * @param font   The font of the glyph.
+   * @param trm    The array to write the text rendering matrix to.
+   */
+  protected void computeTextRenderingMatrix(float[] params, int code, PDFont font, float[] trm) {
+    PdfBoxMatrixUtils.getValues(this.engine.getCurrentTransformationMatrix(), this.ctm);
+    PdfBoxMatrixUtils.getValues(this.engine.getTextMatrix(), this.textMatrix);
+    PdfBoxMatrixUtils.multiply(params, this.textMatrix, this.product);
+    PdfBoxMatrixUtils.multiply(this.product, this.ctm, trm);
+
+    // get glyph's position vector if this is vertical text
+    // changes to vertical text should be tested with PDFBOX-2294 and
+    // PDFBOX-1422
+    if (font.isVertical()) {
+      // position vector, in text space
+      Vector v = font.getPositionVector(code);
+
+      // apply the position vector to the horizontal origin to get the
+      // vertical origin
+      PdfBoxMatrixUtils.setTranslation(this.translation, v.getX(), v.getY());
+      PdfBoxMatrixUtils.multiply(this.translation, trm, this.product);
+      System.arraycopy(this.product, 0, trm, 0, PdfBoxMatrixUtils.SIZE);
+    }
+  }
+
+  /**
+   * Translates the text matrix of the engine by the given displacements, in place.
+   * 
+   * @param tx The horizontal displacement, in text space.
+   * @param ty The vertical displacement, in text space.
+   */
+  protected void translateTextMatrix(float tx, float ty) {
+    Matrix textMatrix = this.engine.getTextMatrix();
+    PdfBoxMatrixUtils.setTranslation(this.translation, tx, ty);
+    PdfBoxMatrixUtils.getValues(textMatrix, this.textMatrix);
+    PdfBoxMatrixUtils.multiply(this.translation, this.textMatrix, this.product);
+    PdfBoxMatrixUtils.setValues(this.product, textMatrix);
+  }
+
   // ==============================================================================================
   // Methods to process a glyph.
 
@@ -194,145 +287,145 @@ public class ShowText extends OperatorProcessor {
    * 
    * @param pdf    The PDF document to which the glyph belongs to.
    * @param page   The PDF page to which the glyph belongs to.
-   * @param glyph  The unicode text for this glyph.
    * @param code   The internal PDF character code for the glyph
    * @param pdFont The font of the glyph.
-   * @param trm    The current text rendering matrix
+   * @param trm    The current text rendering matrix, in the layout of {@link PdfBoxMatrixUtils}.
    * @throws IOException if something went wrong on processing the glyph.
    */
-  public void showGlyph(Document pdf, Page page, String glyph, int code, PDFont pdFont, Matrix trm)
+  public void showGlyph(Document pdf, Page page, int code, PDFont pdFont, float[] trm)
           throws IOException {
     // Compute a bounding box that indeed surrounds the whole glyph, even in
-    // case of ascenders (e.g., "l") and descenders (e.g., "g").
-    // TODO: Make it faster.
-    Rectangle box = computeGlyphBoundingBox(pdf, page, code, pdFont, trm);
+    // case of ascenders (e.g., "l") and descenders (e.g., "g"). The glyph
+    // metrics are cached per font and code, only the transformation is done
+    // per glyph.
+    float[] bounds = this.glyphBounds;
+    boolean hasBounds;
+    Rectangle type3Box = null;
+    if (pdFont instanceof PDType3Font) {
+      // The font is a Type3 font. We have to compute the bounding box by
+      // parsing the Type3 stream, which needs the TRM as a matrix (and
+      // transforms it by the font matrix).
+      Matrix trmMatrix = PdfBoxMatrixUtils.toMatrix(trm);
+      type3Box = computeType3GlyphBoundingBox(pdf, page, code, pdFont, trmMatrix);
+      PdfBoxMatrixUtils.getValues(trmMatrix, trm);
+      hasBounds = type3Box != null;
+      if (hasBounds) {
+        bounds[0] = type3Box.getMinX();
+        bounds[1] = type3Box.getMinY();
+        bounds[2] = type3Box.getMaxX();
+        bounds[3] = type3Box.getMaxY();
+      }
+    } else {
+      // The font is *not* a Type3 font. We can compute the bounding box on the
+      // "default" way.
+      hasBounds = computeNonType3GlyphBoundingBox(code, pdFont, trm, bounds);
+    }
 
     // Compute the bounding box of the glyph by the method of PdfBox, where all
     // bounding boxes in a text line share the same baseline, even in case of
     // ascenders and descenders.
-    // TODO: Make it faster.
-    Rectangle pdfBoxBoundBox = computePdfBoxGlyphBoundingBox(code, pdFont, trm);
+    float[] pdfBoxBounds = this.pdfBoxGlyphBounds;
+    computePdfBoxGlyphBoundingBox(code, pdFont, trm, pdfBoxBounds);
 
-    if (box != null) {
+    if (hasBounds) {
       // Bounding boxes need some adjustments.
-      if (PdfActUtils.isEqual(pdfBoxBoundBox.getWidth(), 0, 0.1f)) {
+      float pdfBoxWidth = pdfBoxBounds[2] - pdfBoxBounds[0];
+      if (PdfActUtils.isEqual(pdfBoxWidth, 0, 0.1f)) {
         // Don't adjust bounding box if the width is 0.
-        box.setMinX(pdfBoxBoundBox.getMinX());
-        box.setMaxX(pdfBoxBoundBox.getMaxX());
-      } else if (PdfActUtils.isLarger(pdfBoxBoundBox.getWidth(), 0, 0.1f)) {
-        if (pdfBoxBoundBox.getMinX() < box.getMinX()) {
-          box.setMinX(pdfBoxBoundBox.getMinX());
+        bounds[0] = pdfBoxBounds[0];
+        bounds[2] = pdfBoxBounds[2];
+      } else if (PdfActUtils.isLarger(pdfBoxWidth, 0, 0.1f)) {
+        if (pdfBoxBounds[0] < bounds[0]) {
+          bounds[0] = pdfBoxBounds[0];
         }
-        if (pdfBoxBoundBox.getMaxX() > box.getMaxX()) {
-          box.setMaxX(pdfBoxBoundBox.getMaxX());
+        if (pdfBoxBounds[2] > bounds[2]) {
+          bounds[2] = pdfBoxBounds[2];
         }
       }
+      if (type3Box != null) {
+        // The bounding box of a Type3 glyph is shared with the engine, keep it up to date.
+        type3Box.setMinX(bounds[0]);
+        type3Box.setMaxX(bounds[2]);
+      }
     } else {
       // Use the bounding box of PdfBox.
-      box = pdfBoxBoundBox;
+      System.arraycopy(pdfBoxBounds, 0, bounds, 0, 4);
     }
 
     // Compute the fontsize. 
     // See https://stackoverflow.com/questions/48010235/pdf-specification-get-font-size-in-points
     // for an explanation why we can't use engine.getGraphicsState().getTextState().getFontSize().
-    float fontSize = trm.getScalingFactorX();
-
-    // Use our additional glyph list for Unicode mapping
-    GlyphList additionalGlyphs = this.glyphUtils.getAdditionalGlyphs();
-    String unicode = pdFont.toUnicode(code, additionalGlyphs);
+    float fontSize = PdfBoxMatrixUtils.getScalingFactorX(trm);
 
-    // TODO: If we need the hasEncoding flag, uncomment the following:
-    // boolean hasEncoding = unicode != null;
-    //
-    // // Obtain the glyph name.
-    // String glyphName = ".notdef";
-    // if (font instanceof PDType1CFont) {
-    // PDType1CFont cFont = (PDType1CFont) font;
-    // glyphName = cFont.codeToName(code);
-    // } else if (font instanceof PDSimpleFont) {
-    // PDSimpleFont simpleFont = (PDSimpleFont) font;
-    // glyphName = simpleFont.getGlyphList().codePointToName(code);
-    // }
-    //
-    // // From time to time (if font is embedded), there could be glyphs that
-    // were
-    // // redefined by a type3 font file (a custom path to draw to print the
-    // // glyph). In such cases, we don't know the semantic meaning of the
-    // glpyh.
-    // // Try to derive it from the glyph name.
-    // if (PdfGlyphDictionary.hasGlyphForName(glyphName)) {
-    // unicode = PdfGlyphDictionary.getGlyphForName(glyphName);
-    // }
-
-    // When there is no Unicode mapping available, Acrobat simply coerces the
-    // character code into Unicode, so we do the same. Subclasses of
-    // PDFStreamEngine don't necessarily want this, which is why we leave it
-    // until this point in PDFTextStreamEngine.
-    if (unicode == null) {
-      if (pdFont instanceof PDSimpleFont) {
-        char c = (char) code;
-        unicode = new String(new char[] {c});
-
-        // TODO: If we need the hasEncoding flag, uncomment the following:
-        // // Obtain if the font has an encoding for the given code.
-        // PDSimpleFont simpleFont = (PDSimpleFont) font;
-        // if (font instanceof PDType1Font) {
-        // PDType1Font type1Font = (PDType1Font) font;
-        // hasEncoding = !".notdef".equals(type1Font.codeToName(code));
-        // } else {
-        // String name = simpleFont.getGlyphList().codePointToName(code);
-        // String glyphUnicode = simpleFont.getGlyphList().toUnicode(name);
-        // hasEncoding = glyphUnicode != null;
-        // }
-      } else {
-        // Acrobat doesn't seem to coerce composite font's character codes,
-        // instead it skips them. See the "allah2.pdf" TestTextStripper file.
-        return;
-      }
+    // Resolve the text of the glyph, once per font and code.
+    FontMetrics fontMetrics = this.engine.getGlyphMetricsCache().getFontMetrics(pdFont);
+    int slot = fontMetrics.getSlot(code);
+    if (!fontMetrics.isTextResolved(slot)) {
+      resolveText(code, pdFont, fontMetrics, slot);
     }
 
     // Ignore the character if it is empty.
-    if (unicode == null || unicode.trim().isEmpty()) {
+    if (!fontMetrics.hasText(slot)) {
       return;
     }
+    String unicode = fontMetrics.getUnicode(slot);
+    String text = fontMetrics.getText(slot);
 
-    PDGraphicsState graphicsState = this.engine.getGraphicsState();
-    PDColor pdColor = graphicsState.getNonStrokingColor();
-    PDColorSpace pdColorSpace = graphicsState.getNonStrokingColorSpace();
-
-    // Convert the color.
-    Color color = ColorManager.getColor(pdColor, pdColorSpace);
+    // Convert the color (only if it was changed since the last glyph).
+    Color color = this.engine.getNonStrokingColor();
 
     // Convert the font.
-    Font font = this.fontTranslator.convert(pdFont);
+    Font font = convertFont(pdFont);
     // Round the font size.
     fontSize = PdfActUtils.round(fontSize, FLOATING_NUMBER_PRECISION);
-    FontFace fontFace = this.fontFaceConverter.convert(font, fontSize);
+    FontFace fontFace = this.engine.getFontFaceConverter().convert(font, fontSize);
 
     // Round the values of boundingbox.
-    box.setMinX(PdfActUtils.round(box.getMinX(), FLOATING_NUMBER_PRECISION));
-    box.setMinY(PdfActUtils.round(box.getMinY(), FLOATING_NUMBER_PRECISION));
-    box.setMaxX(PdfActUtils.round(box.getMaxX(), FLOATING_NUMBER_PRECISION));
-    box.setMaxY(PdfActUtils.round(box.getMaxY(), FLOATING_NUMBER_PRECISION));
+    Rectangle box = type3Box != null ? type3Box : new Rectangle();
+    box.setMinX(PdfActUtils.round(bounds[0], FLOATING_NUMBER_PRECISION));
+    box.setMinY(PdfActUtils.round(bounds[1], FLOATING_NUMBER_PRECISION));
+    box.setMaxX(PdfActUtils.round(bounds[2], FLOATING_NUMBER_PRECISION));
+    box.setMaxY(PdfActUtils.round(bounds[3], FLOATING_NUMBER_PRECISION));
 
     Position position = new Position(page, box);
 
     Character character = new Character();
-    character.setText(unicode);
+    character.setText(text);
     character.setFontFace(fontFace);
     character.setColor(color);
     character.setPosition(position);
 
-    log.debug("---------------------------------------------");
-    log.debug("Extracted char:   \"%s\"", character.getText());
+    if (this.isTracing) {
+      traceCharacter(character, unicode);
+    }
 
-    // Check if we have to normalize the character.
-    String normalized = normalizeCharacter(unicode);
-    if (normalized != null) {
-      log.debug("... normalized to:   %s", normalized);        
-      character.setText(normalized);
+    // Check if we have to ignore the character.
+    if (ignoreCharacter(character, fontMetrics.isTextBlank(slot))) {
+      return;
+    }
+
+    // Set the extraction rank only for non-ignored characters.
+    character.setExtractionRank(this.engine.nextExtractionRank());
+    if (this.isTracing) {
+      log.debug("... rank:         %s", character.getExtractionRank());
+    }
+
+    this.engine.handlePdfCharacter(pdf, page, character);
+  }
+
+  /**
+   * Logs the properties of the given character.
+   * 
+   * @param character The character to log.
+   * @param unicode   The text of the character, before it was normalized.
+   */
+  protected void traceCharacter(Character character, String unicode) {
+    log.debug("---------------------------------------------");
+    log.debug("Extracted char:   \"%s\"", unicode);
+    if (!character.getText().equals(unicode)) {
+      log.debug("... normalized to:   %s", character.getText());
     }
-      
+
     log.debug("... page:         %d", character.getPosition().getPageNumber());
     float minX = character.getPosition().getRectangle().getMinX();
     float minY = character.getPosition().getRectangle().getMinY();
@@ -345,47 +438,32 @@ public class ShowText extends OperatorProcessor {
     log.debug("... is italic:    %s", character.getFontFace().getFont().isItalic());
     log.debug("... is type3:     %s", character.getFontFace().getFont().isType3Font());
     log.debug("... RGB color:    %s", Arrays.toString(character.getColor().getRGB()));
-    
-    // Check if we have to ignore the character.
-    if (ignoreCharacter(character)) {
-      return;
-    }
-
-    // Set the extraction rank only for non-ignored characters.
-    character.setExtractionRank(this.sequenceNumber++);
-    log.debug("... rank:         %s", character.getExtractionRank());    
-
-    this.engine.handlePdfCharacter(pdf, page, character);
   }
 
-  // ==============================================================================================
-
   /**
-   * Computes the bounding box for the given glyph in any font.
+   * Converts the given font to a {@link Font}. Consecutive glyphs are usually shown in the same
+   * font, so the last conversion is remembered and the converter is consulted only if the font
+   * changes.
    * 
-   * @param pdf  The PDF document to which the stream belongs to.
-   * @param page The PDF page to which the stream belongs to.
-   * @param code The internal PDF character code for the glyph
-   * @param font The font of the glyph.
-   * @param trm  The current text rendering matrix
+   * @param pdFont The font to convert.
    * 
-   * @return The bounding box of the glyph or null, if the bounding box could not be computed.
-   * @throws IOException if something went wrong on computing the bounding box.
+   * @return The converted font.
    */
-  protected Rectangle computeGlyphBoundingBox(Document pdf, Page page, int code, PDFont font,
-          Matrix trm) throws IOException {
-    if (font instanceof PDType3Font) {
-      // The font is a Type3 font. We have to compute the bounding box by
-      // parsing the Type3 stream.
-      return computeType3GlyphBoundingBox(pdf, page, code, font, trm);
+  protected Font convertFont(PDFont pdFont) {
+    if (pdFont != this.lastPdFont) {
+      this.lastFont = this.engine.getFontConverter().convert(pdFont);
+      this.lastPdFont = pdFont;
     }
-    // The font is *not* a Type3 font. We can compute the bounding box on the
-    // "default" way.
-    return computeNonType3GlyphBoundingBox(code, font, trm);
+    return this.lastFont;
   }
 
+  // ==============================================================================================
+
   /**
-   * Computes the bounding box for the given glyph in a Type3 font.
+   * Computes the bounding box for the given glyph in a Type3 font. The glyph description is
+   * parsed only once; it is processed on the first occurrence of the glyph and, if it has no
+   * effects beyond the bounding box of the glyph, the bounding box is cached and only transformed
+   * on further occurrences.
    * 
    * @param pdf  The PDF document to which the glyph belongs to.
    * @param page The PDF page to which the glyph belongs to.
@@ -399,173 +477,287 @@ public class ShowText extends OperatorProcessor {
   protected Rectangle computeType3GlyphBoundingBox(Document pdf, Page page, int code, PDFont font,
           Matrix trm) throws IOException {
     PDType3Font type3Font = (PDType3Font) font;
-    this.engine.processType3Stream(pdf, page, type3Font.getCharProc(code), trm);
+    FontMetrics fontMetrics = this.engine.getGlyphMetricsCache().getFontMetrics(font);
+    int slot = fontMetrics.getSlot(code);
+
+    if (fontMetrics.isBoundsComputed(slot)) {
+      // The glyph description was already processed and has no effects beyond the bounding box,
+      // so only transform the cached bounding box, exactly like processing the description would
+      // do (the CTM of the type3 stream is the TRM, transformed by the font matrix).
+      trm.concatenate(type3Font.getFontMatrix());
+
+      if (fontMetrics.isBoundsAvailable(slot)) {
+        Point ll = new Point(fontMetrics.getMinX(slot), fontMetrics.getMinY(slot));
+        Point ur = new Point(fontMetrics.getMaxX(slot), fontMetrics.getMaxY(slot));
+
+        this.engine.transform(ll, trm);
+        this.engine.transform(ur, trm);
+
+        float minX = Math.min(ll.getX(), ur.getX());
+        float minY = Math.min(ll.getY(), ur.getY());
+        float maxX = Math.max(ll.getX(), ur.getX());
+        float maxY = Math.max(ll.getY(), ur.getY());
+
+        this.engine.setCurrentType3GlyphBoundingBox(new Rectangle(minX, minY, maxX, maxY));
+      }
+      return this.engine.getCurrentType3GlyphBoundingBox();
+    }
+
+    PDType3CharProc charProc = type3Font.getCharProc(code);
+    if (charProc == null) {
+      this.engine.processType3Stream(pdf, page, charProc, trm);
+      return this.engine.getCurrentType3GlyphBoundingBox();
+    }
+
+    // The glyph description has to be processed (again), but needs to be parsed only once.
+    List<Object> tokens = fontMetrics.getType3GlyphDescription(slot);
+    if (tokens == null) {
+      tokens = this.engine.parseStreamTokens(charProc);
+      fontMetrics.setType3GlyphDescription(slot, tokens);
+    }
+    this.engine.processType3Stream(pdf, page, charProc, trm, tokens);
+    if (this.engine.isType3GlyphCacheable()) {
+      fontMetrics.setType3Bounds(slot, this.engine.getCurrentType3GlyphSpaceBoundingBox());
+    }
     return this.engine.getCurrentType3GlyphBoundingBox();
   }
 
   /**
    * Computes the bounding box for the given glyph, given in any font, different from a Type3 font.
    * 
-   * @param code The internal PDF character code for the glyph
-   * @param font The font of the glyph.
-   * @param trm  The current text rendering matrix
+   * @param code   The internal PDF character code for the glyph
+   * @param font   The font of the glyph.
+   * @param trm    The current text rendering matrix.
+   * @param bounds The array to write the bounding box to (minX, minY, maxX, maxY).
    * 
-   * @return The bounding box of the glyph or null, if the bounding box could not be computed.
+   * @return True if the bounding box could be computed; false otherwise.
    * @throws IOException if something went wrong on computing the bounding box.
    */
-  protected Rectangle computeNonType3GlyphBoundingBox(int code, PDFont font, Matrix trm)
-          throws IOException {
+  protected boolean computeNonType3GlyphBoundingBox(int code, PDFont font, float[] trm,
+          float[] bounds) throws IOException {
     if (font == null) {
-      return null;
+      return false;
     }
 
-    // Ensure, that the font is not a Type3 font.
-    if (!(font instanceof PDSimpleFont)) {
-      return null;
+    // The bounding box in glyph space is computed once per font and code.
+    FontMetrics fontMetrics = this.engine.getGlyphMetricsCache().getFontMetrics(font);
+    int slot = fontMetrics.getSlot(code);
+    if (!fontMetrics.hasBounds(slot, code)) {
+      return false;
     }
 
-    PDSimpleFont simpleFont = (PDSimpleFont) font;
-
-    // Obtain the associated glyph name.
-    Encoding encoding = simpleFont.getEncoding();
-    if (encoding != null) {
-      String glyphName = encoding.getName(code);
-      if (glyphName != null) {
-        // Check, if the font is a type1 font.
-        if (simpleFont instanceof PDType1Font) {
-          PDType1Font t1Font = (PDType1Font) simpleFont;
-
-          // Check, if the font contains an embedded FontFile.
-          Type1Font afmFont = t1Font.getType1Font();
-          if (afmFont != null) {
-            Type1CharString charString = afmFont.getType1CharString(glyphName);
-            if (charString != null) {
-              Rectangle2D boundingBox = charString.getBounds();
-              float minX = (float) boundingBox.getMinX();
-              float minY = (float) boundingBox.getMinY();
-              float maxX = (float) boundingBox.getMaxX();
-              float maxY = (float) boundingBox.getMaxY();
-              return transformBoundingBox(minX, minY, maxX, maxY, font, trm);
-            }
-          }
-
-          // Check, if the additional AFM map contains an entry for the font.
-          CharMetric metric = PdfBoxAFMUtils.getCharMetric(glyphName, t1Font);
-          if (metric != null) {
-            BoundingBox boundingBox = metric.getBoundingBox();
-            float minX = boundingBox.getLowerLeftX();
-            float minY = boundingBox.getLowerLeftY();
-            float maxX = boundingBox.getUpperRightX();
-            float maxY = boundingBox.getUpperRightY();
-            return transformBoundingBox(minX, minY, maxX, maxY, font, trm);
-          }
-        }
-
-        // Check, if the font contains an embedded FontFile3.
-        if (simpleFont instanceof PDType1CFont) {
-          // This font has an embedded font program represented in the Compact
-          // Font Format (CFF).
-          PDType1CFont type1CFont = (PDType1CFont) simpleFont;
-          CFFType1Font cffFont = type1CFont.getCFFType1Font();
-          if (cffFont != null) {
-            Type1CharString charString = cffFont.getType1CharString(glyphName);
-
-            if (charString != null) {
-              Rectangle2D boundingBox = charString.getBounds();
-              float minX = (float) boundingBox.getMinX();
-              float minY = (float) boundingBox.getMinY();
-              float maxX = (float) boundingBox.getMaxX();
-              float maxY = (float) boundingBox.getMaxY();
-              return transformBoundingBox(minX, minY, maxX, maxY, font, trm);
-            }
-          }
-        }
-      }
-    }
-    return null;
+    float minX = fontMetrics.getMinX(slot);
+    float minY = fontMetrics.getMinY(slot);
+    float maxX = fontMetrics.getMaxX(slot);
+    float maxY = fontMetrics.getMaxY(slot);
+    transformBoundingBox(minX, minY, maxX, maxY, font, trm, bounds);
+    return true;
   }
 
   /**
    * Transforms the given bounding box into the device space.
    * 
-   * @param minX The minX value of the bounding box.
-   * @param minY The minY value of the bounding box.
-   * @param maxX The maxX value of the bounding box.
-   * @param maxY The maxY value of the bounding box.
-   * @param font The current font.
-   * @param trm  The current text rendering matrix.
-   * 
-   * @return The transformed bounding box.
+   * @param minX   The minX value of the bounding box.
+   * @param minY   The minY value of the bounding box.
+   * @param maxX   The maxX value of the bounding box.
+   * @param maxY   The maxY value of the bounding box.
+   * @param font   The current font.
+   * @param trm    The current text rendering matrix.
+   * @param bounds The array to write the transformed bounding box to.
    */
-  protected Rectangle transformBoundingBox(float minX, float minY, float maxX, float maxY,
-          PDFont font, Matrix trm) {
-    if (font == null) {
-      return null;
-    }
-
-    Point lowerLeft = new Point(minX, minY);
-    Point upperRight = new Point(maxX, maxY);
+  protected void transformBoundingBox(float minX, float minY, float maxX, float maxY,
+          PDFont font, float[] trm, float[] bounds) {
+    Matrix fm = font.getFontMatrix();
 
-    Matrix fontMatrix = font.getFontMatrix();
+    // Transform the points like PdfBoxPdfStreamsParser.transform(Point, Matrix) does, that is:
+    // the y-coordinate is computed from the *transformed* x-coordinate.
 
     // glyph space -> text space
-    this.engine.transform(lowerLeft, fontMatrix);
-    this.engine.transform(upperRight, fontMatrix);
+    float llx = minX * fm.getScaleX() + minY * fm.getShearX() + fm.getTranslateX();
+    float lly = llx * fm.getShearY() + minY * fm.getScaleY() + fm.getTranslateY();
+    float urx = maxX * fm.getScaleX() + maxY * fm.getShearX() + fm.getTranslateX();
+    float ury = urx * fm.getShearY() + maxY * fm.getScaleY() + fm.getTranslateY();
 
     // text space -> device space
-    this.engine.transform(lowerLeft, trm);
-    this.engine.transform(upperRight, trm);
-
-    return new Rectangle(lowerLeft, upperRight);
+    llx = llx * trm[0] + lly * trm[3] + trm[6];
+    lly = llx * trm[1] + lly * trm[4] + trm[7];
+    urx = urx * trm[0] + ury * trm[3] + trm[6];
+    ury = urx * trm[1] + ury * trm[4] + trm[7];
+
+    bounds[0] = llx;
+    bounds[1] = lly;
+    bounds[2] = urx;
+    bounds[3] = ury;
   }
 
   /**
    * Computes the bounding box for the given glyph by the method of PdfBox, that is computing an
    * approximate bounding box, without respecting ascenders (like "l") or descenders (like "g").
    * 
-   * @param code The character
-   * @param font The font.
-   * @param trm  The current text rendering matrix.
-   * @return The bounding box.
+   * @param code   The character
+   * @param font   The font.
+   * @param trm    The current text rendering matrix.
+   * @param bounds The array to write the bounding box to (minX, minY, maxX, maxY).
    * @throws IOException if obtaining the default bounding box fails.
    */
-  protected Rectangle computePdfBoxGlyphBoundingBox(int code, PDFont font, Matrix trm)
-          throws IOException {
+  protected void computePdfBoxGlyphBoundingBox(int code, PDFont font, float[] trm,
+          float[] bounds) throws IOException {
     PDGraphicsState state = this.engine.getGraphicsState();
-    Matrix ctm = state.getCurrentTransformationMatrix();
-    Matrix textMatrix = this.engine.getTextMatrix();
+    PdfBoxMatrixUtils.getValues(state.getCurrentTransformationMatrix(), this.ctm);
+    PdfBoxMatrixUtils.getValues(this.engine.getTextMatrix(), this.textMatrix);
 
-    Vector displacement = font.getDisplacement(code);
+    FontMetrics fontMetrics = this.engine.getGlyphMetricsCache().getFontMetrics(font);
+    int slot = fontMetrics.getSlot(code);
     float fontSize = state.getTextState().getFontSize();
     float horizScaling = state.getTextState().getHorizontalScaling() / 100f;
 
-    float tx = displacement.getX() * fontSize * horizScaling;
+    float tx = fontMetrics.getDisplacementX(slot) * fontSize * horizScaling;
     float ty = 0;
 
     // (modified) combined displacement matrix
-    Matrix td = Matrix.getTranslateInstance(tx, ty);
+    PdfBoxMatrixUtils.setTranslation(this.translation, tx, ty);
 
     // (modified) text rendering matrix
-    Matrix nextTrm = td.multiply(textMatrix).multiply(ctm);
+    PdfBoxMatrixUtils.multiply(this.translation, this.textMatrix, this.product);
+    PdfBoxMatrixUtils.multiply(this.product, this.ctm, this.nextTrm);
+
+    // 1/2 the bbox is used as the height, in text space.
+    float height = fontMetrics.getPdfBoxGlyphHeight();
+    float dyDisplay = height * PdfBoxMatrixUtils.getScalingFactorY(trm);
+
+    bounds[0] = trm[6];
+    bounds[1] = trm[7];
+    bounds[2] = this.nextTrm[6];
+    bounds[3] = bounds[1] + dyDisplay;
+  }
+
+  // ==============================================================================================
+  // Methods to resolve the text of a glyph.
+
+  /**
+   * Resolves the text of the given glyph and stores it in the given font metrics: the Unicode text
+   * given by the font, the normalized text and whether the normalized text is blank. Single
+   * characters are shared, see {@link #shareCharacter(String)}.
+   * 
+   * @param code        The internal PDF character code for the glyph.
+   * @param font        The font of the glyph.
+   * @param fontMetrics The metrics of the font.
+   * @param slot        The slot of the glyph in the font metrics.
+   * @throws IOException if something went wrong on resolving the text.
+   */
+  protected void resolveText(int code, PDFont font, FontMetrics fontMetrics, int slot)
+          throws IOException {
+    // Use our additional glyph list for Unicode mapping
+    GlyphList additionalGlyphs = this.glyphUtils.getAdditionalGlyphs();
+    String unicode = font.toUnicode(code, additionalGlyphs);
+
+    // TODO: If we need the hasEncoding flag, uncomment the following:
+    // boolean hasEncoding = unicode != null;
+    //
+    // // Obtain the glyph name.
+    // String glyphName = ".notdef";
+    // if (font instanceof PDType1CFont) {
+    // PDType1CFont cFont = (PDType1CFont) font;
+    // glyphName = cFont.codeToName(code);
+    // } else if (font instanceof PDSimpleFont) {
+    // PDSimpleFont simpleFont = (PDSimpleFont) font;
+    // glyphName = simpleFont.getGlyphList().codePointToName(code);
+    // }
+    //
+    // // From time to time (if font is embedded), there could be glyphs that
+    // were
+    // // redefined by a type3 font file (a custom path to draw to print the
+    // // glyph). In such cases, we don't know the semantic meaning of the
+    // glpyh.
+    // // Try to derive it from the glyph name.
+    // if (PdfGlyphDictionary.hasGlyphForName(glyphName)) {
+    // unicode = PdfGlyphDictionary.getGlyphForName(glyphName);
+    // }
+
+    // When there is no Unicode mapping available, Acrobat simply coerces the
+    // character code into Unicode, so we do the same. Subclasses of
+    // PDFStreamEngine don't necessarily want this, which is why we leave it
+    // until this point in PDFTextStreamEngine.
+    if (unicode == null) {
+      if (font instanceof PDSimpleFont) {
+        char c = (char) code;
+        unicode = String.valueOf(c);
+
+        // TODO: If we need the hasEncoding flag, uncomment the following:
+        // // Obtain if the font has an encoding for the given code.
+        // PDSimpleFont simpleFont = (PDSimpleFont) font;
+        // if (font instanceof PDType1Font) {
+        // PDType1Font type1Font = (PDType1Font) font;
+        // hasEncoding = !".notdef".equals(type1Font.codeToName(code));
+        // } else {
+        // String name = simpleFont.getGlyphList().codePointToName(code);
+        // String glyphUnicode = simpleFont.getGlyphList().toUnicode(name);
+        // hasEncoding = glyphUnicode != null;
+        // }
+      } else {
+        // Acrobat doesn't seem to coerce composite font's character codes,
+        // instead it skips them. See the "allah2.pdf" TestTextStripper file.
+        fontMetrics.setTextMissing(slot);
+        return;
+      }
+    }
 
-    // 1/2 the bbox is used as the height todo: why?
-    float glyphHeight = font.getBoundingBox().getHeight() / 2;
-    // transformPoint from glyph space -> text space
-    float height = font.getFontMatrix().transformPoint(0, glyphHeight).y;
-    float dyDisplay = height * trm.getScalingFactorY();
+    // Ignore the character if it is empty.
+    if (unicode == null || unicode.trim().isEmpty()) {
+      fontMetrics.setTextMissing(slot);
+      return;
+    }
+    unicode = shareCharacter(unicode);
 
-    float minX = trm.getTranslateX();
-    float minY = trm.getTranslateY();
-    float maxX = nextTrm.getTranslateX();
-    float maxY = minY + dyDisplay;
+    // Check if we have to normalize the character.
+    String text = normalizeCharacter(unicode);
+    if (text == null) {
+      text = unicode;
+    }
+    fontMetrics.setText(slot, unicode, text, isBlank(text));
+  }
 
-    return new Rectangle(minX, minY, maxX, maxY);
+  /**
+   * Returns a shared instance of the given text, if it consists of a single character of the
+   * most common Unicode blocks. This avoids to keep millions of identical strings on the heap.
+   * 
+   * @param text The text.
+   * @return The shared instance of the text, or the text itself if it is not shared.
+   */
+  protected static String shareCharacter(String text) {
+    if (text.length() != 1 || text.charAt(0) >= SHARED_CHARACTERS.length) {
+      return text;
+    }
+    // Strings are immutable, so concurrent writes of the same character are harmless.
+    String shared = SHARED_CHARACTERS[text.charAt(0)];
+    if (shared == null) {
+      shared = text;
+      SHARED_CHARACTERS[text.charAt(0)] = shared;
+    }
+    return shared;
+  }
+
+  /**
+   * Returns true if the given text consists of horizontal whitespaces only. Don't use Java's
+   * trim() method here, because it doesn't remove non-breaking characters (Unicode \u00a0).
+   * PDF0006 contains such characters. Instead, check for "horizontal whitespaces", see for
+   * example: https://stackoverflow.com/questions/28295504/how-to-trim-no-break-space-in-java.
+   * 
+   * @param text The text to check.
+   * @return True if the text consists of horizontal whitespaces only; false otherwise.
+   */
+  protected static boolean isBlank(String text) {
+    return HORIZONTAL_WHITESPACES.matcher(text).matches();
   }
 
   /**
    * Returns true if the given character should be ignored on further processings; false otherwise.
+   * 
+   * @param character The character to check.
+   * @param isBlank   True if the text of the character consists of horizontal whitespaces only.
+   * @return True if the character should be ignored; false otherwise.
    */
-  protected boolean ignoreCharacter(Character character) {
+  protected boolean ignoreCharacter(Character character, boolean isBlank) {
     // Ignore the character, if it is null.
     if (character == null) {
       log.debug("... ignore:       true (because it is null)");
@@ -591,12 +783,9 @@ public class ShowText extends OperatorProcessor {
       return true;
     }
 
-    // Trim the text. But don't use Java's trim() method here, because it doesn't remove 
-    // non-breaking characters (Unicode \u00a0). PDF0006 contains such characters.
-    // Instead, remove all leading and trailing "horizontal whitespaces", see for example:
-    // https://stackoverflow.com/questions/28295504/how-to-trim-no-break-space-in-java.
-    String trimmed = text.replaceAll("(^\\h*)|(\\h*$)", "");
-    if (trimmed.isEmpty()) {
+    // Ignore the character, if it consists of horizontal whitespaces only (this was checked on
+    // resolving the text of the glyph, see isBlank()).
+    if (isBlank) {
       log.debug("... ignore:       true (because it doesn't contain text)");
       return true;
     }
@@ -611,6 +800,17 @@ public class ShowText extends OperatorProcessor {
    */
   protected static final Map<String, String> CHARACTER_SYNONYMS;
 
+  /**
+   * The pattern to check if a text consists of horizontal whitespaces only.
+   */
+  protected static final Pattern HORIZONTAL_WHITESPACES = Pattern.compile("\\h*");
+
+  /**
+   * The shared instances of single characters, for the Unicode blocks up to (and excluding) the
+   * CJK symbols and punctuation.
+   */
+  protected static final String[] SHARED_CHARACTERS = new String[0x3000];
+
   // TODO: Move this to character lexicon.
   static {
     CHARACTER_SYNONYMS = new HashMap<String, String>();
@@ -0,0 +1,174 @@
+package pdfact.core.pipes.parse.stream.pdfbox.utils;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.pdmodel.DefaultResourceCache;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+
+/**
+ * The resource cache of a single PDF document, which reuses the fonts and XObjects (forms and
+ * images) referenced by indirect objects across the pages of the document. For example, a slide
+ * deck typically draws the same master forms, logos and fonts on every page, which then need to be
+ * resolved (and, in case of fonts, parsed) only once.
+ *
+ * <p>
+ * In contrast to the default resource cache of PdfBox, which keeps the resources as long as there
+ * is enough memory (via soft references), this cache holds at most a given number of fonts and
+ * of XObjects. If there are more, the least recently used ones are removed. All other resources
+ * (color spaces, graphics states, shadings, patterns and property lists) are cached like by the
+ * default resource cache.
+ *
+ * <p>
+ * A cache is not thread-safe, like the PDF document it is used for.
+ *
+ * @author Claudius Korzen
+ */
+public class BoundedResourceCache extends DefaultResourceCache {
+  /**
+   * The maximum number of fonts and of XObjects in this cache (0 if unlimited).
+   */
+  protected final int maxNumResources;
+
+  /**
+   * The cached fonts per indirect object, in the order of their last use.
+   */
+  protected final Map<COSObject, PDFont> fonts;
+
+  /**
+   * The cached XObjects per indirect object, in the order of their last use.
+   */
+  protected final Map<COSObject, PDXObject> xObjects;
+
+  /**
+   * The number of fonts and XObjects that were found in this cache.
+   */
+  protected int numHits;
+
+  /**
+   * The number of fonts and XObjects that were not found in this cache.
+   */
+  protected int numMisses;
+
+  /**
+   * Creates a new resource cache.
+   *
+   * @param maxNumResources
+   *        The maximum number of fonts and of XObjects in the cache (0 if unlimited).
+   */
+  public BoundedResourceCache(int maxNumResources) {
+    this.maxNumResources = maxNumResources;
+    this.fonts = createLruMap(maxNumResources);
+    this.xObjects = createLruMap(maxNumResources);
+  }
+
+  // ==============================================================================================
+
+  @Override
+  public PDFont getFont(COSObject indirect) throws IOException {
+    return count(this.fonts.get(indirect));
+  }
+
+  @Override
+  public void put(COSObject indirect, PDFont font) throws IOException {
+    this.fonts.put(indirect, font);
+  }
+
+  @Override
+  public PDXObject getXObject(COSObject indirect) throws IOException {
+    return count(this.xObjects.get(indirect));
+  }
+
+  @Override
+  public void put(COSObject indirect, PDXObject xObject) throws IOException {
+    this.xObjects.put(indirect, xObject);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the maximum number of fonts and of XObjects in this cache.
+   *
+   * @return The maximum number of fonts and of XObjects (0 if unlimited).
+   */
+  public int getMaxNumResources() {
+    return this.maxNumResources;
+  }
+
+  /**
+   * Returns the number of fonts in this cache.
+   *
+   * @return The number of fonts.
+   */
+  public int getNumFonts() {
+    return this.fonts.size();
+  }
+
+  /**
+   * Returns the number of XObjects in this cache.
+   *
+   * @return The number of XObjects.
+   */
+  public int getNumXObjects() {
+    return this.xObjects.size();
+  }
+
+  /**
+   * Returns the number of fonts and XObjects that were found in this cache so far.
+   *
+   * @return The number of hits.
+   */
+  public int getNumHits() {
+    return this.numHits;
+  }
+
+  /**
+   * Returns the number of fonts and XObjects that were not found in this cache so far.
+   *
+   * @return The number of misses.
+   */
+  public int getNumMisses() {
+    return this.numMisses;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Counts the given result of a lookup in this cache as a hit or a miss.
+   *
+   * @param resource
+   *        The resource found in this cache, or null if there was no such resource.
+   *
+   * @return The given resource.
+   */
+  protected <T> T count(T resource) {
+    if (resource != null) {
+      this.numHits++;
+    } else {
+      this.numMisses++;
+    }
+    return resource;
+  }
+
+  /**
+   * Creates a map that iterates its entries in the order of their last access and that removes
+   * the least recently accessed entry if there are more than the given number of entries.
+   *
+   * @param maxSize
+   *        The maximum number of entries (0 if unlimited).
+   *
+   * @return The created map.
+   */
+  protected static <K, V> Map<K, V> createLruMap(int maxSize) {
+    return new LinkedHashMap<K, V>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return maxSize > 0 && size() > maxSize;
+      }
+    };
+  }
+}
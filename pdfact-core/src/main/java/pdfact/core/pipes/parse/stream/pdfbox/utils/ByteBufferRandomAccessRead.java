@@ -0,0 +1,149 @@
+package pdfact.core.pipes.parse.stream.pdfbox.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.pdfbox.io.RandomAccessRead;
+
+/**
+ * A {@link RandomAccessRead} that reads from a {@link ByteBuffer}, for example from a byte array
+ * or from a memory-mapped file. In contrast to PdfBox's RandomAccessBuffer, the bytes are not
+ * copied, and in contrast to PdfBox's RandomAccessBufferedFileInputStream, the bytes are not read
+ * from disk through an additional buffer.
+ *
+ * <p>
+ * The bytes are read from the position to the limit of the given buffer, on a duplicate of the
+ * buffer. So multiple instances can read from the same buffer at the same time (for example, to
+ * parse the pages of a document in parallel), as long as the content of the buffer doesn't change.
+ *
+ * @author Claudius Korzen
+ */
+public class ByteBufferRandomAccessRead implements RandomAccessRead {
+  /**
+   * The buffer to read from, or null if this reader is closed.
+   */
+  protected ByteBuffer buffer;
+
+  /**
+   * Creates a new reader that reads the bytes of the given buffer, from its position to its limit.
+   *
+   * @param buffer
+   *        The buffer to read from.
+   */
+  public ByteBufferRandomAccessRead(ByteBuffer buffer) {
+    this.buffer = buffer.slice();
+  }
+
+  // ==============================================================================================
+
+  @Override
+  public int read() throws IOException {
+    checkClosed();
+    if (!this.buffer.hasRemaining()) {
+      return -1;
+    }
+    return this.buffer.get() & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b) throws IOException {
+    return read(b, 0, b.length);
+  }
+
+  @Override
+  public int read(byte[] b, int offset, int length) throws IOException {
+    checkClosed();
+    if (length == 0) {
+      return 0;
+    }
+    if (!this.buffer.hasRemaining()) {
+      return -1;
+    }
+    int numBytes = Math.min(length, this.buffer.remaining());
+    this.buffer.get(b, offset, numBytes);
+    return numBytes;
+  }
+
+  @Override
+  public byte[] readFully(int length) throws IOException {
+    checkClosed();
+    if (length > this.buffer.remaining()) {
+      throw new EOFException("Premature end of buffer reached.");
+    }
+    byte[] bytes = new byte[length];
+    this.buffer.get(bytes);
+    return bytes;
+  }
+
+  @Override
+  public int peek() throws IOException {
+    checkClosed();
+    if (!this.buffer.hasRemaining()) {
+      return -1;
+    }
+    return this.buffer.get(this.buffer.position()) & 0xFF;
+  }
+
+  @Override
+  public void rewind(int numBytes) throws IOException {
+    seek(getPosition() - numBytes);
+  }
+
+  @Override
+  public void seek(long position) throws IOException {
+    checkClosed();
+    if (position < 0) {
+      throw new IOException("Invalid position " + position + ".");
+    }
+    // Seeking beyond the end of the buffer is allowed; the next read returns -1.
+    this.buffer.position((int) Math.min(position, this.buffer.limit()));
+  }
+
+  @Override
+  public long getPosition() throws IOException {
+    checkClosed();
+    return this.buffer.position();
+  }
+
+  @Override
+  public long length() throws IOException {
+    checkClosed();
+    return this.buffer.limit();
+  }
+
+  @Override
+  public boolean isEOF() throws IOException {
+    checkClosed();
+    return !this.buffer.hasRemaining();
+  }
+
+  @Override
+  public int available() throws IOException {
+    checkClosed();
+    return this.buffer.remaining();
+  }
+
+  @Override
+  public boolean isClosed() {
+    return this.buffer == null;
+  }
+
+  @Override
+  public void close() {
+    this.buffer = null;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Ensures that this reader is not closed.
+   *
+   * @throws IOException
+   *         If this reader is closed.
+   */
+  protected void checkClosed() throws IOException {
+    if (this.buffer == null) {
+      throw new IOException("The buffer is already closed.");
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package pdfact.core.pipes.parse.stream.pdfbox.utils;
+
+import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import pdfact.core.model.Color;
+import pdfact.core.util.color.ColorManager;
+
+/**
+ * A cache for the {@link Color} converted from a color of the graphics state (for example, the
+ * current non-stroking color). Converting a color is expensive (it requires to translate the color
+ * to RGB, which is costly for ICC-based and separation color spaces, and to look up the RGB
+ * values in the color manager), but the color of the graphics state changes rarely compared to
+ * the number of glyphs and paths drawn with it.
+ *
+ * <p>
+ * PDColor objects are immutable, so all operators that change a color of the graphics state (for
+ * example, "sc", "scn", "rg", "k", "g" and "cs") install a new PDColor and/or a new color space,
+ * and restoring the graphics state reinstalls the PDColor of the saved state. The converted color
+ * is therefore valid as long as the PDColor, the color space and the color manager are the same
+ * objects as on the last conversion.
+ *
+ * @author Claudius Korzen
+ */
+public class ColorStateCache {
+  /**
+   * The PDColor of the last conversion.
+   */
+  protected PDColor pdColor;
+
+  /**
+   * The color space of the last conversion.
+   */
+  protected PDColorSpace pdColorSpace;
+
+  /**
+   * The color manager of the last conversion.
+   */
+  protected ColorManager colorManager;
+
+  /**
+   * The converted color of the last conversion (may be null).
+   */
+  protected Color color;
+
+  /**
+   * Whether there was a conversion at all.
+   */
+  protected boolean isConverted;
+
+  /**
+   * Returns the {@link Color} related to the given color and color space. The color is converted
+   * by the given color manager only if it differs from the color of the last call.
+   *
+   * @param pdColor      The color to convert.
+   * @param pdColorSpace The color space of the color.
+   * @param colorManager The color manager to convert the color with.
+   *
+   * @return The converted color.
+   */
+  public Color getColor(PDColor pdColor, PDColorSpace pdColorSpace, ColorManager colorManager) {
+    if (!this.isConverted || pdColor != this.pdColor || pdColorSpace != this.pdColorSpace
+            || colorManager != this.colorManager) {
+      this.color = colorManager.getColor(pdColor, pdColorSpace);
+      this.pdColor = pdColor;
+      this.pdColorSpace = pdColorSpace;
+      this.colorManager = colorManager;
+      this.isConverted = true;
+    }
+    return this.color;
+  }
+
+  /**
+   * Forgets the last conversion.
+   */
+  public void clear() {
+    this.pdColor = null;
+    this.pdColorSpace = null;
+    this.colorManager = null;
+    this.color = null;
+    this.isConverted = false;
+  }
+}
@@ -0,0 +1,490 @@
+package pdfact.core.pipes.parse.stream.pdfbox.utils;
+
+import static pdfact.core.PdfActCoreSettings.MAX_NUM_CACHED_FONTS;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.GlyphMetricsCache.FontMetrics;
+
+/**
+ * A cache for fonts that is shared by multiple PDF documents, for example by the documents of a
+ * batch. Papers from the same publisher often embed identical subsets of the same fonts, which
+ * would otherwise be parsed again (the embedded Type1, CFF or TrueType font program) and measured
+ * again (the metrics of the glyphs, see {@link GlyphMetricsCache}) for each document.
+ *
+ * <p>
+ * The fonts are identified by a hash of their content, that is: of the font dictionary with all
+ * dictionaries, arrays and streams (like the embedded font program) referenced by it. So a font
+ * of one document is reused in another document only if its font dictionary is identical.
+ * Type3 fonts are not cached, since their glyph descriptions refer to the resources of the
+ * document.
+ *
+ * <p>
+ * A cache is thread-safe, but the cached fonts are not (neither the PDFont objects of PdfBox nor
+ * the metrics of the glyphs). So a font is checked out of the cache for exclusive use by a single
+ * document, and is checked in again after the document was parsed (see
+ * {@link DocumentFontCache}). If a font is needed by two documents at the same time, the second
+ * document parses its own copy of the font. The cache holds at most a given number of fonts; if
+ * there are more, the least recently used fonts are removed.
+ *
+ * @author Claudius Korzen
+ */
+public class FontCache {
+  /**
+   * The logger.
+   */
+  protected static Logger log = LogManager.getLogger(FontCache.class);
+
+  /**
+   * The maximum number of fonts in this cache.
+   */
+  protected final int maxNumFonts;
+
+  /**
+   * The cached fonts per content hash, in the order of their last use.
+   */
+  protected final Map<String, CachedFont> fonts;
+
+  /**
+   * The number of fonts that were found in this cache.
+   */
+  protected int numHits;
+
+  /**
+   * The number of fonts that were not found in this cache.
+   */
+  protected int numMisses;
+
+  /**
+   * Creates a new font cache that holds at most MAX_NUM_CACHED_FONTS fonts.
+   */
+  public FontCache() {
+    this(MAX_NUM_CACHED_FONTS);
+  }
+
+  /**
+   * Creates a new font cache.
+   *
+   * @param maxNumFonts
+   *        The maximum number of fonts in the cache.
+   */
+  public FontCache(int maxNumFonts) {
+    if (maxNumFonts < 1) {
+      throw new IllegalArgumentException("The maximum number of fonts must be at least 1.");
+    }
+    this.maxNumFonts = maxNumFonts;
+    this.fonts = BoundedResourceCache.createLruMap(maxNumFonts);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Removes the font with the given content hash from this cache, for exclusive use by a single
+   * document. The font must be checked in again via {@link #checkIn(String, CachedFont)}.
+   *
+   * @param key
+   *        The content hash of the font.
+   *
+   * @return The cached font, or null if there is no such font in this cache.
+   */
+  public synchronized CachedFont checkOut(String key) {
+    CachedFont font = this.fonts.remove(key);
+    if (font != null) {
+      this.numHits++;
+    } else {
+      this.numMisses++;
+    }
+    return font;
+  }
+
+  /**
+   * Adds the given font to this cache (as the most recently used font), such that it can be
+   * reused by other documents.
+   *
+   * @param key
+   *        The content hash of the font.
+   * @param font
+   *        The font to add.
+   */
+  public synchronized void checkIn(String key, CachedFont font) {
+    this.fonts.put(key, font);
+  }
+
+  /**
+   * Returns the maximum number of fonts in this cache.
+   *
+   * @return The maximum number of fonts.
+   */
+  public int getMaxNumFonts() {
+    return this.maxNumFonts;
+  }
+
+  /**
+   * Returns the number of fonts in this cache.
+   *
+   * @return The number of fonts.
+   */
+  public synchronized int size() {
+    return this.fonts.size();
+  }
+
+  /**
+   * Returns the number of fonts that were found in this cache so far.
+   *
+   * @return The number of hits.
+   */
+  public synchronized int getNumHits() {
+    return this.numHits;
+  }
+
+  /**
+   * Returns the number of fonts that were not found in this cache so far.
+   *
+   * @return The number of misses.
+   */
+  public synchronized int getNumMisses() {
+    return this.numMisses;
+  }
+
+  /**
+   * Removes all fonts from this cache.
+   */
+  public synchronized void clear() {
+    this.fonts.clear();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Computes the content hash of the given font dictionary.
+   *
+   * @param fontDict
+   *        The font dictionary.
+   *
+   * @return The content hash, or null if the font can't be cached (because it is a Type3 font).
+   *
+   * @throws IOException
+   *         If a stream referenced by the font dictionary couldn't be read.
+   */
+  public static String computeKey(COSDictionary fontDict) throws IOException {
+    if (COSName.TYPE3.equals(fontDict.getCOSName(COSName.SUBTYPE))) {
+      return null;
+    }
+
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every implementation of the Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+    update(digest, fontDict, new IdentityHashMap<>(), new byte[8192]);
+
+    StringBuilder key = new StringBuilder();
+    for (byte b : digest.digest()) {
+      key.append(String.format("%02x", b));
+    }
+    return key.toString();
+  }
+
+  /**
+   * Feeds the given object, and all objects referenced by it, to the given digest.
+   *
+   * @param digest
+   *        The digest.
+   * @param object
+   *        The object.
+   * @param visited
+   *        The dictionaries and arrays visited so far, with the order of their visit (to detect
+   *        cycles).
+   * @param buffer
+   *        The buffer to use on reading streams.
+   *
+   * @throws IOException
+   *         If a stream couldn't be read.
+   */
+  protected static void update(MessageDigest digest, COSBase object,
+      Map<COSBase, Integer> visited, byte[] buffer) throws IOException {
+    COSBase base = object instanceof COSObject ? ((COSObject) object).getObject() : object;
+
+    if (base instanceof COSDictionary || base instanceof COSArray) {
+      Integer index = visited.get(base);
+      if (index != null) {
+        update(digest, 'r', index.toString());
+        return;
+      }
+      visited.put(base, visited.size());
+    }
+
+    if (base instanceof COSDictionary) {
+      COSDictionary dict = (COSDictionary) base;
+      update(digest, 'd', String.valueOf(dict.size()));
+      for (Map.Entry<COSName, COSBase> entry : dict.entrySet()) {
+        update(digest, 'k', entry.getKey().getName());
+        update(digest, entry.getValue(), visited, buffer);
+      }
+      if (base instanceof COSStream) {
+        // The raw data is hashed, so the stream doesn't need to be decoded.
+        digest.update((byte) 's');
+        try (InputStream in = ((COSStream) base).createRawInputStream()) {
+          int numBytes;
+          while ((numBytes = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, numBytes);
+          }
+        }
+      }
+    } else if (base instanceof COSArray) {
+      COSArray array = (COSArray) base;
+      update(digest, 'a', String.valueOf(array.size()));
+      for (int i = 0; i < array.size(); i++) {
+        update(digest, array.get(i), visited, buffer);
+      }
+    } else if (base instanceof COSName) {
+      update(digest, 'n', ((COSName) base).getName());
+    } else if (base instanceof COSString) {
+      digest.update((byte) 't');
+      byte[] bytes = ((COSString) base).getBytes();
+      update(digest, String.valueOf(bytes.length));
+      digest.update(bytes);
+    } else if (base instanceof COSNumber) {
+      update(digest, 'f', String.valueOf(((COSNumber) base).floatValue()));
+    } else if (base instanceof COSBoolean) {
+      update(digest, 'b', String.valueOf(((COSBoolean) base).getValue()));
+    } else {
+      // Null objects and references to objects that don't exist.
+      digest.update((byte) '0');
+    }
+  }
+
+  /**
+   * Feeds the given tag and value to the given digest.
+   *
+   * @param digest
+   *        The digest.
+   * @param tag
+   *        The tag identifying the type of the value.
+   * @param value
+   *        The value.
+   */
+  protected static void update(MessageDigest digest, char tag, String value) {
+    digest.update((byte) tag);
+    update(digest, value);
+  }
+
+  /**
+   * Feeds the given value, terminated by a delimiter, to the given digest.
+   *
+   * @param digest
+   *        The digest.
+   * @param value
+   *        The value.
+   */
+  protected static void update(MessageDigest digest, String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * A cached font: the PDFont object of PdfBox (with the parsed font program) and the metrics of
+   * the glyphs computed so far.
+   *
+   * @author Claudius Korzen
+   */
+  public static class CachedFont {
+    /**
+     * The font.
+     */
+    protected final PDFont font;
+
+    /**
+     * The metrics of the glyphs in the font, or null if there are no metrics yet.
+     */
+    protected FontMetrics metrics;
+
+    /**
+     * Creates a new cached font.
+     *
+     * @param font
+     *        The font.
+     */
+    public CachedFont(PDFont font) {
+      this.font = font;
+    }
+
+    /**
+     * Returns the font.
+     *
+     * @return The font.
+     */
+    public PDFont getFont() {
+      return this.font;
+    }
+
+    /**
+     * Returns the metrics of the glyphs in the font.
+     *
+     * @return The metrics, or null if there are no metrics yet.
+     */
+    public FontMetrics getMetrics() {
+      return this.metrics;
+    }
+
+    /**
+     * Sets the metrics of the glyphs in the font.
+     *
+     * @param metrics
+     *        The metrics.
+     */
+    public void setMetrics(FontMetrics metrics) {
+      this.metrics = metrics;
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * The resource cache of a single PDF document that takes the fonts from a shared
+   * {@link FontCache}. The fonts of the document are checked out of the shared cache on their
+   * first use, and all fonts used by the document are checked in on {@link #release()}. All other
+   * resources are cached per document, see {@link BoundedResourceCache}.
+   *
+   * @author Claudius Korzen
+   */
+  public static class DocumentFontCache extends BoundedResourceCache {
+    /**
+     * The shared font cache.
+     */
+    protected final FontCache fontCache;
+
+    /**
+     * The cache for the metrics of the glyphs of the engine that parses the document.
+     */
+    protected final GlyphMetricsCache glyphMetricsCache;
+
+    /**
+     * The content hashes of the font dictionaries, per indirect object.
+     */
+    protected final Map<COSObject, String> keys = new IdentityHashMap<>();
+
+    /**
+     * The fonts used by the document per content hash, that is: the fonts checked out of the
+     * shared cache and the fonts created by the document.
+     */
+    protected final Map<String, CachedFont> usedFonts = new HashMap<>();
+
+    /**
+     * Creates a new resource cache for a single document.
+     *
+     * @param fontCache
+     *        The shared font cache.
+     * @param glyphMetricsCache
+     *        The cache for the metrics of the glyphs of the engine that parses the document.
+     * @param maxNumResources
+     *        The maximum number of fonts and of XObjects in the resource cache of the document (0
+     *        if unlimited).
+     */
+    public DocumentFontCache(FontCache fontCache, GlyphMetricsCache glyphMetricsCache,
+        int maxNumResources) {
+      super(maxNumResources);
+      this.fontCache = fontCache;
+      this.glyphMetricsCache = glyphMetricsCache;
+    }
+
+    @Override
+    public PDFont getFont(COSObject indirect) throws IOException {
+      PDFont font = super.getFont(indirect);
+      if (font != null) {
+        return font;
+      }
+
+      String key = getKey(indirect);
+      if (key == null) {
+        return null;
+      }
+
+      CachedFont cachedFont = this.usedFonts.get(key);
+      if (cachedFont == null) {
+        cachedFont = this.fontCache.checkOut(key);
+        if (cachedFont == null) {
+          return null;
+        }
+        this.usedFonts.put(key, cachedFont);
+        if (cachedFont.getMetrics() != null) {
+          this.glyphMetricsCache.putFontMetrics(cachedFont.getMetrics());
+        }
+      }
+      super.put(indirect, cachedFont.getFont());
+      return cachedFont.getFont();
+    }
+
+    @Override
+    public void put(COSObject indirect, PDFont font) throws IOException {
+      super.put(indirect, font);
+
+      String key = getKey(indirect);
+      if (key != null && !this.usedFonts.containsKey(key)) {
+        this.usedFonts.put(key, new CachedFont(font));
+      }
+    }
+
+    /**
+     * Checks in all fonts used by the document to the shared cache, together with the metrics of
+     * their glyphs computed on parsing the document. Must be called after the document was parsed.
+     */
+    public void release() {
+      for (Map.Entry<String, CachedFont> entry : this.usedFonts.entrySet()) {
+        CachedFont cachedFont = entry.getValue();
+        FontMetrics metrics = this.glyphMetricsCache.getKnownFontMetrics(cachedFont.getFont());
+        if (metrics != null) {
+          cachedFont.setMetrics(metrics);
+        }
+        this.fontCache.checkIn(entry.getKey(), cachedFont);
+      }
+      log.debug("Released " + this.usedFonts.size() + " fonts, the font cache contains "
+          + this.fontCache.size() + " fonts.");
+      this.usedFonts.clear();
+      this.keys.clear();
+    }
+
+    /**
+     * Returns the content hash of the font dictionary referenced by the given indirect object.
+     *
+     * @param indirect
+     *        The indirect object.
+     *
+     * @return The content hash, or null if the object doesn't reference a font dictionary or if
+     *         the font can't be cached.
+     *
+     * @throws IOException
+     *         If a stream referenced by the font dictionary couldn't be read.
+     */
+    protected String getKey(COSObject indirect) throws IOException {
+      if (this.keys.containsKey(indirect)) {
+        return this.keys.get(indirect);
+      }
+      COSBase base = indirect.getObject();
+      String key = base instanceof COSDictionary ? computeKey((COSDictionary) base) : null;
+      this.keys.put(indirect, key);
+      return key;
+    }
+  }
+}
@@ -0,0 +1,674 @@
+package pdfact.core.pipes.parse.stream.pdfbox.utils;
+
+import java.awt.geom.GeneralPath;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColor;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.state.PDGraphicsState;
+import org.apache.pdfbox.pdmodel.graphics.state.PDTextState;
+import org.apache.pdfbox.util.Matrix;
+import pdfact.core.model.Character;
+import pdfact.core.model.Figure;
+import pdfact.core.model.Page;
+import pdfact.core.model.Position;
+import pdfact.core.model.Rectangle;
+import pdfact.core.model.Shape;
+
+/**
+ * A cache for the elements (characters, shapes and figures) extracted from the form XObjects of a
+ * single PDF document. For example, a slide deck typically draws the same master form on every
+ * page. The elements of such a form depend only on the stream of the form and on the state in
+ * which the form is drawn (the transformation matrix, the colors, the text state, etc.). So if
+ * the form is drawn again in the same state, the elements extracted on the first draw can be
+ * re-emitted on the current page, instead of interpreting the stream of the form again.
+ *
+ * <p>
+ * The cache holds at most a given number of forms. If there are more, the least recently used
+ * ones are removed. A cache is not thread-safe.
+ *
+ * @author Claudius Korzen
+ */
+public class FormXObjectCache {
+  /**
+   * The maximum number of forms in this cache (0 if unlimited).
+   */
+  protected final int maxNumForms;
+
+  /**
+   * The recorded forms per stream, in the order of their last use.
+   */
+  protected final Map<COSStream, RecordedForm> forms;
+
+  /**
+   * Creates a new form cache.
+   *
+   * @param maxNumForms
+   *        The maximum number of forms in the cache (0 if unlimited).
+   */
+  public FormXObjectCache(int maxNumForms) {
+    this.maxNumForms = maxNumForms;
+    this.forms = BoundedResourceCache.createLruMap(maxNumForms);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the recorded form with the given stream.
+   *
+   * @param stream
+   *        The stream of the form.
+   *
+   * @return The recorded form, or null if there is no such form.
+   */
+  public RecordedForm get(COSStream stream) {
+    return this.forms.get(stream);
+  }
+
+  /**
+   * Adds the given recorded form to this cache, replacing any form previously recorded for the
+   * same stream.
+   *
+   * @param stream
+   *        The stream of the form.
+   * @param form
+   *        The recorded form.
+   */
+  public void put(COSStream stream, RecordedForm form) {
+    this.forms.put(stream, form);
+  }
+
+  /**
+   * Returns the number of forms in this cache.
+   *
+   * @return The number of forms.
+   */
+  public int size() {
+    return this.forms.size();
+  }
+
+  /**
+   * Returns the maximum number of forms in this cache.
+   *
+   * @return The maximum number of forms (0 if unlimited).
+   */
+  public int getMaxNumForms() {
+    return this.maxNumForms;
+  }
+
+  /**
+   * Removes all forms from this cache.
+   */
+  public void clear() {
+    this.forms.clear();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * The state of the engine that affects the elements extracted from a form XObject.
+   *
+   * @author Claudius Korzen
+   */
+  public static class FormState {
+    /**
+     * The current transformation matrix (a, b, c, d, e, f).
+     */
+    protected final float[] ctm;
+
+    /**
+     * The non-stroking color space.
+     */
+    protected final PDColorSpace nonStrokingColorSpace;
+
+    /**
+     * The components of the non-stroking color.
+     */
+    protected final float[] nonStrokingColor;
+
+    /**
+     * The pattern name of the non-stroking color.
+     */
+    protected final String nonStrokingPattern;
+
+    /**
+     * The stroking color space.
+     */
+    protected final PDColorSpace strokingColorSpace;
+
+    /**
+     * The components of the stroking color.
+     */
+    protected final float[] strokingColor;
+
+    /**
+     * The pattern name of the stroking color.
+     */
+    protected final String strokingPattern;
+
+    /**
+     * The font of the text state.
+     */
+    protected final PDFont font;
+
+    /**
+     * The numeric values of the text state (font size, character spacing, word spacing,
+     * horizontal scaling, leading, rise and rendering mode).
+     */
+    protected final float[] textState;
+
+    /**
+     * The winding rule of a pending clipping path (-1 if there is no such path).
+     */
+    protected final int clippingWindingRule;
+
+    /**
+     * The text matrix (null if there is no text matrix).
+     */
+    protected final float[] textMatrix;
+
+    /**
+     * The text line matrix (null if there is no text line matrix).
+     */
+    protected final float[] textLineMatrix;
+
+    /**
+     * Creates a new form state.
+     *
+     * @param state
+     *        The current graphics state.
+     * @param clippingWindingRule
+     *        The winding rule of a pending clipping path (-1 if there is no such path).
+     * @param textMatrix
+     *        The current text matrix (may be null).
+     * @param textLineMatrix
+     *        The current text line matrix (may be null).
+     */
+    public FormState(PDGraphicsState state, int clippingWindingRule, Matrix textMatrix,
+        Matrix textLineMatrix) {
+      PDColor nonStrokingColor = state.getNonStrokingColor();
+      PDColor strokingColor = state.getStrokingColor();
+      PDTextState textState = state.getTextState();
+
+      this.ctm = toArray(state.getCurrentTransformationMatrix());
+      this.nonStrokingColorSpace = state.getNonStrokingColorSpace();
+      this.nonStrokingColor = nonStrokingColor.getComponents();
+      this.nonStrokingPattern = getPatternName(nonStrokingColor);
+      this.strokingColorSpace = state.getStrokingColorSpace();
+      this.strokingColor = strokingColor.getComponents();
+      this.strokingPattern = getPatternName(strokingColor);
+      this.font = textState.getFont();
+      this.textState = new float[] { textState.getFontSize(), textState.getCharacterSpacing(),
+          textState.getWordSpacing(), textState.getHorizontalScaling(), textState.getLeading(),
+          textState.getRise(), textState.getRenderingMode().intValue() };
+      this.clippingWindingRule = clippingWindingRule;
+      this.textMatrix = toArray(textMatrix);
+      this.textLineMatrix = toArray(textLineMatrix);
+    }
+
+    /**
+     * Checks if this state is equal to the given state.
+     *
+     * @param other
+     *        The other state.
+     * @param isComparingTextMatrices
+     *        True if the text matrices should be compared as well; false if they should be
+     *        ignored.
+     *
+     * @return True if the states are equal; false otherwise.
+     */
+    public boolean matches(FormState other, boolean isComparingTextMatrices) {
+      if (other == null) {
+        return false;
+      }
+      if (isComparingTextMatrices && (!Arrays.equals(this.textMatrix, other.textMatrix)
+          || !Arrays.equals(this.textLineMatrix, other.textLineMatrix))) {
+        return false;
+      }
+      return Arrays.equals(this.ctm, other.ctm)
+          && this.nonStrokingColorSpace == other.nonStrokingColorSpace
+          && Arrays.equals(this.nonStrokingColor, other.nonStrokingColor)
+          && Objects.equals(this.nonStrokingPattern, other.nonStrokingPattern)
+          && this.strokingColorSpace == other.strokingColorSpace
+          && Arrays.equals(this.strokingColor, other.strokingColor)
+          && Objects.equals(this.strokingPattern, other.strokingPattern)
+          && this.font == other.font
+          && Arrays.equals(this.textState, other.textState)
+          && this.clippingWindingRule == other.clippingWindingRule;
+    }
+
+    /**
+     * Returns the values of the given matrix.
+     *
+     * @param m
+     *        The matrix (may be null).
+     *
+     * @return The values (a, b, c, d, e, f) of the matrix, or null if the matrix is null.
+     */
+    protected static float[] toArray(Matrix m) {
+      if (m == null) {
+        return null;
+      }
+      return new float[] { m.getScaleX(), m.getShearY(), m.getShearX(), m.getScaleY(),
+          m.getTranslateX(), m.getTranslateY() };
+    }
+
+    /**
+     * Returns the pattern name of the given color.
+     *
+     * @param color
+     *        The color.
+     *
+     * @return The pattern name, or null if the color is not a pattern.
+     */
+    protected static String getPatternName(PDColor color) {
+      return color.isPattern() ? color.getPatternName().getName() : null;
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * The elements extracted from a form XObject, together with the state of the engine before and
+   * after the form was drawn.
+   *
+   * @author Claudius Korzen
+   */
+  public static class RecordedForm {
+    /**
+     * The state in which the form was drawn.
+     */
+    protected final FormState state;
+
+    /**
+     * The text matrix on starting the recording (only used while recording).
+     */
+    protected Matrix initialTextMatrix;
+
+    /**
+     * The text line matrix on starting the recording (only used while recording).
+     */
+    protected Matrix initialTextLineMatrix;
+
+    /**
+     * The boolean flag indicating whether the form reads the text matrices it was drawn with.
+     */
+    protected boolean isReadingTextMatrices;
+
+    /**
+     * The extraction rank at the start of the form.
+     */
+    protected final int firstExtractionRank;
+
+    /**
+     * The characters extracted from the form, with their extraction ranks relative to the first
+     * extraction rank of the form.
+     */
+    protected final List<Character> characters = new ArrayList<>();
+
+    /**
+     * The shapes extracted from the form.
+     */
+    protected final List<Shape> shapes = new ArrayList<>();
+
+    /**
+     * The figures extracted from the form.
+     */
+    protected final List<Figure> figures = new ArrayList<>();
+
+    /**
+     * The number of extraction ranks assigned while drawing the form.
+     */
+    protected int numExtractionRanks;
+
+    /**
+     * The number of operators processed while drawing the form.
+     */
+    protected int numOperators;
+
+    /**
+     * The line path after drawing the form.
+     */
+    protected GeneralPath linePath;
+
+    /**
+     * The position of the line path after drawing the form.
+     */
+    protected float[] linePathPosition;
+
+    /**
+     * The position of the last MOVETO operation after drawing the form.
+     */
+    protected float[] linePathLastMoveToPosition;
+
+    /**
+     * The winding rule of a pending clipping path after drawing the form.
+     */
+    protected int clippingWindingRule;
+
+    /**
+     * The text matrix after drawing the form.
+     */
+    protected Matrix textMatrix;
+
+    /**
+     * The text line matrix after drawing the form.
+     */
+    protected Matrix textLineMatrix;
+
+    /**
+     * Starts the recording of a form.
+     *
+     * @param state
+     *        The state in which the form is drawn.
+     * @param firstExtractionRank
+     *        The extraction rank at the start of the form.
+     * @param textMatrix
+     *        The current text matrix (may be null).
+     * @param textLineMatrix
+     *        The current text line matrix (may be null).
+     */
+    public RecordedForm(FormState state, int firstExtractionRank, Matrix textMatrix,
+        Matrix textLineMatrix) {
+      this.state = state;
+      this.firstExtractionRank = firstExtractionRank;
+      this.initialTextMatrix = textMatrix;
+      this.initialTextLineMatrix = textLineMatrix;
+    }
+
+    // ============================================================================================
+
+    /**
+     * Records that the form reads the given text matrix or text line matrix.
+     *
+     * @param matrix
+     *        The matrix read by the form.
+     */
+    public void recordTextMatrixAccess(Matrix matrix) {
+      if (matrix == this.initialTextMatrix || matrix == this.initialTextLineMatrix) {
+        this.isReadingTextMatrices = true;
+      }
+    }
+
+    /**
+     * Records the given character extracted from the form.
+     *
+     * @param c
+     *        The character.
+     */
+    public void recordCharacter(Character c) {
+      this.characters.add(copy(c, null, -this.firstExtractionRank));
+    }
+
+    /**
+     * Records the given shape extracted from the form.
+     *
+     * @param shape
+     *        The shape.
+     */
+    public void recordShape(Shape shape) {
+      this.shapes.add(copy(shape, null));
+    }
+
+    /**
+     * Records the given figure extracted from the form.
+     *
+     * @param figure
+     *        The figure.
+     */
+    public void recordFigure(Figure figure) {
+      this.figures.add(copy(figure, null));
+    }
+
+    /**
+     * Finishes the recording of the form.
+     *
+     * @param extractionRank
+     *        The extraction rank at the end of the form.
+     * @param numOperators
+     *        The number of operators processed while drawing the form.
+     * @param linePath
+     *        The line path after drawing the form.
+     * @param linePathPosition
+     *        The position of the line path after drawing the form.
+     * @param linePathLastMoveToPosition
+     *        The position of the last MOVETO operation after drawing the form.
+     * @param clippingWindingRule
+     *        The winding rule of a pending clipping path after drawing the form.
+     * @param textMatrix
+     *        The text matrix after drawing the form.
+     * @param textLineMatrix
+     *        The text line matrix after drawing the form.
+     */
+    public void finish(int extractionRank, int numOperators, GeneralPath linePath,
+        float[] linePathPosition, float[] linePathLastMoveToPosition, int clippingWindingRule,
+        Matrix textMatrix, Matrix textLineMatrix) {
+      this.numExtractionRanks = extractionRank - this.firstExtractionRank;
+      this.numOperators = numOperators;
+      this.linePath = (GeneralPath) linePath.clone();
+      this.linePathPosition = linePathPosition;
+      this.linePathLastMoveToPosition = linePathLastMoveToPosition;
+      this.clippingWindingRule = clippingWindingRule;
+      this.textMatrix = textMatrix != null ? textMatrix.clone() : null;
+      this.textLineMatrix = textLineMatrix != null ? textLineMatrix.clone() : null;
+      this.initialTextMatrix = null;
+      this.initialTextLineMatrix = null;
+    }
+
+    // ============================================================================================
+
+    /**
+     * Checks if the elements of this form can be re-emitted for a draw of the form in the given
+     * state.
+     *
+     * @param state
+     *        The state in which the form is drawn.
+     *
+     * @return True if the elements can be re-emitted; false otherwise.
+     */
+    public boolean isReplayableIn(FormState state) {
+      return this.state.matches(state, this.isReadingTextMatrices);
+    }
+
+    /**
+     * Returns copies of the characters of this form, located on the given page.
+     *
+     * @param page
+     *        The page on which the form is drawn.
+     * @param firstExtractionRank
+     *        The extraction rank at the start of the form.
+     *
+     * @return The copies of the characters.
+     */
+    public List<Character> getCharacters(Page page, int firstExtractionRank) {
+      List<Character> characters = new ArrayList<>(this.characters.size());
+      for (Character c : this.characters) {
+        characters.add(copy(c, page, firstExtractionRank));
+      }
+      return characters;
+    }
+
+    /**
+     * Returns copies of the shapes of this form, located on the given page.
+     *
+     * @param page
+     *        The page on which the form is drawn.
+     *
+     * @return The copies of the shapes.
+     */
+    public List<Shape> getShapes(Page page) {
+      List<Shape> shapes = new ArrayList<>(this.shapes.size());
+      for (Shape shape : this.shapes) {
+        shapes.add(copy(shape, page));
+      }
+      return shapes;
+    }
+
+    /**
+     * Returns copies of the figures of this form, located on the given page.
+     *
+     * @param page
+     *        The page on which the form is drawn.
+     *
+     * @return The copies of the figures.
+     */
+    public List<Figure> getFigures(Page page) {
+      List<Figure> figures = new ArrayList<>(this.figures.size());
+      for (Figure figure : this.figures) {
+        figures.add(copy(figure, page));
+      }
+      return figures;
+    }
+
+    /**
+     * Returns the number of extraction ranks assigned while drawing the form.
+     *
+     * @return The number of extraction ranks.
+     */
+    public int getNumExtractionRanks() {
+      return this.numExtractionRanks;
+    }
+
+    /**
+     * Returns the number of operators processed while drawing the form.
+     *
+     * @return The number of operators.
+     */
+    public int getNumOperators() {
+      return this.numOperators;
+    }
+
+    /**
+     * Returns a copy of the line path after drawing the form.
+     *
+     * @return The line path.
+     */
+    public GeneralPath getLinePath() {
+      return (GeneralPath) this.linePath.clone();
+    }
+
+    /**
+     * Returns the position of the line path after drawing the form.
+     *
+     * @return The position of the line path.
+     */
+    public float[] getLinePathPosition() {
+      return this.linePathPosition;
+    }
+
+    /**
+     * Returns the position of the last MOVETO operation after drawing the form.
+     *
+     * @return The position of the last MOVETO operation.
+     */
+    public float[] getLinePathLastMoveToPosition() {
+      return this.linePathLastMoveToPosition;
+    }
+
+    /**
+     * Returns the winding rule of a pending clipping path after drawing the form.
+     *
+     * @return The winding rule (-1 if there is no such path).
+     */
+    public int getClippingWindingRule() {
+      return this.clippingWindingRule;
+    }
+
+    /**
+     * Returns a copy of the text matrix after drawing the form.
+     *
+     * @return The text matrix (may be null).
+     */
+    public Matrix getTextMatrix() {
+      return this.textMatrix != null ? this.textMatrix.clone() : null;
+    }
+
+    /**
+     * Returns a copy of the text line matrix after drawing the form.
+     *
+     * @return The text line matrix (may be null).
+     */
+    public Matrix getTextLineMatrix() {
+      return this.textLineMatrix != null ? this.textLineMatrix.clone() : null;
+    }
+
+    // ============================================================================================
+
+    /**
+     * Copies the given character.
+     *
+     * @param c
+     *        The character to copy.
+     * @param page
+     *        The page of the copy.
+     * @param rankOffset
+     *        The offset to add to the extraction rank of the character.
+     *
+     * @return The copy.
+     */
+    protected static Character copy(Character c, Page page, int rankOffset) {
+      Character copy = new Character();
+      copy.setText(c.getText());
+      copy.setFontFace(c.getFontFace());
+      copy.setColor(c.getColor());
+      copy.setPosition(copy(c.getPosition(), page));
+      copy.setExtractionRank(c.getExtractionRank() + rankOffset);
+      return copy;
+    }
+
+    /**
+     * Copies the given shape.
+     *
+     * @param shape
+     *        The shape to copy.
+     * @param page
+     *        The page of the copy.
+     *
+     * @return The copy.
+     */
+    protected static Shape copy(Shape shape, Page page) {
+      Shape copy = new Shape();
+      copy.setColor(shape.getColor());
+      copy.setPosition(copy(shape.getPosition(), page));
+      return copy;
+    }
+
+    /**
+     * Copies the given figure.
+     *
+     * @param figure
+     *        The figure to copy.
+     * @param page
+     *        The page of the copy.
+     *
+     * @return The copy.
+     */
+    protected static Figure copy(Figure figure, Page page) {
+      Figure copy = new Figure();
+      copy.setPosition(copy(figure.getPosition(), page));
+      return copy;
+    }
+
+    /**
+     * Copies the given position.
+     *
+     * @param position
+     *        The position to copy.
+     * @param page
+     *        The page of the copy.
+     *
+     * @return The copy.
+     */
+    protected static Position copy(Position position, Page page) {
+      if (position == null) {
+        return null;
+      }
+      return new Position(page, new Rectangle(position.getRectangle()));
+    }
+  }
+}
@@ -0,0 +1,649 @@
+package pdfact.core.pipes.parse.stream.pdfbox.utils;
+
+import gnu.trove.impl.Constants;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.fontbox.afm.CharMetric;
+import org.apache.fontbox.cff.CFFType1Font;
+import org.apache.fontbox.cff.Type1CharString;
+import org.apache.fontbox.type1.Type1Font;
+import org.apache.fontbox.util.BoundingBox;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDSimpleFont;
+import org.apache.pdfbox.pdmodel.font.PDType1CFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.encoding.Encoding;
+import org.apache.pdfbox.util.Vector;
+
+/**
+ * A cache for the metrics of glyphs that are invariant per font and character code, that is: the
+ * bounding box of a glyph in glyph space, the displacement of a glyph in text space and the text
+ * resolved for a glyph.
+ * Computing these metrics is expensive (for example, computing the bounding box of a glyph in an
+ * embedded Type1 font requires to build the path of the glyph), so they are computed only once
+ * per font and code, and only the transformation to device space remains to be done per glyph.
+ *
+ * <p>
+ * The fonts are identified by their font dictionaries, so a cache must only be used for the
+ * fonts of a single PDF document (the metrics of a font can be passed to the cache of another
+ * document together with the font, see {@link FontCache}).
+ *
+ * @author Claudius Korzen
+ */
+public class GlyphMetricsCache {
+  /**
+   * The metrics per font, identified by the font dictionary.
+   */
+  protected final Map<COSDictionary, FontMetrics> fontMetrics = new IdentityHashMap<>();
+
+  /**
+   * Returns the metrics of the given font, creates them if they don't exist yet.
+   *
+   * @param font
+   *        The font.
+   *
+   * @return The metrics of the given font.
+   */
+  public FontMetrics getFontMetrics(PDFont font) {
+    FontMetrics metrics = this.fontMetrics.get(font.getCOSObject());
+    if (metrics == null) {
+      metrics = new FontMetrics(font);
+      this.fontMetrics.put(font.getCOSObject(), metrics);
+    }
+    return metrics;
+  }
+
+  /**
+   * Returns the metrics of the given font if they exist; null otherwise.
+   *
+   * @param font
+   *        The font.
+   *
+   * @return The metrics of the given font, or null if they don't exist.
+   */
+  public FontMetrics getKnownFontMetrics(PDFont font) {
+    return this.fontMetrics.get(font.getCOSObject());
+  }
+
+  /**
+   * Adds the given metrics, which were computed before (for example, on parsing another document
+   * with the same font, see {@link FontCache}).
+   *
+   * @param metrics
+   *        The metrics to add.
+   */
+  public void putFontMetrics(FontMetrics metrics) {
+    this.fontMetrics.put(metrics.getFont().getCOSObject(), metrics);
+  }
+
+  /**
+   * Returns the number of fonts in this cache.
+   *
+   * @return The number of fonts.
+   */
+  public int size() {
+    return this.fontMetrics.size();
+  }
+
+  /**
+   * Removes all fonts from this cache.
+   */
+  public void clear() {
+    this.fontMetrics.clear();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * The glyph metrics of a single font. The metrics of the glyphs are stored in primitive arrays,
+   * at the slot assigned to the character code of the glyph.
+   *
+   * @author Claudius Korzen
+   */
+  public static class FontMetrics {
+    /**
+     * The state of a slot whose bounding box was not computed yet.
+     */
+    protected static final byte BOUNDS_UNKNOWN = 0;
+
+    /**
+     * The state of a slot whose bounding box could not be computed.
+     */
+    protected static final byte BOUNDS_MISSING = 1;
+
+    /**
+     * The state of a slot whose bounding box was computed.
+     */
+    protected static final byte BOUNDS_AVAILABLE = 2;
+
+    /**
+     * The state of a slot whose text was not resolved yet.
+     */
+    protected static final byte TEXT_UNKNOWN = 0;
+
+    /**
+     * The state of a slot whose glyph doesn't have a text.
+     */
+    protected static final byte TEXT_MISSING = 1;
+
+    /**
+     * The state of a slot whose text consists of horizontal whitespaces only.
+     */
+    protected static final byte TEXT_BLANK = 2;
+
+    /**
+     * The state of a slot whose text contains visible characters.
+     */
+    protected static final byte TEXT_VISIBLE = 3;
+
+    /**
+     * The font.
+     */
+    protected final PDFont font;
+
+    /**
+     * The slots of the character codes.
+     */
+    protected final TIntIntHashMap slots;
+
+    /**
+     * The displacements in text space, two values (x, y) per slot.
+     */
+    protected float[] displacements;
+
+    /**
+     * The bounding boxes in glyph space, four values (minX, minY, maxX, maxY) per slot.
+     */
+    protected float[] bounds;
+
+    /**
+     * The states of the bounding boxes, one value per slot.
+     */
+    protected byte[] boundsStates;
+
+    /**
+     * The Unicode texts of the glyphs, as given by the font, one value per slot.
+     */
+    protected String[] unicodes;
+
+    /**
+     * The normalized texts of the glyphs, one value per slot.
+     */
+    protected String[] texts;
+
+    /**
+     * The states of the texts, one value per slot.
+     */
+    protected byte[] textStates;
+
+    /**
+     * The height of the glyphs in text space by the method of PdfBox, that is half the height
+     * of the bounding box of the font.
+     */
+    protected float pdfBoxGlyphHeight = Float.NaN;
+
+    /**
+     * The parsed glyph descriptions (the tokens of the CharProcs streams) of the glyphs in a Type3
+     * font, per slot; null if the font is not a Type3 font.
+     */
+    protected TIntObjectHashMap<List<Object>> type3GlyphDescriptions;
+
+    /**
+     * Creates the metrics of the given font.
+     *
+     * @param font
+     *        The font.
+     */
+    public FontMetrics(PDFont font) {
+      this.font = font;
+      this.slots = new TIntIntHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR,
+          -1, -1);
+      this.displacements = new float[2 * Constants.DEFAULT_CAPACITY];
+      this.bounds = new float[4 * Constants.DEFAULT_CAPACITY];
+      this.boundsStates = new byte[Constants.DEFAULT_CAPACITY];
+      this.unicodes = new String[Constants.DEFAULT_CAPACITY];
+      this.texts = new String[Constants.DEFAULT_CAPACITY];
+      this.textStates = new byte[Constants.DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Returns the font.
+     *
+     * @return The font.
+     */
+    public PDFont getFont() {
+      return this.font;
+    }
+
+    // ============================================================================================
+
+    /**
+     * Returns the slot of the given character code. Assigns a new slot and computes the
+     * displacement of the glyph if the code has no slot yet.
+     *
+     * @param code
+     *        The character code.
+     *
+     * @return The slot of the character code.
+     *
+     * @throws IOException
+     *         If the displacement of the glyph could not be computed.
+     */
+    public int getSlot(int code) throws IOException {
+      int slot = this.slots.get(code);
+      if (slot < 0) {
+        Vector displacement = this.font.getDisplacement(code);
+
+        slot = this.slots.size();
+        if (slot == this.boundsStates.length) {
+          int capacity = 2 * slot;
+          this.displacements = Arrays.copyOf(this.displacements, 2 * capacity);
+          this.bounds = Arrays.copyOf(this.bounds, 4 * capacity);
+          this.boundsStates = Arrays.copyOf(this.boundsStates, capacity);
+          this.unicodes = Arrays.copyOf(this.unicodes, capacity);
+          this.texts = Arrays.copyOf(this.texts, capacity);
+          this.textStates = Arrays.copyOf(this.textStates, capacity);
+        }
+        this.displacements[2 * slot] = displacement.getX();
+        this.displacements[2 * slot + 1] = displacement.getY();
+        this.slots.put(code, slot);
+      }
+      return slot;
+    }
+
+    /**
+     * Returns the horizontal displacement of the glyph in the given slot, in text space.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return The horizontal displacement.
+     */
+    public float getDisplacementX(int slot) {
+      return this.displacements[2 * slot];
+    }
+
+    /**
+     * Returns the vertical displacement of the glyph in the given slot, in text space.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return The vertical displacement.
+     */
+    public float getDisplacementY(int slot) {
+      return this.displacements[2 * slot + 1];
+    }
+
+    // ============================================================================================
+
+    /**
+     * Returns true if the bounding box in glyph space is available for the glyph in the given
+     * slot. Computes the bounding box if it wasn't computed yet.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     * @param code
+     *        The character code of the glyph.
+     *
+     * @return True if the bounding box is available; false otherwise.
+     *
+     * @throws IOException
+     *         If the bounding box could not be computed.
+     */
+    public boolean hasBounds(int slot, int code) throws IOException {
+      if (this.boundsStates[slot] == BOUNDS_UNKNOWN) {
+        this.boundsStates[slot] = computeBounds(slot, code) ? BOUNDS_AVAILABLE : BOUNDS_MISSING;
+      }
+      return this.boundsStates[slot] == BOUNDS_AVAILABLE;
+    }
+
+    /**
+     * Returns true if the bounding box in glyph space was already computed for the glyph in the
+     * given slot (no matter whether it is available or not).
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return True if the bounding box was computed; false otherwise.
+     */
+    public boolean isBoundsComputed(int slot) {
+      return this.boundsStates[slot] != BOUNDS_UNKNOWN;
+    }
+
+    /**
+     * Returns true if the bounding box in glyph space was computed and is available for the glyph
+     * in the given slot. In contrast to {@link #hasBounds(int, int)}, this method doesn't compute
+     * the bounding box.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return True if the bounding box is available; false otherwise.
+     */
+    public boolean isBoundsAvailable(int slot) {
+      return this.boundsStates[slot] == BOUNDS_AVAILABLE;
+    }
+
+    /**
+     * Stores the bounding box of the Type3 glyph in the given slot. The bounding box of a Type3
+     * glyph can only be computed by processing the glyph description, so it is computed by the
+     * stream engine and passed to this method afterwards.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     * @param bounds
+     *        The bounding box in glyph space (llx, lly, urx, ury), as given by the d1 operator of
+     *        the glyph description; null if the glyph description doesn't specify a bounding box.
+     */
+    public void setType3Bounds(int slot, float[] bounds) {
+      if (bounds == null) {
+        this.boundsStates[slot] = BOUNDS_MISSING;
+      } else {
+        setBounds(slot, bounds[0], bounds[1], bounds[2], bounds[3]);
+        this.boundsStates[slot] = BOUNDS_AVAILABLE;
+      }
+    }
+
+    /**
+     * Returns the parsed glyph description of the Type3 glyph in the given slot.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return The tokens of the glyph description or null if the description wasn't parsed yet.
+     */
+    public List<Object> getType3GlyphDescription(int slot) {
+      if (this.type3GlyphDescriptions == null) {
+        return null;
+      }
+      return this.type3GlyphDescriptions.get(slot);
+    }
+
+    /**
+     * Stores the parsed glyph description of the Type3 glyph in the given slot, such that the
+     * description doesn't need to be parsed again on further occurrences of the glyph.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     * @param tokens
+     *        The tokens of the glyph description.
+     */
+    public void setType3GlyphDescription(int slot, List<Object> tokens) {
+      if (this.type3GlyphDescriptions == null) {
+        this.type3GlyphDescriptions = new TIntObjectHashMap<>();
+      }
+      this.type3GlyphDescriptions.put(slot, tokens);
+    }
+
+    // ============================================================================================
+
+    /**
+     * Returns the minX value of the bounding box of the glyph in the given slot, in glyph space.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return The minX value.
+     */
+    public float getMinX(int slot) {
+      return this.bounds[4 * slot];
+    }
+
+    /**
+     * Returns the minY value of the bounding box of the glyph in the given slot, in glyph space.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return The minY value.
+     */
+    public float getMinY(int slot) {
+      return this.bounds[4 * slot + 1];
+    }
+
+    /**
+     * Returns the maxX value of the bounding box of the glyph in the given slot, in glyph space.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return The maxX value.
+     */
+    public float getMaxX(int slot) {
+      return this.bounds[4 * slot + 2];
+    }
+
+    /**
+     * Returns the maxY value of the bounding box of the glyph in the given slot, in glyph space.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return The maxY value.
+     */
+    public float getMaxY(int slot) {
+      return this.bounds[4 * slot + 3];
+    }
+
+    /**
+     * Computes the bounding box of the given glyph in glyph space and stores it in the given
+     * slot. The bounding box can only be computed for glyphs in simple fonts whose glyph name is
+     * known, from the embedded Type1 or CFF font program or from the additional AFM files (the
+     * bounding boxes of Type3 glyphs are passed via {@link #setType3Bounds(int, float[])}).
+     *
+     * @param slot
+     *        The slot of the glyph.
+     * @param code
+     *        The character code of the glyph.
+     *
+     * @return True if the bounding box could be computed; false otherwise.
+     *
+     * @throws IOException
+     *         If something went wrong on computing the bounding box.
+     */
+    protected boolean computeBounds(int slot, int code) throws IOException {
+      // Ensure, that the font is not a Type3 font.
+      if (!(this.font instanceof PDSimpleFont)) {
+        return false;
+      }
+
+      PDSimpleFont simpleFont = (PDSimpleFont) this.font;
+
+      // Obtain the associated glyph name.
+      Encoding encoding = simpleFont.getEncoding();
+      if (encoding == null) {
+        return false;
+      }
+      String glyphName = encoding.getName(code);
+      if (glyphName == null) {
+        return false;
+      }
+
+      // Check, if the font is a type1 font.
+      if (simpleFont instanceof PDType1Font) {
+        PDType1Font t1Font = (PDType1Font) simpleFont;
+
+        // Check, if the font contains an embedded FontFile.
+        Type1Font afmFont = t1Font.getType1Font();
+        if (afmFont != null) {
+          Type1CharString charString = afmFont.getType1CharString(glyphName);
+          if (charString != null) {
+            Rectangle2D boundingBox = charString.getBounds();
+            setBounds(slot, (float) boundingBox.getMinX(), (float) boundingBox.getMinY(),
+                (float) boundingBox.getMaxX(), (float) boundingBox.getMaxY());
+            return true;
+          }
+        }
+
+        // Check, if the additional AFM map contains an entry for the font.
+        CharMetric metric = PdfBoxAFMUtils.getCharMetric(glyphName, t1Font);
+        if (metric != null) {
+          BoundingBox boundingBox = metric.getBoundingBox();
+          setBounds(slot, boundingBox.getLowerLeftX(), boundingBox.getLowerLeftY(),
+              boundingBox.getUpperRightX(), boundingBox.getUpperRightY());
+          return true;
+        }
+      }
+
+      // Check, if the font contains an embedded FontFile3.
+      if (simpleFont instanceof PDType1CFont) {
+        // This font has an embedded font program represented in the Compact Font Format (CFF).
+        PDType1CFont type1CFont = (PDType1CFont) simpleFont;
+        CFFType1Font cffFont = type1CFont.getCFFType1Font();
+        if (cffFont != null) {
+          Type1CharString charString = cffFont.getType1CharString(glyphName);
+          if (charString != null) {
+            Rectangle2D boundingBox = charString.getBounds();
+            setBounds(slot, (float) boundingBox.getMinX(), (float) boundingBox.getMinY(),
+                (float) boundingBox.getMaxX(), (float) boundingBox.getMaxY());
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Stores the given bounding box in the given slot.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     * @param minX
+     *        The minX value of the bounding box.
+     * @param minY
+     *        The minY value of the bounding box.
+     * @param maxX
+     *        The maxX value of the bounding box.
+     * @param maxY
+     *        The maxY value of the bounding box.
+     */
+    protected void setBounds(int slot, float minX, float minY, float maxX, float maxY) {
+      this.bounds[4 * slot] = minX;
+      this.bounds[4 * slot + 1] = minY;
+      this.bounds[4 * slot + 2] = maxX;
+      this.bounds[4 * slot + 3] = maxY;
+    }
+
+    // ============================================================================================
+
+    /**
+     * Returns the height of the glyphs in text space by the method of PdfBox, that is half the
+     * height of the bounding box of the font, transformed to text space.
+     *
+     * @return The height of the glyphs.
+     *
+     * @throws IOException
+     *         If the bounding box of the font could not be obtained.
+     */
+    public float getPdfBoxGlyphHeight() throws IOException {
+      if (Float.isNaN(this.pdfBoxGlyphHeight)) {
+        // 1/2 the bbox is used as the height todo: why?
+        float glyphHeight = this.font.getBoundingBox().getHeight() / 2;
+        // transformPoint from glyph space -> text space
+        this.pdfBoxGlyphHeight = this.font.getFontMatrix().transformPoint(0, glyphHeight).y;
+      }
+      return this.pdfBoxGlyphHeight;
+    }
+
+    // ============================================================================================
+
+    /**
+     * Returns true if the text of the glyph in the given slot was already resolved.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return True if the text was resolved; false otherwise.
+     */
+    public boolean isTextResolved(int slot) {
+      return this.textStates[slot] != TEXT_UNKNOWN;
+    }
+
+    /**
+     * Returns true if the glyph in the given slot has a text.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return True if the glyph has a text; false otherwise.
+     */
+    public boolean hasText(int slot) {
+      return this.textStates[slot] == TEXT_BLANK || this.textStates[slot] == TEXT_VISIBLE;
+    }
+
+    /**
+     * Returns true if the text of the glyph in the given slot consists of horizontal whitespaces
+     * only.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return True if the text is blank; false otherwise.
+     */
+    public boolean isTextBlank(int slot) {
+      return this.textStates[slot] == TEXT_BLANK;
+    }
+
+    /**
+     * Returns the Unicode text of the glyph in the given slot, as given by the font.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return The Unicode text or null if the glyph doesn't have a text.
+     */
+    public String getUnicode(int slot) {
+      return this.unicodes[slot];
+    }
+
+    /**
+     * Returns the normalized text of the glyph in the given slot.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     *
+     * @return The normalized text or null if the glyph doesn't have a text.
+     */
+    public String getText(int slot) {
+      return this.texts[slot];
+    }
+
+    /**
+     * Stores the resolved text of the glyph in the given slot.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     * @param unicode
+     *        The Unicode text of the glyph, as given by the font.
+     * @param text
+     *        The normalized text of the glyph.
+     * @param isBlank
+     *        True if the normalized text consists of horizontal whitespaces only.
+     */
+    public void setText(int slot, String unicode, String text, boolean isBlank) {
+      this.unicodes[slot] = unicode;
+      this.texts[slot] = text;
+      this.textStates[slot] = isBlank ? TEXT_BLANK : TEXT_VISIBLE;
+    }
+
+    /**
+     * Stores that the glyph in the given slot doesn't have a text.
+     *
+     * @param slot
+     *        The slot of the glyph.
+     */
+    public void setTextMissing(int slot) {
+      this.unicodes[slot] = null;
+      this.texts[slot] = null;
+      this.textStates[slot] = TEXT_MISSING;
+    }
+  }
+}
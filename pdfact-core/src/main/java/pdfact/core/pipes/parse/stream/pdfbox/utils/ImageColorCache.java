@@ -0,0 +1,127 @@
+package pdfact.core.pipes.parse.stream.pdfbox.utils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+/**
+ * A cache for the exclusive colors of image XObjects, that is: the color of an image if the image
+ * consists only of a single color (the image is then considered as a shape), or no color if the
+ * image consists of at least two different colors (the image is then considered as a figure).
+ *
+ * <p>
+ * Computing the exclusive color of an image requires to decode the image, which is expensive for
+ * JPEG and JPEG 2000 images. So the exclusive color is computed only once per image stream (an
+ * image drawn on multiple pages, like a logo, is decoded only once). Further, a subsampled version
+ * of an image is decoded first: if it contains at least two different colors, so does the image
+ * and the image doesn't need to be decoded in full resolution.
+ *
+ * <p>
+ * The images are identified by their streams, so a cache must only be used for the images of a
+ * single PDF document.
+ *
+ * @author Claudius Korzen
+ */
+public class ImageColorCache {
+  /**
+   * The value stored for images without an exclusive color.
+   */
+  protected static final int[] NO_EXCLUSIVE_COLOR = new int[0];
+
+  /**
+   * The maximum width and height of the subsampled version of an image.
+   */
+  protected static final int MAX_SAMPLE_SIZE = 32;
+
+  /**
+   * The exclusive colors per image, identified by the image stream.
+   */
+  protected final Map<COSStream, int[]> exclusiveColors = new IdentityHashMap<>();
+
+  /**
+   * Returns the exclusive color of the given image (see
+   * {@link ColorUtils#getExclusiveColor(BufferedImage)}), computes it if it doesn't exist yet.
+   *
+   * @param image
+   *        The image to process.
+   *
+   * @return The color, if the image consists only of a single color; null otherwise.
+   *
+   * @throws IOException
+   *         If something went wrong on reading the image.
+   */
+  public int[] getExclusiveColor(PDImageXObject image) throws IOException {
+    COSStream stream = image.getCOSObject();
+    int[] color = this.exclusiveColors.get(stream);
+    if (color == null) {
+      color = computeExclusiveColor(image);
+      this.exclusiveColors.put(stream, color != null ? color : NO_EXCLUSIVE_COLOR);
+    }
+    return color != NO_EXCLUSIVE_COLOR ? color : null;
+  }
+
+  /**
+   * Returns the number of images in this cache.
+   *
+   * @return The number of images.
+   */
+  public int size() {
+    return this.exclusiveColors.size();
+  }
+
+  /**
+   * Removes all images from this cache.
+   */
+  public void clear() {
+    this.exclusiveColors.clear();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Computes the exclusive color of the given image.
+   *
+   * @param image
+   *        The image to process.
+   *
+   * @return The color, if the image consists only of a single color; null otherwise.
+   *
+   * @throws IOException
+   *         If something went wrong on reading the image.
+   */
+  protected static int[] computeExclusiveColor(PDImageXObject image) throws IOException {
+    int subsampling = computeSubsampling(image);
+    if (subsampling > 1) {
+      // The pixels of the subsampled image are pixels of the image, in the same order. So if the
+      // subsampled image has no exclusive color, the image has none either.
+      BufferedImage sample = image.getImage(null, subsampling);
+      if (sample != null && sample.getWidth() > 0 && sample.getHeight() > 0
+              && ColorUtils.getExclusiveColor(sample) == null) {
+        return null;
+      }
+    }
+    return ColorUtils.getExclusiveColor(image.getImage());
+  }
+
+  /**
+   * Computes the subsampling to use on decoding the subsampled version of the given image.
+   *
+   * @param image
+   *        The image to process.
+   *
+   * @return The subsampling, or 1 if the image shouldn't be subsampled.
+   *
+   * @throws IOException
+   *         If something went wrong on reading the masks of the image.
+   */
+  protected static int computeSubsampling(PDImageXObject image) throws IOException {
+    // A mask is scaled to the size of the (subsampled) image, which may introduce new colors.
+    if (image.getMask() != null || image.getSoftMask() != null) {
+      return 1;
+    }
+    return Math.max(1, Math.max(image.getWidth(), image.getHeight()) / MAX_SAMPLE_SIZE);
+  }
+}
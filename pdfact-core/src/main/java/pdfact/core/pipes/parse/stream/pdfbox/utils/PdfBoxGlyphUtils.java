@@ -18,6 +18,14 @@ public class PdfBoxGlyphUtils {
    */
   protected static Logger log = LogManager.getLogger(PdfBoxGlyphUtils.class);
 
+  /**
+   * The additional glyphs, together with the glyphs of the Adobe glyph list. They are read only
+   * once per process and shared by all instances of this class (a GlyphList is not modified after
+   * its creation, so it can be used by multiple threads at the same time).
+   */
+  protected static final GlyphList ADDITIONAL_GLYPHS = readAdditionalGlyphs(
+      "org/apache/pdfbox/resources/glyphlist/additional.txt");
+
   /**
    * The additional glyphs.
    */
@@ -27,8 +35,7 @@ public class PdfBoxGlyphUtils {
    * A utility class to read the specifications of special characters.
    */
   public PdfBoxGlyphUtils() {
-    this.additionalGlyphs = readAdditionalGlyphs(
-        "org/apache/pdfbox/resources/glyphlist/additional.txt");
+    this.additionalGlyphs = ADDITIONAL_GLYPHS;
   }
 
   // ==============================================================================================
@@ -0,0 +1,165 @@
+package pdfact.core.pipes.parse.stream.pdfbox.utils;
+
+import org.apache.pdfbox.util.Matrix;
+
+/**
+ * A collection of utility methods to do the math of PdfBox's {@link Matrix} on primitive float
+ * arrays, without allocating new objects. The arrays have the layout of PdfBox's matrices, that
+ * is: nine values in row-major order, where the values at index 0, 1, 3, 4, 6 and 7 are the
+ * values a, b, c, d, e and f of the affine transformation.
+ *
+ * <p>
+ * The methods perform exactly the same floating point operations (in the same order) as the
+ * related methods of {@link Matrix}, so they produce exactly the same values.
+ *
+ * @author Claudius Korzen
+ */
+public class PdfBoxMatrixUtils {
+  /**
+   * The number of values of a matrix.
+   */
+  public static final int SIZE = 9;
+
+  /**
+   * Creates a new array for the values of a matrix, initialized with the identity matrix.
+   *
+   * @return The created array.
+   */
+  public static float[] newMatrix() {
+    float[] matrix = new float[SIZE];
+    setValues(matrix, 1, 0, 0, 1, 0, 0);
+    return matrix;
+  }
+
+  /**
+   * Sets the values of the given matrix to the given values of an affine transformation, like
+   * {@link Matrix#Matrix(float, float, float, float, float, float)}.
+   *
+   * @param matrix The matrix to modify.
+   * @param a      The value a of the transformation.
+   * @param b      The value b of the transformation.
+   * @param c      The value c of the transformation.
+   * @param d      The value d of the transformation.
+   * @param e      The value e of the transformation.
+   * @param f      The value f of the transformation.
+   */
+  public static void setValues(float[] matrix, float a, float b, float c, float d, float e,
+          float f) {
+    matrix[0] = a;
+    matrix[1] = b;
+    matrix[2] = 0;
+    matrix[3] = c;
+    matrix[4] = d;
+    matrix[5] = 0;
+    matrix[6] = e;
+    matrix[7] = f;
+    matrix[8] = 1;
+  }
+
+  /**
+   * Sets the values of the given matrix to a translation, like
+   * {@link Matrix#getTranslateInstance(float, float)}.
+   *
+   * @param matrix The matrix to modify.
+   * @param tx     The translation in x-direction.
+   * @param ty     The translation in y-direction.
+   */
+  public static void setTranslation(float[] matrix, float tx, float ty) {
+    setValues(matrix, 1, 0, 0, 1, tx, ty);
+  }
+
+  /**
+   * Copies the values of the given PdfBox matrix to the given array.
+   *
+   * @param source The PdfBox matrix to copy.
+   * @param target The array to copy the values to.
+   */
+  public static void getValues(Matrix source, float[] target) {
+    for (int i = 0; i < SIZE; i++) {
+      target[i] = source.getValue(i / 3, i % 3);
+    }
+  }
+
+  /**
+   * Copies the values of the given array to the given PdfBox matrix.
+   *
+   * @param source The array to copy.
+   * @param target The PdfBox matrix to copy the values to.
+   */
+  public static void setValues(float[] source, Matrix target) {
+    for (int i = 0; i < SIZE; i++) {
+      target.setValue(i / 3, i % 3, source[i]);
+    }
+  }
+
+  /**
+   * Creates a PdfBox matrix with the values of the given array.
+   *
+   * @param values The values of the matrix.
+   *
+   * @return The created PdfBox matrix.
+   */
+  public static Matrix toMatrix(float[] values) {
+    Matrix matrix = new Matrix();
+    setValues(values, matrix);
+    return matrix;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Multiplies the two given matrices (a x b) and writes the product to the given result, like
+   * {@link Matrix#multiply(Matrix)}. The result must not be one of the factors.
+   *
+   * @param a      The first factor.
+   * @param b      The second factor.
+   * @param result The array to write the product to.
+   *
+   * @throws IllegalArgumentException If the product contains values that are not finite.
+   */
+  public static void multiply(float[] a, float[] b, float[] result) {
+    result[0] = a[0] * b[0] + a[1] * b[3] + a[2] * b[6];
+    result[1] = a[0] * b[1] + a[1] * b[4] + a[2] * b[7];
+    result[2] = a[0] * b[2] + a[1] * b[5] + a[2] * b[8];
+    result[3] = a[3] * b[0] + a[4] * b[3] + a[5] * b[6];
+    result[4] = a[3] * b[1] + a[4] * b[4] + a[5] * b[7];
+    result[5] = a[3] * b[2] + a[4] * b[5] + a[5] * b[8];
+    result[6] = a[6] * b[0] + a[7] * b[3] + a[8] * b[6];
+    result[7] = a[6] * b[1] + a[7] * b[4] + a[8] * b[7];
+    result[8] = a[6] * b[2] + a[7] * b[5] + a[8] * b[8];
+
+    for (int i = 0; i < SIZE; i++) {
+      if (!(Math.abs(result[i]) <= Float.MAX_VALUE)) {
+        throw new IllegalArgumentException("Multiplying two matrices produces illegal values");
+      }
+    }
+  }
+
+  /**
+   * Returns the x-scaling factor of the given matrix, like {@link Matrix#getScalingFactorX()}.
+   *
+   * @param matrix The matrix.
+   *
+   * @return The x-scaling factor.
+   */
+  public static float getScalingFactorX(float[] matrix) {
+    if (matrix[1] != 0.0f) {
+      return (float) Math.sqrt(Math.pow(matrix[0], 2) + Math.pow(matrix[1], 2));
+    }
+    return matrix[0];
+  }
+
+  /**
+   * Returns the y-scaling factor of the given matrix, like {@link Matrix#getScalingFactorY()}.
+   *
+   * @param matrix The matrix.
+   *
+   * @return The y-scaling factor.
+   */
+  public static float getScalingFactorY(float[] matrix) {
+    if (matrix[3] != 0.0f) {
+      return (float) Math.sqrt(Math.pow(matrix[3], 2) + Math.pow(matrix[4], 2));
+    }
+    return matrix[4];
+  }
+}
@@ -0,0 +1,229 @@
+package pdfact.core.pipes.parse.stream.pdfbox.utils;
+
+import java.awt.geom.Area;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.state.PDGraphicsState;
+
+/**
+ * A graphics state that keeps the clipping path as an axis-aligned rectangle as long as all
+ * paths intersected with the clipping path are axis-aligned rectangles (for example, the
+ * bounding boxes of form XObjects drawn without rotation, or clipping paths constructed by the
+ * "re" operator). PdfBox computes each intersection with the constructive area geometry of
+ * {@link Area}, which is slow, in particular for deeply nested forms. The intersection of two
+ * rectangles is computed in constant time instead. Only if a path is not an axis-aligned
+ * rectangle, the clipping path is converted to an {@link Area} and intersected by PdfBox.
+ *
+ * <p>
+ * The states created by saving the graphics state (that is: by cloning) share the counter of
+ * the state they were cloned from.
+ *
+ * @author Claudius Korzen
+ */
+public class RectangleClippingGraphicsState extends PDGraphicsState {
+  /**
+   * The clipping path, or null if the clipping path is not an axis-aligned rectangle (in which
+   * case the clipping path is the area of the parent graphics state).
+   */
+  protected Rectangle2D clippingRectangle;
+
+  /**
+   * The counter of the intersections with the clipping path.
+   */
+  protected ClippingCounter counter;
+
+  /**
+   * Creates a new graphics state.
+   *
+   * @param page
+   *        The bounds of the page.
+   * @param counter
+   *        The counter of the intersections with the clipping path.
+   */
+  public RectangleClippingGraphicsState(PDRectangle page, ClippingCounter counter) {
+    super(page);
+    Area area = super.getCurrentClippingPath();
+    this.clippingRectangle = area.isRectangular() ? area.getBounds2D() : null;
+    this.counter = counter;
+  }
+
+  // ==============================================================================================
+
+  @Override
+  public void intersectClippingPath(GeneralPath path) {
+    Rectangle2D rectangle = this.clippingRectangle != null ? getRectangle(path) : null;
+    if (rectangle != null) {
+      intersectClippingRectangle(rectangle);
+    } else {
+      intersectClippingArea(new Area(path));
+    }
+  }
+
+  @Override
+  public void intersectClippingPath(Area area) {
+    if (this.clippingRectangle != null && area.isRectangular()) {
+      intersectClippingRectangle(area.getBounds2D());
+    } else {
+      intersectClippingArea(area);
+    }
+  }
+
+  @Override
+  public Area getCurrentClippingPath() {
+    if (this.clippingRectangle != null) {
+      return new Area(this.clippingRectangle);
+    }
+    return super.getCurrentClippingPath();
+  }
+
+  /**
+   * Returns the clipping path, if it is an axis-aligned rectangle.
+   *
+   * @return The clipping path, or null if the clipping path is not an axis-aligned rectangle.
+   */
+  public Rectangle2D getClippingRectangle() {
+    return this.clippingRectangle;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Intersects the clipping path (which must be an axis-aligned rectangle) with the given
+   * rectangle.
+   *
+   * @param rectangle
+   *        The rectangle.
+   */
+  protected void intersectClippingRectangle(Rectangle2D rectangle) {
+    Rectangle2D intersection = this.clippingRectangle.createIntersection(rectangle);
+    if (intersection.isEmpty()) {
+      // Rectangles that don't intersect result in a rectangle with negative width or height.
+      intersection = new Rectangle2D.Double(intersection.getX(), intersection.getY(), 0, 0);
+    }
+    this.clippingRectangle = intersection;
+    this.counter.numRectangleIntersections++;
+  }
+
+  /**
+   * Intersects the clipping path with the given area, using the constructive area geometry of
+   * PdfBox.
+   *
+   * @param area
+   *        The area.
+   */
+  protected void intersectClippingArea(Area area) {
+    if (this.clippingRectangle != null) {
+      // The area of the parent state contains the rectangle, since it was never intersected.
+      super.intersectClippingPath(new Area(this.clippingRectangle));
+      this.clippingRectangle = null;
+    }
+    super.intersectClippingPath(area);
+    this.counter.numAreaIntersections++;
+  }
+
+  /**
+   * Returns the given path as a rectangle, if it consists of a single axis-aligned rectangle.
+   *
+   * @param path
+   *        The path.
+   *
+   * @return The rectangle, or null if the path is not a single axis-aligned rectangle.
+   */
+  protected static Rectangle2D getRectangle(GeneralPath path) {
+    float[] xs = new float[5];
+    float[] ys = new float[5];
+    float[] coordinates = new float[6];
+    int numPoints = 0;
+    boolean isClosed = false;
+    for (PathIterator itr = path.getPathIterator(null); !itr.isDone(); itr.next()) {
+      int segment = itr.currentSegment(coordinates);
+      if (isClosed) {
+        // There is a segment after closing the path (e.g., a second subpath).
+        return null;
+      }
+      if (segment == PathIterator.SEG_CLOSE) {
+        isClosed = true;
+        continue;
+      }
+      boolean isMoveTo = segment == PathIterator.SEG_MOVETO;
+      if (isMoveTo != (numPoints == 0) || (!isMoveTo && segment != PathIterator.SEG_LINETO)) {
+        return null;
+      }
+      if (numPoints == xs.length) {
+        return null;
+      }
+      xs[numPoints] = coordinates[0];
+      ys[numPoints] = coordinates[1];
+      numPoints++;
+    }
+    // A closing line back to the first point is optional.
+    if (numPoints == 5 && xs[4] == xs[0] && ys[4] == ys[0]) {
+      numPoints = 4;
+    }
+    if (numPoints != 4) {
+      return null;
+    }
+    // The edges must alternate between horizontal and vertical.
+    boolean isFirstEdgeHorizontal = ys[0] == ys[1];
+    for (int i = 0; i < 4; i++) {
+      int j = (i + 1) % 4;
+      boolean isHorizontal = (i % 2 == 0) == isFirstEdgeHorizontal;
+      if (isHorizontal ? ys[i] != ys[j] : xs[i] != xs[j]) {
+        return null;
+      }
+    }
+    float minX = Math.min(xs[0], xs[2]);
+    float minY = Math.min(ys[0], ys[2]);
+    return new Rectangle2D.Float(minX, minY, Math.abs(xs[2] - xs[0]), Math.abs(ys[2] - ys[0]));
+  }
+
+  // ==============================================================================================
+
+  /**
+   * The counter of the intersections with the clipping paths of graphics states.
+   *
+   * @author Claudius Korzen
+   */
+  public static class ClippingCounter {
+    /**
+     * The number of intersections computed as intersections of rectangles.
+     */
+    protected int numRectangleIntersections;
+
+    /**
+     * The number of intersections computed with the constructive area geometry.
+     */
+    protected int numAreaIntersections;
+
+    /**
+     * Returns the number of intersections computed as intersections of rectangles.
+     *
+     * @return The number of intersections.
+     */
+    public int getNumRectangleIntersections() {
+      return this.numRectangleIntersections;
+    }
+
+    /**
+     * Returns the number of intersections computed with the constructive area geometry.
+     *
+     * @return The number of intersections.
+     */
+    public int getNumAreaIntersections() {
+      return this.numAreaIntersections;
+    }
+
+    /**
+     * Adds the intersections counted by the given counter to this counter.
+     *
+     * @param counter
+     *        The other counter.
+     */
+    public void add(ClippingCounter counter) {
+      this.numRectangleIntersections += counter.numRectangleIntersections;
+      this.numAreaIntersections += counter.numAreaIntersections;
+    }
+  }
+}
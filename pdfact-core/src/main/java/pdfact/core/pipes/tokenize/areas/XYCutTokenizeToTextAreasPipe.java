@@ -1,8 +1,7 @@
 package pdfact.core.pipes.tokenize.areas;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pdfact.core.model.Character;
@@ -12,10 +11,11 @@ import pdfact.core.model.Page;
 import pdfact.core.model.Position;
 import pdfact.core.model.Rectangle;
 import pdfact.core.model.TextArea;
-import pdfact.core.util.PdfActUtils;
 import pdfact.core.util.exception.PdfActException;
 import pdfact.core.util.list.ElementList;
+import pdfact.core.util.pipeline.PagePipe;
 import pdfact.core.util.statistician.CharacterStatistician;
+import pdfact.core.util.xycut.SweepStatistic;
 import pdfact.core.util.xycut.XYCut;
 
 /**
@@ -23,7 +23,8 @@ import pdfact.core.util.xycut.XYCut;
  * 
  * @author Claudius Korzen
  */
-public class XYCutTokenizeToTextAreasPipe extends XYCut implements TokenizeToTextAreasPipe {
+public class XYCutTokenizeToTextAreasPipe extends XYCut
+    implements TokenizeToTextAreasPipe, PagePipe {
   /**
    * The logger.
    */
@@ -37,12 +38,12 @@ public class XYCutTokenizeToTextAreasPipe extends XYCut implements TokenizeToTex
   /**
    * The number of processed pages.
    */
-  protected int numProcessedPages;
+  protected final AtomicInteger numProcessedPages = new AtomicInteger();
 
   /**
    * The number of tokenized text areas.
    */
-  protected int numTokenizedTextAreas;
+  protected final AtomicInteger numTokenizedTextAreas = new AtomicInteger();
 
   /**
    * Creates a new pipe that tokenizes the pages of a PDF document into text
@@ -69,6 +70,31 @@ public class XYCutTokenizeToTextAreasPipe extends XYCut implements TokenizeToTex
     return pdf;
   }
 
+  @Override
+  public void executeOnPage(Document pdf, Page page) throws PdfActException {
+    ElementList<TextArea> textAreas = tokenizeToTextAreas(pdf, page);
+    page.setTextAreas(textAreas);
+
+    this.numProcessedPages.incrementAndGet();
+    this.numTokenizedTextAreas.addAndGet(textAreas.size());
+  }
+
+  @Override
+  public void executeOnDocument(Document pdf) throws PdfActException {
+    // Nothing to do.
+  }
+
+  @Override
+  public boolean isBarrier() {
+    return false;
+  }
+
+  @Override
+  public boolean isDocumentDependent() {
+    // The character statistic of the document is needed to assess the cuts.
+    return true;
+  }
+
   // ==============================================================================================
 
   /**
@@ -95,12 +121,7 @@ public class XYCutTokenizeToTextAreasPipe extends XYCut implements TokenizeToTex
         continue;
       }
 
-      this.numProcessedPages++;
-
-      ElementList<TextArea> textAreas = tokenizeToTextAreas(pdf, page);
-
-      page.setTextAreas(textAreas);
-      this.numTokenizedTextAreas += textAreas.size();
+      executeOnPage(pdf, page);
     }
   }
 
@@ -132,7 +153,6 @@ public class XYCutTokenizeToTextAreasPipe extends XYCut implements TokenizeToTex
         result.add(area);
       }
     }
-
     return result;
   }
 
@@ -174,21 +194,10 @@ public class XYCutTokenizeToTextAreasPipe extends XYCut implements TokenizeToTex
   // ==============================================================================================
 
   @Override
-  public float assessVerticalCut(Document pdf, Page page,
-      List<ElementList<Character>> halves) {
-    // Compute the statistics for the characters in the left half.
-    ElementList<Character> left = halves.get(0);
-    CharacterStatistic leftStats = this.characterStatistician.compute(left);
-    Rectangle leftRectangle = new Rectangle(left);
-
-    // Compute the statistics for the characters in the right half.
-    ElementList<Character> right = halves.get(1);
-    CharacterStatistic rightStats = this.characterStatistician.compute(right);
-    Rectangle rightRectangle = new Rectangle(right);
-
+  public float assessVerticalCut(Document pdf, Page page, SweepStatistic stats, int index) {
     // Compute the (fictive) lane between the left and right half.
-    float laneMinX = leftStats.getLargestMaxX();
-    float laneMaxX = rightStats.getSmallestMinX();
+    float laneMinX = stats.getHeadLargestMaxX(index);
+    float laneMaxX = stats.getTailSmallestMinX(index);
     float laneWidth = laneMaxX - laneMinX;
 
     CharacterStatistic pdfCharStats = pdf.getCharacterStatistic();
@@ -203,13 +212,13 @@ public class XYCutTokenizeToTextAreasPipe extends XYCut implements TokenizeToTex
 
     // Don't allow the lane, if the resulting areas are too low. This should prevent to split 
     // single text lines into multiple areas, for example the page headers in PDF0008.
-    if (leftRectangle.getHeight() < 2 * leftStats.getMostCommonHeight() 
-        || rightRectangle.getHeight() < 2 * rightStats.getMostCommonHeight()) {
+    if (stats.getHeadHeight(index) < 2 * stats.getHeadMostCommonHeight(index) 
+        || stats.getTailHeight(index) < 2 * stats.getTailMostCommonHeight(index)) {
       return -1;
     }
 
     // Don't allow the lane, if it separates consecutive chars.
-    if (separatesConsecutiveCharacters(left, leftStats, right, rightStats)) {
+    if (separatesConsecutiveCharacters(stats, index)) {
       return -1;
     }
 
@@ -219,19 +228,10 @@ public class XYCutTokenizeToTextAreasPipe extends XYCut implements TokenizeToTex
   // ==============================================================================================
 
   @Override
-  public float assessHorizontalCut(Document pdf, Page page,
-      List<ElementList<Character>> halves) {
-    // Compute the statistics for the characters in the upper half.
-    ElementList<Character> upper = halves.get(0);
-    CharacterStatistic upperStats = this.characterStatistician.compute(upper);
-
-    // Compute the statistics for the characters in the lower half.
-    ElementList<Character> lower = halves.get(1);
-    CharacterStatistic lowerStats = this.characterStatistician.compute(lower);
-
+  public float assessHorizontalCut(Document pdf, Page page, SweepStatistic stats, int index) {
     // Compute the (fictive) lane between the lower and upper half.
-    float laneMinY = lowerStats.getLargestMaxY();
-    float laneMaxY = upperStats.getSmallestMinY();
+    float laneMinY = stats.getTailLargestMaxY(index);
+    float laneMaxY = stats.getHeadSmallestMinY(index);
     float laneHeight = laneMaxY - laneMinY;
 
     // Don't allow lanes with negative heights.
@@ -254,60 +254,22 @@ public class XYCutTokenizeToTextAreasPipe extends XYCut implements TokenizeToTex
   // Utility methods.
 
   /**
-   * Checks if there is a character in the first given list of characters with
-   * an extraction order number i and a character in the second given list of
-   * characters with extraction order number i + 1, where both characters
-   * overlap vertically.
+   * Checks if there is a character in the left half with an extraction order
+   * number i and a character in the right half with extraction order number
+   * i + 1, where both characters overlap vertically. Only the characters
+   * close to the lane between the two halves are considered, that is: the
+   * characters of the left half with a maxX close to the largest maxX and the
+   * characters of the right half with a minX close to the smallest minX.
    * 
-   * @param left
-   *        The characters in the left half.
-   * @param leftStats
-   *        The statistics about the characters in the left half.
-   * @param right
-   *        The characters in the right half.
-   * @param rightStats
-   *        The statistics about the characters in the right half.
+   * @param stats
+   *        The statistics about the halves of all possible cuts.
+   * @param index
+   *        The index of the cut.
    * @return True if there is such a character pair, false otherwise.
    */
-  protected boolean separatesConsecutiveCharacters(ElementList<Character> left,
-      CharacterStatistic leftStats, ElementList<Character> right,
-      CharacterStatistic rightStats) {
-    float largestMaxX = leftStats.getLargestMaxX();
-    Set<Character> leftChars = new HashSet<>();
-    for (Character c : left) {
-      Rectangle rect = c.getPosition().getRectangle();
-      if (PdfActUtils.isEqual(rect.getMaxX(), largestMaxX, 3 * leftStats.getMostCommonWidth())) {
-        leftChars.add(c);
-      }
-    }
-
-    float smallestMinX = rightStats.getSmallestMinX();
-    Set<Character> rightChars = new HashSet<>();
-    for (Character c : right) {
-      Rectangle rect = c.getPosition().getRectangle();
-      if (PdfActUtils.isEqual(rect.getMinX(), smallestMinX, 3 * rightStats.getMostCommonWidth())) {
-        rightChars.add(c);
-      }
-    }
-
-    for (Character leftChar : leftChars) {
-      int leftCharNum = leftChar.getExtractionRank();
-      Rectangle leftCharBox = leftChar.getPosition().getRectangle();
-      for (Character rightChar : rightChars) {
-        int rightCharNum = rightChar.getExtractionRank();
-        Rectangle rightCharNox = rightChar.getPosition().getRectangle();
-
-        // Check if the characters are consecutive.
-        if (rightCharNum != leftCharNum + 1) {
-          continue;
-        }
-        // Check if the characters overlap.
-        if (!leftCharBox.overlapsVertically(rightCharNox)) {
-          continue;
-        }
-        return true;
-      }
-    }
-    return false;
+  protected boolean separatesConsecutiveCharacters(SweepStatistic stats, int index) {
+    float leftTolerance = 3 * stats.getHeadMostCommonWidth(index);
+    float rightTolerance = 3 * stats.getTailMostCommonWidth(index);
+    return stats.separatesConsecutiveCharacters(index, leftTolerance, rightTolerance);
   }
 }
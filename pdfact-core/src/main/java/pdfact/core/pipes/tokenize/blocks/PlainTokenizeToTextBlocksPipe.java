@@ -2,6 +2,7 @@ package pdfact.core.pipes.tokenize.blocks;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.LogManager;
@@ -22,6 +23,7 @@ import pdfact.core.model.TextLineStatistic;
 import pdfact.core.util.PdfActUtils;
 import pdfact.core.util.exception.PdfActException;
 import pdfact.core.util.list.ElementList;
+import pdfact.core.util.pipeline.PagePipe;
 import pdfact.core.util.statistician.CharacterStatistician;
 import pdfact.core.util.statistician.TextLineStatistician;
 
@@ -30,7 +32,7 @@ import pdfact.core.util.statistician.TextLineStatistician;
  *
  * @author Claudius Korzen
  */
-public class PlainTokenizeToTextBlocksPipe implements TokenizeToTextBlocksPipe {
+public class PlainTokenizeToTextBlocksPipe implements TokenizeToTextBlocksPipe, PagePipe {
   /**
    * The logger.
    */
@@ -49,12 +51,12 @@ public class PlainTokenizeToTextBlocksPipe implements TokenizeToTextBlocksPipe {
   /**
    * The number of processed text lines.
    */
-  protected int numProcessedTextLines;
+  protected final AtomicInteger numProcessedTextLines = new AtomicInteger();
 
   /**
    * The number of tokenized text blocks.
    */
-  protected int numTokenizedTextBlocks;
+  protected final AtomicInteger numTokenizedTextBlocks = new AtomicInteger();
 
   /**
    * The default constructor.
@@ -69,7 +71,20 @@ public class PlainTokenizeToTextBlocksPipe implements TokenizeToTextBlocksPipe {
   @Override
   public Document execute(Document doc) throws PdfActException {
     tokenizeToTextBlocks(doc);
+    executeOnDocument(doc);
+    return doc;
+  }
 
+  @Override
+  public void executeOnPage(Document pdf, Page page) throws PdfActException {
+    if (log.isDebugEnabled()) {
+      log.debug("====================== Page %d ======================", page.getPageNumber());
+    }
+    page.setTextBlocks(tokenizeToTextBlocks(pdf, page));
+  }
+
+  @Override
+  public void executeOnDocument(Document doc) throws PdfActException {
     // Print the debug info for line detection here (and not in PlainTokenizeToTextLines.class),
     // because the text of text lines is only known after words were detected.
     if (log.isDebugEnabled()) {
@@ -97,8 +112,17 @@ public class PlainTokenizeToTextBlocksPipe implements TokenizeToTextBlocksPipe {
         }
       }
     }
+  }
 
-    return doc;
+  @Override
+  public boolean isBarrier() {
+    return false;
+  }
+
+  @Override
+  public boolean isDocumentDependent() {
+    // The text line statistic of the document is needed to detect the text block boundaries.
+    return true;
   }
 
   // ==============================================================================================
@@ -125,8 +149,7 @@ public class PlainTokenizeToTextBlocksPipe implements TokenizeToTextBlocksPipe {
         continue;
       }
 
-      log.debug("====================== Page %d ======================", page.getPageNumber());
-      page.setTextBlocks(tokenizeToTextBlocks(pdf, page));
+      executeOnPage(pdf, page);
     }
   }
 
@@ -153,8 +176,6 @@ public class PlainTokenizeToTextBlocksPipe implements TokenizeToTextBlocksPipe {
       TextLine line = lines.get(i);
       TextLine next = i < lines.size() - 1 ? lines.get(i + 1) : null;
 
-      this.numProcessedTextLines++;
-
       if (introducesNewTextBlock(pdf, page, textBlock, prev, line, next)) {
         if (!textBlock.getTextLines().isEmpty()) {
           textBlocks.add(textBlock);
@@ -179,7 +200,8 @@ public class PlainTokenizeToTextBlocksPipe implements TokenizeToTextBlocksPipe {
       block.setText(computeText(block));
     }
 
-    this.numTokenizedTextBlocks += textBlocks.size();
+    this.numProcessedTextLines.addAndGet(lines.size());
+    this.numTokenizedTextBlocks.addAndGet(textBlocks.size());
 
     return textBlocks;
   }
@@ -2,6 +2,7 @@ package pdfact.core.pipes.tokenize.lines;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pdfact.core.model.Character;
@@ -18,8 +19,10 @@ import pdfact.core.util.counter.FloatCounter;
 import pdfact.core.util.exception.PdfActException;
 import pdfact.core.util.lexicon.CharacterLexicon;
 import pdfact.core.util.list.ElementList;
+import pdfact.core.util.pipeline.PagePipe;
 import pdfact.core.util.statistician.CharacterStatistician;
 import pdfact.core.util.statistician.TextLineStatistician;
+import pdfact.core.util.xycut.SweepStatistic;
 import pdfact.core.util.xycut.XYCut;
 
 /**
@@ -27,7 +30,8 @@ import pdfact.core.util.xycut.XYCut;
  * 
  * @author Claudius Korzen
  */
-public class PlainTokenizeToTextLinesPipe extends XYCut implements TokenizeToTextLinesPipe {
+public class PlainTokenizeToTextLinesPipe extends XYCut
+    implements TokenizeToTextLinesPipe, PagePipe {
   /**
    * The logger.
    */
@@ -46,12 +50,12 @@ public class PlainTokenizeToTextLinesPipe extends XYCut implements TokenizeToTex
   /**
    * The number of processed text areas.
    */
-  protected int numProcessedTextAreas;
+  protected final AtomicInteger numProcessedTextAreas = new AtomicInteger();
 
   /**
    * The number of tokenized text lines.
    */
-  protected int numTokenizedTextLines;
+  protected final AtomicInteger numTokenizedTextLines = new AtomicInteger();
 
   /**
    * Creates a new text line tokenizer.
@@ -70,6 +74,29 @@ public class PlainTokenizeToTextLinesPipe extends XYCut implements TokenizeToTex
     return doc;
   }
 
+  @Override
+  public void executeOnPage(Document pdf, Page page) throws PdfActException {
+    ElementList<TextLine> textLines = tokenizeToTextLines(pdf, page);
+    page.setTextLineStatistic(this.textLineStatistician.compute(textLines));
+    page.setTextLines(textLines);
+  }
+
+  @Override
+  public void executeOnDocument(Document pdf) throws PdfActException {
+    pdf.setTextLineStatistic(this.textLineStatistician.aggregate(pdf.getPages()));
+  }
+
+  @Override
+  public boolean isBarrier() {
+    // The text line statistic of the document is needed to tokenize the text blocks.
+    return true;
+  }
+
+  @Override
+  public boolean isDocumentDependent() {
+    return false;
+  }
+
   // ==============================================================================================
 
   /**
@@ -94,11 +121,9 @@ public class PlainTokenizeToTextLinesPipe extends XYCut implements TokenizeToTex
         continue;
       }
 
-      ElementList<TextLine> textLines = tokenizeToTextLines(pdf, page);
-      page.setTextLineStatistic(this.textLineStatistician.compute(textLines));
-      page.setTextLines(textLines);
+      executeOnPage(pdf, page);
     }
-    pdf.setTextLineStatistic(this.textLineStatistician.aggregate(pages));
+    executeOnDocument(pdf);
   }
 
   /**
@@ -119,8 +144,6 @@ public class PlainTokenizeToTextLinesPipe extends XYCut implements TokenizeToTex
       ElementList<Character> characters = area.getCharacters();
       List<ElementList<Character>> charLists = cut(pdf, page, characters);
 
-      this.numProcessedTextAreas++;
-
       for (ElementList<Character> charList : charLists) {
         // Create a PdfTextLine object.
         TextLine textLine = new TextLine();
@@ -132,7 +155,8 @@ public class PlainTokenizeToTextLinesPipe extends XYCut implements TokenizeToTex
       }
     }
 
-    this.numTokenizedTextLines += result.size();
+    this.numProcessedTextAreas.addAndGet(page.getTextAreas().size());
+    this.numTokenizedTextLines.addAndGet(result.size());
 
     return result;
   }
@@ -197,21 +221,16 @@ public class PlainTokenizeToTextLinesPipe extends XYCut implements TokenizeToTex
   // ==============================================================================================
 
   @Override
-  public float assessVerticalCut(Document pdf, Page page, List<ElementList<Character>> halves) {
+  public float assessVerticalCut(Document pdf, Page page, SweepStatistic stats, int index) {
     return -1;
   }
 
   // ==============================================================================================
 
   @Override
-  public float assessHorizontalCut(Document pdf, Page page, List<ElementList<Character>> halves) {
-    ElementList<Character> upper = halves.get(0);
-    CharacterStatistic upperStats = this.characterStatistician.compute(upper);
-    float upperMinY = upperStats.getSmallestMinY();
-
-    ElementList<Character> lower = halves.get(1);
-    CharacterStatistic lowerStats = this.characterStatistician.compute(lower);
-    float lowerMaxY = lowerStats.getLargestMaxY();
+  public float assessHorizontalCut(Document pdf, Page page, SweepStatistic stats, int index) {
+    float upperMinY = stats.getHeadSmallestMinY(index);
+    float lowerMaxY = stats.getTailLargestMaxY(index);
 
     return upperMinY - lowerMaxY;
   }
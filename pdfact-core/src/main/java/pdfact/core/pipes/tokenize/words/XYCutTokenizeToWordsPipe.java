@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pdfact.core.model.Character;
@@ -21,7 +22,9 @@ import pdfact.core.util.comparator.MinXComparator;
 import pdfact.core.util.exception.PdfActException;
 import pdfact.core.util.lexicon.CharacterLexicon;
 import pdfact.core.util.list.ElementList;
+import pdfact.core.util.pipeline.PagePipe;
 import pdfact.core.util.statistician.CharacterStatistician;
+import pdfact.core.util.xycut.SweepStatistic;
 import pdfact.core.util.xycut.XYCut;
 
 /**
@@ -29,7 +32,7 @@ import pdfact.core.util.xycut.XYCut;
  * 
  * @author Claudius Korzen
  */
-public class XYCutTokenizeToWordsPipe extends XYCut implements TokenizeToWordsPipe {
+public class XYCutTokenizeToWordsPipe extends XYCut implements TokenizeToWordsPipe, PagePipe {
   /**
    * The loggers.
    */
@@ -44,12 +47,12 @@ public class XYCutTokenizeToWordsPipe extends XYCut implements TokenizeToWordsPi
   /**
    * The number of processed text lines.
    */
-  protected int numProcessedTextLines;
+  protected final AtomicInteger numProcessedTextLines = new AtomicInteger();
 
   /**
    * The number of tokenized words.
    */
-  protected int numTokenizedWords;
+  protected final AtomicInteger numTokenizedWords = new AtomicInteger();
 
   /**
    * Creates a new word tokenizer.
@@ -63,7 +66,17 @@ public class XYCutTokenizeToWordsPipe extends XYCut implements TokenizeToWordsPi
   @Override
   public Document execute(Document doc) throws PdfActException {
     tokenizeToWords(doc);
+    executeOnDocument(doc);
+    return doc;
+  }
 
+  @Override
+  public void executeOnPage(Document pdf, Page page) throws PdfActException {
+    tokenizeToWords(pdf, page);
+  }
+
+  @Override
+  public void executeOnDocument(Document doc) throws PdfActException {
     // Print the debug info for line detection here (and not in PlainTokenizeToTextLines.class),
     // because the text of text lines is only known after words were detected.
     if (llog.isDebugEnabled()) {
@@ -121,8 +134,16 @@ public class XYCutTokenizeToWordsPipe extends XYCut implements TokenizeToWordsPi
         }
       }
     }
+  }
 
-    return doc;
+  @Override
+  public boolean isBarrier() {
+    return false;
+  }
+
+  @Override
+  public boolean isDocumentDependent() {
+    return false;
   }
 
   // ==============================================================================================
@@ -142,15 +163,32 @@ public class XYCutTokenizeToWordsPipe extends XYCut implements TokenizeToWordsPi
     }
 
     for (Page page : pdf.getPages()) {
-      for (TextLine line : page.getTextLines()) {
-        ElementList<Word> words = tokenizeToWords(pdf, page, line);
-        line.setWords(words);
-        line.setText(PdfActUtils.join(words, " "));
+      tokenizeToWords(pdf, page);
+    }
+  }
 
-        this.numProcessedTextLines++;
-        this.numTokenizedWords += words.size();
-      }
+  /**
+   * Tokenizes the text lines in the given page into words.
+   * 
+   * @param pdf
+   *        The PDF document to which the given page belongs to.
+   * @param page
+   *        The PDF page to process.
+   * 
+   * @throws PdfActException
+   *         If something went wrong while tokenization.
+   */
+  protected void tokenizeToWords(Document pdf, Page page) throws PdfActException {
+    int numWords = 0;
+    for (TextLine line : page.getTextLines()) {
+      ElementList<Word> words = tokenizeToWords(pdf, page, line);
+      line.setWords(words);
+      line.setText(PdfActUtils.join(words, " "));
+      numWords += words.size();
     }
+
+    this.numProcessedTextLines.addAndGet(page.getTextLines().size());
+    this.numTokenizedWords.addAndGet(numWords);
   }
 
   /**
@@ -195,15 +233,9 @@ public class XYCutTokenizeToWordsPipe extends XYCut implements TokenizeToWordsPi
   // ==============================================================================================
 
   @Override
-  public float assessVerticalCut(Document pdf, Page page,
-      List<ElementList<Character>> halves) {
-    ElementList<Character> left = halves.get(0);
-    CharacterStatistic leftStats = this.charStatistician.compute(left);
-    float leftMaxX = leftStats.getLargestMaxX();
-
-    ElementList<Character> right = halves.get(1);
-    CharacterStatistic rightStats = this.charStatistician.compute(right);
-    float rightMinX = rightStats.getSmallestMinX();
+  public float assessVerticalCut(Document pdf, Page page, SweepStatistic stats, int index) {
+    float leftMaxX = stats.getHeadLargestMaxX(index);
+    float rightMinX = stats.getTailSmallestMinX(index);
 
     float width = rightMinX - leftMaxX;
     if (width < 1f) {
@@ -215,8 +247,7 @@ public class XYCutTokenizeToWordsPipe extends XYCut implements TokenizeToWordsPi
   // ==============================================================================================
 
   @Override
-  public float assessHorizontalCut(Document pdf, Page page,
-      List<ElementList<Character>> halves) {
+  public float assessHorizontalCut(Document pdf, Page page, SweepStatistic stats, int index) {
     return -1;
   }
 
@@ -3,12 +3,14 @@ package pdfact.core.pipes.translate.characters;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pdfact.core.model.Character;
 import pdfact.core.model.Document;
 import pdfact.core.model.Page;
 import pdfact.core.util.exception.PdfActException;
+import pdfact.core.util.pipeline.PagePipe;
 
 /**
  * A plain implementation of {@link StandardizeCharactersPipe}.
@@ -16,7 +18,7 @@ import pdfact.core.util.exception.PdfActException;
  * @author Claudius Korzen
  */
 public class PlainStandardizeCharactersPipe
-    implements StandardizeCharactersPipe {
+    implements StandardizeCharactersPipe, PagePipe {
   /**
    * The logger.
    */
@@ -31,12 +33,12 @@ public class PlainStandardizeCharactersPipe
   /**
    * The number of processed characters.
    */
-  protected int numProcessedCharacters;
+  protected final AtomicInteger numProcessedCharacters = new AtomicInteger();
 
   /**
    * The number of standardized characters.
    */
-  protected int numStandardizedCharacters;
+  protected final AtomicInteger numStandardizedCharacters = new AtomicInteger();
 
   // TODO: Move this to character lexicon.
   static {
@@ -61,6 +63,26 @@ public class PlainStandardizeCharactersPipe
     return pdf;
   }
 
+  @Override
+  public void executeOnPage(Document pdf, Page page) throws PdfActException {
+    standardizeCharacters(page);
+  }
+
+  @Override
+  public void executeOnDocument(Document pdf) throws PdfActException {
+    // Nothing to do.
+  }
+
+  @Override
+  public boolean isBarrier() {
+    return false;
+  }
+
+  @Override
+  public boolean isDocumentDependent() {
+    return false;
+  }
+
   // ==============================================================================================
 
   /**
@@ -112,6 +134,6 @@ public class PlainStandardizeCharactersPipe
       return;
     }
 
-    this.numProcessedCharacters++;
+    this.numProcessedCharacters.incrementAndGet();
   }
 }
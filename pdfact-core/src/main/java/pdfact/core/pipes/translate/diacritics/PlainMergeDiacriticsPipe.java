@@ -4,6 +4,7 @@ import java.text.Normalizer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pdfact.core.model.Character;
@@ -13,13 +14,14 @@ import pdfact.core.model.Position;
 import pdfact.core.model.Rectangle;
 import pdfact.core.util.exception.PdfActException;
 import pdfact.core.util.list.ElementList;
+import pdfact.core.util.pipeline.PagePipe;
 
 /**
  * A plain implementation of {@link MergeDiacriticsPipe}.
  * 
  * @author Claudius Korzen
  */
-public class PlainMergeDiacriticsPipe implements MergeDiacriticsPipe {
+public class PlainMergeDiacriticsPipe implements MergeDiacriticsPipe, PagePipe {
   /**
    * The logger.
    */
@@ -28,12 +30,12 @@ public class PlainMergeDiacriticsPipe implements MergeDiacriticsPipe {
   /**
    * The number of processed characters.
    */
-  protected int numProcessedCharacters;
+  protected final AtomicInteger numProcessedCharacters = new AtomicInteger();
 
   /**
    * The number of merged characters.
    */
-  protected int numMergedDiacritics;
+  protected final AtomicInteger numMergedDiacritics = new AtomicInteger();
 
   // ==============================================================================================
 
@@ -43,6 +45,26 @@ public class PlainMergeDiacriticsPipe implements MergeDiacriticsPipe {
     return pdf;
   }
 
+  @Override
+  public void executeOnPage(Document pdf, Page page) throws PdfActException {
+    mergeDiacritics(page);
+  }
+
+  @Override
+  public void executeOnDocument(Document pdf) throws PdfActException {
+    // Nothing to do.
+  }
+
+  @Override
+  public boolean isBarrier() {
+    return false;
+  }
+
+  @Override
+  public boolean isDocumentDependent() {
+    return false;
+  }
+
   // ==============================================================================================
 
   /**
@@ -55,30 +77,48 @@ public class PlainMergeDiacriticsPipe implements MergeDiacriticsPipe {
       List<Page> pages = pdf.getPages();
       if (pages != null) {
         for (Page page : pages) {
-          ElementList<Character> before = page.getCharacters();
-          ElementList<Character> after = new ElementList<>(before.size());
-          if (before != null) {
-            for (int i = 0; i < before.size(); i++) {
-              Character prev = i > 0 ? before.get(i - 1) : null;
-              Character character = before.get(i);
-              Character next = i < before.size() - 1 ? before.get(i + 1) : null;
-
-              // Don't proceed if the character in question is not a diacritic.
-              if (isDiacritic(character)) {
-                mergeDiacritic(prev, character, next);
-                this.numMergedDiacritics++;
-              } else {
-                after.add(character);
-              }
-              this.numProcessedCharacters++;
-            }
-            page.setCharacters(after);
-          }
+          mergeDiacritics(page);
         }
       }
     }
   }
 
+  /**
+   * Merges the diacritical marks in the given page with their related characters.
+   * 
+   * @param page The page to process.
+   */
+  protected void mergeDiacritics(Page page) {
+    if (page == null) {
+      return;
+    }
+
+    ElementList<Character> before = page.getCharacters();
+    if (before == null) {
+      return;
+    }
+
+    ElementList<Character> after = new ElementList<>(before.size());
+    int numMerged = 0;
+    for (int i = 0; i < before.size(); i++) {
+      Character prev = i > 0 ? before.get(i - 1) : null;
+      Character character = before.get(i);
+      Character next = i < before.size() - 1 ? before.get(i + 1) : null;
+
+      // Don't proceed if the character in question is not a diacritic.
+      if (isDiacritic(character)) {
+        mergeDiacritic(prev, character, next);
+        numMerged++;
+      } else {
+        after.add(character);
+      }
+    }
+    page.setCharacters(after);
+
+    this.numProcessedCharacters.addAndGet(before.size());
+    this.numMergedDiacritics.addAndGet(numMerged);
+  }
+
   /**
    * Chooses the belonging base character (either the given character to the left or the given
    * character to the right of the diacritic) and merges the given diacritic with this base
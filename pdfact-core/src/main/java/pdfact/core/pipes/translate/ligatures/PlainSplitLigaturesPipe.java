@@ -10,6 +10,7 @@ import pdfact.core.model.Document;
 import pdfact.core.model.Page;
 import pdfact.core.model.Position;
 import pdfact.core.util.exception.PdfActException;
+import pdfact.core.util.pipeline.PagePipe;
 
 // FIXME: Adjust bounding box.
 
@@ -18,7 +19,7 @@ import pdfact.core.util.exception.PdfActException;
  * 
  * @author Claudius Korzen
  */
-public class PlainSplitLigaturesPipe implements SplitLigaturesPipe {
+public class PlainSplitLigaturesPipe implements SplitLigaturesPipe, PagePipe {
   /**
    * The logger.
    */
@@ -71,6 +72,26 @@ public class PlainSplitLigaturesPipe implements SplitLigaturesPipe {
     return pdf;
   }
 
+  @Override
+  public void executeOnPage(Document pdf, Page page) throws PdfActException {
+    splitLigatures(page);
+  }
+
+  @Override
+  public void executeOnDocument(Document pdf) throws PdfActException {
+    // Nothing to do.
+  }
+
+  @Override
+  public boolean isBarrier() {
+    return false;
+  }
+
+  @Override
+  public boolean isDocumentDependent() {
+    return false;
+  }
+
   // ==============================================================================================
 
   /**
@@ -85,17 +106,31 @@ public class PlainSplitLigaturesPipe implements SplitLigaturesPipe {
       List<Page> pages = pdf.getPages();
       if (pages != null) {
         for (Page page : pages) {
-          List<Character> characters = page.getCharacters();
-          if (characters != null) {
-            for (Character character : characters) {
-              splitLigature(character);
-            }
-          }
+          splitLigatures(page);
         }
       }
     }
   }
 
+  /**
+   * Splits the ligatures of the given page into its individual characters.
+   * 
+   * @param page
+   *        The page to process.
+   */
+  protected void splitLigatures(Page page) {
+    if (page == null) {
+      return;
+    }
+
+    List<Character> characters = page.getCharacters();
+    if (characters != null) {
+      for (Character character : characters) {
+        splitLigature(character);
+      }
+    }
+  }
+
   /**
    * Checks if the given character is a ligature and if so, translates it into
    * its individual characters and changes the textual content of the given
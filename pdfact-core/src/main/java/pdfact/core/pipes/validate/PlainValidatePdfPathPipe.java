@@ -31,8 +31,10 @@ public class PlainValidatePdfPathPipe implements ValidatePdfPathPipe {
 
     log.debug("Validating the PDF path done.");
     log.debug("validated PDF path: " + pdf.getPath());
-    // Validate the path to the PDF file.
-    validatePdfPath(pdf.getPath());
+    // Validate the path to the PDF file, unless the PDF is given in memory.
+    if (pdf.getContent() == null) {
+      validatePdfPath(pdf.getPath());
+    }
 
     log.debug("End of pipe: " + getClass().getSimpleName() + ".");
     return pdf;
@@ -0,0 +1,162 @@
+package pdfact.core.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A range of page numbers, for example to parse only some of the pages of a document. Page numbers
+ * start at 1.
+ *
+ * @author Claudius Korzen
+ */
+public class PageRange {
+  /**
+   * The number of the first page in this range.
+   */
+  protected int firstPageNumber;
+
+  /**
+   * The number of the last page in this range (Integer.MAX_VALUE if the range is open-ended).
+   */
+  protected int lastPageNumber;
+
+  // ==============================================================================================
+
+  /**
+   * Creates a new page range.
+   *
+   * @param firstPageNumber The number of the first page in the range.
+   * @param lastPageNumber  The number of the last page in the range (Integer.MAX_VALUE if the
+   *                        range should be open-ended).
+   */
+  public PageRange(int firstPageNumber, int lastPageNumber) {
+    if (firstPageNumber < 1 || lastPageNumber < firstPageNumber) {
+      throw new IllegalArgumentException(
+          String.format("Invalid page range: %d-%d.", firstPageNumber, lastPageNumber));
+    }
+    this.firstPageNumber = firstPageNumber;
+    this.lastPageNumber = lastPageNumber;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the number of the first page in this range.
+   *
+   * @return The number of the first page.
+   */
+  public int getFirstPageNumber() {
+    return this.firstPageNumber;
+  }
+
+  /**
+   * Returns the number of the last page in this range.
+   *
+   * @return The number of the last page (Integer.MAX_VALUE if the range is open-ended).
+   */
+  public int getLastPageNumber() {
+    return this.lastPageNumber;
+  }
+
+  /**
+   * Checks if the given page number is contained in this range.
+   *
+   * @param pageNumber The page number to check.
+   * @return True if the page number is contained in this range; false otherwise.
+   */
+  public boolean contains(int pageNumber) {
+    return pageNumber >= this.firstPageNumber && pageNumber <= this.lastPageNumber;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Parses the given page range. Allowed formats are: "N" (the single page N), "N-M" (the pages N
+   * to M), "N-" (all pages from page N on) and "-M" (the first M pages).
+   *
+   * @param range The page range to parse.
+   * @return The parsed page range.
+   * @throws IllegalArgumentException If the given string is not a valid page range.
+   */
+  public static PageRange fromString(String range) {
+    String str = range != null ? range.trim() : "";
+    int separatorIndex = str.indexOf('-');
+    try {
+      if (separatorIndex < 0) {
+        int pageNumber = Integer.parseInt(str);
+        return new PageRange(pageNumber, pageNumber);
+      }
+      String firstStr = str.substring(0, separatorIndex).trim();
+      String lastStr = str.substring(separatorIndex + 1).trim();
+      int first = firstStr.isEmpty() ? 1 : Integer.parseInt(firstStr);
+      int last = lastStr.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(lastStr);
+      if (firstStr.isEmpty() && lastStr.isEmpty()) {
+        throw new IllegalArgumentException("A page range needs a first or a last page.");
+      }
+      return new PageRange(first, last);
+    } catch (IllegalArgumentException e) {
+      // Also catches the NumberFormatException on parsing the page numbers.
+      throw new IllegalArgumentException(String.format("Invalid page range: '%s'.", range), e);
+    }
+  }
+
+  /**
+   * Parses the given page ranges (see {@link #fromString(String)}).
+   *
+   * @param ranges The page ranges to parse.
+   * @return The parsed page ranges.
+   * @throws IllegalArgumentException If one of the given strings is not a valid page range.
+   */
+  public static List<PageRange> fromStrings(String... ranges) {
+    return fromStrings(Arrays.asList(ranges));
+  }
+
+  /**
+   * Parses the given page ranges (see {@link #fromString(String)}).
+   *
+   * @param ranges The page ranges to parse.
+   * @return The parsed page ranges.
+   * @throws IllegalArgumentException If one of the given strings is not a valid page range.
+   */
+  public static List<PageRange> fromStrings(List<String> ranges) {
+    List<PageRange> pageRanges = new ArrayList<>();
+    for (String range : ranges) {
+      pageRanges.add(fromString(range));
+    }
+    return pageRanges;
+  }
+
+  /**
+   * Checks if the given page number is contained in at least one of the given ranges.
+   *
+   * @param ranges     The page ranges.
+   * @param pageNumber The page number to check.
+   * @return True if the page number is contained in one of the ranges, or if no ranges are given
+   *         (that is: if ranges is null); false otherwise.
+   */
+  public static boolean contains(List<PageRange> ranges, int pageNumber) {
+    if (ranges == null) {
+      return true;
+    }
+    for (PageRange range : ranges) {
+      if (range.contains(pageNumber)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // ==============================================================================================
+
+  @Override
+  public String toString() {
+    if (this.lastPageNumber == Integer.MAX_VALUE) {
+      return this.firstPageNumber + "-";
+    }
+    if (this.firstPageNumber == this.lastPageNumber) {
+      return String.valueOf(this.firstPageNumber);
+    }
+    return this.firstPageNumber + "-" + this.lastPageNumber;
+  }
+}
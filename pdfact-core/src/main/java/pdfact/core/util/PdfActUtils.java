@@ -4,9 +4,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.security.CodeSource;
 import java.security.ProtectionDomain;
 import java.util.Arrays;
@@ -318,6 +321,20 @@ public class PdfActUtils {
     return null;
   }
 
+  /**
+   * Maps the given file into memory (read-only). The mapping stays valid after the file is closed,
+   * until the returned buffer is garbage collected.
+   * 
+   * @param file The file to map.
+   * @return The memory-mapped content of the file.
+   * @throws IOException If the file couldn't be mapped.
+   */
+  public static MappedByteBuffer mapFile(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
   /**
    * Reads the given directory non-recursively and returns a map with the names
    * and the streams of all files in this directory. Works also in jar files.
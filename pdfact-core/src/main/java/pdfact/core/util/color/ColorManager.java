@@ -1,7 +1,10 @@
 package pdfact.core.util.color;
 
+import gnu.trove.map.hash.TIntObjectHashMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -12,6 +15,11 @@ import pdfact.core.model.Color;
 /**
  * A converter that converts PDColor objects to {@link Color} objects.
  * 
+ * <p>
+ * The colors registered by a color manager and their ids are local to the manager, so each PDF
+ * document is supposed to be processed with its own color manager. A color manager is not
+ * thread-safe; it must not be shared by threads that process documents (or pages) in parallel.
+ * 
  * @author Claudius Korzen
  */
 public class ColorManager {
@@ -21,9 +29,26 @@ public class ColorManager {
   protected static Logger log = LogManager.getLogger(ColorManager.class);
 
   /**
-   * A map of the already known colors per name.
+   * The value of {@link #packRGB(int[])} for RGB values that can't be packed into a single int.
+   */
+  protected static final int UNPACKABLE = -1;
+
+  /**
+   * A map of the already known colors per RGB value, packed into a single int (see
+   * {@link #packRGB(int[])}).
+   */
+  protected TIntObjectHashMap<Color> knownColors = new TIntObjectHashMap<>();
+
+  /**
+   * A map of the already known colors per name, for the colors whose RGB values can't be packed
+   * into a single int.
+   */
+  protected Map<String, Color> knownUnpackableColors = new HashMap<>();
+
+  /**
+   * The known colors, in the order in which they were registered.
    */
-  protected static Map<String, Color> knownColors = new HashMap<>();
+  protected List<Color> registeredColors = new ArrayList<>();
 
   // ==============================================================================================
 
@@ -35,7 +60,7 @@ public class ColorManager {
    * 
    * @return The converted color.
    */
-  public static Color getColor(PDColor color, PDColorSpace colorSpace) {
+  public Color getColor(PDColor color, PDColorSpace colorSpace) {
     return getColor(toRGB(color, colorSpace));
   }
 
@@ -46,7 +71,7 @@ public class ColorManager {
    * 
    * @return The converted color.
    */
-  public static Color getColor(int[] rgb) {
+  public Color getColor(int[] rgb) {
     if (rgb == null) {
       return null;
     }
@@ -59,17 +84,59 @@ public class ColorManager {
 
     // The color is not known. Create a new color.
     Color newColor = new Color();
-    newColor.setId("color-" + knownColors.size());
+    newColor.setId("color-" + this.registeredColors.size());
     newColor.setName(computeColorName(rgb));
     newColor.setRGB(rgb);
 
     // Add the new color to the map of known colors.
-    knownColors.put(newColor.getName(), newColor);
+    int packedRGB = packRGB(rgb);
+    if (packedRGB != UNPACKABLE) {
+      this.knownColors.put(packedRGB, newColor);
+    } else {
+      this.knownUnpackableColors.put(newColor.getName(), newColor);
+    }
+    this.registeredColors.add(newColor);
     log.debug("A new color was registered: " + newColor);
 
     return newColor;
   }
 
+  /**
+   * Returns the {@link Color} object of this manager that is related to the given color, which
+   * may stem from another color manager. Registers the color if it is not known yet.
+   * 
+   * @param color The color to convert.
+   * 
+   * @return The related color of this manager.
+   */
+  public Color getColor(Color color) {
+    if (color == null) {
+      return null;
+    }
+    return getColor(color.getRGB());
+  }
+
+  /**
+   * Returns the number of colors registered so far.
+   * 
+   * @return The number of registered colors.
+   */
+  public int getNumRegisteredColors() {
+    return this.registeredColors.size();
+  }
+
+  /**
+   * Returns the colors registered in the given range, in the order of their registration.
+   * 
+   * @param from The index of the first color, inclusive.
+   * @param to   The index of the last color, exclusive.
+   * 
+   * @return The list of registered colors in the given range.
+   */
+  public List<Color> getRegisteredColors(int from, int to) {
+    return new ArrayList<>(this.registeredColors.subList(from, to));
+  }
+
   // ==============================================================================================
 
   /**
@@ -79,7 +146,7 @@ public class ColorManager {
    *
    * @return True, if the given color is a known color; false otherwise.
    */
-  protected static boolean isKnownColor(int[] rgb) {
+  protected boolean isKnownColor(int[] rgb) {
     return getKnownColor(rgb) != null;
   }
 
@@ -92,11 +159,37 @@ public class ColorManager {
    * @return A {@link Color} object related to the given color if the color is already known; null
    *         otherwise.
    */
-  protected static Color getKnownColor(int[] rgb) {
+  protected Color getKnownColor(int[] rgb) {
     if (rgb == null) {
       return null;
     }
-    return knownColors.get(computeColorName(rgb));
+    int packedRGB = packRGB(rgb);
+    if (packedRGB != UNPACKABLE) {
+      return this.knownColors.get(packedRGB);
+    }
+    return this.knownUnpackableColors.get(computeColorName(rgb));
+  }
+
+  /**
+   * Packs the given RGB values into a single int, in the form 0x00RRGGBB.
+   * 
+   * @param rgb The RGB values to pack.
+   * 
+   * @return The packed RGB values, or {@link #UNPACKABLE} if the given array doesn't consist of
+   *         exactly three values in the range [0, 255].
+   */
+  protected static int packRGB(int[] rgb) {
+    if (rgb.length != 3) {
+      return UNPACKABLE;
+    }
+    int packedRGB = 0;
+    for (int value : rgb) {
+      if (value < 0 || value > 255) {
+        return UNPACKABLE;
+      }
+      packedRGB = (packedRGB << 8) | value;
+    }
+    return packedRGB;
   }
 
   /**
@@ -0,0 +1,415 @@
+package pdfact.core.util.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import pdfact.core.PdfActCoreSettings;
+import pdfact.core.model.Document;
+import pdfact.core.model.Page;
+import pdfact.core.util.exception.PdfActException;
+
+/**
+ * An implementation of {@link Pipeline} that executes the {@link PagePipe}s page by page on
+ * multiple threads.
+ *
+ * <p>
+ * Consecutive page pipes are grouped into stages. A stage ends after a page pipe that is a
+ * barrier (see {@link PagePipe#isBarrier()}) or before a pipe that is not a page pipe. The pages
+ * of a stage are processed concurrently, where each page runs through all pipes of the stage in
+ * the order of registration. After all pages are processed, the document-wide parts of the pipes
+ * are executed in the order of registration. Pipes that are no page pipes are executed as usual,
+ * on the whole document.
+ *
+ * <p>
+ * In streaming mode, the pages produced by a {@link PageStreamPipe} (for example, the parser)
+ * flow through a bounded queue to the page pipes following it, such that a page is processed
+ * while the next pages are still produced. Only the page pipes up to the first barrier and before
+ * the first pipe that depends on document-wide data (see {@link PagePipe#isDocumentDependent()})
+ * are streamed. Streaming doesn't bound the memory usage: the queue bounds only the number of
+ * pages waiting to be processed, but all pages stay referenced by the document.
+ *
+ * @author Claudius Korzen
+ */
+public class PageParallelPipeline extends PlainPipeline {
+  /**
+   * The exit code of the exception to throw when the processing was interrupted.
+   */
+  protected static final int INTERRUPTED_EXIT_CODE = 1;
+
+  /**
+   * The page that marks the end of a stream of pages.
+   */
+  protected static final Page END_OF_STREAM = new Page();
+
+  /**
+   * The number of threads to use on processing the pages.
+   */
+  protected int numThreads;
+
+  /**
+   * The boolean flag indicating whether the pages of a page stream pipe should be streamed to the
+   * subsequent page pipes.
+   */
+  protected boolean isStreaming;
+
+  /**
+   * The maximum number of produced pages waiting to be processed in a stream.
+   */
+  protected int queueCapacity;
+
+  /**
+   * Creates an empty pipeline that processes the pages with the given number of threads.
+   *
+   * @param numThreads
+   *        The number of threads to use on processing the pages. If 1, the pages are processed
+   *        sequentially.
+   */
+  public PageParallelPipeline(int numThreads) {
+    this(numThreads, false);
+  }
+
+  /**
+   * Creates an empty pipeline that processes the pages with the given number of threads.
+   *
+   * @param numThreads
+   *        The number of threads to use on processing the pages. If 1, the pages are processed
+   *        sequentially.
+   * @param isStreaming
+   *        True, if the pages of a page stream pipe should be streamed to the subsequent page
+   *        pipes; false otherwise.
+   */
+  public PageParallelPipeline(int numThreads, boolean isStreaming) {
+    super();
+    this.numThreads = numThreads;
+    this.isStreaming = isStreaming;
+    this.queueCapacity = PdfActCoreSettings.STREAMING_QUEUE_CAPACITY;
+  }
+
+  // ==============================================================================================
+
+  @Override
+  public Document process(Document pdf) throws PdfActException {
+    Document processed = pdf;
+
+    int i = 0;
+    while (i < this.pipes.size()) {
+      Pipe pipe = this.pipes.get(i);
+
+      if (this.isStreaming && pipe instanceof PageStreamPipe) {
+        // Collect the page pipes to which the pages can be streamed.
+        List<PagePipe> stage = new ArrayList<>();
+        int j = i + 1;
+        while (j < this.pipes.size() && this.pipes.get(j) instanceof PagePipe) {
+          PagePipe pagePipe = (PagePipe) this.pipes.get(j);
+          if (pagePipe.isDocumentDependent()) {
+            break;
+          }
+          stage.add(pagePipe);
+          j++;
+          if (pagePipe.isBarrier()) {
+            break;
+          }
+        }
+        if (!stage.isEmpty()) {
+          processed = processStream(processed, (PageStreamPipe) pipe, stage);
+          i = j;
+          continue;
+        }
+      }
+
+      if (!(pipe instanceof PagePipe)) {
+        processed = pipe.execute(processed);
+        i++;
+        continue;
+      }
+
+      // Collect the page pipes of the stage.
+      List<PagePipe> stage = new ArrayList<>();
+      while (i < this.pipes.size() && this.pipes.get(i) instanceof PagePipe) {
+        PagePipe pagePipe = (PagePipe) this.pipes.get(i++);
+        stage.add(pagePipe);
+        if (pagePipe.isBarrier()) {
+          break;
+        }
+      }
+      processStage(processed, stage);
+    }
+    return processed;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Executes the given page stream pipe on the given PDF document and streams the produced pages
+   * through the page-local parts of the given page pipes: The producer passes the pages to a
+   * bounded queue, from which the workers take the pages and process them. After all pages are
+   * processed, the document-wide parts of the page pipes are executed in the order of
+   * registration.
+   *
+   * @param pdf
+   *        The PDF document to process.
+   * @param producer
+   *        The pipe that produces the pages.
+   * @param stage
+   *        The page pipes to execute on the produced pages.
+   *
+   * @return The state of the PDF document after executing the pipes.
+   *
+   * @throws PdfActException
+   *         If something went wrong while executing the pipes.
+   */
+  protected Document processStream(Document pdf, PageStreamPipe producer, List<PagePipe> stage)
+      throws PdfActException {
+    int numWorkers = Math.max(1, this.numThreads);
+    BlockingQueue<Page> producedPages = new ArrayBlockingQueue<>(this.queueCapacity);
+
+    Document processed;
+    ExecutorService executor = Executors.newFixedThreadPool(numWorkers + 1);
+    CompletionService<Document> tasks = new ExecutorCompletionService<>(executor);
+    try {
+      Future<Document> producerFuture = tasks.submit(() -> {
+        Document result = producer.execute(pdf, page -> put(producedPages, page));
+        for (int i = 0; i < numWorkers; i++) {
+          put(producedPages, END_OF_STREAM);
+        }
+        return result;
+      });
+
+      for (int i = 0; i < numWorkers; i++) {
+        tasks.submit(() -> {
+          Page page;
+          while ((page = producedPages.take()) != END_OF_STREAM) {
+            processPage(pdf, page, stage);
+          }
+          return null;
+        });
+      }
+
+      // Wait for the producer and the workers, and stop on the first task that failed. The
+      // producer signals the end of the stream only on success, so the exception of a failed
+      // task is never hidden by an interrupted signal.
+      for (int i = 0; i < numWorkers + 1; i++) {
+        tasks.take().get();
+      }
+      processed = producerFuture.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PdfActException(INTERRUPTED_EXIT_CODE, "The processing was interrupted.", e);
+    } catch (ExecutionException e) {
+      throw toPdfActException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (PagePipe pipe : stage) {
+      pipe.executeOnDocument(processed);
+    }
+    return processed;
+  }
+
+  /**
+   * Puts the given page into the given queue, waiting for space to become available if
+   * necessary.
+   *
+   * @param queue
+   *        The queue.
+   * @param page
+   *        The page to put into the queue.
+   *
+   * @throws CancellationException
+   *         If the thread was interrupted while waiting.
+   */
+  protected static void put(BlockingQueue<Page> queue, Page page) {
+    try {
+      queue.put(page);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("The processing was interrupted.");
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Executes the given page pipes on the given PDF document, first page by page and then on the
+   * whole document.
+   *
+   * @param pdf
+   *        The PDF document to process.
+   * @param stage
+   *        The page pipes to execute.
+   *
+   * @throws PdfActException
+   *         If something went wrong while executing the pipes.
+   */
+  protected void processStage(Document pdf, List<PagePipe> stage) throws PdfActException {
+    List<Page> pages = pdf != null ? pdf.getPages() : null;
+    if (pages != null) {
+      if (this.numThreads > 1 && pages.size() > 1) {
+        processPagesInParallel(pdf, pages, stage);
+      } else {
+        for (Page page : pages) {
+          processPage(pdf, page, stage);
+        }
+      }
+    }
+
+    for (PagePipe pipe : stage) {
+      pipe.executeOnDocument(pdf);
+    }
+  }
+
+  /**
+   * Executes the page-local parts of the given page pipes on the given pages, with multiple
+   * threads.
+   *
+   * @param pdf
+   *        The PDF document to which the pages belong to.
+   * @param pages
+   *        The pages to process.
+   * @param stage
+   *        The page pipes to execute.
+   *
+   * @throws PdfActException
+   *         If something went wrong while executing the pipes.
+   */
+  protected void processPagesInParallel(Document pdf, List<Page> pages, List<PagePipe> stage)
+      throws PdfActException {
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.numThreads,
+        pages.size()));
+    try {
+      List<Future<Void>> futures = new ArrayList<>(pages.size());
+      for (Page page : pages) {
+        futures.add(executor.submit(() -> {
+          processPage(pdf, page, stage);
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PdfActException(INTERRUPTED_EXIT_CODE, "The processing was interrupted.", e);
+    } catch (ExecutionException e) {
+      throw toPdfActException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Executes the page-local parts of the given page pipes on the given page.
+   *
+   * @param pdf
+   *        The PDF document to which the page belongs to.
+   * @param page
+   *        The page to process.
+   * @param stage
+   *        The page pipes to execute.
+   *
+   * @throws PdfActException
+   *         If something went wrong while executing the pipes.
+   */
+  protected void processPage(Document pdf, Page page, List<PagePipe> stage)
+      throws PdfActException {
+    if (page == null) {
+      return;
+    }
+
+    for (PagePipe pipe : stage) {
+      pipe.executeOnPage(pdf, page);
+    }
+  }
+
+  /**
+   * Returns the given cause of a failed task as a {@link PdfActException}. Rethrows the cause if
+   * it is an unchecked exception.
+   *
+   * @param cause
+   *        The cause of the failed task.
+   *
+   * @return The cause as a {@link PdfActException}.
+   */
+  protected static PdfActException toPdfActException(Throwable cause) {
+    if (cause instanceof PdfActException) {
+      return (PdfActException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    // Cannot happen, as the pipes only throw PdfActExceptions.
+    throw new IllegalStateException(cause);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the number of threads to use on processing the pages.
+   *
+   * @return The number of threads.
+   */
+  public int getNumThreads() {
+    return this.numThreads;
+  }
+
+  /**
+   * Sets the number of threads to use on processing the pages.
+   *
+   * @param numThreads
+   *        The number of threads. If 1, the pages are processed sequentially.
+   */
+  public void setNumThreads(int numThreads) {
+    this.numThreads = numThreads;
+  }
+
+  /**
+   * Returns true if the pages of a page stream pipe are streamed to the subsequent page pipes.
+   *
+   * @return True if the pages are streamed; false otherwise.
+   */
+  public boolean isStreaming() {
+    return this.isStreaming;
+  }
+
+  /**
+   * Sets the boolean flag indicating whether the pages of a page stream pipe should be streamed
+   * to the subsequent page pipes.
+   *
+   * @param isStreaming
+   *        True, if the pages should be streamed; false otherwise.
+   */
+  public void setIsStreaming(boolean isStreaming) {
+    this.isStreaming = isStreaming;
+  }
+
+  /**
+   * Returns the maximum number of produced pages waiting to be processed in a stream.
+   *
+   * @return The queue capacity.
+   */
+  public int getQueueCapacity() {
+    return this.queueCapacity;
+  }
+
+  /**
+   * Sets the maximum number of produced pages waiting to be processed in a stream.
+   *
+   * @param queueCapacity
+   *        The queue capacity.
+   */
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+}
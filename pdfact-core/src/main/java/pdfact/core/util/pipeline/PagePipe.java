@@ -0,0 +1,62 @@
+package pdfact.core.util.pipeline;
+
+import pdfact.core.model.Document;
+import pdfact.core.model.Page;
+import pdfact.core.util.exception.PdfActException;
+
+/**
+ * A pipe whose work is local to the individual pages of a PDF document, such that it can be
+ * executed on different pages concurrently. The work of the pipe is split into a page-local part
+ * (executed once per page) and a document-wide part (executed once, after the page-local part was
+ * executed on all pages).
+ *
+ * @author Claudius Korzen
+ */
+public interface PagePipe extends Pipe {
+  /**
+   * Executes the page-local part of this pipe on the given page. This method may be called
+   * concurrently for different pages of the same document, so it must only modify the given page
+   * and the elements on this page.
+   *
+   * @param pdf
+   *        The PDF document to which the given page belongs to.
+   * @param page
+   *        The page to process.
+   *
+   * @throws PdfActException
+   *         If something went wrong while executing this pipe.
+   */
+  void executeOnPage(Document pdf, Page page) throws PdfActException;
+
+  /**
+   * Executes the document-wide part of this pipe. This method is called after the page-local
+   * part was executed on all pages of the given document.
+   *
+   * @param pdf
+   *        The PDF document to process.
+   *
+   * @throws PdfActException
+   *         If something went wrong while executing this pipe.
+   */
+  void executeOnDocument(Document pdf) throws PdfActException;
+
+  /**
+   * Returns true if the document-wide part of this pipe computes data that are needed by
+   * subsequent pipes (for example, statistics aggregated over all pages). In this case, the
+   * subsequent pipes must not be executed on any page before this pipe was executed on all pages.
+   *
+   * @return True if this pipe is a barrier for subsequent pipes; false otherwise.
+   */
+  boolean isBarrier();
+
+  /**
+   * Returns true if the page-local part of this pipe needs data of the document that are only
+   * available after the previous pipes were executed on all pages (for example, the character
+   * statistic of the document, which is computed after all pages were parsed). In this case,
+   * this pipe must not be executed on any page while the previous pipes are still processing
+   * other pages.
+   *
+   * @return True if this pipe depends on document-wide data; false otherwise.
+   */
+  boolean isDocumentDependent();
+}
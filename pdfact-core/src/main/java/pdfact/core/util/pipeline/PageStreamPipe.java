@@ -0,0 +1,32 @@
+package pdfact.core.util.pipeline;
+
+import java.util.function.Consumer;
+import pdfact.core.model.Document;
+import pdfact.core.model.Page;
+import pdfact.core.util.exception.PdfActException;
+
+/**
+ * A pipe that produces the pages of a PDF document one after another (for example, a parser),
+ * such that subsequent pipes can process a page while this pipe is still producing the next
+ * pages.
+ *
+ * @author Claudius Korzen
+ */
+public interface PageStreamPipe extends Pipe {
+  /**
+   * Executes this pipe and passes each page to the given consumer as soon as this pipe is done
+   * with the page. The pages are passed in page order. The consumer is called by the thread that
+   * executes this pipe.
+   *
+   * @param pdf
+   *        The input PDF document for this pipe.
+   * @param pageConsumer
+   *        The consumer to pass the pages to.
+   *
+   * @return The state of the PDF document after executing this pipe.
+   *
+   * @throws PdfActException
+   *         If something went wrong while executing this pipe.
+   */
+  Document execute(Document pdf, Consumer<Page> pageConsumer) throws PdfActException;
+}
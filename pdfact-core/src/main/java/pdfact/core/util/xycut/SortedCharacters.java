@@ -0,0 +1,398 @@
+package pdfact.core.util.xycut;
+
+import java.util.Arrays;
+import java.util.List;
+import pdfact.core.model.Character;
+import pdfact.core.model.Rectangle;
+import pdfact.core.util.list.ElementList;
+
+/**
+ * The characters to be cut by XYCut, sorted once by their minX values (ascending) and once by
+ * their maxY values (descending). Both orders are stored as primitive arrays of character indices,
+ * such that XYCut can recurse over ranges of these arrays instead of re-sorting sublists.
+ *
+ * <p>
+ * The arrays are organized in blocks: a block is given by a range [from, to) and the entries of
+ * the arrays in this range refer to the same characters. A block is split into two blocks by
+ * stably partitioning the arrays in linear time, so the presorted arrays stay sorted within each
+ * block.
+ *
+ * <p>
+ * XYCut used to sort the list of characters of a block in place (by {@link ElementList#sort},
+ * a quicksort) on each sweep, so the order of characters with equal sort keys depended on the
+ * order left by the previous sweep. This order is kept in a third array, such that the
+ * characters are swept and cut in exactly the same order as before. If the sort keys of a block
+ * are distinct, this order is given by the presorted array. Otherwise, the quicksort is repeated
+ * on the range of the third array.
+ *
+ * @author Claudius Korzen
+ */
+public class SortedCharacters {
+  /**
+   * The list of characters to be cut.
+   */
+  protected final ElementList<Character> list;
+
+  /**
+   * The characters, in the order of the original list.
+   */
+  protected final Character[] characters;
+
+  /**
+   * The sortable minX values of the characters, see {@link #toSortableInt(float)}.
+   */
+  protected final int[] minXKeys;
+
+  /**
+   * The sortable maxY values of the characters, with inverted bits such that ascending keys
+   * mean descending maxY values.
+   */
+  protected final int[] maxYKeys;
+
+  /**
+   * The indices of the characters, sorted by minX (ascending) within each block. Characters with
+   * equal minX values are ordered by their indices.
+   */
+  protected final int[] byMinX;
+
+  /**
+   * The indices of the characters, sorted by maxY (descending) within each block. Characters
+   * with equal maxY values are ordered by their indices.
+   */
+  protected final int[] byMaxY;
+
+  /**
+   * The indices of the characters, in the order of the last sweep of each block.
+   */
+  protected final int[] order;
+
+  /**
+   * A buffer to use on partitioning the arrays.
+   */
+  protected final int[] buffer;
+
+  /**
+   * The flags that indicate whether a character belongs to the first half of a split block.
+   */
+  protected final boolean[] isInFirstHalf;
+
+  /**
+   * Creates a new instance of this class for the given characters.
+   *
+   * @param characters
+   *        The characters to sort.
+   */
+  public SortedCharacters(ElementList<Character> characters) {
+    int size = characters.size();
+    this.list = characters;
+    this.characters = new Character[size];
+    this.minXKeys = new int[size];
+    this.maxYKeys = new int[size];
+    this.order = new int[size];
+    for (int i = 0; i < size; i++) {
+      this.characters[i] = characters.get(i);
+      Rectangle rect = this.characters[i].getPosition().getRectangle();
+      this.minXKeys[i] = toSortableInt(rect.getMinX());
+      // Invert the bits, such that the characters are sorted by maxY in descending order.
+      this.maxYKeys[i] = ~toSortableInt(rect.getMaxY());
+      this.order[i] = i;
+    }
+    this.buffer = new int[size];
+    this.isInFirstHalf = new boolean[size];
+    this.byMinX = toIndices(this.minXKeys);
+    this.byMaxY = toIndices(this.maxYKeys);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the number of characters.
+   *
+   * @return The number of characters.
+   */
+  public int size() {
+    return this.characters.length;
+  }
+
+  /**
+   * Sorts the characters in [from, to) by minX and returns them.
+   *
+   * @param from
+   *        The start of the block, inclusive.
+   * @param to
+   *        The end of the block, exclusive.
+   *
+   * @return The characters of the block, sorted by minX.
+   */
+  public Character[] sortByMinX(int from, int to) {
+    return sort(this.byMinX, this.minXKeys, from, to);
+  }
+
+  /**
+   * Sorts the characters in [from, to) by maxY in descending order and returns them.
+   *
+   * @param from
+   *        The start of the block, inclusive.
+   * @param to
+   *        The end of the block, exclusive.
+   *
+   * @return The characters of the block, sorted by maxY in descending order.
+   */
+  public Character[] sortByMaxY(int from, int to) {
+    return sort(this.byMaxY, this.maxYKeys, from, to);
+  }
+
+  /**
+   * Splits the block [from, to) into the blocks [from, index) and [index, to), where the first
+   * block consists of the characters in front of the given index in the order of the last sweep.
+   *
+   * @param from
+   *        The start of the block, inclusive.
+   * @param index
+   *        The position of the split.
+   * @param to
+   *        The end of the block, exclusive.
+   */
+  public void split(int from, int index, int to) {
+    for (int i = from; i < to; i++) {
+      this.isInFirstHalf[this.order[i]] = i < index;
+    }
+    partition(this.byMinX, from, index, to);
+    partition(this.byMaxY, from, index, to);
+  }
+
+  /**
+   * Returns the characters in [from, to), in the order of the last sweep, as a view of the list
+   * of characters given on creation. The view reflects the order of the characters only after
+   * {@link #reorder()} was called.
+   *
+   * @param from
+   *        The start of the block, inclusive.
+   * @param to
+   *        The end of the block, exclusive.
+   *
+   * @return The characters of the block.
+   */
+  public ElementList<Character> getBlock(int from, int to) {
+    List<Character> block = this.list.subList(from, to);
+    return (ElementList<Character>) block;
+  }
+
+  /**
+   * Reorders the list of characters given on creation to the order of the last sweep of each
+   * block, as left by the in-place sorts XYCut used before.
+   */
+  public void reorder() {
+    // The current position of each character in the list, and vice versa.
+    int size = size();
+    int[] positions = new int[size];
+    int[] indices = new int[size];
+    for (int i = 0; i < size; i++) {
+      positions[i] = i;
+      indices[i] = i;
+    }
+
+    for (int i = 0; i < size; i++) {
+      int charIndex = this.order[i];
+      int position = positions[charIndex];
+      if (position != i) {
+        // ElementList views don't support set(), so swap the characters into place.
+        this.list.swap(i, position);
+        int displaced = indices[i];
+        indices[i] = charIndex;
+        indices[position] = displaced;
+        positions[charIndex] = i;
+        positions[displaced] = position;
+      }
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Sorts the characters in [from, to) by the given keys and returns them.
+   *
+   * @param sorted
+   *        The presorted array of character indices for the given keys.
+   * @param keys
+   *        The sort keys of the characters.
+   * @param from
+   *        The start of the block, inclusive.
+   * @param to
+   *        The end of the block, exclusive.
+   *
+   * @return The characters of the block, sorted by the given keys.
+   */
+  protected Character[] sort(int[] sorted, int[] keys, int from, int to) {
+    if (hasDistinctKeys(sorted, keys, from, to)) {
+      // Each sort results in the presorted order.
+      System.arraycopy(sorted, from, this.order, from, to - from);
+    } else if (to - from > 1) {
+      quickSort(keys, from, to - 1);
+    }
+
+    Character[] result = new Character[to - from];
+    for (int i = from; i < to; i++) {
+      result[i - from] = this.characters[this.order[i]];
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether the characters in [from, to) have distinct sort keys.
+   *
+   * @param sorted
+   *        The presorted array of character indices for the given keys.
+   * @param keys
+   *        The sort keys of the characters.
+   * @param from
+   *        The start of the block, inclusive.
+   * @param to
+   *        The end of the block, exclusive.
+   *
+   * @return True, if the sort keys are distinct; false otherwise.
+   */
+  protected static boolean hasDistinctKeys(int[] sorted, int[] keys, int from, int to) {
+    for (int i = from + 1; i < to; i++) {
+      if (keys[sorted[i]] == keys[sorted[i - 1]]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sorts the range [l, r] of the order array by the given keys, in the same way as
+   * {@link ElementList#sort} sorts a list. The smaller part of each division is sorted
+   * recursively and the larger part iteratively, which doesn't change the result since the
+   * parts are disjoint.
+   *
+   * @param keys
+   *        The sort keys of the characters.
+   * @param l
+   *        The start of the range, inclusive.
+   * @param r
+   *        The end of the range, inclusive.
+   */
+  protected void quickSort(int[] keys, int l, int r) {
+    while (l < r) {
+      int index = divide(keys, l, r);
+      if (index - l < r - index) {
+        if (index > l + 1) {
+          quickSort(keys, l, index - 1);
+        }
+        l = index + 1;
+      } else {
+        if (index < r - 1) {
+          quickSort(keys, index + 1, r);
+        }
+        r = index - 1;
+      }
+    }
+  }
+
+  /**
+   * Divides the range [l, r] of the order array around the last element of the range, in the
+   * same way as {@link ElementList#sort} divides a list.
+   *
+   * @param keys
+   *        The sort keys of the characters.
+   * @param l
+   *        The start of the range, inclusive.
+   * @param r
+   *        The end of the range, inclusive.
+   *
+   * @return The position of the dividing element.
+   */
+  protected int divide(int[] keys, int l, int r) {
+    int[] order = this.order;
+    int pivot = keys[order[r]];
+    int i = l;
+    int j = r - 1;
+
+    while (true) {
+      while (i <= j && keys[order[i]] < pivot) {
+        i++;
+      }
+      while (i <= j && keys[order[j]] >= pivot) {
+        j--;
+      }
+      if (i > j) {
+        break;
+      }
+      int tmp = order[i];
+      order[i] = order[j];
+      order[j] = tmp;
+    }
+
+    int tmp = order[r];
+    order[r] = order[i];
+    order[i] = tmp;
+    return i;
+  }
+
+  /**
+   * Stably partitions the range [from, to) of the given array, such that it starts with the
+   * characters that belong to the first half of the split block.
+   *
+   * @param target
+   *        The array to partition.
+   * @param from
+   *        The start of the block, inclusive.
+   * @param index
+   *        The position of the split.
+   * @param to
+   *        The end of the block, exclusive.
+   */
+  protected void partition(int[] target, int from, int index, int to) {
+    int head = from;
+    int tail = index;
+    for (int i = from; i < to; i++) {
+      int charIndex = target[i];
+      if (this.isInFirstHalf[charIndex]) {
+        this.buffer[head++] = charIndex;
+      } else {
+        this.buffer[tail++] = charIndex;
+      }
+    }
+    System.arraycopy(this.buffer, from, target, from, to - from);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Sorts the characters by the given keys and returns their indices in sort order. Characters
+   * with equal keys are ordered by their indices.
+   *
+   * @param keys
+   *        The sort keys of the characters.
+   *
+   * @return The character indices in sort order.
+   */
+  protected static int[] toIndices(int[] keys) {
+    long[] packed = new long[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      packed[i] = ((long) keys[i] << 32) | (i & 0xFFFFFFFFL);
+    }
+    Arrays.sort(packed);
+    int[] indices = new int[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      indices[i] = (int) packed[i];
+    }
+    return indices;
+  }
+
+  /**
+   * Maps the given float to an int, such that the ints are ordered in the same way as the floats
+   * are ordered by {@link Float#compare(float, float)}.
+   *
+   * @param f
+   *        The float to map.
+   *
+   * @return The sortable int.
+   */
+  protected static int toSortableInt(float f) {
+    int bits = Float.floatToIntBits(f);
+    return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+  }
+}
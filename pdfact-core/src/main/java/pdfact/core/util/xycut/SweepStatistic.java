@@ -0,0 +1,697 @@
+package pdfact.core.util.xycut;
+
+import gnu.trove.list.array.TFloatArrayList;
+import java.util.Arrays;
+import pdfact.core.model.Character;
+import pdfact.core.model.Rectangle;
+import pdfact.core.util.PdfActUtils;
+import pdfact.core.util.counter.FloatCounter;
+
+/**
+ * Statistics about the prefixes and suffixes of a list of characters that is sorted in sweep
+ * direction. The statistics are computed in a single sweep over the characters and allow to
+ * assess each cut candidate of XYCut in constant time, instead of computing a full
+ * {@link pdfact.core.model.CharacterStatistic} for both halves of each candidate. Only a tie
+ * between the most common heights (widths) of a second half takes O(d log n) time to resolve,
+ * for d distinct heights (widths).
+ *
+ * <p>
+ * For a cut at index i, the first half is given by the characters in [0, i) and the second half
+ * by the characters in [i, n), where n is the number of characters. All values returned by this
+ * class are identical to the values the {@link pdfact.core.util.statistician.CharacterStatistician}
+ * would compute for the respective half.
+ *
+ * @author Claudius Korzen
+ */
+public class SweepStatistic {
+  /**
+   * The characters, sorted in sweep direction.
+   */
+  protected final Character[] characters;
+
+  /**
+   * The number of characters.
+   */
+  protected final int size;
+
+  /**
+   * The smallest minX, smallest minY, largest maxX and largest maxY values of the prefixes. The
+   * value at index i belongs to the characters in [0, i).
+   */
+  protected final float[] prefixMinX;
+  protected final float[] prefixMinY;
+  protected final float[] prefixMaxX;
+  protected final float[] prefixMaxY;
+
+  /**
+   * The smallest minX, smallest minY, largest maxX and largest maxY values of the suffixes. The
+   * value at index i belongs to the characters in [i, n).
+   */
+  protected final float[] suffixMinX;
+  protected final float[] suffixMinY;
+  protected final float[] suffixMaxX;
+  protected final float[] suffixMaxY;
+
+  /**
+   * The most common heights and widths of the prefixes and suffixes. These values are computed on
+   * demand, on the first request of a most common value.
+   */
+  protected float[] prefixMostCommonHeight;
+  protected float[] prefixMostCommonWidth;
+  protected float[] suffixMostCommonHeight;
+  protected float[] suffixMostCommonWidth;
+
+  /**
+   * The flags that indicate whether the most common height (width) of a suffix is known. If there
+   * are multiple values with the largest frequency, {@link FloatCounter} selects the value that
+   * comes first in its hash table, whose layout depends on the order in which the values were
+   * added. The sweep adds the values of a suffix in reverse order, so such a tie is resolved on
+   * request, from the distinct values of the suffix (see {@link ValueIndex}).
+   */
+  protected boolean[] isSuffixMostCommonHeightKnown;
+  protected boolean[] isSuffixMostCommonWidthKnown;
+
+  /**
+   * The heights and widths of the characters, grouped by value. Computed on demand, on resolving
+   * the first tie of a suffix.
+   */
+  protected ValueIndex heightIndex;
+  protected ValueIndex widthIndex;
+
+  /**
+   * The positions of the characters, sorted by their extraction ranks. Each entry packs the rank
+   * of a character (upper 32 bits) and its index in the list of characters (lower 32 bits).
+   * Computed on demand.
+   */
+  protected long[] ranks;
+
+  /**
+   * Creates a new statistic for the given characters.
+   *
+   * @param characters
+   *        The characters, sorted in sweep direction.
+   */
+  public SweepStatistic(Character[] characters) {
+    this.characters = characters;
+    this.size = characters.length;
+
+    this.prefixMinX = new float[this.size + 1];
+    this.prefixMinY = new float[this.size + 1];
+    this.prefixMaxX = new float[this.size + 1];
+    this.prefixMaxY = new float[this.size + 1];
+    this.suffixMinX = new float[this.size + 1];
+    this.suffixMinY = new float[this.size + 1];
+    this.suffixMaxX = new float[this.size + 1];
+    this.suffixMaxY = new float[this.size + 1];
+
+    computeExtrema();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Computes the running extrema of the prefixes and suffixes.
+   */
+  protected void computeExtrema() {
+    float minX = Float.MAX_VALUE;
+    float minY = Float.MAX_VALUE;
+    float maxX = -Float.MAX_VALUE;
+    float maxY = -Float.MAX_VALUE;
+    this.prefixMinX[0] = minX;
+    this.prefixMinY[0] = minY;
+    this.prefixMaxX[0] = maxX;
+    this.prefixMaxY[0] = maxY;
+    for (int i = 0; i < this.size; i++) {
+      Rectangle rect = this.characters[i].getPosition().getRectangle();
+      // Use the same comparisons as the CharacterStatistician (instead of Math.min/max), such that
+      // the treatment of NaN values is identical.
+      if (rect.getMinX() < minX) {
+        minX = rect.getMinX();
+      }
+      if (rect.getMinY() < minY) {
+        minY = rect.getMinY();
+      }
+      if (rect.getMaxX() > maxX) {
+        maxX = rect.getMaxX();
+      }
+      if (rect.getMaxY() > maxY) {
+        maxY = rect.getMaxY();
+      }
+      this.prefixMinX[i + 1] = minX;
+      this.prefixMinY[i + 1] = minY;
+      this.prefixMaxX[i + 1] = maxX;
+      this.prefixMaxY[i + 1] = maxY;
+    }
+
+    minX = Float.MAX_VALUE;
+    minY = Float.MAX_VALUE;
+    maxX = -Float.MAX_VALUE;
+    maxY = -Float.MAX_VALUE;
+    this.suffixMinX[this.size] = minX;
+    this.suffixMinY[this.size] = minY;
+    this.suffixMaxX[this.size] = maxX;
+    this.suffixMaxY[this.size] = maxY;
+    for (int i = this.size - 1; i >= 0; i--) {
+      Rectangle rect = this.characters[i].getPosition().getRectangle();
+      if (rect.getMinX() < minX) {
+        minX = rect.getMinX();
+      }
+      if (rect.getMinY() < minY) {
+        minY = rect.getMinY();
+      }
+      if (rect.getMaxX() > maxX) {
+        maxX = rect.getMaxX();
+      }
+      if (rect.getMaxY() > maxY) {
+        maxY = rect.getMaxY();
+      }
+      this.suffixMinX[i] = minX;
+      this.suffixMinY[i] = minY;
+      this.suffixMaxX[i] = maxX;
+      this.suffixMaxY[i] = maxY;
+    }
+  }
+
+  /**
+   * Computes the most common heights and widths of the prefixes and suffixes.
+   */
+  protected void computeMostCommonValues() {
+    this.prefixMostCommonHeight = new float[this.size + 1];
+    this.prefixMostCommonWidth = new float[this.size + 1];
+    this.suffixMostCommonHeight = new float[this.size + 1];
+    this.suffixMostCommonWidth = new float[this.size + 1];
+    this.isSuffixMostCommonHeightKnown = new boolean[this.size + 1];
+    this.isSuffixMostCommonWidthKnown = new boolean[this.size + 1];
+
+    // The values of a prefix are added in the same order as by a FloatCounter for the prefix, so
+    // the mode selects the same value on ties.
+    Mode height = new Mode();
+    Mode width = new Mode();
+    this.prefixMostCommonHeight[0] = Float.NaN;
+    this.prefixMostCommonWidth[0] = Float.NaN;
+    for (int i = 0; i < this.size; i++) {
+      Rectangle rect = this.characters[i].getPosition().getRectangle();
+      height.add(rect.getHeight());
+      width.add(rect.getWidth());
+      this.prefixMostCommonHeight[i + 1] = height.value;
+      this.prefixMostCommonWidth[i + 1] = width.value;
+    }
+
+    height = new Mode();
+    width = new Mode();
+    this.suffixMostCommonHeight[this.size] = Float.NaN;
+    this.suffixMostCommonWidth[this.size] = Float.NaN;
+    this.isSuffixMostCommonHeightKnown[this.size] = true;
+    this.isSuffixMostCommonWidthKnown[this.size] = true;
+    for (int i = this.size - 1; i >= 0; i--) {
+      Rectangle rect = this.characters[i].getPosition().getRectangle();
+      height.add(rect.getHeight());
+      width.add(rect.getWidth());
+      this.suffixMostCommonHeight[i] = height.value;
+      this.suffixMostCommonWidth[i] = width.value;
+      this.isSuffixMostCommonHeightKnown[i] = height.isUnique();
+      this.isSuffixMostCommonWidthKnown[i] = width.isUnique();
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the character at the given index.
+   *
+   * @param index
+   *        The index of the character.
+   *
+   * @return The character at the given index, in sweep direction.
+   */
+  public Character getCharacter(int index) {
+    return this.characters[index];
+  }
+
+  /**
+   * Returns the number of characters.
+   *
+   * @return The number of characters.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  // ==============================================================================================
+  // Methods related to the first half [0, index).
+
+  /**
+   * Returns the smallest minX value of the characters in [0, index).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The smallest minX value of the characters in the first half.
+   */
+  public float getHeadSmallestMinX(int index) {
+    return this.prefixMinX[index];
+  }
+
+  /**
+   * Returns the smallest minY value of the characters in [0, index).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The smallest minY value of the characters in the first half.
+   */
+  public float getHeadSmallestMinY(int index) {
+    return this.prefixMinY[index];
+  }
+
+  /**
+   * Returns the largest maxX value of the characters in [0, index).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The largest maxX value of the characters in the first half.
+   */
+  public float getHeadLargestMaxX(int index) {
+    return this.prefixMaxX[index];
+  }
+
+  /**
+   * Returns the largest maxY value of the characters in [0, index).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The largest maxY value of the characters in the first half.
+   */
+  public float getHeadLargestMaxY(int index) {
+    return this.prefixMaxY[index];
+  }
+
+  /**
+   * Returns the height of the bounding box around the characters in [0, index).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The height of the bounding box around the characters in the first half.
+   */
+  public float getHeadHeight(int index) {
+    return this.prefixMaxY[index] - this.prefixMinY[index];
+  }
+
+  /**
+   * Returns the most common height of the characters in [0, index).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The most common height of the characters in the first half.
+   */
+  public float getHeadMostCommonHeight(int index) {
+    if (this.prefixMostCommonHeight == null) {
+      computeMostCommonValues();
+    }
+    return this.prefixMostCommonHeight[index];
+  }
+
+  /**
+   * Returns the most common width of the characters in [0, index).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The most common width of the characters in the first half.
+   */
+  public float getHeadMostCommonWidth(int index) {
+    if (this.prefixMostCommonWidth == null) {
+      computeMostCommonValues();
+    }
+    return this.prefixMostCommonWidth[index];
+  }
+
+  // ==============================================================================================
+  // Methods related to the second half [index, n).
+
+  /**
+   * Returns the smallest minX value of the characters in [index, n).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The smallest minX value of the characters in the second half.
+   */
+  public float getTailSmallestMinX(int index) {
+    return this.suffixMinX[index];
+  }
+
+  /**
+   * Returns the smallest minY value of the characters in [index, n).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The smallest minY value of the characters in the second half.
+   */
+  public float getTailSmallestMinY(int index) {
+    return this.suffixMinY[index];
+  }
+
+  /**
+   * Returns the largest maxX value of the characters in [index, n).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The largest maxX value of the characters in the second half.
+   */
+  public float getTailLargestMaxX(int index) {
+    return this.suffixMaxX[index];
+  }
+
+  /**
+   * Returns the largest maxY value of the characters in [index, n).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The largest maxY value of the characters in the second half.
+   */
+  public float getTailLargestMaxY(int index) {
+    return this.suffixMaxY[index];
+  }
+
+  /**
+   * Returns the height of the bounding box around the characters in [index, n).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The height of the bounding box around the characters in the second half.
+   */
+  public float getTailHeight(int index) {
+    return this.suffixMaxY[index] - this.suffixMinY[index];
+  }
+
+  /**
+   * Returns the most common height of the characters in [index, n).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The most common height of the characters in the second half.
+   */
+  public float getTailMostCommonHeight(int index) {
+    if (this.suffixMostCommonHeight == null) {
+      computeMostCommonValues();
+    }
+    if (!this.isSuffixMostCommonHeightKnown[index]) {
+      if (this.heightIndex == null) {
+        float[] heights = new float[this.size];
+        for (int i = 0; i < this.size; i++) {
+          heights[i] = this.characters[i].getPosition().getRectangle().getHeight();
+        }
+        this.heightIndex = new ValueIndex(heights);
+      }
+      this.suffixMostCommonHeight[index] = this.heightIndex.getMostCommonValue(index);
+      this.isSuffixMostCommonHeightKnown[index] = true;
+    }
+    return this.suffixMostCommonHeight[index];
+  }
+
+  /**
+   * Returns the most common width of the characters in [index, n).
+   *
+   * @param index
+   *        The index of the cut.
+   *
+   * @return The most common width of the characters in the second half.
+   */
+  public float getTailMostCommonWidth(int index) {
+    if (this.suffixMostCommonWidth == null) {
+      computeMostCommonValues();
+    }
+    if (!this.isSuffixMostCommonWidthKnown[index]) {
+      if (this.widthIndex == null) {
+        float[] widths = new float[this.size];
+        for (int i = 0; i < this.size; i++) {
+          widths[i] = this.characters[i].getPosition().getRectangle().getWidth();
+        }
+        this.widthIndex = new ValueIndex(widths);
+      }
+      this.suffixMostCommonWidth[index] = this.widthIndex.getMostCommonValue(index);
+      this.isSuffixMostCommonWidthKnown[index] = true;
+    }
+    return this.suffixMostCommonWidth[index];
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Checks if there is a character in [0, index) with extraction rank r and a character in
+   * [index, n) with extraction rank r + 1, such that (1) the maxX value of the first character is
+   * almost equal to the largest maxX value of the first half, (2) the minX value of the second
+   * character is almost equal to the smallest minX value of the second half and (3) both
+   * characters overlap vertically. The characters are expected to be sorted by their minX values.
+   *
+   * @param index
+   *        The index of the cut.
+   * @param headTolerance
+   *        The tolerance to use on comparing the maxX values in the first half.
+   * @param tailTolerance
+   *        The tolerance to use on comparing the minX values in the second half.
+   *
+   * @return True if there is such a character pair, false otherwise.
+   */
+  public boolean separatesConsecutiveCharacters(int index, float headTolerance,
+      float tailTolerance) {
+    if (this.ranks == null) {
+      computeRanks();
+    }
+
+    float largestMaxX = getHeadLargestMaxX(index);
+    float smallestMinX = getTailSmallestMinX(index);
+
+    // Since the characters are sorted by minX, the characters of the second half whose minX
+    // values are almost equal to the smallest minX value form a prefix of the second half.
+    for (int i = index; i < this.size; i++) {
+      Character tailChar = this.characters[i];
+      Rectangle tailRect = tailChar.getPosition().getRectangle();
+      if (!PdfActUtils.isEqual(tailRect.getMinX(), smallestMinX, tailTolerance)) {
+        break;
+      }
+
+      // Look up the characters with the preceding extraction rank.
+      long rank = (long) tailChar.getExtractionRank() - 1;
+      for (int j = lowerBound(rank); j < this.ranks.length && this.ranks[j] >> 32 == rank; j++) {
+        int headIndex = (int) this.ranks[j];
+        if (headIndex >= index) {
+          // All following characters with the same rank are not in the first half.
+          break;
+        }
+        Rectangle headRect = this.characters[headIndex].getPosition().getRectangle();
+        if (!PdfActUtils.isEqual(headRect.getMaxX(), largestMaxX, headTolerance)) {
+          continue;
+        }
+        if (headRect.overlapsVertically(tailRect)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Computes the positions of the characters, sorted by their extraction ranks.
+   */
+  protected void computeRanks() {
+    this.ranks = new long[this.size];
+    for (int i = 0; i < this.size; i++) {
+      long rank = this.characters[i].getExtractionRank();
+      this.ranks[i] = (rank << 32) | i;
+    }
+    Arrays.sort(this.ranks);
+  }
+
+  /**
+   * Returns the index of the first entry in the ranks array with the given rank.
+   *
+   * @param rank
+   *        The rank to search for.
+   *
+   * @return The index of the first entry with the given rank, or the index of the first entry with
+   *         a larger rank if there is no such entry.
+   */
+  protected int lowerBound(long rank) {
+    long key = rank << 32;
+    int low = 0;
+    int high = this.ranks.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (this.ranks[mid] < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * A frequency summary that keeps track of the most common value while values are added. The
+   * summary is a {@link FloatCounter} itself, so that the most common value is the value that
+   * {@link FloatCounter#getMostCommonFloat()} would return: on ties, the value that comes first
+   * in the iteration order of the hash table, that is: the value in the slot with the largest
+   * index.
+   *
+   * @author Claudius Korzen
+   */
+  protected static class Mode extends FloatCounter {
+    /**
+     * The most common value.
+     */
+    protected float value = Float.NaN;
+
+    /**
+     * The largest frequency.
+     */
+    protected int frequency;
+
+    /**
+     * The values with the largest frequency.
+     */
+    protected final TFloatArrayList values = new TFloatArrayList();
+
+    @Override
+    public void add(float f) {
+      int capacity = capacity();
+      int freq = adjustOrPutValue(f, 1, 1);
+      if (freq > this.frequency) {
+        this.frequency = freq;
+        this.values.resetQuick();
+        this.values.add(f);
+        this.value = f;
+      } else if (freq == this.frequency) {
+        this.values.add(f);
+        if (index(f) > index(this.value)) {
+          this.value = f;
+        }
+      }
+      if (capacity() != capacity) {
+        // The values were rehashed to other slots.
+        this.value = this.values.get(0);
+        for (int i = 1; i < this.values.size(); i++) {
+          if (index(this.values.get(i)) > index(this.value)) {
+            this.value = this.values.get(i);
+          }
+        }
+      }
+    }
+
+    /**
+     * Returns true if there is only a single value with the largest frequency.
+     *
+     * @return True if the most common value is unique, false otherwise.
+     */
+    protected boolean isUnique() {
+      return this.values.size() == 1;
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * The positions of a list of values, grouped by value. Allows to compute the most common value
+   * of a suffix of the list as a {@link FloatCounter} would, in O(d log n) time for d distinct
+   * values, without adding the n values of the suffix one by one. The layout of the hash table of a
+   * {@link FloatCounter} (and thus its choice on ties) only depends on the order in which the
+   * distinct values were added first, not on how often they were added.
+   *
+   * @author Claudius Korzen
+   */
+  protected static class ValueIndex {
+    /**
+     * The distinct values.
+     */
+    protected final float[] values;
+
+    /**
+     * The positions of the values, grouped by value and sorted within a group. The positions of
+     * the i-th distinct value are given in [starts[i], starts[i + 1]).
+     */
+    protected final int[] positions;
+
+    /**
+     * The start of the group of each distinct value in the positions array.
+     */
+    protected final int[] starts;
+
+    /**
+     * Creates a new index for the given values.
+     *
+     * @param values
+     *        The values.
+     */
+    protected ValueIndex(float[] values) {
+      // Pack the bits of each value (upper 32 bits) with its position (lower 32 bits).
+      long[] entries = new long[values.length];
+      for (int i = 0; i < values.length; i++) {
+        entries[i] = ((long) Float.floatToIntBits(values[i]) << 32) | i;
+      }
+      Arrays.sort(entries);
+
+      float[] distinctValues = new float[values.length];
+      int[] groupStarts = new int[values.length + 1];
+      this.positions = new int[values.length];
+      int numValues = 0;
+      for (int i = 0; i < entries.length; i++) {
+        this.positions[i] = (int) entries[i];
+        if (i == 0 || entries[i] >> 32 != entries[i - 1] >> 32) {
+          distinctValues[numValues] = values[this.positions[i]];
+          groupStarts[numValues] = i;
+          numValues++;
+        }
+      }
+      groupStarts[numValues] = entries.length;
+      this.values = Arrays.copyOf(distinctValues, numValues);
+      this.starts = Arrays.copyOf(groupStarts, numValues + 1);
+    }
+
+    /**
+     * Returns the most common value in [from, n), as selected by a {@link FloatCounter} to which
+     * the values in [from, n) are added in ascending order of their positions.
+     *
+     * @param from
+     *        The start of the suffix, inclusive.
+     *
+     * @return The most common value.
+     */
+    protected float getMostCommonValue(int from) {
+      // Pack the first position of each distinct value in the suffix (upper 32 bits) with the
+      // index of the value (lower 32 bits), to sort the values by their first occurrence.
+      long[] firsts = new long[this.values.length];
+      int[] frequencies = new int[this.values.length];
+      int numValues = 0;
+      for (int v = 0; v < this.values.length; v++) {
+        int first = Arrays.binarySearch(this.positions, this.starts[v], this.starts[v + 1], from);
+        if (first < 0) {
+          first = -first - 1;
+        }
+        if (first < this.starts[v + 1]) {
+          firsts[numValues++] = ((long) this.positions[first] << 32) | v;
+          frequencies[v] = this.starts[v + 1] - first;
+        }
+      }
+      Arrays.sort(firsts, 0, numValues);
+
+      FloatCounter counter = new FloatCounter();
+      for (int i = 0; i < numValues; i++) {
+        int v = (int) firsts[i];
+        counter.adjustOrPutValue(this.values[v], frequencies[v], frequencies[v]);
+      }
+      return counter.getMostCommonFloat();
+    }
+  }
+}
@@ -1,14 +1,13 @@
 package pdfact.core.util.xycut;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import pdfact.core.PdfActCoreSettings;
 import pdfact.core.model.Character;
 import pdfact.core.model.Document;
 import pdfact.core.model.Page;
-import pdfact.core.util.comparator.MaxYComparator;
-import pdfact.core.util.comparator.MinXComparator;
 import pdfact.core.util.list.ElementList;
 
 /**
@@ -18,6 +17,14 @@ import pdfact.core.util.list.ElementList;
  * @author Claudius Korzen
  */
 public abstract class XYCut {
+  /**
+   * The minimum number of characters a block must have so that the sub-blocks resulting from a
+   * cut are cut in parallel.
+   */
+  protected int parallelismThreshold = PdfActCoreSettings.XYCUT_PARALLELISM_THRESHOLD;
+
+  // ==============================================================================================
+
   /**
    * Cuts the given characters into blocks of type T.
    * 
@@ -33,49 +40,94 @@ public abstract class XYCut {
   public List<ElementList<Character>> cut(Document pdf, Page page,
       ElementList<Character> characters) {
     List<ElementList<Character>> target = new ArrayList<>();
-    cut(pdf, page, characters, target);
+    if (characters != null && !characters.isEmpty()) {
+      // Sort the characters only once per axis. The recursion works on ranges of the sorted
+      // index arrays, which are partitioned on each cut.
+      SortedCharacters chars = new SortedCharacters(characters);
+      if (chars.size() < this.parallelismThreshold) {
+        cut(pdf, page, chars, 0, chars.size(), target);
+      } else {
+        target = ForkJoinPool.commonPool().invoke(new CutTask(pdf, page, chars, 0, chars.size()));
+      }
+      // The blocks are views of the given list, so bring the list into the order of the blocks.
+      chars.reorder();
+    }
     return target;
   }
 
   /**
-   * Cuts the given characters into blocks of type T and adds them to the given
-   * result list.
+   * Cuts the characters in the given block [from, to) into blocks of type T and adds them to the
+   * given result list.
    * 
    * @param pdf
    *        The PDF document to which the characters belong to.
    * @param page
    *        The page in which the characters are located.
-   * @param origin
-   *        The characters to be cut.
+   * @param chars
+   *        The sorted characters.
+   * @param from
+   *        The start of the block to be cut, inclusive.
+   * @param to
+   *        The end of the block to be cut, exclusive.
    * @param target
    *        The list of blocks to fill.
    */
-  protected void cut(Document pdf, Page page, ElementList<Character> origin,
+  protected void cut(Document pdf, Page page, SortedCharacters chars, int from, int to,
       List<ElementList<Character>> target) {
     // Cut the characters vertically (x-cut).
-    List<ElementList<Character>> xBlocks = xCut(pdf, page, origin);
+    int xCutIndex = xCut(pdf, page, chars, from, to);
 
-    for (ElementList<Character> xBlock : xBlocks) {
+    if (xCutIndex < 0) {
       // Cut the characters horizontally (y-cut).
-      List<ElementList<Character>> yBlocks = yCut(pdf, page, xBlock);
-      if (xBlocks.size() == 1 && yBlocks.size() == 1) {
+      int yCutIndex = yCut(pdf, page, chars, from, to);
+      if (yCutIndex < 0) {
         // Both cuts results in a single blocks. So, the characters could *not*
         // be cut. Pack them and add them to the result list.
-        ElementList<Character> block = yBlocks.get(0);
-        if (block != null && !block.isEmpty()) {
-          target.add(block);
-        }
+        target.add(chars.getBlock(from, to));
       } else {
         // The characters could be cut. Cut the resulted blocks recursively.
-        for (ElementList<Character> yBlock : yBlocks) {
-          cut(pdf, page, yBlock, target);
-        }
+        chars.split(from, yCutIndex, to);
+        cut(pdf, page, chars, from, yCutIndex, target);
+        cut(pdf, page, chars, yCutIndex, to, target);
       }
+    } else {
+      chars.split(from, xCutIndex, to);
+      cutHorizontally(pdf, page, chars, from, xCutIndex, target);
+      cutHorizontally(pdf, page, chars, xCutIndex, to, target);
     }
   }
 
   /**
-   * Takes a list of characters and iterates them by sweeping a lane in x
+   * Cuts the characters in the given block [from, to) horizontally (y-cut) and cuts the resulted
+   * blocks recursively.
+   * 
+   * @param pdf
+   *        The PDF document to which the characters belong to.
+   * @param page
+   *        The page in which the characters are located.
+   * @param chars
+   *        The sorted characters.
+   * @param from
+   *        The start of the block to be cut, inclusive.
+   * @param to
+   *        The end of the block to be cut, exclusive.
+   * @param target
+   *        The list of blocks to fill.
+   */
+  protected void cutHorizontally(Document pdf, Page page, SortedCharacters chars, int from,
+      int to, List<ElementList<Character>> target) {
+    int yCutIndex = yCut(pdf, page, chars, from, to);
+    if (yCutIndex < 0) {
+      cut(pdf, page, chars, from, to, target);
+    } else {
+      chars.split(from, yCutIndex, to);
+      cut(pdf, page, chars, from, yCutIndex, target);
+      cut(pdf, page, chars, yCutIndex, to, target);
+    }
+  }
+
+  /**
+   * Takes a block of characters and iterates them by sweeping a lane in x
    * direction in order to find a position to cut the characters vertically into
    * a left half and a right half.
    * 
@@ -84,59 +136,60 @@ public abstract class XYCut {
    * @param page
    *        The page in which the characters are located.
    * @param chars
-   *        The characters to cut.
-   * @return A list of list of characters. In case of the characters could be
-   *         cut, this list has two inner lists representing the characters of
-   *         the two halves. In case of the characters could *not* be cut, the
-   *         list consists only of a single list, which is the original list of
-   *         characters.
+   *        The sorted characters.
+   * @param from
+   *        The start of the block to be cut, inclusive.
+   * @param to
+   *        The end of the block to be cut, exclusive.
+   * @return The position of the best cut in the array of characters sorted by
+   *         minX, that is: the left half is given by [from, position) and the
+   *         right half by [position, to). In case of the characters could *not*
+   *         be cut, -1.
    */
-  protected List<ElementList<Character>> xCut(Document pdf, Page page,
-      ElementList<Character> chars) {
-    if (chars != null && !chars.isEmpty()) {
-      // Sort the characters by minX in order to sweep them in x direction.
-      Collections.sort(chars, new MinXComparator());
-
-      // The score of the best cut found so far.
-      float bestCutScore = 0;
-      // The index of the best cut found so far.
-      int bestCutIndex = -1;
-      // The current position in the list of characters.
-      float currentPos = chars.get(0).getPosition().getRectangle().getMaxX();
-
-      for (int index = 1; index < chars.size(); index++) {
-        Character character = chars.get(index);
-
-        if (character.getPosition().getRectangle().getMinX() > currentPos) {
-          List<ElementList<Character>> halves = chars.cut(index);
-          // Find the position of the "best" cut.
-          while (index < chars.size()) {
-            // The score of the current cut.
-            float cutScore = assessVerticalCut(pdf, page, halves);
-
-            if (cutScore < 0) {
-              break;
-            } else if (cutScore > bestCutScore) {
-              bestCutScore = cutScore;
-              bestCutIndex = index;
-            }
-            halves = chars.cut(++index);
+  protected int xCut(Document pdf, Page page, SortedCharacters chars, int from, int to) {
+    if (from >= to) {
+      return -1;
+    }
+
+    // The characters, sorted by minX in order to sweep them in x direction.
+    Character[] sorted = chars.sortByMinX(from, to);
+
+    // The score of the best cut found so far.
+    float bestCutScore = 0;
+    // The index of the best cut found so far.
+    int bestCutIndex = -1;
+    // The current position in the list of characters.
+    float currentPos = sorted[0].getPosition().getRectangle().getMaxX();
+    // The statistics about the halves of all possible cuts.
+    SweepStatistic stats = new SweepStatistic(sorted);
+
+    for (int index = 1; index < sorted.length; index++) {
+      Character character = sorted[index];
+
+      if (character.getPosition().getRectangle().getMinX() > currentPos) {
+        // Find the position of the "best" cut.
+        while (index < sorted.length) {
+          // The score of the current cut.
+          float cutScore = assessVerticalCut(pdf, page, stats, index);
+
+          if (cutScore < 0) {
+            break;
+          } else if (cutScore > bestCutScore) {
+            bestCutScore = cutScore;
+            bestCutIndex = index;
           }
+          index++;
         }
-        currentPos = character.getPosition().getRectangle().getMaxX();
-      }
-
-      if (bestCutIndex > -1) {
-        // A cut was found. Return the resulting halves.
-        return chars.cut(bestCutIndex);
       }
+      currentPos = character.getPosition().getRectangle().getMaxX();
     }
-    return Arrays.asList(chars);
+
+    return bestCutIndex > -1 ? from + bestCutIndex : -1;
   }
 
   /**
-   * Takes a set of characters and sweeps the characters in y direction in order
-   * to find a position to cut the characters vertically into a upper half and a
+   * Takes a block of characters and sweeps the characters in y direction in order
+   * to find a position to cut the characters horizontally into a upper half and a
    * lower half. For more details about the approach of the sweep algorithm, see
    * the examples given for xCut().
    * 
@@ -145,89 +198,278 @@ public abstract class XYCut {
    * @param page
    *        The page in which the characters are located.
    * @param chars
-   *        The characters to cut.
-   * @return A list of set of characters. In case of the characters could be
-   *         cut, this list consists of two inner sets, containing the
-   *         characters of the two halves. In case of the characters could not
-   *         be cut, the list consists only of a single set, representing a copy
-   *         of the original set of characters.
+   *        The sorted characters.
+   * @param from
+   *        The start of the block to be cut, inclusive.
+   * @param to
+   *        The end of the block to be cut, exclusive.
+   * @return The position of the best cut in the array of characters sorted by
+   *         maxY (descending), that is: the upper half is given by [from,
+   *         position) and the lower half by [position, to). In case of the
+   *         characters could *not* be cut, -1.
    */
-  protected List<ElementList<Character>> yCut(Document pdf, Page page,
-      ElementList<Character> chars) {
-    if (chars != null && !chars.isEmpty()) {
-      // Sort the characters by minX in order to sweep them in x direction.
-      Collections.sort(chars, Collections.reverseOrder(new MaxYComparator()));
-
-      // The score of the best cut found so far.
-      float bestCutScore = 0;
-      // The index of the best cut found so far.
-      int bestCutIndex = -1;
-      // The current position in the list of characters.
-      float currentPos = chars.get(0).getPosition().getRectangle().getMinY();
-
-      for (int index = 1; index < chars.size(); index++) {
-        Character character = chars.get(index);
-
-        if (character.getPosition().getRectangle().getMaxY() < currentPos) {
-          List<ElementList<Character>> halves = chars.cut(index);
-          // Find the position of the "best" cut.
-          while (index < chars.size()) {
-            float cutScore = assessHorizontalCut(pdf, page, halves);
-
-            if (cutScore < 0) {
-              break;
-            } else if (cutScore > bestCutScore) {
-              bestCutScore = cutScore;
-              bestCutIndex = index;
-            }
-            halves = chars.cut(++index);
+  protected int yCut(Document pdf, Page page, SortedCharacters chars, int from, int to) {
+    if (from >= to) {
+      return -1;
+    }
+
+    // The characters, sorted by maxY in order to sweep them in y direction.
+    Character[] sorted = chars.sortByMaxY(from, to);
+
+    // The score of the best cut found so far.
+    float bestCutScore = 0;
+    // The index of the best cut found so far.
+    int bestCutIndex = -1;
+    // The current position in the list of characters.
+    float currentPos = sorted[0].getPosition().getRectangle().getMinY();
+    // The statistics about the halves of all possible cuts.
+    SweepStatistic stats = new SweepStatistic(sorted);
+
+    for (int index = 1; index < sorted.length; index++) {
+      Character character = sorted[index];
+
+      if (character.getPosition().getRectangle().getMaxY() < currentPos) {
+        // Find the position of the "best" cut.
+        while (index < sorted.length) {
+          float cutScore = assessHorizontalCut(pdf, page, stats, index);
+
+          if (cutScore < 0) {
+            break;
+          } else if (cutScore > bestCutScore) {
+            bestCutScore = cutScore;
+            bestCutIndex = index;
           }
+          index++;
         }
-        currentPos = character.getPosition().getRectangle().getMinY();
       }
+      currentPos = character.getPosition().getRectangle().getMinY();
+    }
+
+    return bestCutIndex > -1 ? from + bestCutIndex : -1;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * A task that cuts the characters in a block [from, to) into blocks of type T, and cuts the
+   * sub-blocks resulting from a cut in parallel. The two sub-blocks of a cut are disjoint ranges
+   * of the sorted characters, so they can be processed independently. The blocks computed for
+   * the first sub-block always precede the blocks computed for the second sub-block in the
+   * result, so the order of the blocks is the same as on cutting sequentially.
+   *
+   * @author Claudius Korzen
+   */
+  protected class CutTask extends RecursiveTask<List<ElementList<Character>>> {
+    /**
+     * The serial id.
+     */
+    protected static final long serialVersionUID = 6395842611853447391L;
+
+    /**
+     * The PDF document to which the characters belong to.
+     */
+    protected final Document pdf;
+
+    /**
+     * The page in which the characters are located.
+     */
+    protected final Page page;
+
+    /**
+     * The sorted characters.
+     */
+    protected final SortedCharacters chars;
 
-      if (bestCutIndex > -1) {
-        // A cut was found. Return the resulting halves.
-        return chars.cut(bestCutIndex);
+    /**
+     * The start of the block to be cut, inclusive.
+     */
+    protected final int from;
+
+    /**
+     * The end of the block to be cut, exclusive.
+     */
+    protected final int to;
+
+    /**
+     * The boolean flag that indicates whether the block results from a vertical cut and should
+     * be cut horizontally first.
+     */
+    protected final boolean isCutHorizontallyFirst;
+
+    /**
+     * Creates a new task that cuts the given block.
+     *
+     * @param pdf
+     *        The PDF document to which the characters belong to.
+     * @param page
+     *        The page in which the characters are located.
+     * @param chars
+     *        The sorted characters.
+     * @param from
+     *        The start of the block to be cut, inclusive.
+     * @param to
+     *        The end of the block to be cut, exclusive.
+     */
+    protected CutTask(Document pdf, Page page, SortedCharacters chars, int from, int to) {
+      this(pdf, page, chars, from, to, false);
+    }
+
+    /**
+     * Creates a new task that cuts the given block.
+     *
+     * @param pdf
+     *        The PDF document to which the characters belong to.
+     * @param page
+     *        The page in which the characters are located.
+     * @param chars
+     *        The sorted characters.
+     * @param from
+     *        The start of the block to be cut, inclusive.
+     * @param to
+     *        The end of the block to be cut, exclusive.
+     * @param isCutHorizontallyFirst
+     *        The boolean flag that indicates whether the block should be cut horizontally first.
+     */
+    protected CutTask(Document pdf, Page page, SortedCharacters chars, int from, int to,
+        boolean isCutHorizontallyFirst) {
+      this.pdf = pdf;
+      this.page = page;
+      this.chars = chars;
+      this.from = from;
+      this.to = to;
+      this.isCutHorizontallyFirst = isCutHorizontallyFirst;
+    }
+
+    @Override
+    protected List<ElementList<Character>> compute() {
+      List<ElementList<Character>> target = new ArrayList<>();
+
+      // Cut small blocks sequentially, the overhead of forking would outweigh the gain.
+      if (this.to - this.from < parallelismThreshold) {
+        if (this.isCutHorizontallyFirst) {
+          cutHorizontally(this.pdf, this.page, this.chars, this.from, this.to, target);
+        } else {
+          cut(this.pdf, this.page, this.chars, this.from, this.to, target);
+        }
+        return target;
       }
+
+      if (this.isCutHorizontallyFirst) {
+        int yCutIndex = yCut(this.pdf, this.page, this.chars, this.from, this.to);
+        if (yCutIndex >= 0) {
+          this.chars.split(this.from, yCutIndex, this.to);
+          return cutInParallel(yCutIndex, false);
+        }
+      }
+
+      // Cut the characters vertically (x-cut).
+      int xCutIndex = xCut(this.pdf, this.page, this.chars, this.from, this.to);
+      if (xCutIndex >= 0) {
+        this.chars.split(this.from, xCutIndex, this.to);
+        return cutInParallel(xCutIndex, true);
+      }
+
+      // Cut the characters horizontally (y-cut).
+      int yCutIndex = yCut(this.pdf, this.page, this.chars, this.from, this.to);
+      if (yCutIndex >= 0) {
+        this.chars.split(this.from, yCutIndex, this.to);
+        return cutInParallel(yCutIndex, false);
+      }
+
+      // The characters could *not* be cut.
+      target.add(this.chars.getBlock(this.from, this.to));
+      return target;
+    }
+
+    /**
+     * Cuts the two sub-blocks [from, index) and [index, to) in parallel.
+     *
+     * @param index
+     *        The position of the cut.
+     * @param isCutHorizontallyFirst
+     *        The boolean flag that indicates whether the sub-blocks should be cut horizontally
+     *        first.
+     *
+     * @return The blocks of the first sub-block, followed by the blocks of the second sub-block.
+     */
+    protected List<ElementList<Character>> cutInParallel(int index,
+        boolean isCutHorizontallyFirst) {
+      CutTask first = new CutTask(this.pdf, this.page, this.chars, this.from, index,
+          isCutHorizontallyFirst);
+      CutTask second = new CutTask(this.pdf, this.page, this.chars, index, this.to,
+          isCutHorizontallyFirst);
+      second.fork();
+      List<ElementList<Character>> target = first.compute();
+      target.addAll(second.join());
+      return target;
     }
-    return Arrays.asList(chars);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the minimum number of characters a block must have so that the sub-blocks resulting
+   * from a cut are cut in parallel.
+   *
+   * @return The minimum number of characters.
+   */
+  public int getParallelismThreshold() {
+    return this.parallelismThreshold;
+  }
+
+  /**
+   * Sets the minimum number of characters a block must have so that the sub-blocks resulting
+   * from a cut are cut in parallel.
+   *
+   * @param threshold
+   *        The minimum number of characters. Use {@link Integer#MAX_VALUE} to cut all blocks
+   *        sequentially.
+   */
+  public void setParallelismThreshold(int threshold) {
+    this.parallelismThreshold = threshold;
   }
 
   // ==============================================================================================
   // Abstract methods.
 
   /**
-   * Assesses the given vertical cut. Returns a positive score, if the cut is
-   * valid and a negative score if the cut is invalid. The better the cut, the
-   * higher the returned score.
+   * Assesses the vertical cut at the given index, that is: the cut into a left
+   * half [0, index) and a right half [index, n) of the characters sorted by
+   * minX. Returns a positive score, if the cut is valid and a negative score if
+   * the cut is invalid. The better the cut, the higher the returned score.
    * 
    * @param pdf
    *        The PDF document to which the characters belong to.
    * @param page
    *        The page in which the characters are located.
-   * @param halves
-   *        The characters of the two halves.
+   * @param stats
+   *        The statistics about the halves of all possible cuts.
+   * @param index
+   *        The index of the cut.
    * @return A score that assesses the given cut.
    */
   public abstract float assessVerticalCut(Document pdf, Page page,
-      List<ElementList<Character>> halves);
+      SweepStatistic stats, int index);
 
   /**
-   * Assesses the given horizontal cut. Returns a positive score, if the cut is
-   * valid and a negative score if the cut is invalid. The better the cut, the
-   * higher the returned score.
+   * Assesses the horizontal cut at the given index, that is: the cut into an
+   * upper half [0, index) and a lower half [index, n) of the characters sorted
+   * by maxY in descending order. Returns a positive score, if the cut is valid
+   * and a negative score if the cut is invalid. The better the cut, the higher
+   * the returned score.
    * 
    * @param pdf
    *        The PDF document to which the characters belong to.
    * @param page
    *        The page in which the characters are located.
-   * @param halves
-   *        The characters of the two halves.
+   * @param stats
+   *        The statistics about the halves of all possible cuts.
+   * @param index
+   *        The index of the cut.
    * @return A score that assesses the given cut.
    */
   public abstract float assessHorizontalCut(Document pdf, Page page,
-      List<ElementList<Character>> halves);
+      SweepStatistic stats, int index);
 
   // /**
   // * Packs the given characters into the target type.
@@ -0,0 +1,156 @@
+package pdfact.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * A class that creates PDF documents in memory, for the tests that need a PDF document with a
+ * certain structure instead of a real-world PDF file from the test resources.
+ *
+ * @author Claudius Korzen
+ */
+public class PdfFactory {
+  /**
+   * Creates a PDF document with the given number of pages and returns its content.
+   *
+   * @param numPages
+   *        The number of pages to create.
+   * @param writer
+   *        The writer that writes the content stream of each page.
+   *
+   * @return The content of the PDF document.
+   *
+   * @throws IOException
+   *         If creating the PDF document failed.
+   */
+  public static byte[] createPdf(int numPages, PageWriter writer) throws IOException {
+    return createPdf(numPages, (document, page, pageIndex) -> {
+      try (PDPageContentStream stream = new PDPageContentStream(document, page)) {
+        writer.write(stream, pageIndex);
+      }
+    });
+  }
+
+  /**
+   * Creates a PDF document with the given number of pages and returns its content.
+   *
+   * @param numPages
+   *        The number of pages to create.
+   * @param creator
+   *        The creator that fills each page, for example with resources and a content stream.
+   *
+   * @return The content of the PDF document.
+   *
+   * @throws IOException
+   *         If creating the PDF document failed.
+   */
+  public static byte[] createPdf(int numPages, PageCreator creator) throws IOException {
+    try (PDDocument document = new PDDocument()) {
+      for (int i = 0; i < numPages; i++) {
+        PDPage page = new PDPage();
+        document.addPage(page);
+        creator.create(document, page, i);
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      document.save(out);
+      return out.toByteArray();
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Writes the given PDF operators to the given stream, for example to the contents of a page
+   * or of a form XObject.
+   *
+   * @param stream
+   *        The stream to write to.
+   * @param operators
+   *        The PDF operators, as they appear in a content stream.
+   *
+   * @throws IOException
+   *         If writing the operators failed.
+   */
+  public static void writeOperators(PDStream stream, String operators) throws IOException {
+    try (OutputStream out = stream.createOutputStream()) {
+      out.write(operators.getBytes(StandardCharsets.US_ASCII));
+    }
+  }
+
+  /**
+   * Shows the given text at the given position.
+   *
+   * @param stream
+   *        The content stream of the page.
+   * @param font
+   *        The font of the text.
+   * @param fontSize
+   *        The font size of the text.
+   * @param x
+   *        The x-coordinate of the start of the baseline.
+   * @param y
+   *        The y-coordinate of the baseline.
+   * @param text
+   *        The text to show.
+   *
+   * @throws IOException
+   *         If writing to the content stream failed.
+   */
+  public static void showText(PDPageContentStream stream, PDFont font, float fontSize, float x,
+      float y, String text) throws IOException {
+    stream.beginText();
+    stream.setFont(font, fontSize);
+    stream.newLineAtOffset(x, y);
+    stream.showText(text);
+    stream.endText();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * A writer that writes the content stream of a page.
+   */
+  @FunctionalInterface
+  public interface PageWriter {
+    /**
+     * Writes the content stream of the page with the given index.
+     *
+     * @param stream
+     *        The content stream of the page.
+     * @param pageIndex
+     *        The 0-based index of the page.
+     *
+     * @throws IOException
+     *         If writing to the content stream failed.
+     */
+    void write(PDPageContentStream stream, int pageIndex) throws IOException;
+  }
+
+  /**
+   * A creator that fills a page of a PDF document.
+   */
+  @FunctionalInterface
+  public interface PageCreator {
+    /**
+     * Fills the page with the given index.
+     *
+     * @param document
+     *        The PDF document.
+     * @param page
+     *        The page to fill.
+     * @param pageIndex
+     *        The 0-based index of the page.
+     *
+     * @throws IOException
+     *         If filling the page failed.
+     */
+    void create(PDDocument document, PDPage page, int pageIndex) throws IOException;
+  }
+}
@@ -0,0 +1,166 @@
+package pdfact.core.pipes.parse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pdfact.core.PdfFactory;
+import pdfact.core.model.CharacterStatistic;
+import pdfact.core.model.Document;
+import pdfact.core.model.FontFace;
+import pdfact.core.model.Page;
+import pdfact.core.util.PageRange;
+import pdfact.core.util.exception.PdfActException;
+import pdfact.core.util.statistician.CharacterStatistician;
+
+/**
+ * A class that tests that parsing only selected pages of a PDF document results in the same pages
+ * as parsing all pages, and that the statistics of the document are computed over the selected
+ * pages only.
+ */
+public class PlainParseDocumentPipePageRangeTest {
+  /**
+   * The number of pages of the PDF document to examine in this test.
+   */
+  protected static final int NUM_PAGES = 6;
+
+  /**
+   * The ranges of the pages to parse.
+   */
+  protected static final List<PageRange> PAGE_RANGES = PageRange.fromStrings("2-3", "5-");
+
+  /**
+   * The numbers of the pages selected by the page ranges.
+   */
+  protected static final List<Integer> SELECTED_PAGE_NUMBERS = Arrays.asList(2, 3, 5, 6);
+
+  /**
+   * The content of the PDF document.
+   */
+  protected static byte[] content;
+
+  /**
+   * The document with all pages parsed.
+   */
+  protected static Document fullDoc;
+
+  /**
+   * Creates the PDF document and parses all of its pages.
+   */
+  @BeforeClass
+  public static void setup() throws IOException, PdfActException {
+    content = createPdf();
+    fullDoc = new PlainParseDocumentPipe(1).execute(new Document(content));
+  }
+
+  /**
+   * Creates a PDF document whose pages differ in their fonts, font sizes and positions of the
+   * text. Most of the characters are on the first page, which is not selected.
+   */
+  protected static byte[] createPdf() throws IOException {
+    return PdfFactory.createPdf(NUM_PAGES, (stream, pageIndex) -> {
+      int i = pageIndex + 1;
+      int numLines = i == 1 ? 30 : (i == 5 ? 20 : 5);
+      for (int j = 0; j < numLines; j++) {
+        PDType1Font font = i % 2 == 0 ? PDType1Font.HELVETICA : PDType1Font.TIMES_ROMAN;
+        PdfFactory.showText(stream, font, 6 + 2 * i, 20 + 10 * i, 750 - 10 * i - 20 * j,
+            "Line " + j + " of page " + i);
+      }
+    });
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Tests parsing the selected pages sequentially.
+   */
+  @Test
+  public void testSequential() throws PdfActException {
+    assertSelectedPages(parse(1));
+  }
+
+  /**
+   * Tests parsing the selected pages in parallel.
+   */
+  @Test
+  public void testParallel() throws PdfActException {
+    assertSelectedPages(parse(4));
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Parses the selected pages of the PDF document with the given number of threads.
+   */
+  protected static Document parse(int numThreads) throws PdfActException {
+    PlainParseDocumentPipe pipe = new PlainParseDocumentPipe(numThreads);
+    pipe.setPageRanges(PAGE_RANGES);
+    return pipe.execute(new Document(content));
+  }
+
+  /**
+   * Asserts that the given document consists of the selected pages only, and that its statistics
+   * are the statistics of the selected pages.
+   */
+  protected static void assertSelectedPages(Document doc) {
+    List<Page> expectedPages = new ArrayList<>();
+    for (Page page : fullDoc.getPages()) {
+      if (SELECTED_PAGE_NUMBERS.contains(page.getPageNumber())) {
+        expectedPages.add(page);
+      }
+    }
+
+    List<Page> pages = doc.getPages();
+    assertEquals(SELECTED_PAGE_NUMBERS.size(), pages.size());
+    for (int i = 0; i < pages.size(); i++) {
+      Page expected = expectedPages.get(i);
+      Page actual = pages.get(i);
+      assertEquals(expected.getPageNumber(), actual.getPageNumber());
+      assertEquals(expected.getCharacters().size(), actual.getCharacters().size());
+      assertStatisticEquals(expected.getCharacterStatistic(), actual.getCharacterStatistic());
+    }
+
+    // The statistics of the document are the statistics of the selected pages.
+    CharacterStatistic expected = new CharacterStatistician().aggregate(expectedPages);
+    CharacterStatistic actual = doc.getCharacterStatistic();
+    assertStatisticEquals(expected, actual);
+
+    // Ensure that the statistics differ from the statistics of all pages.
+    CharacterStatistic full = fullDoc.getCharacterStatistic();
+    assertNotEquals(full.getMostCommonHeight(), actual.getMostCommonHeight(), 0);
+    assertNotEquals(full.getAverageFontsize(), actual.getAverageFontsize(), 0);
+    assertNotEquals(full.getSmallestMinX(), actual.getSmallestMinX(), 0);
+    assertNotEquals(toString(full.getMostCommonFontFace()),
+        toString(actual.getMostCommonFontFace()));
+  }
+
+  /**
+   * Asserts that the given character statistics are the same.
+   */
+  protected static void assertStatisticEquals(CharacterStatistic expected,
+      CharacterStatistic actual) {
+    assertEquals(toString(expected.getMostCommonFontFace()),
+        toString(actual.getMostCommonFontFace()));
+    assertEquals(expected.getFontFaceFrequencies().size(), actual.getFontFaceFrequencies().size());
+    assertEquals(expected.getMostCommonHeight(), actual.getMostCommonHeight(), 0);
+    assertEquals(expected.getMostCommonWidth(), actual.getMostCommonWidth(), 0);
+    assertEquals(expected.getAverageFontsize(), actual.getAverageFontsize(), 0);
+    assertEquals(expected.getSmallestMinX(), actual.getSmallestMinX(), 0);
+    assertEquals(expected.getSmallestMinY(), actual.getSmallestMinY(), 0);
+    assertEquals(expected.getLargestMaxX(), actual.getLargestMaxX(), 0);
+    assertEquals(expected.getLargestMaxY(), actual.getLargestMaxY(), 0);
+  }
+
+  /**
+   * Returns a string representation of the given font face. The ids of the fonts depend on the
+   * parsed pages, so the name of the font is used instead.
+   */
+  protected static String toString(FontFace fontFace) {
+    return fontFace.getFont().getBaseName() + "@" + fontFace.getFontSize();
+  }
+}
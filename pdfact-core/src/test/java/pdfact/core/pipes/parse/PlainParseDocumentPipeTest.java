@@ -0,0 +1,217 @@
+package pdfact.core.pipes.parse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pdfact.core.PdfFactory;
+import pdfact.core.model.Character;
+import pdfact.core.model.CharacterStatistic;
+import pdfact.core.model.Color;
+import pdfact.core.model.Document;
+import pdfact.core.model.FontFace;
+import pdfact.core.model.Page;
+import pdfact.core.model.Shape;
+import pdfact.core.util.exception.PdfActException;
+
+/**
+ * A class that tests that parsing the pages of a PDF document in parallel results in the same
+ * elements as parsing the pages sequentially.
+ */
+public class PlainParseDocumentPipeTest {
+  /**
+   * The number of pages of the PDF document to examine in this test.
+   */
+  protected static final int NUM_PAGES = 12;
+
+  /**
+   * The fonts used in the PDF document.
+   */
+  protected static final PDType1Font[] FONTS = { PDType1Font.HELVETICA, PDType1Font.TIMES_ROMAN,
+      PDType1Font.COURIER_BOLD, PDType1Font.HELVETICA_OBLIQUE };
+
+  /**
+   * The colors used in the PDF document.
+   */
+  protected static final int[][] COLORS = { { 0, 0, 0 }, { 255, 0, 0 }, { 0, 0, 255 },
+      { 0, 128, 0 }, { 128, 128, 128 } };
+
+  /**
+   * The content of the PDF document.
+   */
+  protected static byte[] content;
+
+  /**
+   * The document parsed sequentially.
+   */
+  protected static Document sequentialDoc;
+
+  /**
+   * The document parsed in parallel.
+   */
+  protected static Document parallelDoc;
+
+  /**
+   * Creates the PDF document and parses it sequentially and in parallel.
+   */
+  @BeforeClass
+  public static void setup() throws IOException, PdfActException {
+    content = createPdf();
+    sequentialDoc = new PlainParseDocumentPipe(1).execute(new Document(content));
+    parallelDoc = new PlainParseDocumentPipe(4).execute(new Document(content));
+  }
+
+  /**
+   * Creates a PDF document whose pages introduce new fonts and colors, so that the fonts and
+   * colors are registered in the order of the pages.
+   */
+  protected static byte[] createPdf() throws IOException {
+    return PdfFactory.createPdf(NUM_PAGES, (stream, i) -> {
+      for (int j = 0; j < 10; j++) {
+        // The first pages use only some of the fonts and colors.
+        int[] color = COLORS[(i * j) % Math.min(COLORS.length, i + 1)];
+        stream.setNonStrokingColor(color[0], color[1], color[2]);
+        PDType1Font font = FONTS[(i + j) % Math.min(FONTS.length, i + 1)];
+        // Two lines per color have the same number of characters, to provoke ties on computing
+        // the most common color.
+        PdfFactory.showText(stream, font, 8 + (i + j) % 4, 50, 700 - 20 * j,
+            "Page " + i + " line " + (j % 2));
+      }
+      int[] color = COLORS[i % COLORS.length];
+      stream.setNonStrokingColor(color[0], color[1], color[2]);
+      stream.addRect(50, 100, 100 + i, 50);
+      stream.fill();
+    });
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Tests that the characters have the same texts, extraction ranks, fonts and colors.
+   */
+  @Test
+  public void testCharacters() {
+    List<Character> sequential = getCharacters(sequentialDoc);
+    List<Character> parallel = getCharacters(parallelDoc);
+    assertEquals(sequential.size(), parallel.size());
+    for (int i = 0; i < sequential.size(); i++) {
+      Character expected = sequential.get(i);
+      Character actual = parallel.get(i);
+      assertEquals(expected.getText(), actual.getText());
+      assertEquals(expected.getExtractionRank(), actual.getExtractionRank());
+      assertEquals(toString(expected.getFontFace()), toString(actual.getFontFace()));
+      assertEquals(toString(expected.getColor()), toString(actual.getColor()));
+      assertEquals(expected.getPosition().getPageNumber(), actual.getPosition().getPageNumber());
+    }
+  }
+
+  /**
+   * Tests that the shapes have the same colors.
+   */
+  @Test
+  public void testShapes() {
+    List<Shape> sequential = getShapes(sequentialDoc);
+    List<Shape> parallel = getShapes(parallelDoc);
+    assertEquals(sequential.size(), parallel.size());
+    for (int i = 0; i < sequential.size(); i++) {
+      assertEquals(toString(sequential.get(i).getColor()), toString(parallel.get(i).getColor()));
+    }
+  }
+
+  /**
+   * Tests that the character statistics of the pages and of the document are the same.
+   */
+  @Test
+  public void testCharacterStatistics() {
+    List<Page> sequential = sequentialDoc.getPages();
+    List<Page> parallel = parallelDoc.getPages();
+    assertEquals(NUM_PAGES, sequential.size());
+    assertEquals(NUM_PAGES, parallel.size());
+    for (int i = 0; i < NUM_PAGES; i++) {
+      assertEquals(sequential.get(i).getPageNumber(), parallel.get(i).getPageNumber());
+      assertStatisticEquals(sequential.get(i).getCharacterStatistic(),
+          parallel.get(i).getCharacterStatistic());
+    }
+    assertStatisticEquals(sequentialDoc.getCharacterStatistic(),
+        parallelDoc.getCharacterStatistic());
+  }
+
+  /**
+   * Tests that the page consumer is called by the thread that parses the document, in page order,
+   * on parsing the pages in parallel.
+   */
+  @Test
+  public void testPageConsumer() throws PdfActException {
+    List<Thread> threads = new ArrayList<>();
+    List<Integer> pageNumbers = new ArrayList<>();
+    new PlainParseDocumentPipe(4).execute(new Document(content), page -> {
+      threads.add(Thread.currentThread());
+      pageNumbers.add(page.getPageNumber());
+    });
+
+    assertEquals(NUM_PAGES, pageNumbers.size());
+    for (int i = 0; i < NUM_PAGES; i++) {
+      assertEquals(i + 1, (int) pageNumbers.get(i));
+      assertSame(Thread.currentThread(), threads.get(i));
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns the characters of all pages of the given document.
+   */
+  protected static List<Character> getCharacters(Document doc) {
+    List<Character> characters = new ArrayList<>();
+    for (Page page : doc.getPages()) {
+      characters.addAll(page.getCharacters());
+    }
+    return characters;
+  }
+
+  /**
+   * Returns the shapes of all pages of the given document.
+   */
+  protected static List<Shape> getShapes(Document doc) {
+    List<Shape> shapes = new ArrayList<>();
+    for (Page page : doc.getPages()) {
+      shapes.addAll(page.getShapes());
+    }
+    return shapes;
+  }
+
+  /**
+   * Asserts that the given character statistics are the same.
+   */
+  protected static void assertStatisticEquals(CharacterStatistic expected,
+      CharacterStatistic actual) {
+    assertEquals(toString(expected.getMostCommonFontFace()),
+        toString(actual.getMostCommonFontFace()));
+    assertEquals(toString(expected.getMostCommonColor()), toString(actual.getMostCommonColor()));
+    assertEquals(expected.getFontFaceFrequencies().size(), actual.getFontFaceFrequencies().size());
+    assertEquals(expected.getColorFrequencies().size(), actual.getColorFrequencies().size());
+    assertEquals(expected.getMostCommonHeight(), actual.getMostCommonHeight(), 0);
+    assertEquals(expected.getMostCommonWidth(), actual.getMostCommonWidth(), 0);
+    assertEquals(expected.getAverageFontsize(), actual.getAverageFontsize(), 0);
+    assertEquals(expected.getSmallestMinX(), actual.getSmallestMinX(), 0);
+    assertEquals(expected.getLargestMaxY(), actual.getLargestMaxY(), 0);
+  }
+
+  /**
+   * Returns a string representation of the given font face, including the id of its font.
+   */
+  protected static String toString(FontFace fontFace) {
+    return fontFace.getFont().getId() + "@" + fontFace.getFontSize();
+  }
+
+  /**
+   * Returns a string representation of the given color, including its id.
+   */
+  protected static String toString(Color color) {
+    return color.getId() + color;
+  }
+}
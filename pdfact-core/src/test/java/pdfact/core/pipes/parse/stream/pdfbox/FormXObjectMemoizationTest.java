@@ -0,0 +1,282 @@
+package pdfact.core.pipes.parse.stream.pdfbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pdfact.core.PdfFactory;
+import pdfact.core.model.Character;
+import pdfact.core.model.Document;
+import pdfact.core.model.Figure;
+import pdfact.core.model.Page;
+import pdfact.core.model.Position;
+import pdfact.core.model.Shape;
+import pdfact.core.util.exception.PdfActException;
+
+/**
+ * A class that tests that memoizing the elements of form XObjects results in the same elements
+ * as interpreting the form XObjects on each draw.
+ */
+public class FormXObjectMemoizationTest {
+  /**
+   * The number of pages of the PDF document to examine in this test.
+   */
+  protected static final int NUM_PAGES = 4;
+
+  /**
+   * The content of the PDF document.
+   */
+  protected static byte[] content;
+
+  /**
+   * The parser with memoization of form XObjects.
+   */
+  protected static PdfBoxPdfStreamsParser memoizingParser;
+
+  /**
+   * The parser without memoization of form XObjects.
+   */
+  protected static PdfBoxPdfStreamsParser interpretingParser;
+
+  /**
+   * The document parsed with memoization of form XObjects.
+   */
+  protected static Document memoizedDoc;
+
+  /**
+   * The document parsed without memoization of form XObjects.
+   */
+  protected static Document interpretedDoc;
+
+  /**
+   * Creates the PDF document and parses it with and without memoization.
+   */
+  @BeforeClass
+  public static void setup() throws IOException, PdfActException {
+    content = createPdf();
+
+    memoizingParser = new PdfBoxPdfStreamsParser(1);
+    memoizedDoc = new Document(content);
+    memoizingParser.parse(memoizedDoc);
+
+    interpretingParser = new PdfBoxPdfStreamsParser(1);
+    interpretingParser.setIsMemoizingFormXObjects(false);
+    interpretedDoc = new Document(content);
+    interpretingParser.parse(interpretedDoc);
+  }
+
+  /**
+   * Creates a PDF document whose pages draw two form XObjects:
+   *
+   * <ul>
+   * <li>A form with its own text object, a line, a rectangle and an image, drawn twice per page
+   * with the same CTM. It can be replayed on each draw but the first.</li>
+   * <li>A form that shows text in the text object of the page, so it reads the text matrix of the
+   * page. It is drawn twice per page at the same text position (so the second draw can be
+   * replayed), and then once at a text position that differs from page to page (so this draw
+   * can't be replayed).</li>
+   * </ul>
+   */
+  protected static byte[] createPdf() throws IOException {
+    // The forms are shared by all pages, so they are created on filling the first page.
+    PDFormXObject[] forms = new PDFormXObject[2];
+    return PdfFactory.createPdf(NUM_PAGES, (document, page, i) -> {
+      if (i == 0) {
+        forms[0] = createForm(document, "BT /%s 10 Tf 20 20 Td (Form text) Tj ET "
+            + "0 0 1 RG 0 0 m 150 0 l S 1 0 0 rg 5 40 30 10 re f q 40 0 0 40 100 30 cm /%s Do Q");
+        forms[1] = createForm(document, "/%s 10 Tf (Inherited text) Tj");
+      }
+
+      PDResources resources = new PDResources();
+      page.setResources(resources);
+      COSName font = resources.add(PDType1Font.TIMES_ROMAN);
+      COSName form1 = resources.add(forms[0]);
+      COSName form2 = resources.add(forms[1]);
+
+      StringBuilder stream = new StringBuilder();
+      stream.append(String.format("BT /%s 12 Tf 50 750 Td (Page %d) Tj ET ", font.getName(), i));
+      for (int j = 0; j < 2; j++) {
+        stream.append(String.format("q 1 0 0 1 100 600 cm /%s Do Q ", form1.getName()));
+      }
+      for (int j = 0; j < 2; j++) {
+        stream.append(String.format("BT 50 400 Td /%s Do ET ", form2.getName()));
+      }
+      stream.append(String.format("BT 50 %d Td /%s Do ET ", 300 - 10 * i, form2.getName()));
+      stream.append(String.format("BT /%s 12 Tf 50 100 Td (End of page %d) Tj ET", font.getName(),
+          i));
+
+      PDStream contents = new PDStream(document);
+      PdfFactory.writeOperators(contents, stream.toString());
+      page.setContents(contents);
+    });
+  }
+
+  /**
+   * Creates a form XObject with its own resources and the given content.
+   *
+   * @param document
+   *        The PDF document.
+   * @param content
+   *        The content of the form, with placeholders for the names of the font and the image.
+   *
+   * @return The created form XObject.
+   */
+  protected static PDFormXObject createForm(PDDocument document, String content)
+      throws IOException {
+    PDResources resources = new PDResources();
+    COSName font = resources.add(PDType1Font.HELVETICA);
+    COSName image = resources.add(createImage(document));
+
+    PDFormXObject form = new PDFormXObject(document);
+    form.setResources(resources);
+    form.setBBox(new PDRectangle(0, 0, 200, 100));
+    PdfFactory.writeOperators(form.getContentStream(),
+        String.format(content, font.getName(), image.getName()));
+    return form;
+  }
+
+  /**
+   * Creates an image with a color gradient, which is extracted as a figure.
+   *
+   * @param document
+   *        The PDF document.
+   *
+   * @return The created image.
+   */
+  protected static PDImageXObject createImage(PDDocument document) throws IOException {
+    BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+    for (int x = 0; x < 16; x++) {
+      for (int y = 0; y < 16; y++) {
+        image.setRGB(x, y, (x * 16 << 16) | (y * 16 << 8) | 128);
+      }
+    }
+    return LosslessFactory.createFromImage(document, image);
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Tests that form XObjects are memoized by default.
+   */
+  @Test
+  public void testDefault() {
+    assertTrue(new PdfBoxPdfStreamsParser().isMemoizingFormXObjects());
+    assertFalse(interpretingParser.isMemoizingFormXObjects());
+  }
+
+  /**
+   * Tests that the form XObjects are replayed exactly on the draws in a state that allows to
+   * replay them.
+   */
+  @Test
+  public void testReplays() {
+    // The first form is replayed on each draw but the first. The second form is replayed on the
+    // second draw at the same text position on each page. It is not replayed on the first draw
+    // on each page (because it was recorded at another text position on the page before, except
+    // on the first page) and on the draw at the text position that differs from page to page.
+    int numFirstFormReplays = 2 * NUM_PAGES - 1;
+    int numSecondFormReplays = NUM_PAGES;
+    assertEquals(numFirstFormReplays + numSecondFormReplays,
+        memoizingParser.getNumFormXObjectCacheHits());
+    // The first form is recorded once, the second form twice per page.
+    assertEquals(1 + 2 * NUM_PAGES, memoizingParser.getNumFormXObjectCacheMisses());
+    assertEquals(0, interpretingParser.getNumFormXObjectCacheHits());
+    assertEquals(0, interpretingParser.getNumFormXObjectCacheMisses());
+  }
+
+  /**
+   * Tests that the characters are the same.
+   */
+  @Test
+  public void testCharacters() {
+    List<Page> memoizedPages = memoizedDoc.getPages();
+    List<Page> interpretedPages = interpretedDoc.getPages();
+    assertEquals(NUM_PAGES, memoizedPages.size());
+    assertEquals(NUM_PAGES, interpretedPages.size());
+    for (int i = 0; i < NUM_PAGES; i++) {
+      List<String> expected = new ArrayList<>();
+      for (Character c : interpretedPages.get(i).getCharacters()) {
+        expected.add(toString(c));
+      }
+      List<String> actual = new ArrayList<>();
+      for (Character c : memoizedPages.get(i).getCharacters()) {
+        actual.add(toString(c));
+      }
+      assertTrue(expected.size() > 0);
+      assertEquals(expected, actual);
+    }
+  }
+
+  /**
+   * Tests that the shapes are the same.
+   */
+  @Test
+  public void testShapes() {
+    for (int i = 0; i < NUM_PAGES; i++) {
+      List<String> expected = new ArrayList<>();
+      for (Shape shape : interpretedDoc.getPages().get(i).getShapes()) {
+        expected.add(toString(shape.getPosition()) + " " + shape.getColor().getId()
+            + shape.getColor());
+      }
+      List<String> actual = new ArrayList<>();
+      for (Shape shape : memoizedDoc.getPages().get(i).getShapes()) {
+        actual.add(toString(shape.getPosition()) + " " + shape.getColor().getId()
+            + shape.getColor());
+      }
+      assertTrue(expected.size() > 0);
+      assertEquals(expected, actual);
+    }
+  }
+
+  /**
+   * Tests that the figures are the same.
+   */
+  @Test
+  public void testFigures() {
+    for (int i = 0; i < NUM_PAGES; i++) {
+      List<String> expected = new ArrayList<>();
+      for (Figure figure : interpretedDoc.getPages().get(i).getFigures()) {
+        expected.add(toString(figure.getPosition()));
+      }
+      List<String> actual = new ArrayList<>();
+      for (Figure figure : memoizedDoc.getPages().get(i).getFigures()) {
+        actual.add(toString(figure.getPosition()));
+      }
+      assertTrue(expected.size() > 0);
+      assertEquals(expected, actual);
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Returns a string representation of the given character, including its extraction rank, its
+   * position, its font face and its color.
+   */
+  protected static String toString(Character c) {
+    return c.getExtractionRank() + " " + c.getText() + " " + toString(c.getPosition()) + " "
+        + c.getFontFace().getFont().getId() + "@" + c.getFontFace().getFontSize() + " "
+        + c.getColor().getId() + c.getColor();
+  }
+
+  /**
+   * Returns a string representation of the given position, including the page number.
+   */
+  protected static String toString(Position position) {
+    return position.getPageNumber() + ":" + position.getRectangle();
+  }
+}
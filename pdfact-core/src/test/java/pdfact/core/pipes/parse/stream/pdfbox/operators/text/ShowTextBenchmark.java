@@ -0,0 +1,206 @@
+package pdfact.core.pipes.parse.stream.pdfbox.operators.text;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.state.PDTextState;
+import org.apache.pdfbox.util.Matrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pdfact.core.model.Point;
+import pdfact.core.model.Rectangle;
+import pdfact.core.pipes.parse.stream.pdfbox.PdfBoxPdfStreamsParser;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.PdfBoxMatrixUtils;
+
+/**
+ * A JMH benchmark that measures the affine math done by {@link ShowText} per glyph: computing the
+ * text rendering matrix, transforming the bounding box of the glyph to device space, computing
+ * the bounding box of the glyph by the method of PdfBox and advancing the text matrix. The
+ * benchmark {@link #glyph()} runs the math on primitive float arrays, the benchmark
+ * {@link #matrixGlyph()} runs the same math on PdfBox's {@link Matrix} objects, for comparison.
+ *
+ * The benchmark is not run by the test phase; run it via {@link #main(String[])} with the test
+ * classpath of this module. The allocated bytes per glyph are reported as "gc.alloc.rate.norm".
+ *
+ * @author Claudius Korzen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShowTextBenchmark {
+  /**
+   * The character code of the glyph to show.
+   */
+  protected static final int CODE = 'g';
+
+  /**
+   * The stream engine.
+   */
+  protected BenchmarkEngine engine;
+
+  /**
+   * The processor to benchmark.
+   */
+  protected ShowText showText;
+
+  /**
+   * The font of the glyph.
+   */
+  protected PDFont font;
+
+  /**
+   * The text state parameters in matrix form.
+   */
+  protected float[] params;
+
+  /**
+   * The text rendering matrix.
+   */
+  protected float[] trm;
+
+  /**
+   * The bounding box of the glyph.
+   */
+  protected float[] bounds;
+
+  /**
+   * The bounding box of the glyph by the method of PdfBox.
+   */
+  protected float[] pdfBoxBounds;
+
+  /**
+   * The horizontal displacement of the glyph, in text space.
+   */
+  protected float tx;
+
+  /**
+   * Creates the engine and the processor.
+   *
+   * @throws IOException
+   *         If the displacement of the glyph could not be computed.
+   */
+  @Setup
+  public void setup() throws IOException {
+    this.engine = new BenchmarkEngine();
+    this.showText = new ShowText();
+    this.showText.setStreamEngine(this.engine);
+    this.font = PDType1Font.HELVETICA;
+    this.params = PdfBoxMatrixUtils.newMatrix();
+    PdfBoxMatrixUtils.setValues(this.params, 10, 0, 0, 10, 0, 0);
+    this.trm = PdfBoxMatrixUtils.newMatrix();
+    this.bounds = new float[4];
+    this.pdfBoxBounds = new float[4];
+    this.tx = this.font.getDisplacement(CODE).getX() * 10;
+  }
+
+  /**
+   * Starts a new page, with a text matrix at the origin and a CTM that scales and translates.
+   */
+  @Setup(Level.Iteration)
+  public void setupPage() {
+    this.engine.beginPage(new PDPage());
+    this.engine.getCurrentTransformationMatrix().concatenate(new Matrix(1.5f, 0, 0, 1.5f, 20, 30));
+    this.engine.setTextMatrix(new Matrix());
+
+    PDTextState textState = this.engine.getGraphicsState().getTextState();
+    textState.setFont(this.font);
+    textState.setFontSize(10);
+  }
+
+  /**
+   * Runs the affine math of a single glyph on primitive float arrays.
+   *
+   * @return The minX value of the bounding box (to prevent dead code elimination).
+   *
+   * @throws IOException
+   *         If the bounding box could not be computed.
+   */
+  @Benchmark
+  public float glyph() throws IOException {
+    this.showText.computeTextRenderingMatrix(this.params, CODE, this.font, this.trm);
+    this.showText.transformBoundingBox(0, -200, 500, 700, this.font, this.trm, this.bounds);
+    this.showText.computePdfBoxGlyphBoundingBox(CODE, this.font, this.trm, this.pdfBoxBounds);
+    this.showText.translateTextMatrix(this.tx, 0);
+    return this.bounds[0] + this.pdfBoxBounds[2];
+  }
+
+  /**
+   * Runs the affine math of a single glyph on PdfBox's matrices, like it was done before the
+   * math was moved to primitive float arrays.
+   *
+   * @return The minX value of the bounding box (to prevent dead code elimination).
+   */
+  @Benchmark
+  public float matrixGlyph() {
+    Matrix params = new Matrix(10, 0, 0, 10, 0, 0);
+    Matrix ctm = this.engine.getCurrentTransformationMatrix();
+    Matrix textMatrix = this.engine.getTextMatrix();
+    Matrix trm = params.multiply(textMatrix).multiply(ctm);
+
+    Point lowerLeft = new Point(0, -200);
+    Point upperRight = new Point(500, 700);
+    this.engine.transform(lowerLeft, this.font.getFontMatrix());
+    this.engine.transform(upperRight, this.font.getFontMatrix());
+    this.engine.transform(lowerLeft, trm);
+    this.engine.transform(upperRight, trm);
+    Rectangle box = new Rectangle(lowerLeft, upperRight);
+
+    Matrix nextTrm = Matrix.getTranslateInstance(this.tx, 0).multiply(textMatrix).multiply(ctm);
+    Rectangle pdfBoxBox = new Rectangle(trm.getTranslateX(), trm.getTranslateY(),
+        nextTrm.getTranslateX(), trm.getTranslateY() + trm.getScalingFactorY());
+
+    textMatrix.concatenate(Matrix.getTranslateInstance(this.tx, 0));
+    return box.getMinX() + pdfBoxBox.getMaxX();
+  }
+
+  /**
+   * Runs the benchmark, with the GC profiler to report the allocated bytes per glyph.
+   *
+   * @param args
+   *        The command line arguments.
+   *
+   * @throws RunnerException
+   *         If the benchmark could not be run.
+   */
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ShowTextBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class).build()).run();
+  }
+
+  // ==============================================================================================
+
+  /**
+   * A stream engine that allows to start a page without parsing a PDF document.
+   *
+   * @author Claudius Korzen
+   */
+  protected static class BenchmarkEngine extends PdfBoxPdfStreamsParser {
+    /**
+     * Starts the given page.
+     *
+     * @param page
+     *        The page to start.
+     */
+    protected void beginPage(PDPage page) {
+      beginPage(page, 1);
+    }
+  }
+}
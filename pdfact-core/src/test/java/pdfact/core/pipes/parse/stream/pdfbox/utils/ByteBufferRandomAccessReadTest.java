@@ -0,0 +1,234 @@
+package pdfact.core.pipes.parse.stream.pdfbox.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A class that tests the {@link ByteBufferRandomAccessRead}.
+ */
+public class ByteBufferRandomAccessReadTest {
+  /**
+   * The bytes to read.
+   */
+  protected static final byte[] BYTES = { 10, 20, 30, 40, (byte) 250 };
+
+  /**
+   * The reader to test.
+   */
+  protected ByteBufferRandomAccessRead reader;
+
+  /**
+   * Creates the reader.
+   */
+  @Before
+  public void setup() {
+    this.reader = new ByteBufferRandomAccessRead(ByteBuffer.wrap(BYTES));
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Tests reading the bytes one by one, until the end of the buffer.
+   */
+  @Test
+  public void testRead() throws IOException {
+    assertEquals(BYTES.length, this.reader.length());
+    assertEquals(10, this.reader.read());
+    assertEquals(20, this.reader.read());
+    assertEquals(2, this.reader.getPosition());
+    assertEquals(3, this.reader.available());
+
+    byte[] bytes = new byte[5];
+    assertEquals(3, this.reader.read(bytes, 1, 4));
+    assertArrayEquals(new byte[] { 0, 30, 40, (byte) 250, 0 }, bytes);
+    assertTrue(this.reader.isEOF());
+    assertEquals(-1, this.reader.read());
+    assertEquals(-1, this.reader.read(bytes));
+    assertEquals(0, this.reader.read(bytes, 0, 0));
+  }
+
+  /**
+   * Tests that the bytes are read unsigned.
+   */
+  @Test
+  public void testReadUnsigned() throws IOException {
+    this.reader.seek(4);
+    assertEquals(250, this.reader.peek());
+    assertEquals(250, this.reader.read());
+  }
+
+  /**
+   * Tests that only the bytes from the position to the limit of the given buffer are read.
+   */
+  @Test
+  public void testReadSlice() throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(BYTES);
+    buffer.position(1);
+    buffer.limit(4);
+    ByteBufferRandomAccessRead slice = new ByteBufferRandomAccessRead(buffer);
+    assertEquals(3, slice.length());
+    assertEquals(0, slice.getPosition());
+    assertArrayEquals(new byte[] { 20, 30, 40 }, slice.readFully(3));
+    assertEquals(-1, slice.read());
+    // The position of the given buffer is not changed.
+    assertEquals(1, buffer.position());
+  }
+
+  /**
+   * Tests that peeking returns the next byte without consuming it.
+   */
+  @Test
+  public void testPeek() throws IOException {
+    assertEquals(10, this.reader.peek());
+    assertEquals(10, this.reader.peek());
+    assertEquals(0, this.reader.getPosition());
+    assertEquals(10, this.reader.read());
+    assertEquals(20, this.reader.peek());
+
+    this.reader.seek(BYTES.length);
+    assertEquals(-1, this.reader.peek());
+  }
+
+  /**
+   * Tests seeking within and beyond the buffer.
+   */
+  @Test
+  public void testSeek() throws IOException {
+    this.reader.seek(3);
+    assertEquals(3, this.reader.getPosition());
+    assertEquals(40, this.reader.read());
+
+    this.reader.seek(0);
+    assertEquals(10, this.reader.read());
+
+    // Seeking beyond the end of the buffer is allowed; the next read returns -1.
+    this.reader.seek(100);
+    assertEquals(BYTES.length, this.reader.getPosition());
+    assertTrue(this.reader.isEOF());
+    assertEquals(0, this.reader.available());
+    assertEquals(-1, this.reader.read());
+  }
+
+  /**
+   * Tests that seeking to a negative position fails.
+   */
+  @Test(expected = IOException.class)
+  public void testSeekNegative() throws IOException {
+    this.reader.seek(-1);
+  }
+
+  /**
+   * Tests rewinding the position.
+   */
+  @Test
+  public void testRewind() throws IOException {
+    this.reader.readFully(4);
+    this.reader.rewind(3);
+    assertEquals(1, this.reader.getPosition());
+    assertEquals(20, this.reader.read());
+
+    // Rewinding at the end of the buffer makes the last bytes readable again.
+    this.reader.seek(100);
+    this.reader.rewind(1);
+    assertFalse(this.reader.isEOF());
+    assertEquals(250, this.reader.read());
+  }
+
+  /**
+   * Tests that rewinding before the start of the buffer fails.
+   */
+  @Test(expected = IOException.class)
+  public void testRewindBeforeStart() throws IOException {
+    this.reader.read();
+    this.reader.rewind(2);
+  }
+
+  /**
+   * Tests reading a given number of bytes.
+   */
+  @Test
+  public void testReadFully() throws IOException {
+    assertArrayEquals(new byte[] { 10, 20 }, this.reader.readFully(2));
+    assertArrayEquals(new byte[] { 30, 40, (byte) 250 }, this.reader.readFully(3));
+    assertArrayEquals(new byte[0], this.reader.readFully(0));
+  }
+
+  /**
+   * Tests that reading more bytes than available fails and doesn't consume any bytes.
+   */
+  @Test
+  public void testReadFullyAtEof() throws IOException {
+    this.reader.seek(3);
+    try {
+      this.reader.readFully(3);
+      fail("Expected an EOFException.");
+    } catch (EOFException e) {
+      // Expected.
+    }
+    assertEquals(3, this.reader.getPosition());
+
+    this.reader.seek(BYTES.length);
+    try {
+      this.reader.readFully(1);
+      fail("Expected an EOFException.");
+    } catch (EOFException e) {
+      // Expected.
+    }
+  }
+
+  /**
+   * Tests that a closed reader can't be used anymore.
+   */
+  @Test
+  public void testClose() throws IOException {
+    assertFalse(this.reader.isClosed());
+    this.reader.close();
+    assertTrue(this.reader.isClosed());
+    // Closing a closed reader is allowed.
+    this.reader.close();
+  }
+
+  /**
+   * Tests that reading from a closed reader fails.
+   */
+  @Test(expected = IOException.class)
+  public void testReadAfterClose() throws IOException {
+    this.reader.close();
+    this.reader.read();
+  }
+
+  /**
+   * Tests that peeking into a closed reader fails.
+   */
+  @Test(expected = IOException.class)
+  public void testPeekAfterClose() throws IOException {
+    this.reader.close();
+    this.reader.peek();
+  }
+
+  /**
+   * Tests that seeking in a closed reader fails.
+   */
+  @Test(expected = IOException.class)
+  public void testSeekAfterClose() throws IOException {
+    this.reader.close();
+    this.reader.seek(0);
+  }
+
+  /**
+   * Tests that reading fully from a closed reader fails.
+   */
+  @Test(expected = IOException.class)
+  public void testReadFullyAfterClose() throws IOException {
+    this.reader.close();
+    this.reader.readFully(1);
+  }
+}
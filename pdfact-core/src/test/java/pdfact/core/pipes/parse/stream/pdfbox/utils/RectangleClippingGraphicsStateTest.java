@@ -0,0 +1,349 @@
+package pdfact.core.pipes.parse.stream.pdfbox.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Rectangle2D;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.state.PDGraphicsState;
+import org.junit.Before;
+import org.junit.Test;
+import pdfact.core.pipes.parse.stream.pdfbox.utils.RectangleClippingGraphicsState.ClippingCounter;
+
+/**
+ * A class that tests the {@link RectangleClippingGraphicsState}.
+ */
+public class RectangleClippingGraphicsStateTest {
+  /**
+   * The bounds of the page.
+   */
+  protected static final PDRectangle PAGE = new PDRectangle(0, 0, 600, 800);
+
+  /**
+   * The counter of the intersections.
+   */
+  protected ClippingCounter counter;
+
+  /**
+   * The graphics state to test.
+   */
+  protected RectangleClippingGraphicsState state;
+
+  /**
+   * The graphics state of PdfBox, to compare the clipping paths with.
+   */
+  protected PDGraphicsState expectedState;
+
+  /**
+   * Creates the graphics states.
+   */
+  @Before
+  public void setup() {
+    this.counter = new ClippingCounter();
+    this.state = new RectangleClippingGraphicsState(PAGE, this.counter);
+    this.expectedState = new PDGraphicsState(PAGE);
+  }
+
+  // ==============================================================================================
+  // Tests of the detection of rectangles.
+
+  /**
+   * Tests that a rectangle closed by a close segment is detected.
+   */
+  @Test
+  public void testRectangleWithCloseSegment() {
+    GeneralPath path = createPath(10, 20, 110, 20, 110, 70, 10, 70);
+    path.closePath();
+    assertEquals(new Rectangle2D.Float(10, 20, 100, 50),
+        RectangleClippingGraphicsState.getRectangle(path));
+  }
+
+  /**
+   * Tests that a rectangle without a close segment is detected.
+   */
+  @Test
+  public void testRectangleWithoutCloseSegment() {
+    GeneralPath path = createPath(10, 20, 110, 20, 110, 70, 10, 70);
+    assertEquals(new Rectangle2D.Float(10, 20, 100, 50),
+        RectangleClippingGraphicsState.getRectangle(path));
+  }
+
+  /**
+   * Tests that a rectangle with an explicit line back to the first point is detected, with and
+   * without a close segment.
+   */
+  @Test
+  public void testRectangleWithClosingLine() {
+    GeneralPath path = createPath(10, 20, 110, 20, 110, 70, 10, 70, 10, 20);
+    assertEquals(new Rectangle2D.Float(10, 20, 100, 50),
+        RectangleClippingGraphicsState.getRectangle(path));
+    path.closePath();
+    assertEquals(new Rectangle2D.Float(10, 20, 100, 50),
+        RectangleClippingGraphicsState.getRectangle(path));
+  }
+
+  /**
+   * Tests that a rectangle is detected independently of its first edge and its orientation.
+   */
+  @Test
+  public void testRectangleOrientations() {
+    Rectangle2D expected = new Rectangle2D.Float(10, 20, 100, 50);
+    // Starting with a vertical edge.
+    assertEquals(expected, RectangleClippingGraphicsState.getRectangle(
+        createPath(10, 20, 10, 70, 110, 70, 110, 20)));
+    // Starting at the upper right corner, clockwise.
+    assertEquals(expected, RectangleClippingGraphicsState.getRectangle(
+        createPath(110, 70, 110, 20, 10, 20, 10, 70)));
+  }
+
+  /**
+   * Tests that paths whose edges don't alternate between horizontal and vertical are rejected.
+   */
+  @Test
+  public void testNonAlternatingEdges() {
+    // A trapezoid.
+    assertNull(RectangleClippingGraphicsState.getRectangle(
+        createPath(10, 20, 110, 20, 90, 70, 30, 70)));
+    // Four points on a line.
+    assertNull(RectangleClippingGraphicsState.getRectangle(
+        createPath(10, 20, 40, 20, 70, 20, 110, 20)));
+    // A horizontal edge followed by a horizontal edge.
+    assertNull(RectangleClippingGraphicsState.getRectangle(
+        createPath(10, 20, 110, 20, 110, 70, 110, 20)));
+  }
+
+  /**
+   * Tests that a path with a second subpath is rejected.
+   */
+  @Test
+  public void testSecondSubpath() {
+    GeneralPath path = createPath(10, 20, 110, 20, 110, 70, 10, 70);
+    path.closePath();
+    path.moveTo(200, 200);
+    path.lineTo(300, 200);
+    path.lineTo(300, 300);
+    path.lineTo(200, 300);
+    path.closePath();
+    assertNull(RectangleClippingGraphicsState.getRectangle(path));
+
+    // A second subpath without a close segment of the first subpath.
+    path = createPath(10, 20, 110, 20, 110, 70, 10, 70);
+    path.moveTo(200, 200);
+    assertNull(RectangleClippingGraphicsState.getRectangle(path));
+  }
+
+  /**
+   * Tests that a rotated rectangle is rejected.
+   */
+  @Test
+  public void testRotatedRectangle() {
+    assertNull(RectangleClippingGraphicsState.getRectangle(createRotatedRectangle()));
+  }
+
+  /**
+   * Tests that paths with too few or too many points, or with curves, are rejected.
+   */
+  @Test
+  public void testOtherPaths() {
+    assertNull(RectangleClippingGraphicsState.getRectangle(new GeneralPath()));
+    assertNull(RectangleClippingGraphicsState.getRectangle(createPath(10, 20, 110, 20, 110, 70)));
+    assertNull(RectangleClippingGraphicsState.getRectangle(
+        createPath(10, 20, 110, 20, 110, 70, 10, 70, 10, 30)));
+
+    GeneralPath path = createPath(10, 20, 110, 20, 110, 70);
+    path.curveTo(80, 80, 40, 80, 10, 70);
+    path.closePath();
+    assertNull(RectangleClippingGraphicsState.getRectangle(path));
+  }
+
+  // ==============================================================================================
+  // Tests of the clipping paths.
+
+  /**
+   * Tests that the clipping path is the page initially.
+   */
+  @Test
+  public void testInitialClippingPath() {
+    assertEquals(new Rectangle2D.Double(0, 0, 600, 800), this.state.getClippingRectangle());
+    assertClippingPath();
+  }
+
+  /**
+   * Tests intersecting the clipping path with rectangles.
+   */
+  @Test
+  public void testRectangularPaths() {
+    intersect(createPath(10, 20, 310, 20, 310, 420, 10, 420));
+    assertEquals(new Rectangle2D.Double(10, 20, 300, 400), this.state.getClippingRectangle());
+
+    intersect(createPath(200, 400, 200, 500, 500, 500, 500, 400));
+    assertEquals(new Rectangle2D.Double(200, 400, 110, 20), this.state.getClippingRectangle());
+
+    intersect(new Area(new Rectangle2D.Float(250, 0, 1000, 1000)));
+    assertEquals(new Rectangle2D.Double(250, 400, 60, 20), this.state.getClippingRectangle());
+
+    assertEquals(3, this.counter.getNumRectangleIntersections());
+    assertEquals(0, this.counter.getNumAreaIntersections());
+  }
+
+  /**
+   * Tests intersecting the clipping path with a rectangle that doesn't intersect it.
+   */
+  @Test
+  public void testDisjointPaths() {
+    intersect(createPath(10, 20, 110, 20, 110, 70, 10, 70));
+    intersect(createPath(200, 200, 300, 200, 300, 300, 200, 300));
+    assertTrue(this.state.getCurrentClippingPath().isEmpty());
+
+    // The clipping path stays empty.
+    intersect(createPath(0, 0, 600, 0, 600, 800, 0, 800));
+    assertTrue(this.state.getCurrentClippingPath().isEmpty());
+    assertEquals(3, this.counter.getNumRectangleIntersections());
+  }
+
+  /**
+   * Tests intersecting the clipping path with a rotated rectangle, which switches the clipping
+   * path from a rectangle to an area.
+   */
+  @Test
+  public void testRotatedPath() {
+    // The rectangle cuts off the left part of the rotated rectangle.
+    intersect(createPath(150, 50, 350, 50, 350, 350, 150, 350));
+    assertNotNull(this.state.getClippingRectangle());
+
+    intersect(createRotatedRectangle());
+    assertNull(this.state.getClippingRectangle());
+    assertEquals(1, this.counter.getNumRectangleIntersections());
+    assertEquals(1, this.counter.getNumAreaIntersections());
+  }
+
+  /**
+   * Tests intersecting the clipping path with a path that is not a rectangle.
+   */
+  @Test
+  public void testNonRectangularPath() {
+    // The rectangle cuts off the left part of the rotated rectangle.
+    intersect(createPath(150, 50, 350, 50, 350, 350, 150, 350));
+    GeneralPath path = createPath(100, 100, 300, 100, 200, 300);
+    path.closePath();
+    intersect(path);
+    assertNull(this.state.getClippingRectangle());
+
+    // Two disjoint rectangles.
+    GeneralPath rectangles = createPath(0, 0, 150, 0, 150, 150, 0, 150);
+    rectangles.closePath();
+    rectangles.append(createPath(200, 200, 400, 200, 400, 400, 200, 400), false);
+    intersect(rectangles);
+    assertEquals(1, this.counter.getNumRectangleIntersections());
+    assertEquals(2, this.counter.getNumAreaIntersections());
+  }
+
+  /**
+   * Tests that the clipping path is intersected as an area after switching from a rectangle to an
+   * area, even if the intersected paths are rectangles.
+   */
+  @Test
+  public void testSwitchFromRectangleToArea() {
+    // The rectangle cuts off the left part of the rotated rectangle.
+    intersect(createPath(150, 50, 350, 50, 350, 350, 150, 350));
+    intersect(createRotatedRectangle());
+    assertNull(this.state.getClippingRectangle());
+
+    intersect(createPath(100, 100, 250, 100, 250, 250, 100, 250));
+    intersect(new Area(new Rectangle2D.Float(150, 0, 1000, 1000)));
+    assertNull(this.state.getClippingRectangle());
+    assertEquals(1, this.counter.getNumRectangleIntersections());
+    assertEquals(3, this.counter.getNumAreaIntersections());
+  }
+
+  /**
+   * Tests that a saved (cloned) graphics state keeps its own clipping path and shares the counter.
+   */
+  @Test
+  public void testClone() {
+    intersect(createPath(50, 50, 350, 50, 350, 350, 50, 350));
+    RectangleClippingGraphicsState saved = (RectangleClippingGraphicsState) this.state.clone();
+
+    intersect(createPath(100, 100, 250, 100, 250, 250, 100, 250));
+    assertEquals(new Rectangle2D.Double(100, 100, 150, 150), this.state.getClippingRectangle());
+    assertEquals(new Rectangle2D.Double(50, 50, 300, 300), saved.getClippingRectangle());
+
+    // Switching the clone to an area doesn't affect the other state.
+    saved.intersectClippingPath(createRotatedRectangle());
+    assertNull(saved.getClippingRectangle());
+    assertEquals(new Rectangle2D.Double(100, 100, 150, 150), this.state.getClippingRectangle());
+    assertEquals(2, this.counter.getNumRectangleIntersections());
+    assertEquals(1, this.counter.getNumAreaIntersections());
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Intersects the clipping paths of both graphics states with the given path and asserts that
+   * the clipping paths are the same.
+   */
+  protected void intersect(GeneralPath path) {
+    this.state.intersectClippingPath(path);
+    this.expectedState.intersectClippingPath(path);
+    assertClippingPath();
+  }
+
+  /**
+   * Intersects the clipping paths of both graphics states with the given area and asserts that
+   * the clipping paths are the same.
+   */
+  protected void intersect(Area area) {
+    this.state.intersectClippingPath(area);
+    this.expectedState.intersectClippingPath(area);
+    assertClippingPath();
+  }
+
+  /**
+   * Asserts that the clipping path of the tested graphics state is the same as the clipping path
+   * of the graphics state of PdfBox.
+   */
+  protected void assertClippingPath() {
+    Area expected = this.expectedState.getCurrentClippingPath();
+    Area actual = this.state.getCurrentClippingPath();
+    assertEquals(expected.isEmpty(), actual.isEmpty());
+    assertTrue(expected.equals(actual));
+    if (!expected.isEmpty()) {
+      assertEquals(expected.getBounds2D(), actual.getBounds2D());
+    }
+  }
+
+  /**
+   * Creates a path that consists of lines between the given points.
+   *
+   * @param coordinates
+   *        The x and y coordinates of the points.
+   *
+   * @return The created path.
+   */
+  protected static GeneralPath createPath(float... coordinates) {
+    GeneralPath path = new GeneralPath();
+    if (coordinates.length > 0) {
+      path.moveTo(coordinates[0], coordinates[1]);
+    }
+    for (int i = 2; i < coordinates.length; i += 2) {
+      path.lineTo(coordinates[i], coordinates[i + 1]);
+    }
+    return path;
+  }
+
+  /**
+   * Creates a rectangle rotated by 30 degrees.
+   *
+   * @return The created path.
+   */
+  protected static GeneralPath createRotatedRectangle() {
+    GeneralPath path = createPath(100, 100, 300, 100, 300, 200, 100, 200);
+    path.closePath();
+    path.transform(AffineTransform.getRotateInstance(Math.toRadians(30), 200, 150));
+    return path;
+  }
+}
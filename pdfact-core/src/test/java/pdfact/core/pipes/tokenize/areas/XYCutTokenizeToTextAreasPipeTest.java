@@ -0,0 +1,316 @@
+package pdfact.core.pipes.tokenize.areas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pdfact.core.PdfFactory;
+import pdfact.core.model.Character;
+import pdfact.core.model.CharacterStatistic;
+import pdfact.core.model.Document;
+import pdfact.core.model.Page;
+import pdfact.core.model.Rectangle;
+import pdfact.core.pipes.parse.PlainParseDocumentPipe;
+import pdfact.core.util.PdfActUtils;
+import pdfact.core.util.exception.PdfActException;
+import pdfact.core.util.list.ElementList;
+import pdfact.core.util.xycut.SweepStatistic;
+
+/**
+ * A class that tests that the text areas computed from the sweep statistics are the same as the
+ * text areas computed from a full character statistic for both halves of each cut candidate.
+ */
+public class XYCutTokenizeToTextAreasPipeTest {
+  /**
+   * The fonts used in the PDF document.
+   */
+  protected static final PDType1Font[] FONTS = { PDType1Font.HELVETICA, PDType1Font.TIMES_ROMAN,
+      PDType1Font.COURIER, PDType1Font.TIMES_BOLD };
+
+  /**
+   * The words used in the PDF document.
+   */
+  protected static final String[] WORDS = { "the", "of", "information", "extraction", "PDF",
+      "a", "text", "area", "is", "cut", "into", "two", "halves", "at", "lane", "42", "7.5",
+      "Table", "x", "Wm" };
+
+  /**
+   * The parsed PDF document.
+   */
+  protected static Document pdf;
+
+  /**
+   * Creates the PDF document and parses it.
+   */
+  @BeforeClass
+  public static void setup() throws IOException, PdfActException {
+    pdf = new PlainParseDocumentPipe().execute(new Document(createPdf()));
+  }
+
+  /**
+   * Creates a PDF document with pages of one to four columns of text in various fonts and font
+   * sizes, with a header and a footer, followed by pages with tables.
+   */
+  protected static byte[] createPdf() throws IOException {
+    Random random = new Random(42);
+    return PdfFactory.createPdf(20, (stream, i) -> {
+      if (i < 8) {
+        createColumns(stream, random, i);
+      } else {
+        createTable(stream, random, 2 + (i - 8) % 3, 3 + (i - 8) % 5, i - 2);
+      }
+    });
+  }
+
+  /**
+   * Creates one to four columns of text, with a header and a footer.
+   *
+   * @param stream
+   *        The content stream of the page.
+   * @param random
+   *        The random generator.
+   * @param pageIndex
+   *        The 0-based index of the page.
+   */
+  protected static void createColumns(PDPageContentStream stream, Random random, int pageIndex)
+      throws IOException {
+    PdfFactory.showText(stream, PDType1Font.HELVETICA_BOLD, 14, 50, 740,
+        "Header of page " + pageIndex);
+    int numColumns = 1 + pageIndex % 4;
+    float columnWidth = 500f / numColumns;
+    for (int column = 0; column < numColumns; column++) {
+      float y = 700 - random.nextInt(40);
+      int numLines = 10 + random.nextInt(20);
+      for (int line = 0; line < numLines; line++) {
+        PDType1Font font = FONTS[random.nextInt(FONTS.length)];
+        int fontSize = 7 + random.nextInt(4);
+        StringBuilder text = new StringBuilder();
+        while (text.length() < columnWidth / (fontSize * 0.7f)) {
+          text.append(WORDS[random.nextInt(WORDS.length)]).append(" ");
+        }
+        float x = 50 + column * columnWidth + random.nextInt(3);
+        PdfFactory.showText(stream, font, fontSize, x, y, text.toString().trim());
+        // Add paragraph breaks from time to time.
+        y -= fontSize + 3 + (random.nextInt(5) == 0 ? 12 : 0);
+      }
+    }
+    PdfFactory.showText(stream, PDType1Font.TIMES_ITALIC, 8, 280, 40,
+        String.valueOf(pageIndex + 1));
+  }
+
+  /**
+   * Creates a table whose cells consist of pairs of characters with font sizes 8 and 12, so that
+   * the halves of many cut candidates have ties between the most common heights and widths.
+   *
+   * @param stream
+   *        The content stream of the page.
+   * @param random
+   *        The random generator.
+   * @param numRows
+   *        The number of rows.
+   * @param numColumns
+   *        The number of columns.
+   * @param rowDistance
+   *        The vertical distance between the baselines of two rows.
+   */
+  protected static void createTable(PDPageContentStream stream, Random random, int numRows,
+      int numColumns, float rowDistance) throws IOException {
+    PDType1Font font = FONTS[random.nextInt(FONTS.length)];
+    for (int row = 0; row < numRows; row++) {
+      float y = 700 - row * rowDistance;
+      for (int column = 0; column < numColumns; column++) {
+        float x = 50 + column * (500f / numColumns);
+        int numPairs = 1 + random.nextInt(2);
+        for (int i = 0; i < 2 * numPairs; i++) {
+          int fontSize = i % 2 == 0 ? 8 : 12;
+          PdfFactory.showText(stream, font, fontSize, x, y, String.valueOf(random.nextInt(10)));
+          x += fontSize * 0.6f;
+        }
+      }
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Tests that the text areas are the same on each page.
+   */
+  @Test
+  public void testTextAreas() {
+    XYCutTokenizeToTextAreasPipe sweepPipe = new XYCutTokenizeToTextAreasPipe();
+    XYCutTokenizeToTextAreasPipe statisticPipe = new CharacterStatisticScoringPipe();
+    Set<Integer> numsOfAreas = new HashSet<>();
+    for (Page page : pdf.getPages()) {
+      List<String> expected = toString(statisticPipe.cut(pdf, page, page.getCharacters()));
+      List<String> actual = toString(sweepPipe.cut(pdf, page, page.getCharacters()));
+      assertEquals(expected, actual);
+      numsOfAreas.add(actual.size());
+    }
+    // Ensure that the pages were in fact cut in different ways.
+    assertTrue(numsOfAreas.size() > 2);
+  }
+
+  /**
+   * Returns the extraction ranks of the characters of each of the given blocks.
+   */
+  protected static List<String> toString(List<ElementList<Character>> blocks) {
+    List<String> result = new ArrayList<>();
+    for (ElementList<Character> block : blocks) {
+      StringBuilder ranks = new StringBuilder();
+      for (Character character : block) {
+        ranks.append(character.getExtractionRank()).append(" ");
+      }
+      result.add(ranks.toString());
+    }
+    return result;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * A pipe that assesses each cut candidate by computing a full character statistic for both
+   * halves of the candidate, as the text areas were computed before the introduction of the
+   * sweep statistics.
+   */
+  protected static class CharacterStatisticScoringPipe extends XYCutTokenizeToTextAreasPipe {
+    @Override
+    public float assessVerticalCut(Document pdf, Page page, SweepStatistic stats, int index) {
+      // Compute the statistics for the characters in the left half.
+      ElementList<Character> left = getCharacters(stats, 0, index);
+      CharacterStatistic leftStats = this.characterStatistician.compute(left);
+      Rectangle leftRectangle = new Rectangle(left);
+
+      // Compute the statistics for the characters in the right half.
+      ElementList<Character> right = getCharacters(stats, index, stats.size());
+      CharacterStatistic rightStats = this.characterStatistician.compute(right);
+      Rectangle rightRectangle = new Rectangle(right);
+      assertSweepStatistic(stats, index, leftStats, rightStats);
+
+      // Compute the (fictive) lane between the left and right half.
+      float laneMinX = leftStats.getLargestMaxX();
+      float laneMaxX = rightStats.getSmallestMinX();
+      float laneWidth = laneMaxX - laneMinX;
+
+      CharacterStatistic pdfCharStats = pdf.getCharacterStatistic();
+      CharacterStatistic pageCharStats = page.getCharacterStatistic();
+      float pdfCharWidth = pdfCharStats.getMostCommonWidth();
+      float pageCharWidth = pageCharStats.getMostCommonWidth();
+
+      if (laneWidth < Math.max(pdfCharWidth, pageCharWidth)) {
+        return -1;
+      }
+
+      if (leftRectangle.getHeight() < 2 * leftStats.getMostCommonHeight()
+          || rightRectangle.getHeight() < 2 * rightStats.getMostCommonHeight()) {
+        return -1;
+      }
+
+      if (separatesConsecutiveCharacters(left, leftStats, right, rightStats)) {
+        return -1;
+      }
+
+      return laneWidth;
+    }
+
+    @Override
+    public float assessHorizontalCut(Document pdf, Page page, SweepStatistic stats, int index) {
+      // Compute the statistics for the characters in the upper half.
+      ElementList<Character> upper = getCharacters(stats, 0, index);
+      CharacterStatistic upperStats = this.characterStatistician.compute(upper);
+
+      // Compute the statistics for the characters in the lower half.
+      ElementList<Character> lower = getCharacters(stats, index, stats.size());
+      CharacterStatistic lowerStats = this.characterStatistician.compute(lower);
+      assertSweepStatistic(stats, index, upperStats, lowerStats);
+
+      // Compute the (fictive) lane between the lower and upper half.
+      float laneMinY = lowerStats.getLargestMaxY();
+      float laneMaxY = upperStats.getSmallestMinY();
+      float laneHeight = laneMaxY - laneMinY;
+
+      if (laneHeight < 0) {
+        return -1;
+      }
+
+      float pdfCharHeight = pdf.getCharacterStatistic().getMostCommonHeight();
+      float pageCharHeight = page.getCharacterStatistic().getMostCommonHeight();
+
+      if (laneHeight < Math.min(pdfCharHeight, pageCharHeight)) {
+        return -1;
+      }
+
+      return laneHeight;
+    }
+
+    /**
+     * Asserts that the sweep statistic returns the values of the given statistics of the halves.
+     */
+    protected static void assertSweepStatistic(SweepStatistic stats, int index,
+        CharacterStatistic headStats, CharacterStatistic tailStats) {
+      assertEquals(headStats.getMostCommonHeight(), stats.getHeadMostCommonHeight(index), 0);
+      assertEquals(headStats.getMostCommonWidth(), stats.getHeadMostCommonWidth(index), 0);
+      assertEquals(tailStats.getMostCommonHeight(), stats.getTailMostCommonHeight(index), 0);
+      assertEquals(tailStats.getMostCommonWidth(), stats.getTailMostCommonWidth(index), 0);
+    }
+
+    /**
+     * Returns the characters in [from, to), in sweep direction.
+     */
+    protected static ElementList<Character> getCharacters(SweepStatistic stats, int from,
+        int to) {
+      ElementList<Character> characters = new ElementList<>();
+      for (int i = from; i < to; i++) {
+        characters.add(stats.getCharacter(i));
+      }
+      return characters;
+    }
+
+    /**
+     * Checks if there is a character in the left half with an extraction rank i and a character
+     * in the right half with extraction rank i + 1, where both characters overlap vertically.
+     */
+    protected boolean separatesConsecutiveCharacters(ElementList<Character> left,
+        CharacterStatistic leftStats, ElementList<Character> right,
+        CharacterStatistic rightStats) {
+      float largestMaxX = leftStats.getLargestMaxX();
+      Set<Character> leftChars = new HashSet<>();
+      for (Character c : left) {
+        Rectangle rect = c.getPosition().getRectangle();
+        if (PdfActUtils.isEqual(rect.getMaxX(), largestMaxX, 3 * leftStats.getMostCommonWidth())) {
+          leftChars.add(c);
+        }
+      }
+
+      float smallestMinX = rightStats.getSmallestMinX();
+      Set<Character> rightChars = new HashSet<>();
+      for (Character c : right) {
+        Rectangle rect = c.getPosition().getRectangle();
+        if (PdfActUtils.isEqual(rect.getMinX(), smallestMinX,
+            3 * rightStats.getMostCommonWidth())) {
+          rightChars.add(c);
+        }
+      }
+
+      for (Character leftChar : leftChars) {
+        Rectangle leftCharBox = leftChar.getPosition().getRectangle();
+        for (Character rightChar : rightChars) {
+          if (rightChar.getExtractionRank() != leftChar.getExtractionRank() + 1) {
+            continue;
+          }
+          if (leftCharBox.overlapsVertically(rightChar.getPosition().getRectangle())) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package pdfact.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * A class that tests the {@link PageRange}.
+ */
+public class PageRangeTest {
+  /**
+   * Tests parsing a single page.
+   */
+  @Test
+  public void testSinglePage() {
+    PageRange range = PageRange.fromString("3");
+    assertEquals(3, range.getFirstPageNumber());
+    assertEquals(3, range.getLastPageNumber());
+    assertEquals("3", range.toString());
+    assertFalse(range.contains(2));
+    assertTrue(range.contains(3));
+    assertFalse(range.contains(4));
+  }
+
+  /**
+   * Tests parsing a closed range of pages.
+   */
+  @Test
+  public void testClosedRange() {
+    PageRange range = PageRange.fromString("2-5");
+    assertEquals(2, range.getFirstPageNumber());
+    assertEquals(5, range.getLastPageNumber());
+    assertEquals("2-5", range.toString());
+    assertFalse(range.contains(1));
+    assertTrue(range.contains(2));
+    assertTrue(range.contains(5));
+    assertFalse(range.contains(6));
+
+    // Whitespace around the page numbers is allowed.
+    assertEquals("2-5", PageRange.fromString(" 2 - 5 ").toString());
+    // A range of a single page.
+    assertEquals("4", PageRange.fromString("4-4").toString());
+  }
+
+  /**
+   * Tests parsing a range of all pages from a given page on.
+   */
+  @Test
+  public void testOpenEndedRange() {
+    PageRange range = PageRange.fromString("7-");
+    assertEquals(7, range.getFirstPageNumber());
+    assertEquals(Integer.MAX_VALUE, range.getLastPageNumber());
+    assertEquals("7-", range.toString());
+    assertFalse(range.contains(6));
+    assertTrue(range.contains(7));
+    assertTrue(range.contains(100000));
+  }
+
+  /**
+   * Tests parsing a range of the first pages.
+   */
+  @Test
+  public void testLeadingRange() {
+    PageRange range = PageRange.fromString("-3");
+    assertEquals(1, range.getFirstPageNumber());
+    assertEquals(3, range.getLastPageNumber());
+    assertEquals("1-3", range.toString());
+    assertTrue(range.contains(1));
+    assertTrue(range.contains(3));
+    assertFalse(range.contains(4));
+  }
+
+  /**
+   * Tests that invalid page ranges are rejected.
+   */
+  @Test
+  public void testInvalidRanges() {
+    for (String range : Arrays.asList("0", "3-1", "-", "1-2-3", "a", "", "0-2", "-0", "1-b")) {
+      try {
+        PageRange.fromString(range);
+        fail("Expected an IllegalArgumentException for '" + range + "'.");
+      } catch (IllegalArgumentException e) {
+        // Expected.
+      }
+    }
+  }
+
+  /**
+   * Tests that a page range with a negative page number is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativePageNumber() {
+    new PageRange(-1, 2);
+  }
+
+  /**
+   * Tests parsing multiple page ranges and checking page numbers against them.
+   */
+  @Test
+  public void testMultipleRanges() {
+    List<PageRange> ranges = PageRange.fromStrings("1", "4-5", "9-");
+    assertEquals(3, ranges.size());
+    assertTrue(PageRange.contains(ranges, 1));
+    assertFalse(PageRange.contains(ranges, 2));
+    assertFalse(PageRange.contains(ranges, 3));
+    assertTrue(PageRange.contains(ranges, 4));
+    assertTrue(PageRange.contains(ranges, 5));
+    assertFalse(PageRange.contains(ranges, 8));
+    assertTrue(PageRange.contains(ranges, 9));
+    assertTrue(PageRange.contains(ranges, 20));
+
+    // All pages are contained if no ranges are given.
+    assertTrue(PageRange.contains(null, 42));
+  }
+
+  /**
+   * Tests that parsing multiple page ranges fails if one of the ranges is invalid.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testMultipleRangesWithInvalidRange() {
+    PageRange.fromStrings("1", "3-1");
+  }
+}
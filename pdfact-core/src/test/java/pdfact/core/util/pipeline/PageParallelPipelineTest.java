@@ -0,0 +1,200 @@
+package pdfact.core.util.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.Test;
+import pdfact.core.model.Document;
+import pdfact.core.model.Page;
+import pdfact.core.util.exception.PdfActException;
+
+/**
+ * A class that tests the streaming mode of the {@link PageParallelPipeline}.
+ */
+public class PageParallelPipelineTest {
+  /**
+   * The number of pages to produce in this test.
+   */
+  protected static final int NUM_PAGES = 50;
+
+  /**
+   * Tests that each produced page is processed once and that the document-wide part of the pipe
+   * is executed after all pages were processed.
+   */
+  @Test(timeout = 10000)
+  public void testStreaming() throws PdfActException {
+    RecordingPipe recorder = new RecordingPipe(-1);
+    Document pdf = process(new PageProducer(-1, false), recorder);
+
+    assertEquals(NUM_PAGES, pdf.getPages().size());
+    List<Integer> pageNumbers = new ArrayList<>(recorder.pageNumbers);
+    Collections.sort(pageNumbers);
+    for (int i = 0; i < NUM_PAGES; i++) {
+      assertEquals(i + 1, (int) pageNumbers.get(i));
+    }
+    assertEquals(NUM_PAGES, recorder.numPagesOnExecuteOnDocument);
+  }
+
+  /**
+   * Tests that the exception of a failed producer is thrown, also if the producer was
+   * interrupted.
+   */
+  @Test(timeout = 10000)
+  public void testProducerFailure() {
+    PageProducer producer = new PageProducer(5, true);
+    try {
+      process(producer, new RecordingPipe(-1));
+      fail("Expected the exception of the producer.");
+    } catch (PdfActException e) {
+      assertSame(producer.failure, e);
+    }
+  }
+
+  /**
+   * Tests that the exception of a failed page pipe is thrown, while the producer is waiting for
+   * space in the queue.
+   */
+  @Test(timeout = 10000)
+  public void testPagePipeFailure() {
+    RecordingPipe recorder = new RecordingPipe(3);
+    try {
+      process(new PageProducer(-1, false), recorder);
+      fail("Expected the exception of the page pipe.");
+    } catch (PdfActException e) {
+      assertSame(recorder.failure, e);
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Streams the pages of the given producer through the given page pipe.
+   */
+  protected static Document process(PageStreamPipe producer, PagePipe pipe)
+      throws PdfActException {
+    PageParallelPipeline pipeline = new PageParallelPipeline(3, true);
+    pipeline.setQueueCapacity(2);
+    pipeline.addPipe(producer);
+    pipeline.addPipe(pipe);
+    return pipeline.process(new Document(new byte[0]));
+  }
+
+  // ==============================================================================================
+
+  /**
+   * A pipe that produces empty pages and fails after the given number of pages.
+   */
+  protected static class PageProducer implements PageStreamPipe {
+    /**
+     * The exception to throw.
+     */
+    protected final PdfActException failure = new PdfActException(20, "The producer failed.");
+
+    /**
+     * The number of pages after which to fail, or -1 if the producer should not fail.
+     */
+    protected final int numPagesToFailAfter;
+
+    /**
+     * The boolean flag indicating whether the producer should interrupt itself before failing.
+     */
+    protected final boolean isInterruptingOnFailure;
+
+    /**
+     * Creates a new producer.
+     */
+    protected PageProducer(int numPagesToFailAfter, boolean isInterruptingOnFailure) {
+      this.numPagesToFailAfter = numPagesToFailAfter;
+      this.isInterruptingOnFailure = isInterruptingOnFailure;
+    }
+
+    @Override
+    public Document execute(Document pdf) throws PdfActException {
+      return execute(pdf, page -> { });
+    }
+
+    @Override
+    public Document execute(Document pdf, Consumer<Page> pageConsumer) throws PdfActException {
+      for (int i = 1; i <= NUM_PAGES; i++) {
+        Page page = new Page(i);
+        pdf.addPage(page);
+        pageConsumer.accept(page);
+        if (i == this.numPagesToFailAfter) {
+          if (this.isInterruptingOnFailure) {
+            Thread.currentThread().interrupt();
+          }
+          throw this.failure;
+        }
+      }
+      return pdf;
+    }
+  }
+
+  /**
+   * A page pipe that records the numbers of the processed pages and fails on the given page.
+   */
+  protected static class RecordingPipe implements PagePipe {
+    /**
+     * The exception to throw.
+     */
+    protected final PdfActException failure = new PdfActException(30, "The page pipe failed.");
+
+    /**
+     * The number of the page on which to fail, or -1 if the pipe should not fail.
+     */
+    protected final int failingPageNumber;
+
+    /**
+     * The numbers of the processed pages.
+     */
+    protected final List<Integer> pageNumbers = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * The number of processed pages on executing the document-wide part.
+     */
+    protected int numPagesOnExecuteOnDocument = -1;
+
+    /**
+     * Creates a new page pipe.
+     */
+    protected RecordingPipe(int failingPageNumber) {
+      this.failingPageNumber = failingPageNumber;
+    }
+
+    @Override
+    public Document execute(Document pdf) throws PdfActException {
+      for (Page page : pdf.getPages()) {
+        executeOnPage(pdf, page);
+      }
+      executeOnDocument(pdf);
+      return pdf;
+    }
+
+    @Override
+    public void executeOnPage(Document pdf, Page page) throws PdfActException {
+      if (page.getPageNumber() == this.failingPageNumber) {
+        throw this.failure;
+      }
+      this.pageNumbers.add(page.getPageNumber());
+    }
+
+    @Override
+    public void executeOnDocument(Document pdf) {
+      this.numPagesOnExecuteOnDocument = this.pageNumbers.size();
+    }
+
+    @Override
+    public boolean isBarrier() {
+      return false;
+    }
+
+    @Override
+    public boolean isDocumentDependent() {
+      return false;
+    }
+  }
+}
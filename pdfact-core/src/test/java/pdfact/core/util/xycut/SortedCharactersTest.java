@@ -0,0 +1,307 @@
+package pdfact.core.util.xycut;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import pdfact.core.model.Character;
+import pdfact.core.model.Document;
+import pdfact.core.model.Page;
+import pdfact.core.model.Position;
+import pdfact.core.util.comparator.MaxYComparator;
+import pdfact.core.util.comparator.MinXComparator;
+import pdfact.core.util.list.ElementList;
+
+/**
+ * A class that tests that the {@link SortedCharacters} order characters with equal sort keys in
+ * the same way as sorting the list of characters in place, and that {@link XYCut} results in the
+ * same blocks as cutting the list of characters by sorting its sublists in place.
+ */
+public class SortedCharactersTest {
+  /**
+   * The page of the characters.
+   */
+  protected static final Page PAGE = new Page(1);
+
+  /**
+   * The number of random character lists to examine in each test.
+   */
+  protected static final int NUM_RUNS = 50;
+
+  /**
+   * Tests that sorting by minX results in the same order as sorting the list in place.
+   */
+  @Test
+  public void testSortByMinX() {
+    Random random = new Random(42);
+    for (int run = 0; run < NUM_RUNS; run++) {
+      ElementList<Character> characters = createCharacters(random, 1 + random.nextInt(200));
+      ElementList<Character> expected = copy(characters);
+      Collections.sort(expected, new MinXComparator());
+
+      SortedCharacters chars = new SortedCharacters(characters);
+      assertEquals(toString(expected), toString(chars.sortByMinX(0, chars.size())));
+    }
+  }
+
+  /**
+   * Tests that sorting by maxY results in the same order as sorting the list in place.
+   */
+  @Test
+  public void testSortByMaxY() {
+    Random random = new Random(43);
+    for (int run = 0; run < NUM_RUNS; run++) {
+      ElementList<Character> characters = createCharacters(random, 1 + random.nextInt(200));
+      ElementList<Character> expected = copy(characters);
+      Collections.sort(expected, Collections.reverseOrder(new MaxYComparator()));
+
+      SortedCharacters chars = new SortedCharacters(characters);
+      assertEquals(toString(expected), toString(chars.sortByMaxY(0, chars.size())));
+    }
+  }
+
+  /**
+   * Tests that sorting the blocks resulting from a split results in the same orders as sorting
+   * the related sublists in place, and that the list is reordered accordingly.
+   */
+  @Test
+  public void testSplit() {
+    Random random = new Random(44);
+    for (int run = 0; run < NUM_RUNS; run++) {
+      ElementList<Character> characters = createCharacters(random, 2 + random.nextInt(200));
+      ElementList<Character> expected = copy(characters);
+      Collections.sort(expected, new MinXComparator());
+      int index = 1 + random.nextInt(expected.size() - 1);
+      List<ElementList<Character>> halves = expected.cut(index);
+
+      SortedCharacters chars = new SortedCharacters(characters);
+      chars.sortByMinX(0, chars.size());
+      chars.split(0, index, chars.size());
+
+      Collections.sort(halves.get(0), Collections.reverseOrder(new MaxYComparator()));
+      assertEquals(toString(halves.get(0)), toString(chars.sortByMaxY(0, index)));
+      Collections.sort(halves.get(1), Collections.reverseOrder(new MaxYComparator()));
+      assertEquals(toString(halves.get(1)), toString(chars.sortByMaxY(index, chars.size())));
+      Collections.sort(halves.get(1), new MinXComparator());
+      assertEquals(toString(halves.get(1)), toString(chars.sortByMinX(index, chars.size())));
+
+      chars.reorder();
+      assertEquals(toString(expected), toString(characters));
+      assertEquals(toString(halves.get(0)), toString(chars.getBlock(0, index)));
+    }
+  }
+
+  /**
+   * Tests that cutting the characters results in the same blocks and in the same order of the
+   * list of characters as cutting the list by sorting its sublists in place, sequentially and in
+   * parallel.
+   */
+  @Test
+  public void testBlocks() {
+    Random random = new Random(45);
+    for (int run = 0; run < NUM_RUNS; run++) {
+      ElementList<Character> characters = createCharacters(random, 1 + random.nextInt(300));
+      ElementList<Character> expected = copy(characters);
+      List<String> expectedBlocks = toString(new ListXYCut().cut(expected));
+
+      for (int threshold : Arrays.asList(Integer.MAX_VALUE, 1)) {
+        ElementList<Character> actual = copy(characters);
+        XYCut xyCut = new LaneXYCut();
+        xyCut.setParallelismThreshold(threshold);
+        assertEquals(expectedBlocks, toString(xyCut.cut(null, PAGE, actual)));
+        assertEquals(toString(expected), toString(actual));
+      }
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Creates the given number of characters with random bounding boxes. The coordinates are
+   * chosen from a coarse grid, so that many characters share their minX and maxY values.
+   */
+  protected static ElementList<Character> createCharacters(Random random, int num) {
+    ElementList<Character> characters = new ElementList<>();
+    for (int i = 0; i < num; i++) {
+      float minX = 4 * random.nextInt(25);
+      float minY = 6 * random.nextInt(20);
+      float maxX = minX + 1 + random.nextInt(3);
+      float maxY = minY + 2 + 2 * random.nextInt(2);
+      Character character = new Character();
+      character.setText(String.valueOf(i));
+      character.setPosition(new Position(PAGE, minX, minY, maxX, maxY));
+      characters.add(character);
+    }
+    return characters;
+  }
+
+  /**
+   * Returns a copy of the given list of characters.
+   */
+  protected static ElementList<Character> copy(ElementList<Character> characters) {
+    ElementList<Character> copy = new ElementList<>(characters.size());
+    copy.addAll(characters);
+    return copy;
+  }
+
+  /**
+   * Returns the texts of the given characters, separated by commas.
+   */
+  protected static String toString(Character[] characters) {
+    return toString(Arrays.asList(characters));
+  }
+
+  /**
+   * Returns the texts of the given characters, separated by commas.
+   */
+  protected static String toString(Iterable<Character> characters) {
+    StringBuilder sb = new StringBuilder();
+    for (Character character : characters) {
+      sb.append(character.getText()).append(",");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns the texts of the characters of each of the given blocks.
+   */
+  protected static List<String> toString(List<ElementList<Character>> blocks) {
+    List<String> result = new ArrayList<>();
+    for (ElementList<Character> block : blocks) {
+      result.add(toString(block));
+    }
+    return result;
+  }
+
+  // ==============================================================================================
+
+  /**
+   * An XYCut that accepts each cut with a lane of at least 1 point between the halves and
+   * prefers the widest lane.
+   */
+  protected static class LaneXYCut extends XYCut {
+    @Override
+    public float assessVerticalCut(Document pdf, Page page, SweepStatistic stats, int index) {
+      float laneWidth = stats.getTailSmallestMinX(index) - stats.getHeadLargestMaxX(index);
+      return laneWidth < 1 ? -1 : laneWidth;
+    }
+
+    @Override
+    public float assessHorizontalCut(Document pdf, Page page, SweepStatistic stats, int index) {
+      float laneHeight = stats.getHeadSmallestMinY(index) - stats.getTailLargestMaxY(index);
+      return laneHeight < 1 ? -1 : laneHeight;
+    }
+  }
+
+  /**
+   * The reference: the cut of {@link LaneXYCut}, which sorts the list of characters and its
+   * sublists in place on each sweep and cuts them into views.
+   */
+  protected static class ListXYCut {
+    /**
+     * The assessment of the cuts.
+     */
+    protected final LaneXYCut lane = new LaneXYCut();
+
+    /**
+     * Cuts the given characters into blocks.
+     */
+    protected List<ElementList<Character>> cut(ElementList<Character> characters) {
+      List<ElementList<Character>> target = new ArrayList<>();
+      cut(characters, target);
+      return target;
+    }
+
+    /**
+     * Cuts the given characters into blocks and adds them to the given result list.
+     */
+    protected void cut(ElementList<Character> origin, List<ElementList<Character>> target) {
+      List<ElementList<Character>> xBlocks = cut(origin, new MinXComparator(), true);
+      for (ElementList<Character> xBlock : xBlocks) {
+        List<ElementList<Character>> yBlocks = cut(xBlock,
+            Collections.reverseOrder(new MaxYComparator()), false);
+        if (xBlocks.size() == 1 && yBlocks.size() == 1) {
+          if (!yBlocks.get(0).isEmpty()) {
+            target.add(yBlocks.get(0));
+          }
+        } else {
+          for (ElementList<Character> yBlock : yBlocks) {
+            cut(yBlock, target);
+          }
+        }
+      }
+    }
+
+    /**
+     * Sorts the given characters in place and cuts them at the position of the best cut.
+     */
+    protected List<ElementList<Character>> cut(ElementList<Character> chars,
+        Comparator<? super Character> comparator, boolean isVertical) {
+      if (chars.isEmpty()) {
+        return Arrays.asList(chars);
+      }
+      Collections.sort(chars, comparator);
+      Character[] sorted = new Character[chars.size()];
+      for (int i = 0; i < sorted.length; i++) {
+        sorted[i] = chars.get(i);
+      }
+      SweepStatistic stats = new SweepStatistic(sorted);
+
+      float bestCutScore = 0;
+      int bestCutIndex = -1;
+      float currentPos = isVertical ? getMaxX(sorted[0]) : getMinY(sorted[0]);
+      for (int index = 1; index < sorted.length; index++) {
+        Character character = sorted[index];
+        boolean isLane = isVertical ? getMinX(character) > currentPos
+            : getMaxY(character) < currentPos;
+        if (isLane) {
+          while (index < sorted.length) {
+            float cutScore = isVertical ? this.lane.assessVerticalCut(null, PAGE, stats, index)
+                : this.lane.assessHorizontalCut(null, PAGE, stats, index);
+            if (cutScore < 0) {
+              break;
+            } else if (cutScore > bestCutScore) {
+              bestCutScore = cutScore;
+              bestCutIndex = index;
+            }
+            index++;
+          }
+        }
+        currentPos = isVertical ? getMaxX(character) : getMinY(character);
+      }
+      return bestCutIndex > -1 ? chars.cut(bestCutIndex) : Arrays.asList(chars);
+    }
+
+    /**
+     * Returns the minX value of the given character.
+     */
+    protected static float getMinX(Character character) {
+      return character.getPosition().getRectangle().getMinX();
+    }
+
+    /**
+     * Returns the maxX value of the given character.
+     */
+    protected static float getMaxX(Character character) {
+      return character.getPosition().getRectangle().getMaxX();
+    }
+
+    /**
+     * Returns the minY value of the given character.
+     */
+    protected static float getMinY(Character character) {
+      return character.getPosition().getRectangle().getMinY();
+    }
+
+    /**
+     * Returns the maxY value of the given character.
+     */
+    protected static float getMaxY(Character character) {
+      return character.getPosition().getRectangle().getMaxY();
+    }
+  }
+}
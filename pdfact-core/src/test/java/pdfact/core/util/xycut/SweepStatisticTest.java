@@ -0,0 +1,119 @@
+package pdfact.core.util.xycut;
+
+import static org.junit.Assert.assertEquals;
+import java.util.Random;
+import org.junit.Test;
+import pdfact.core.model.Character;
+import pdfact.core.model.CharacterStatistic;
+import pdfact.core.model.Font;
+import pdfact.core.model.FontFace;
+import pdfact.core.model.Page;
+import pdfact.core.model.Position;
+import pdfact.core.util.list.ElementList;
+import pdfact.core.util.statistician.CharacterStatistician;
+
+/**
+ * A class that tests that the {@link SweepStatistic} returns the same values as the
+ * {@link CharacterStatistician} computes for the halves of each cut.
+ */
+public class SweepStatisticTest {
+  /**
+   * The statistician to compute the expected values.
+   */
+  protected CharacterStatistician statistician = new CharacterStatistician();
+
+  /**
+   * Tests lists of characters with few distinct heights and widths, so that there are many ties
+   * between the most common heights and widths.
+   */
+  @Test
+  public void testFewDistinctValues() {
+    Random random = new Random(42);
+    for (int run = 0; run < 100; run++) {
+      assertSweepStatistic(createCharacters(random, 1 + random.nextInt(60), 4, 6));
+    }
+  }
+
+  /**
+   * Tests lists of characters with many distinct heights and widths, so that the hash tables of
+   * the counters are rehashed several times.
+   */
+  @Test
+  public void testManyDistinctValues() {
+    Random random = new Random(4711);
+    for (int run = 0; run < 30; run++) {
+      assertSweepStatistic(createCharacters(random, 100 + random.nextInt(200), 40, 150));
+    }
+  }
+
+  // ==============================================================================================
+
+  /**
+   * Creates random characters.
+   *
+   * @param random
+   *        The random generator.
+   * @param num
+   *        The number of characters to create.
+   * @param numHeights
+   *        The number of distinct heights.
+   * @param numWidths
+   *        The number of distinct widths.
+   *
+   * @return The created characters.
+   */
+  protected static Character[] createCharacters(Random random, int num, int numHeights,
+      int numWidths) {
+    Page page = new Page(1);
+    Font font = new Font();
+    Character[] characters = new Character[num];
+    for (int i = 0; i < num; i++) {
+      float minX = random.nextInt(500) + random.nextInt(100) / 10f;
+      float minY = random.nextInt(700) + random.nextInt(100) / 10f;
+      float width = 2 + random.nextInt(numWidths) * 0.37f;
+      float height = 5 + random.nextInt(numHeights) * 1.3f;
+
+      Character character = new Character();
+      character.setText("x");
+      character.setPosition(new Position(page, minX, minY, minX + width, minY + height));
+      character.setFontFace(new FontFace(font, height));
+      character.setExtractionRank(i);
+      characters[i] = character;
+    }
+    return characters;
+  }
+
+  /**
+   * Asserts that the sweep statistic of the given characters returns the values computed by the
+   * CharacterStatistician for the halves of each cut.
+   *
+   * @param characters
+   *        The characters.
+   */
+  protected void assertSweepStatistic(Character[] characters) {
+    SweepStatistic stats = new SweepStatistic(characters);
+    for (int index = 1; index < characters.length; index++) {
+      ElementList<Character> head = new ElementList<>();
+      ElementList<Character> tail = new ElementList<>();
+      for (int i = 0; i < characters.length; i++) {
+        (i < index ? head : tail).add(characters[i]);
+      }
+      CharacterStatistic headStats = this.statistician.compute(head);
+      CharacterStatistic tailStats = this.statistician.compute(tail);
+
+      assertEquals(headStats.getSmallestMinX(), stats.getHeadSmallestMinX(index), 0);
+      assertEquals(headStats.getSmallestMinY(), stats.getHeadSmallestMinY(index), 0);
+      assertEquals(headStats.getLargestMaxX(), stats.getHeadLargestMaxX(index), 0);
+      assertEquals(headStats.getLargestMaxY(), stats.getHeadLargestMaxY(index), 0);
+      assertEquals(headStats.getMostCommonHeight(), stats.getHeadMostCommonHeight(index), 0);
+      assertEquals(headStats.getMostCommonWidth(), stats.getHeadMostCommonWidth(index), 0);
+
+      assertEquals(tailStats.getSmallestMinX(), stats.getTailSmallestMinX(index), 0);
+      assertEquals(tailStats.getSmallestMinY(), stats.getTailSmallestMinY(index), 0);
+      assertEquals(tailStats.getLargestMaxX(), stats.getTailLargestMaxX(index), 0);
+      assertEquals(tailStats.getLargestMaxY(), stats.getTailLargestMaxY(index), 0);
+      assertEquals(tailStats.getMostCommonHeight(), stats.getTailMostCommonHeight(index), 0);
+      assertEquals(tailStats.getMostCommonWidth(), stats.getTailMostCommonWidth(index), 0);
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package pdfact.core.util.xycut;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pdfact.core.model.Character;
+import pdfact.core.model.Color;
+import pdfact.core.model.Document;
+import pdfact.core.model.Font;
+import pdfact.core.model.FontFace;
+import pdfact.core.model.Page;
+import pdfact.core.model.Position;
+import pdfact.core.pipes.tokenize.areas.XYCutTokenizeToTextAreasPipe;
+import pdfact.core.util.list.ElementList;
+import pdfact.core.util.statistician.CharacterStatistician;
+
+/**
+ * A JMH benchmark that measures the time needed by XYCut to segment a synthetic two-column page
+ * into text areas, in dependence of the number of characters on the page.
+ *
+ * The benchmark is not run by the test phase; run it via {@link #main(String[])} with the test
+ * classpath of this module.
+ *
+ * @author Claudius Korzen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XYCutBenchmark {
+  /**
+   * The number of characters on the synthetic page.
+   */
+  @Param({ "500", "1000", "2000", "4000", "8000" })
+  public int numCharacters;
+
+  /**
+   * The minimum block size for cutting sub-blocks in parallel ({@link Integer#MAX_VALUE} means
+   * sequential cutting).
+   */
+  @Param({ "2048", "2147483647" })
+  public int parallelismThreshold;
+
+  /**
+   * The synthetic PDF document.
+   */
+  protected Document pdf;
+
+  /**
+   * The synthetic page.
+   */
+  protected Page page;
+
+  /**
+   * The characters of the synthetic page, in extraction order.
+   */
+  protected ElementList<Character> characters;
+
+  /**
+   * The XYCut implementation to benchmark.
+   */
+  protected XYCutTokenizeToTextAreasPipe xyCut;
+
+  /**
+   * Creates a two-column page with the given number of characters. The characters are arranged
+   * in lines of 40 characters each, and the lines are distributed over two columns.
+   */
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    float charWidth = 5;
+    float charHeight = 8;
+    float lineHeight = 12;
+    int charsPerLine = 40;
+    int numLines = (numCharacters + charsPerLine - 1) / charsPerLine;
+    int linesPerColumn = (numLines + 1) / 2;
+
+    this.pdf = new Document("synthetic.pdf");
+    this.page = new Page(1);
+    this.page.setWidth(2 * charsPerLine * charWidth + 100);
+    this.page.setHeight(linesPerColumn * lineHeight + 100);
+
+    FontFace fontFace = new FontFace(new Font(), 10);
+    Color color = new Color(0, 0, 0);
+
+    this.characters = new ElementList<>(numCharacters);
+    for (int i = 0; i < numCharacters; i++) {
+      int line = i / charsPerLine;
+      int column = line / linesPerColumn;
+      float minX = 50 + column * (charsPerLine * charWidth + 20) + (i % charsPerLine) * charWidth;
+      float minY = this.page.getHeight() - 50 - (line % linesPerColumn + 1) * lineHeight;
+      // Vary the height of some characters a bit, like ascenders and descenders.
+      float height = charHeight + (random.nextInt(4) == 0 ? 2 : 0);
+
+      Character character = new Character();
+      character.setText("x");
+      character.setExtractionRank(i);
+      character.setFontFace(fontFace);
+      character.setColor(color);
+      character.setPosition(new Position(this.page, minX, minY, minX + charWidth, minY + height));
+      this.characters.add(character);
+    }
+
+    CharacterStatistician statistician = new CharacterStatistician();
+    this.page.setCharacters(this.characters);
+    this.page.setCharacterStatistic(statistician.compute(this.characters));
+    this.pdf.addPage(this.page);
+    this.pdf.setCharacterStatistic(this.page.getCharacterStatistic());
+
+    this.xyCut = new XYCutTokenizeToTextAreasPipe();
+    this.xyCut.setParallelismThreshold(parallelismThreshold);
+  }
+
+  /**
+   * Segments the synthetic page into text areas.
+   *
+   * @return The number of computed text areas.
+   */
+  @Benchmark
+  public int cut() {
+    // XYCut sorts the given list in place, so pass a fresh copy in extraction order.
+    ElementList<Character> chars = new ElementList<>(this.characters.size());
+    chars.addAll(this.characters);
+    return this.xyCut.cut(this.pdf, this.page, chars).size();
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args
+   *        The command line arguments.
+   *
+   * @throws RunnerException
+   *         If the benchmark could not be run.
+   */
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(XYCutBenchmark.class.getSimpleName()).build()).run();
+  }
+}